@@ -10,6 +10,7 @@ import org.mockito.stubbing.Answer;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.OkHttpStack;
+import org.wordpress.android.fluxc.network.ResponseValidatorCache;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder;
 import org.wordpress.android.fluxc.network.rest.wpapi.BaseWPAPIRestClient;
@@ -53,7 +54,7 @@ public class MockedNetworkModule {
     @Singleton
     @Provides
     public RequestQueue provideRequestQueue(OkHttpClient.Builder okHttpClientBuilder, Context appContext) {
-        return Volley.newRequestQueue(appContext, new OkHttpStack(okHttpClientBuilder));
+        return Volley.newRequestQueue(appContext, new OkHttpStack(okHttpClientBuilder.build()));
     }
 
     @Singleton
@@ -115,7 +116,8 @@ public class MockedNetworkModule {
     public SiteRestClient provideSiteRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
                                                 AppSecrets appSecrets,
                                                 AccessToken token, UserAgent userAgent) {
-        return new SiteRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent);
+        return new SiteRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent,
+                new ResponseValidatorCache(false));
     }
 
     @Singleton
@@ -161,7 +163,8 @@ public class MockedNetworkModule {
     @Provides
     public AccountRestClient provideAccountRestClient(Context appContext, Dispatcher dispatcher, RequestQueue
             requestQueue, AppSecrets appSecrets, AccessToken token, UserAgent userAgent) {
-        return new AccountRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent);
+        return new AccountRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent,
+                new ResponseValidatorCache(false));
     }
 
     @Singleton
@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.example;
 import com.facebook.stetho.Stetho;
 
 import org.wordpress.android.fluxc.module.AppContextModule;
+import org.wordpress.android.fluxc.module.ReleaseNetworkModule;
 
 public class ExampleDebugApp extends ExampleApp {
     @Override
@@ -15,6 +16,7 @@ public class ExampleDebugApp extends ExampleApp {
     protected void initDaggerComponent() {
         mComponent = DaggerAppComponentDebug.builder()
                 .appContextModule(new AppContextModule(getApplicationContext()))
+                .releaseNetworkModule(new ReleaseNetworkModule(true, true))
                 .build();
     }
 }
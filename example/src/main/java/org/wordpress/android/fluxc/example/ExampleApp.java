@@ -5,6 +5,7 @@ import android.app.Application;
 import com.yarolegovich.wellsql.WellSql;
 
 import org.wordpress.android.fluxc.module.AppContextModule;
+import org.wordpress.android.fluxc.module.ReleaseNetworkModule;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 
 public class ExampleApp extends Application {
@@ -15,7 +16,7 @@ public class ExampleApp extends Application {
         super.onCreate();
         initDaggerComponent();
         component().inject(this);
-        WellSql.init(new WellSqlConfig(getApplicationContext()));
+        WellSql.init(new WellSqlConfig(getApplicationContext()).setWriteAheadLoggingEnabled(true));
     }
 
     public AppComponent component() {
@@ -25,6 +26,7 @@ public class ExampleApp extends Application {
     protected void initDaggerComponent() {
         mComponent = DaggerAppComponent.builder()
                 .appContextModule(new AppContextModule(getApplicationContext()))
+                .releaseNetworkModule(new ReleaseNetworkModule(true, true))
                 .build();
     }
 }
@@ -0,0 +1,167 @@
+package org.wordpress.android.fluxc;
+
+import org.greenrobot.eventbus.Subscribe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.action.CommentAction;
+import org.wordpress.android.fluxc.action.PostAction;
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.store.CommentStore.OnCommentChanged;
+import org.wordpress.android.fluxc.store.MediaStore.OnMediaUploaded;
+import org.wordpress.android.fluxc.store.PostStore.OnPostChanged;
+import org.wordpress.android.fluxc.store.PostStore.PostError;
+import org.wordpress.android.fluxc.store.PostStore.PostErrorType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ChangeCoalescingTest {
+    private Dispatcher mDispatcher;
+    private RecordingSubscriber mSubscriber;
+
+    public static class RecordingSubscriber {
+        final List<Object> mEvents = Collections.synchronizedList(new ArrayList<Object>());
+        CountDownLatch mCountDownLatch = new CountDownLatch(1);
+
+        @Subscribe
+        public void onPostChanged(OnPostChanged event) {
+            record(event);
+        }
+
+        @Subscribe
+        public void onCommentChanged(OnCommentChanged event) {
+            record(event);
+        }
+
+        @Subscribe
+        public void onMediaUploaded(OnMediaUploaded event) {
+            record(event);
+        }
+
+        private void record(Object event) {
+            mEvents.add(event);
+            mCountDownLatch.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        mDispatcher = new Dispatcher();
+        mSubscriber = new RecordingSubscriber();
+        mDispatcher.register(mSubscriber);
+    }
+
+    @After
+    public void tearDown() {
+        mDispatcher.setChangeCoalescingWindow(0);
+    }
+
+    @Test
+    public void testEventsAreMergedWithinWindow() throws InterruptedException {
+        mDispatcher.setChangeCoalescingWindow(100);
+
+        for (int i = 0; i < 5; i++) {
+            OnCommentChanged event = new OnCommentChanged(2);
+            event.causeOfChange = CommentAction.FETCH_COMMENTS;
+            event.changedCommentsLocalIds.add(i);
+            mDispatcher.emitChange(event);
+        }
+        assertTrue(mSubscriber.mCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, mSubscriber.mEvents.size());
+        OnCommentChanged merged = (OnCommentChanged) mSubscriber.mEvents.get(0);
+        assertEquals(10, merged.rowsAffected);
+        assertEquals(5, merged.changedCommentsLocalIds.size());
+        assertEquals(4, mDispatcher.getCoalescedChangeCount());
+        assertEquals(4, mDispatcher.getCoalescedChangeCount(OnCommentChanged.class));
+    }
+
+    @Test
+    public void testUncoalescableEventFlushesPendingEventsFirst() {
+        mDispatcher.setChangeCoalescingWindow(TestUtils.DEFAULT_TIMEOUT_MS);
+        MediaModel media = new MediaModel();
+        media.setId(1);
+
+        for (int i = 0; i < 10; i++) {
+            OnPostChanged event = new OnPostChanged(1);
+            event.causeOfChange = PostAction.FETCH_POSTS;
+            mDispatcher.emitChange(event);
+        }
+        for (int i = 1; i <= 5; i++) {
+            mDispatcher.emitChange(new OnMediaUploaded(media, i / 10f, false, false));
+        }
+        mDispatcher.emitChange(new OnMediaUploaded(media, 1, true, false));
+
+        // The completed upload isn't held back, and the pending events are delivered before it
+        assertEquals(3, mSubscriber.mEvents.size());
+        assertEquals(10, ((OnPostChanged) mSubscriber.mEvents.get(0)).rowsAffected);
+        OnMediaUploaded progress = (OnMediaUploaded) mSubscriber.mEvents.get(1);
+        assertEquals(0.5f, progress.progress, 0.001f);
+        assertTrue(((OnMediaUploaded) mSubscriber.mEvents.get(2)).completed);
+        assertEquals(13, mDispatcher.getCoalescedChangeCount());
+    }
+
+    @Test
+    public void testErrorEventsAreNotMerged() {
+        mDispatcher.setChangeCoalescingWindow(TestUtils.DEFAULT_TIMEOUT_MS);
+
+        OnPostChanged event = new OnPostChanged(1);
+        event.causeOfChange = PostAction.FETCH_POSTS;
+        mDispatcher.emitChange(event);
+        OnPostChanged errorEvent = new OnPostChanged(0);
+        errorEvent.causeOfChange = PostAction.FETCH_POSTS;
+        errorEvent.error = new PostError(PostErrorType.GENERIC_ERROR);
+        mDispatcher.emitChange(errorEvent);
+
+        assertEquals(2, mSubscriber.mEvents.size());
+        assertEquals(event, mSubscriber.mEvents.get(0));
+        assertEquals(errorEvent, mSubscriber.mEvents.get(1));
+        assertEquals(0, mDispatcher.getCoalescedChangeCount());
+    }
+
+    @Test
+    public void testEventEmittedDuringFlushIsDeliveredAfterPendingEvents() throws InterruptedException {
+        mDispatcher.setChangeCoalescingWindow(1);
+
+        for (int i = 0; i < 200; i++) {
+            OnPostChanged event = new OnPostChanged(1);
+            event.causeOfChange = PostAction.FETCH_POSTS;
+            mDispatcher.emitChange(event);
+            // Let the flush thread pick up the pending event while the error event is emitted
+            Thread.sleep(1);
+            OnPostChanged errorEvent = new OnPostChanged(0);
+            errorEvent.causeOfChange = PostAction.FETCH_POSTS;
+            errorEvent.error = new PostError(PostErrorType.GENERIC_ERROR);
+            mDispatcher.emitChange(errorEvent);
+        }
+
+        assertEquals(400, mSubscriber.mEvents.size());
+        for (int i = 0; i < 400; i += 2) {
+            assertFalse(((OnPostChanged) mSubscriber.mEvents.get(i)).isError());
+            assertTrue(((OnPostChanged) mSubscriber.mEvents.get(i + 1)).isError());
+        }
+    }
+
+    @Test
+    public void testEventsAreDeliveredAsIsWithoutWindow() {
+        for (int i = 0; i < 3; i++) {
+            OnPostChanged event = new OnPostChanged(1);
+            event.causeOfChange = PostAction.FETCH_POSTS;
+            mDispatcher.emitChange(event);
+        }
+
+        assertEquals(3, mSubscriber.mEvents.size());
+        assertEquals(0, mDispatcher.getCoalescedChangeCount());
+    }
+}
@@ -0,0 +1,187 @@
+package org.wordpress.android.fluxc;
+
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.Dispatcher.ActionPriority;
+import org.wordpress.android.fluxc.Dispatcher.DeliveryMode;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.generated.PostActionBuilder;
+import org.wordpress.android.fluxc.generated.SiteActionBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class DispatcherExecutorTest {
+    public static class RecordingSubscriber {
+        private final List<String> mExecutionOrder;
+        private final CountDownLatch mDoneLatch;
+
+        RecordingSubscriber(List<String> executionOrder, CountDownLatch doneLatch) {
+            mExecutionOrder = executionOrder;
+            mDoneLatch = doneLatch;
+        }
+
+        @SuppressWarnings("unused")
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        public void onAction(Action action) {
+            mExecutionOrder.add(action.getType().toString());
+            mDoneLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testUserInitiatedTasksRunBeforeQueuedBackgroundTasks() throws InterruptedException {
+        DispatcherExecutor executor = new DispatcherExecutor(1, 10);
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(4);
+        final List<String> executionOrder = Collections.synchronizedList(new ArrayList<String>());
+
+        // Keep the only thread busy while the other tasks are queued
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                awaitQuietly(blockerLatch);
+            }
+        });
+
+        executor.execute(newRecordingTask("background-1", executionOrder, doneLatch), ActionPriority.BACKGROUND);
+        executor.execute(newRecordingTask("background-2", executionOrder, doneLatch), ActionPriority.BACKGROUND);
+        executor.execute(newRecordingTask("user-1", executionOrder, doneLatch), ActionPriority.USER_INITIATED);
+        executor.execute(newRecordingTask("user-2", executionOrder, doneLatch), ActionPriority.USER_INITIATED);
+        assertEquals(4, executor.getQueuedTaskCount());
+
+        blockerLatch.countDown();
+        assertTrue(doneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals(4, executionOrder.size());
+        assertEquals("user-1", executionOrder.get(0));
+        assertEquals("user-2", executionOrder.get(1));
+        assertEquals("background-1", executionOrder.get(2));
+        assertEquals("background-2", executionOrder.get(3));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBackgroundProducerBlocksWhenQueueIsFull() throws InterruptedException {
+        final DispatcherExecutor executor = new DispatcherExecutor(1, 1);
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+        final CountDownLatch producerDoneLatch = new CountDownLatch(1);
+        final AtomicBoolean producerDone = new AtomicBoolean();
+        final Runnable noOp = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                awaitQuietly(blockerLatch);
+            }
+        });
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(noOp, ActionPriority.BACKGROUND);
+                // The queue capacity is 1, this one waits for the previous background task to start
+                executor.execute(noOp, ActionPriority.BACKGROUND);
+                producerDone.set(true);
+                producerDoneLatch.countDown();
+            }
+        });
+        producer.start();
+
+        assertFalse(producerDoneLatch.await(500, TimeUnit.MILLISECONDS));
+        assertFalse(producerDone.get());
+
+        blockerLatch.countDown();
+        assertTrue(producerDoneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDispatcherThreadNeverBlocksWhenQueueIsFull() throws InterruptedException {
+        final DispatcherExecutor executor = new DispatcherExecutor(1, 1);
+        final CountDownLatch doneLatch = new CountDownLatch(3);
+        final Runnable countDown = new Runnable() {
+            @Override
+            public void run() {
+                doneLatch.countDown();
+            }
+        };
+
+        executor.executeSerially(1, new Runnable() {
+            @Override
+            public void run() {
+                // The queued task of the same key holds the only permit and can't start before this one returns
+                executor.executeSerially(1, countDown, ActionPriority.BACKGROUND);
+                executor.execute(countDown, ActionPriority.BACKGROUND);
+                doneLatch.countDown();
+            }
+        }, ActionPriority.USER_INITIATED);
+
+        assertTrue(doneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBroadcastActionsRunInTheirLane() throws InterruptedException {
+        DispatcherExecutor executor = new DispatcherExecutor(1, 10);
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.BROADCAST, executor);
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(2);
+        final List<String> executionOrder = Collections.synchronizedList(new ArrayList<String>());
+        dispatcher.register(new RecordingSubscriber(executionOrder, doneLatch));
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                awaitQuietly(blockerLatch);
+            }
+        });
+
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(null), ActionPriority.BACKGROUND);
+        dispatcher.dispatch(SiteActionBuilder.newFetchSitesAction(), ActionPriority.USER_INITIATED);
+        // The actions are posted on the EventBus from the executor's lanes, not from the dispatching thread
+        assertEquals(2, executor.getQueuedTaskCount());
+
+        blockerLatch.countDown();
+        assertTrue(doneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals("FETCH_SITES", executionOrder.get(0));
+        assertEquals("FETCH_POSTS", executionOrder.get(1));
+        executor.shutdown();
+    }
+
+    private static Runnable newRecordingTask(final String name, final List<String> executionOrder,
+                                             final CountDownLatch doneLatch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executionOrder.add(name);
+                doneLatch.countDown();
+            }
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
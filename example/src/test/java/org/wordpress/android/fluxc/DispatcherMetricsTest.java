@@ -0,0 +1,148 @@
+package org.wordpress.android.fluxc;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.Dispatcher.DeliveryMode;
+import org.wordpress.android.fluxc.HistogramDispatcherMetrics.Histogram;
+import org.wordpress.android.fluxc.action.PostAction;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.generated.PostActionBuilder;
+import org.wordpress.android.fluxc.model.PostsModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
+import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.store.PostStore;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsPayload;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsResponsePayload;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class DispatcherMetricsTest {
+    private static CountDownLatch sCountDownLatch;
+
+    public static class SlowPostStore extends PostStore {
+        public SlowPostStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(PostRestClient.class),
+                    Mockito.mock(PostXMLRPCClient.class));
+        }
+
+        @Override
+        public void onAction(Action action) {
+            if (action.getType() == PostAction.FETCHED_POSTS) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                emitChange(new OnPostChanged(7));
+            }
+            sCountDownLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testRecordsLatenciesAndRowsAffected() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.ROUTED);
+        HistogramDispatcherMetrics metrics = new HistogramDispatcherMetrics();
+        dispatcher.setMetrics(metrics);
+        new SlowPostStore(dispatcher);
+        SiteModel site = new SiteModel();
+        site.setId(1);
+
+        sCountDownLatch = new CountDownLatch(2);
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        Thread.sleep(10);
+        dispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(
+                new FetchPostsResponsePayload(new PostsModel(), site, false, false, false)));
+        assertTrue(sCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        // The handler duration is recorded after onAction returns
+        Thread.sleep(50);
+
+        Map<String, Histogram> histograms = metrics.getHistograms();
+        assertEquals(1, histograms.get("queue:PostAction.FETCH_POSTS").getCount());
+        assertEquals(1, histograms.get("queue:PostAction.FETCHED_POSTS").getCount());
+        Histogram handler = histograms.get("handler:SlowPostStore:PostAction.FETCHED_POSTS");
+        assertNotNull(handler);
+        assertTrue(handler.getMax() >= TimeUnit.MILLISECONDS.toMicros(20));
+
+        Histogram rows = histograms.get("rows:PostAction.FETCHED_POSTS");
+        assertEquals(1, rows.getCount());
+        assertEquals(7, rows.getSum());
+
+        Histogram request = histograms.get("request:PostAction.FETCH_POSTS");
+        assertEquals(1, request.getCount());
+        assertTrue(request.getMax() >= TimeUnit.MILLISECONDS.toMicros(10));
+    }
+
+    @Test
+    public void testRequestsAreMatchedPerSite() {
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.BROADCAST);
+        HistogramDispatcherMetrics metrics = new HistogramDispatcherMetrics();
+        dispatcher.setMetrics(metrics);
+        SiteModel site1 = new SiteModel();
+        site1.setId(1);
+        SiteModel site2 = new SiteModel();
+        site2.setId(2);
+
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site1)));
+        dispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(
+                new FetchPostsResponsePayload(new PostsModel(), site2, false, false, false)));
+        assertNull(metrics.getHistograms().get("request:PostAction.FETCH_POSTS"));
+
+        dispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(
+                new FetchPostsResponsePayload(new PostsModel(), site1, false, false, false)));
+        assertEquals(1, metrics.getHistograms().get("request:PostAction.FETCH_POSTS").getCount());
+    }
+
+    @Test
+    public void testDroppedRequestIsNotMatched() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.BROADCAST);
+        HistogramDispatcherMetrics metrics = new HistogramDispatcherMetrics();
+        dispatcher.setMetrics(metrics);
+        SiteModel site = new SiteModel();
+        site.setId(1);
+        FetchPostsPayload payload = new FetchPostsPayload(site);
+
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(payload));
+        Thread.sleep(50);
+        // Joins the first request, as the store does when an identical fetch is in flight
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(payload));
+        dispatcher.onRequestDropped(PostAction.FETCH_POSTS, payload);
+
+        dispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(
+                new FetchPostsResponsePayload(new PostsModel(), site, false, false, false)));
+        Histogram request = metrics.getHistograms().get("request:PostAction.FETCH_POSTS");
+        assertEquals(1, request.getCount());
+        // Measured from the request that was sent
+        assertTrue(request.getMax() >= TimeUnit.MILLISECONDS.toMicros(50));
+
+        // Nothing left to match a later response with
+        dispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(
+                new FetchPostsResponsePayload(new PostsModel(), site, false, false, false)));
+        assertEquals(1, request.getCount());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(63, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(99));
+        assertEquals(0, new Histogram().getPercentile(50));
+    }
+}
@@ -0,0 +1,234 @@
+package org.wordpress.android.fluxc;
+
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.Dispatcher.DeliveryMode;
+import org.wordpress.android.fluxc.action.CommentAction;
+import org.wordpress.android.fluxc.action.MediaAction;
+import org.wordpress.android.fluxc.action.PostAction;
+import org.wordpress.android.fluxc.action.SiteAction;
+import org.wordpress.android.fluxc.action.TaxonomyAction;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.generated.PostActionBuilder;
+import org.wordpress.android.fluxc.network.rest.wpcom.comment.CommentRestClient;
+import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaRestClient;
+import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient;
+import org.wordpress.android.fluxc.network.rest.wpcom.taxonomy.TaxonomyRestClient;
+import org.wordpress.android.fluxc.network.xmlrpc.comment.CommentXMLRPCClient;
+import org.wordpress.android.fluxc.network.xmlrpc.media.MediaXMLRPCClient;
+import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient;
+import org.wordpress.android.fluxc.network.xmlrpc.taxonomy.TaxonomyXMLRPCClient;
+import org.wordpress.android.fluxc.store.CommentStore;
+import org.wordpress.android.fluxc.store.MediaStore;
+import org.wordpress.android.fluxc.store.PostStore;
+import org.wordpress.android.fluxc.store.SiteStore;
+import org.wordpress.android.fluxc.store.TaxonomyStore;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class DispatcherRoutingTest {
+    private static final int DISPATCHED_ACTION_COUNT = 100;
+    private static final int BENCHMARK_ACTION_COUNT = 5000;
+
+    private static final AtomicInteger sHandledActions = new AtomicInteger();
+    private static final AtomicInteger sIgnoredActions = new AtomicInteger();
+    private static CountDownLatch sCountDownLatch;
+
+    public static class CountingPostStore extends PostStore {
+        public CountingPostStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(PostRestClient.class),
+                    Mockito.mock(PostXMLRPCClient.class));
+        }
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        @Override
+        public void onAction(Action action) {
+            countAction(action.getType() instanceof PostAction);
+        }
+    }
+
+    public static class CountingMediaStore extends MediaStore {
+        public CountingMediaStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(MediaRestClient.class),
+                    Mockito.mock(MediaXMLRPCClient.class));
+        }
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        @Override
+        public void onAction(Action action) {
+            countAction(action.getType() instanceof MediaAction);
+        }
+    }
+
+    public static class CountingSiteStore extends SiteStore {
+        public CountingSiteStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(SiteRestClient.class),
+                    Mockito.mock(SiteXMLRPCClient.class));
+        }
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        @Override
+        public void onAction(Action action) {
+            countAction(action.getType() instanceof SiteAction);
+        }
+    }
+
+    public static class CountingCommentStore extends CommentStore {
+        public CountingCommentStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(CommentRestClient.class),
+                    Mockito.mock(CommentXMLRPCClient.class));
+        }
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        @Override
+        public void onAction(Action action) {
+            countAction(action.getType() instanceof CommentAction);
+        }
+    }
+
+    public static class CountingTaxonomyStore extends TaxonomyStore {
+        public CountingTaxonomyStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(TaxonomyRestClient.class),
+                    Mockito.mock(TaxonomyXMLRPCClient.class));
+        }
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        @Override
+        public void onAction(Action action) {
+            countAction(action.getType() instanceof TaxonomyAction);
+        }
+    }
+
+    private static void countAction(boolean handled) {
+        if (handled) {
+            sHandledActions.incrementAndGet();
+            sCountDownLatch.countDown();
+        } else {
+            sIgnoredActions.incrementAndGet();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        sHandledActions.set(0);
+        sIgnoredActions.set(0);
+    }
+
+    @Test
+    public void testRoutedActionOnlyReachesOwningStore() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.ROUTED);
+        registerStores(dispatcher);
+
+        sCountDownLatch = new CountDownLatch(1);
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(null));
+        assertTrue(sCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, sHandledActions.get());
+        assertEquals(0, sIgnoredActions.get());
+    }
+
+    @Test
+    public void testBroadcastActionReachesEveryStore() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.BROADCAST);
+        registerStores(dispatcher);
+
+        sCountDownLatch = new CountDownLatch(1);
+        dispatcher.dispatch(PostActionBuilder.newFetchPostsAction(null));
+        assertTrue(sCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        waitForDeliveries(5);
+
+        assertEquals(1, sHandledActions.get());
+        assertEquals(4, sIgnoredActions.get());
+    }
+
+    @Test
+    public void testRoutedDispatchOnlyDeliversToOwningStores() throws InterruptedException {
+        dispatchActions(DeliveryMode.BROADCAST);
+        assertEquals(DISPATCHED_ACTION_COUNT, sHandledActions.get());
+        assertEquals(DISPATCHED_ACTION_COUNT * 4, sIgnoredActions.get());
+
+        sHandledActions.set(0);
+        sIgnoredActions.set(0);
+
+        dispatchActions(DeliveryMode.ROUTED);
+        assertEquals(DISPATCHED_ACTION_COUNT, sHandledActions.get());
+        assertEquals(0, sIgnoredActions.get());
+    }
+
+    @Test
+    public void testDispatchBenchmark() throws InterruptedException {
+        TestUtils.assumeBenchmarksEnabled();
+
+        long broadcastNanos = dispatchActions(DeliveryMode.BROADCAST, BENCHMARK_ACTION_COUNT);
+        int broadcastDeliveries = sHandledActions.get() + sIgnoredActions.get();
+
+        sHandledActions.set(0);
+        sIgnoredActions.set(0);
+
+        long routedNanos = dispatchActions(DeliveryMode.ROUTED, BENCHMARK_ACTION_COUNT);
+        int routedDeliveries = sHandledActions.get() + sIgnoredActions.get();
+
+        System.out.println("Dispatching " + BENCHMARK_ACTION_COUNT + " actions to 5 stores:");
+        System.out.println("  BROADCAST: " + TimeUnit.NANOSECONDS.toMillis(broadcastNanos) + " ms, "
+                + broadcastDeliveries + " store deliveries");
+        System.out.println("  ROUTED:    " + TimeUnit.NANOSECONDS.toMillis(routedNanos) + " ms, "
+                + routedDeliveries + " store deliveries");
+
+        assertEquals(BENCHMARK_ACTION_COUNT, routedDeliveries);
+    }
+
+    private void dispatchActions(DeliveryMode deliveryMode) throws InterruptedException {
+        dispatchActions(deliveryMode, DISPATCHED_ACTION_COUNT);
+    }
+
+    /**
+     * @return the time it took for the owning store to handle all the actions
+     */
+    private long dispatchActions(DeliveryMode deliveryMode, int actionCount) throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(deliveryMode);
+        registerStores(dispatcher);
+        Action action = PostActionBuilder.newFetchPostsAction(null);
+
+        sCountDownLatch = new CountDownLatch(actionCount);
+        long start = System.nanoTime();
+        for (int i = 0; i < actionCount; i++) {
+            dispatcher.dispatch(action);
+        }
+        assertTrue(sCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        long elapsed = System.nanoTime() - start;
+
+        if (deliveryMode == DeliveryMode.BROADCAST) {
+            waitForDeliveries(actionCount * 5);
+        }
+        return elapsed;
+    }
+
+    private void registerStores(Dispatcher dispatcher) {
+        new CountingPostStore(dispatcher);
+        new CountingMediaStore(dispatcher);
+        new CountingSiteStore(dispatcher);
+        new CountingCommentStore(dispatcher);
+        new CountingTaxonomyStore(dispatcher);
+    }
+
+    private void waitForDeliveries(int expectedDeliveries) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TestUtils.DEFAULT_TIMEOUT_MS;
+        while (sHandledActions.get() + sIgnoredActions.get() < expectedDeliveries
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
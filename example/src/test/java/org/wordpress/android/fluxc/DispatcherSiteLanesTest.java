@@ -0,0 +1,139 @@
+package org.wordpress.android.fluxc;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.Dispatcher.DeliveryMode;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.generated.PostActionBuilder;
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
+import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.store.CommentStore.FetchCommentsPayload;
+import org.wordpress.android.fluxc.store.MediaStore.ProgressPayload;
+import org.wordpress.android.fluxc.store.PostStore;
+import org.wordpress.android.fluxc.store.PostStore.RemotePostPayload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class DispatcherSiteLanesTest {
+    private static final int ACTIONS_PER_SITE = 50;
+
+    private static final Map<Integer, List<Integer>> sHandledPostIds = new ConcurrentHashMap<>();
+    private static final Map<Integer, AtomicInteger> sRunningActions = new ConcurrentHashMap<>();
+    private static final AtomicInteger sMaxRunningActionsPerSite = new AtomicInteger();
+    private static final AtomicBoolean sSitesRanInParallel = new AtomicBoolean();
+    private static CountDownLatch sSiteTwoLatch;
+    private static CountDownLatch sCountDownLatch;
+
+    public static class RecordingPostStore extends PostStore {
+        public RecordingPostStore(Dispatcher dispatcher) {
+            super(dispatcher, Mockito.mock(QueryExecutor.class), Mockito.mock(PostRestClient.class),
+                    Mockito.mock(PostXMLRPCClient.class));
+        }
+
+        @Override
+        public void onAction(Action action) {
+            RemotePostPayload payload = (RemotePostPayload) action.getPayload();
+            int localSiteId = payload.site.getId();
+            AtomicInteger runningActions = sRunningActions.get(localSiteId);
+            updateMax(runningActions.incrementAndGet());
+
+            if (localSiteId == 1 && payload.post.getId() == 0) {
+                // Keep site 1 busy until a site 2 action is handled
+                sSitesRanInParallel.set(awaitQuietly(sSiteTwoLatch));
+            } else if (localSiteId == 2) {
+                sSiteTwoLatch.countDown();
+            }
+            sHandledPostIds.get(localSiteId).add(payload.post.getId());
+
+            runningActions.decrementAndGet();
+            sCountDownLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testActionsAreSerialPerSiteAndParallelAcrossSites() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(DeliveryMode.ROUTED_PER_SITE, new DispatcherExecutor(4, 1000));
+        new RecordingPostStore(dispatcher);
+        SiteModel site1 = newSite(1);
+        SiteModel site2 = newSite(2);
+        sSiteTwoLatch = new CountDownLatch(1);
+        sCountDownLatch = new CountDownLatch(ACTIONS_PER_SITE * 2);
+
+        for (int i = 0; i < ACTIONS_PER_SITE; i++) {
+            dispatcher.dispatch(PostActionBuilder.newPushPostAction(new RemotePostPayload(newPost(i), site1)));
+            dispatcher.dispatch(PostActionBuilder.newFetchPostAction(new RemotePostPayload(newPost(i), site2)));
+        }
+        assertTrue(sCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertTrue(sSitesRanInParallel.get());
+        assertEquals(1, sMaxRunningActionsPerSite.get());
+        for (int localSiteId = 1; localSiteId <= 2; localSiteId++) {
+            List<Integer> postIds = sHandledPostIds.get(localSiteId);
+            assertEquals(ACTIONS_PER_SITE, postIds.size());
+            for (int i = 0; i < ACTIONS_PER_SITE; i++) {
+                assertEquals(i, (int) postIds.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testResolvesLocalSiteIdFromPayload() {
+        PayloadSiteResolver resolver = new PayloadSiteResolver();
+        MediaModel media = new MediaModel();
+        media.setLocalSiteId(3);
+
+        assertEquals(3, resolver.getLocalSiteId(new RemotePostPayload(newPost(1), newSite(3))));
+        assertEquals(3, resolver.getLocalSiteId(new FetchCommentsPayload(newSite(3), 10, 0)));
+        assertEquals(3, resolver.getLocalSiteId(new ProgressPayload(media, 0.5f, false, false)));
+        assertEquals(3, resolver.getLocalSiteId(newSite(3)));
+        assertEquals(PayloadSiteResolver.NO_SITE, resolver.getLocalSiteId("not a payload"));
+        assertEquals(PayloadSiteResolver.NO_SITE, resolver.getLocalSiteId(null));
+    }
+
+    private static SiteModel newSite(int localSiteId) {
+        SiteModel site = new SiteModel();
+        site.setId(localSiteId);
+        sHandledPostIds.put(localSiteId, Collections.synchronizedList(new ArrayList<Integer>()));
+        sRunningActions.put(localSiteId, new AtomicInteger());
+        return site;
+    }
+
+    private static PostModel newPost(int id) {
+        PostModel post = new PostModel();
+        post.setId(id);
+        return post;
+    }
+
+    private static void updateMax(int runningActions) {
+        int max;
+        do {
+            max = sMaxRunningActionsPerSite.get();
+        } while (runningActions > max && !sMaxRunningActionsPerSite.compareAndSet(max, runningActions));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.wordpress.android.fluxc;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostSyncStateModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
+import org.wordpress.android.fluxc.model.PostsModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.persistence.PostSqlUtils;
+import org.wordpress.android.fluxc.persistence.WellSqlConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LiveQueryTest {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private QueryExecutor mExecutor;
+    private AtomicInteger mQueryRuns;
+    private BlockingQueue<List<PostModel>> mResults;
+
+    @Before
+    public void setUp() {
+        Context appContext = RuntimeEnvironment.application.getApplicationContext();
+
+        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, PostModel.class,
+                PostTermModel.class, PostSyncStateModel.class);
+        WellSql.init(config);
+        config.reset();
+
+        // A single thread, so that a query submitted after a write runs after the live query's runs for the write
+        mExecutor = new QueryExecutor(1, DIRECT_EXECUTOR);
+        mQueryRuns = new AtomicInteger();
+        mResults = new LinkedBlockingQueue<>();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdown();
+    }
+
+    @Test
+    public void testQueryRunsAgainOnlyForChangesToItsSite() throws InterruptedException {
+        LiveQuery<List<PostModel>> liveQuery = observePostsForSite(6);
+        assertEquals(0, nextResult().size());
+
+        PostSqlUtils.insertPostForResult(generatePost(7, 1));
+        waitForPendingQueries();
+        assertEquals(1, mQueryRuns.get());
+
+        PostSqlUtils.insertPostForResult(generatePost(6, 2));
+        assertEquals(1, nextResult().size());
+        assertEquals(2, mQueryRuns.get());
+
+        // Clearing the table changes the rows of all sites
+        PostSqlUtils.deleteAllPosts();
+        assertEquals(0, nextResult().size());
+        assertEquals(3, mQueryRuns.get());
+        liveQuery.close();
+    }
+
+    @Test
+    public void testChangesInTransactionRunQueryOnce() throws InterruptedException {
+        LiveQuery<List<PostModel>> liveQuery = observePostsForSite(6);
+        assertEquals(0, nextResult().size());
+
+        List<PostModel> posts = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            posts.add(generatePost(6, i));
+        }
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(posts));
+
+        // The query must see all the posts of the transaction
+        assertEquals(10, nextResult().size());
+        waitForPendingQueries();
+        assertEquals(2, mQueryRuns.get());
+        liveQuery.close();
+    }
+
+    @Test
+    public void testClosedQueryDoesNotRunAgain() throws InterruptedException {
+        LiveQuery<List<PostModel>> liveQuery = observePostsForSite(6);
+        assertEquals(0, nextResult().size());
+
+        liveQuery.close();
+        assertTrue(liveQuery.isClosed());
+        PostSqlUtils.insertPostForResult(generatePost(6, 1));
+        waitForPendingQueries();
+
+        assertEquals(1, mQueryRuns.get());
+        assertTrue(mResults.isEmpty());
+    }
+
+    @Test
+    public void testStaleResultIsNotDeliveredLast() throws InterruptedException {
+        final BlockingQueue<Runnable> deliveries = new LinkedBlockingQueue<>();
+        QueryExecutor executor = new QueryExecutor(1, new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                deliveries.add(command);
+            }
+        });
+        final AtomicInteger runs = new AtomicInteger();
+        final List<LiveQuery<Integer>> liveQueryHolder = new ArrayList<>();
+        final List<Integer> results = new ArrayList<>();
+        LiveQuery<Integer> liveQuery = new LiveQuery<>(executor, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                int run = runs.incrementAndGet();
+                if (run == 1) {
+                    // A write made while the first run reads the table
+                    liveQueryHolder.get(0).onTableChanged(PostModel.class, 6);
+                }
+                return run;
+            }
+        }, new QueryCallback<Integer>() {
+            @Override
+            public void onQueryResult(Integer result) {
+                results.add(result);
+            }
+        }, 6, PostModel.class);
+        liveQueryHolder.add(liveQuery);
+        liveQuery.start();
+
+        Runnable firstDelivery = deliveries.poll(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Runnable secondDelivery = deliveries.poll(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(firstDelivery);
+        assertNotNull(secondDelivery);
+
+        // The run made for the write is delivered first: the result of the first run is older, and dropped
+        secondDelivery.run();
+        firstDelivery.run();
+        assertEquals(Collections.singletonList(2), results);
+        liveQuery.close();
+        executor.shutdown();
+    }
+
+    private LiveQuery<List<PostModel>> observePostsForSite(int localSiteId) {
+        final SiteModel site = new SiteModel();
+        site.setId(localSiteId);
+        return new LiveQuery<>(mExecutor, new Callable<List<PostModel>>() {
+            @Override
+            public List<PostModel> call() {
+                mQueryRuns.incrementAndGet();
+                return PostSqlUtils.getPostsForSite(site, false);
+            }
+        }, new QueryCallback<List<PostModel>>() {
+            @Override
+            public void onQueryResult(List<PostModel> result) {
+                mResults.add(result);
+            }
+        }, localSiteId, PostModel.class).start();
+    }
+
+    private List<PostModel> nextResult() throws InterruptedException {
+        List<PostModel> result = mResults.poll(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(result);
+        return result;
+    }
+
+    private void waitForPendingQueries() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        mExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new QueryCallback<Void>() {
+            @Override
+            public void onQueryResult(Void result) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private static PostModel generatePost(int localSiteId, long remotePostId) {
+        PostModel post = new PostModel();
+        post.setLocalSiteId(localSiteId);
+        post.setRemotePostId(remotePostId);
+        post.setTitle("Post " + remotePostId);
+        return post;
+    }
+}
@@ -0,0 +1,250 @@
+package org.wordpress.android.fluxc;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryErrorCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+public class QueryExecutorTest {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void testResultIsDeliveredToCallback() throws Exception {
+        QueryExecutor executor = new QueryExecutor(1, DIRECT_EXECUTOR);
+        final CountDownLatch callbackLatch = new CountDownLatch(1);
+        final AtomicReference<String> queryThread = new AtomicReference<>();
+        final AtomicReference<String> result = new AtomicReference<>();
+
+        QueryFuture<String> future = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                queryThread.set(Thread.currentThread().getName());
+                return "result";
+            }
+        }, new QueryCallback<String>() {
+            @Override
+            public void onQueryResult(String queryResult) {
+                result.set(queryResult);
+                callbackLatch.countDown();
+            }
+        });
+
+        assertTrue(callbackLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals("result", result.get());
+        assertEquals("result", future.get());
+        assertTrue(queryThread.get().startsWith("FluxC-Query-"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelledQueryDoesNotRunNorCallBack() throws InterruptedException {
+        QueryExecutor executor = new QueryExecutor(1, DIRECT_EXECUTOR);
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        final AtomicBoolean queryRan = new AtomicBoolean();
+        final AtomicBoolean callbackCalled = new AtomicBoolean();
+
+        // Keep the only thread busy while the query to cancel is queued
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                blockerLatch.await();
+                return null;
+            }
+        }, newNoOpCallback());
+
+        QueryFuture<Void> future = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                queryRan.set(true);
+                return null;
+            }
+        }, new QueryCallback<Void>() {
+            @Override
+            public void onQueryResult(Void result) {
+                callbackCalled.set(true);
+            }
+        });
+        assertTrue(future.cancel(false));
+
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new QueryCallback<Void>() {
+            @Override
+            public void onQueryResult(Void result) {
+                doneLatch.countDown();
+            }
+        });
+        blockerLatch.countDown();
+
+        assertTrue(doneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertFalse(queryRan.get());
+        assertFalse(callbackCalled.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelledRunningQueryDoesNotCallBack() throws InterruptedException {
+        QueryExecutor executor = new QueryExecutor(1, DIRECT_EXECUTOR);
+        final CountDownLatch startedLatch = new CountDownLatch(1);
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        final AtomicBoolean callbackCalled = new AtomicBoolean();
+
+        QueryFuture<Void> future = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                startedLatch.countDown();
+                blockerLatch.await();
+                return null;
+            }
+        }, new QueryCallback<Void>() {
+            @Override
+            public void onQueryResult(Void result) {
+                callbackCalled.set(true);
+            }
+        });
+        assertTrue(startedLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        future.cancel(false);
+        blockerLatch.countDown();
+
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new QueryCallback<Void>() {
+            @Override
+            public void onQueryResult(Void result) {
+                doneLatch.countDown();
+            }
+        });
+        assertTrue(doneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertFalse(callbackCalled.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFailureIsDeliveredToErrorCallback() throws InterruptedException {
+        QueryExecutor executor = new QueryExecutor(1, DIRECT_EXECUTOR);
+        final CountDownLatch errorLatch = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicBoolean resultDelivered = new AtomicBoolean();
+
+        QueryFuture<String> future = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                throw new IllegalStateException("query failed");
+            }
+        }, new QueryErrorCallback<String>() {
+            @Override
+            public void onQueryResult(String result) {
+                resultDelivered.set(true);
+            }
+
+            @Override
+            public void onQueryError(@NonNull Throwable queryError) {
+                error.set(queryError);
+                errorLatch.countDown();
+            }
+        });
+
+        assertTrue(errorLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(error.get() instanceof IllegalStateException);
+        assertFalse(resultDelivered.get());
+        try {
+            future.get();
+            fail("The failure should be thrown by get()");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFailureWithoutErrorCallbackIsNotRethrown() throws InterruptedException {
+        final AtomicReference<Throwable> callbackThreadFailure = new AtomicReference<>();
+        QueryExecutor executor = new QueryExecutor(1, new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    callbackThreadFailure.set(e);
+                }
+            }
+        });
+        final AtomicBoolean resultDelivered = new AtomicBoolean();
+
+        QueryFuture<String> future = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                throw new IllegalStateException("query failed");
+            }
+        }, new QueryCallback<String>() {
+            @Override
+            public void onQueryResult(String result) {
+                resultDelivered.set(true);
+            }
+        });
+
+        // The single thread reports the failure before running the next query
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new QueryCallback<Void>() {
+            @Override
+            public void onQueryResult(Void result) {
+                doneLatch.countDown();
+            }
+        });
+        assertTrue(doneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertNull(callbackThreadFailure.get());
+        assertFalse(resultDelivered.get());
+        try {
+            future.get();
+            fail("The failure should be thrown by get()");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        executor.shutdown();
+    }
+
+    private static <T> QueryCallback<T> newNoOpCallback() {
+        return new QueryCallback<T>() {
+            @Override
+            public void onQueryResult(T result) {
+            }
+        };
+    }
+}
@@ -11,11 +11,15 @@ import com.yarolegovich.wellsql.core.TableClass;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 
 public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
-    private Class<? extends Identifiable> mStoreClass;
+    private Class<? extends Identifiable>[] mStoreClasses;
 
-    public SingleStoreWellSqlConfigForTests(Context context, Class<? extends Identifiable> token) {
+    /**
+     * @param tokens the store's table, followed by the tables it depends on if any
+     */
+    @SafeVarargs
+    public SingleStoreWellSqlConfigForTests(Context context, Class<? extends Identifiable>... tokens) {
         super(context);
-        mStoreClass = token;
+        mStoreClasses = tokens;
     }
 
     @Override
@@ -25,7 +29,11 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
 
     @Override
     public void onCreate(SQLiteDatabase db, WellTableManager helper) {
-        helper.createTable(mStoreClass);
+        for (Class<? extends Identifiable> storeClass : mStoreClasses) {
+            helper.createTable(storeClass);
+            createIndexes(db, storeClass);
+            createSearchIndex(db, storeClass);
+        }
     }
 
     /**
@@ -33,8 +41,13 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
      */
     public void reset() {
         SQLiteDatabase db = WellSql.giveMeWritableDb();
-        TableClass table = getTable(mStoreClass);
-        db.execSQL("DROP TABLE " + table.getTableName());
-        db.execSQL(table.createStatement());
+        for (Class<? extends Identifiable> storeClass : mStoreClasses) {
+            TableClass table = getTable(storeClass);
+            db.execSQL("DROP TABLE IF EXISTS " + table.getTableName());
+            db.execSQL(table.createStatement());
+            createIndexes(db, storeClass);
+            createSearchIndex(db, storeClass);
+            onTableReset(storeClass);
+        }
     }
 }
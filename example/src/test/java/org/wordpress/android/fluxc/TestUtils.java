@@ -1,10 +1,12 @@
 package org.wordpress.android.fluxc;
 
+import org.junit.Assume;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
 public class TestUtils {
     public static final int DEFAULT_TIMEOUT_MS = 30000;
+    public static final String BENCHMARKS_PROPERTY = "fluxc.benchmarks";
 
     public static void waitFor(long milliseconds) {
         try {
@@ -17,5 +19,13 @@ public class TestUtils {
     public static void waitForNetworkCall() {
         waitFor(DEFAULT_TIMEOUT_MS);
     }
+
+    /**
+     * Skips the calling test unless the benchmarks were asked for, with {@code ./gradlew testDebug -Pbenchmarks}.
+     * Benchmarks time and print their measurements, they don't belong in the default unit test run.
+     */
+    public static void assumeBenchmarksEnabled() {
+        Assume.assumeTrue("Benchmarks only run with -Pbenchmarks", Boolean.getBoolean(BENCHMARKS_PROPERTY));
+    }
 }
 
@@ -0,0 +1,99 @@
+package org.wordpress.android.fluxc;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.persistence.PostSqlUtils;
+import org.wordpress.android.fluxc.persistence.WellSqlConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class WriteAheadLoggingTest {
+    private static final int WRITTEN_POST_COUNT = 2000;
+
+    private SiteModel mSite;
+
+    @Before
+    public void setUp() {
+        Context appContext = RuntimeEnvironment.application.getApplicationContext();
+
+        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, PostModel.class,
+                PostTermModel.class).setWriteAheadLoggingEnabled(true);
+        WellSql.init(config);
+        config.reset();
+
+        mSite = new SiteModel();
+        mSite.setId(6);
+    }
+
+    @Test
+    public void testDatabaseUsesWriteAheadLog() {
+        String journalMode = DatabaseUtils.stringForQuery(WellSql.giveMeReadableDb(), "PRAGMA journal_mode", null);
+        assertTrue(journalMode, "wal".equalsIgnoreCase(journalMode));
+    }
+
+    @Test
+    public void testReadsProgressDuringWriteTransaction() throws InterruptedException {
+        PostSqlUtils.insertPostForResult(generatePost(0));
+
+        final CountDownLatch transactionStartedLatch = new CountDownLatch(1);
+        final CountDownLatch readDoneLatch = new CountDownLatch(1);
+        final AtomicBoolean readDoneBeforeCommit = new AtomicBoolean();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SQLiteDatabase db = WellSql.giveMeWritableDb();
+                db.beginTransaction();
+                try {
+                    for (int i = 1; i <= WRITTEN_POST_COUNT; i++) {
+                        PostSqlUtils.insertPostForResult(generatePost(i));
+                    }
+                    transactionStartedLatch.countDown();
+                    // Keep the transaction open until the reader is done, or would be blocked for good
+                    readDoneBeforeCommit.set(readDoneLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                    db.setTransactionSuccessful();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        });
+        writer.start();
+        assertTrue(transactionStartedLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // The reader sees the last committed data, without waiting for the write transaction
+        int readPostCount = PostSqlUtils.getPostsForSite(mSite, false).size();
+        readDoneLatch.countDown();
+        writer.join();
+
+        assertTrue(readDoneBeforeCommit.get());
+        assertEquals(1, readPostCount);
+        assertEquals(WRITTEN_POST_COUNT + 1, PostSqlUtils.getPostsForSite(mSite, false).size());
+    }
+
+    private PostModel generatePost(long remotePostId) {
+        PostModel post = new PostModel();
+        post.setLocalSiteId(mSite.getId());
+        post.setRemotePostId(remotePostId);
+        post.setTitle("Post " + remotePostId);
+        return post;
+    }
+}
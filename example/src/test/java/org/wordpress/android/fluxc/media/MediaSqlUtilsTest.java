@@ -167,6 +167,29 @@ public class MediaSqlUtilsTest {
         }
     }
 
+    // Inserts media with matching words in different fields, verifies full-text search matches and ranking
+    @Test
+    public void testMediaFullTextSearch() {
+        MediaModel captionMatch = getTestMedia(1, "Untitled", "", "A sunset over the sea");
+        MediaModel titleMatch = getTestMedia(2, "Sunset", "", "");
+        MediaModel fileNameMatch = getTestMedia(3, "Untitled", "", "");
+        fileNameMatch.setFileName("sunset-2017.jpg");
+        MediaModel noMatch = getTestMedia(4, "Sunrise", "", "");
+        for (MediaModel media : new MediaModel[]{captionMatch, titleMatch, fileNameMatch, noMatch}) {
+            Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(media));
+        }
+
+        List<MediaModel> mediaModels = MediaSqlUtils.searchSiteMedia(getTestSiteWithLocalId(TEST_LOCAL_SITE_ID), "sun");
+        Assert.assertEquals(4, mediaModels.size());
+        mediaModels = MediaSqlUtils.searchSiteMedia(getTestSiteWithLocalId(TEST_LOCAL_SITE_ID), "SUNSET");
+        Assert.assertEquals(3, mediaModels.size());
+        Assert.assertEquals(2, mediaModels.get(0).getMediaId());
+        Assert.assertEquals(1, mediaModels.get(1).getMediaId());
+        Assert.assertEquals(3, mediaModels.get(2).getMediaId());
+        Assert.assertEquals(0, MediaSqlUtils.searchSiteMedia(getTestSiteWithLocalId(TEST_LOCAL_SITE_ID + 1),
+                "sunset").size());
+    }
+
     // Inserts many media with compounding titles, gets media with exact title and verifies
     @Test
     public void testMatchSiteMediaColumn() {
@@ -333,6 +356,8 @@ public class MediaSqlUtilsTest {
 
         Assert.assertEquals(SMALL_TEST_POOL,
                 MediaSqlUtils.getMediaWithStatesAsCursor(site, NOT_DELETED_STATES).getCount());
+        Assert.assertEquals(SMALL_TEST_POOL, MediaSqlUtils.getMediaCountWithStates(site, NOT_DELETED_STATES));
+        Assert.assertEquals(SMALL_TEST_POOL + 1, MediaSqlUtils.getAllSiteMediaCount(site));
     }
 
     @Test
@@ -11,6 +11,7 @@ import org.mockito.Mockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.QueryExecutor;
 import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.SiteModel;
@@ -38,7 +39,7 @@ import static org.wordpress.android.fluxc.media.MediaTestUtils.insertRandomMedia
 
 @RunWith(RobolectricTestRunner.class)
 public class MediaStoreTest {
-    private MediaStore mMediaStore = new MediaStore(new Dispatcher(),
+    private MediaStore mMediaStore = new MediaStore(new Dispatcher(), new QueryExecutor(),
             Mockito.mock(MediaRestClient.class), Mockito.mock(MediaXMLRPCClient.class));
 
     @Before
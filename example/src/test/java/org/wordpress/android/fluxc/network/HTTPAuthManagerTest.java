@@ -0,0 +1,74 @@
+package org.wordpress.android.fluxc.network;
+
+import android.content.Context;
+import android.util.Base64;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests;
+import org.wordpress.android.fluxc.persistence.WellSqlConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class HTTPAuthManagerTest {
+    private HTTPAuthManager mHTTPAuthManager = new HTTPAuthManager();
+    private WellSqlConfig mConfig;
+
+    @Before
+    public void setUp() {
+        Context appContext = RuntimeEnvironment.application.getApplicationContext();
+
+        mConfig = new SingleStoreWellSqlConfigForTests(appContext, HTTPAuthModel.class);
+        WellSql.init(mConfig);
+        mConfig.reset();
+    }
+
+    @Test
+    public void testMatchingUrls() {
+        assertNull(mHTTPAuthManager.getHTTPAuthModel("http://example.com/xmlrpc.php"));
+
+        mHTTPAuthManager.addHTTPAuthCredentials("user", "pass", "http://example.com/blog/xmlrpc.php", null);
+        mHTTPAuthManager.addHTTPAuthCredentials("other", "pass", "http://example.org/", null);
+
+        assertEquals("user", mHTTPAuthManager.getHTTPAuthModel("http://example.com/blog/xmlrpc.php").getUsername());
+        // The stored URL with 'xmlrpc.php' stripped matches too
+        assertEquals("user", mHTTPAuthManager.getHTTPAuthModel("http://example.com/blog/wp-content/a.jpg")
+                .getUsername());
+        assertEquals("other", mHTTPAuthManager.getHTTPAuthModel("http://example.org/xmlrpc.php").getUsername());
+        assertNull(mHTTPAuthManager.getHTTPAuthModel("http://example.com/other/xmlrpc.php"));
+        assertNull(mHTTPAuthManager.getHTTPAuthModel("https://example.org/xmlrpc.php"));
+        assertNull(mHTTPAuthManager.getHTTPAuthModel(null));
+    }
+
+    @Test
+    public void testUpdatedCredentials() {
+        String url = "http://example.com/xmlrpc.php";
+        mHTTPAuthManager.addHTTPAuthCredentials("user", "pass", url, null);
+        assertEquals("Basic " + Base64.encodeToString("user:pass".getBytes(), Base64.NO_WRAP),
+                mHTTPAuthManager.getAuthorizationHeader(url));
+
+        // Adding credentials replaces the ones in memory
+        mHTTPAuthManager.addHTTPAuthCredentials("user", "new-pass", url, null);
+        assertEquals("new-pass", mHTTPAuthManager.getHTTPAuthModel(url).getPassword());
+        assertEquals("Basic " + Base64.encodeToString("user:new-pass".getBytes(), Base64.NO_WRAP),
+                mHTTPAuthManager.getAuthorizationHeader(url));
+    }
+
+    @Test
+    public void testResetTableClearsCredentials() {
+        String url = "http://example.com/xmlrpc.php";
+        mHTTPAuthManager.addHTTPAuthCredentials("user", "pass", url, null);
+        assertEquals("user", mHTTPAuthManager.getHTTPAuthModel(url).getUsername());
+
+        mConfig.reset();
+        assertNull(mHTTPAuthManager.getHTTPAuthModel(url));
+        assertNull(mHTTPAuthManager.getAuthorizationHeader(url));
+    }
+}
@@ -0,0 +1,278 @@
+package org.wordpress.android.fluxc.network;
+
+import android.support.annotation.NonNull;
+
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.Request.Method;
+import com.android.volley.Response.Listener;
+import com.android.volley.toolbox.NoCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.TestUtils;
+import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener;
+import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType;
+import org.wordpress.android.fluxc.network.BaseRequest.OnNotModifiedListener;
+import org.wordpress.android.fluxc.network.BaseRequest.OnParseErrorListener;
+import org.wordpress.android.fluxc.network.rest.GsonRequest;
+import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class OkHttpRequestQueueTest {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+    private static final int ITEM_COUNT = 2000;
+
+    private OkHttpRequestQueue mQueue;
+    private BlockingQueue<Object> mResults;
+    private ResponseServer mServer;
+
+    @Before
+    public void setUp() throws IOException {
+        // The Volley network threads aren't started, BaseRequests must not need them
+        mQueue = new OkHttpRequestQueue(new NoCache(), new OkHttpStack(new OkHttpClient()), 1,
+                new ExecutorDelivery(DIRECT_EXECUTOR));
+        mResults = new LinkedBlockingQueue<>();
+        mServer = new ResponseServer();
+        new Thread(mServer).start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServer.close();
+    }
+
+    @Test
+    public void testResponseIsParsedFromStream() throws Exception {
+        mServer.setResponse(200, generateItemsJson(ITEM_COUNT));
+
+        mQueue.add(newItemsRequest());
+        Object result = nextResult();
+
+        assertTrue(result instanceof ItemsResponse);
+        List<Item> items = ((ItemsResponse) result).items;
+        assertEquals(ITEM_COUNT, items.size());
+        assertEquals(ITEM_COUNT - 1, items.get(ITEM_COUNT - 1).id);
+        assertEquals("Item " + (ITEM_COUNT - 1), items.get(ITEM_COUNT - 1).name);
+        assertEquals(0, mQueue.getRunningCallCount());
+    }
+
+    @Test
+    public void testErrorResponseIsDeliveredWithItsBody() throws Exception {
+        mServer.setResponse(404, "{\"error\":\"unknown_item\"}");
+
+        mQueue.add(newItemsRequest());
+        Object result = nextResult();
+
+        assertTrue(result instanceof BaseNetworkError);
+        BaseNetworkError error = (BaseNetworkError) result;
+        assertEquals(GenericErrorType.NOT_FOUND, error.type);
+        assertEquals(404, error.volleyError.networkResponse.statusCode);
+        assertEquals("{\"error\":\"unknown_item\"}", new String(error.volleyError.networkResponse.data));
+    }
+
+    @Test
+    public void testMalformedResponseIsParseError() throws Exception {
+        mServer.setResponse(200, "{\"items\":[{\"id\":");
+
+        GsonRequest<ItemsResponse> request = newItemsRequest();
+        final BlockingQueue<Object> parseErrors = new LinkedBlockingQueue<>();
+        request.setOnParseErrorListener(new OnParseErrorListener() {
+            @Override
+            public void onParseError(OnUnexpectedError event) {
+                parseErrors.add(event);
+            }
+        });
+        mQueue.add(request);
+        Object result = nextResult();
+
+        assertTrue(result instanceof BaseNetworkError);
+        assertEquals(GenericErrorType.PARSE_ERROR, ((BaseNetworkError) result).type);
+        assertEquals(1, parseErrors.size());
+    }
+
+    @Test
+    public void testCancelledRequestIsNotDelivered() throws Exception {
+        mServer.setResponse(200, generateItemsJson(1));
+        mServer.setDelayMs(500);
+
+        GsonRequest<ItemsResponse> request = newItemsRequest();
+        request.setTag(this);
+        mQueue.add(request);
+        mQueue.cancelAll(this);
+
+        assertTrue(request.isCanceled());
+        assertNull(mResults.poll(1000, TimeUnit.MILLISECONDS));
+        assertEquals(0, mQueue.getRunningCallCount());
+    }
+
+    @Test
+    public void testNotModifiedResponseIsDelivered() throws Exception {
+        mServer.setResponse(304, "");
+
+        ResponseValidatorCache validatorCache = new ResponseValidatorCache(true);
+        GsonRequest<ItemsResponse> request = newItemsRequest();
+        validatorCache.storeValidators(ResponseValidatorCache.getKey(request.getUrl(), null),
+                Collections.singletonMap("ETag", "\"5f0c2a\""), 1000);
+        request.setValidatorCache(validatorCache, new OnNotModifiedListener() {
+            @Override
+            public void onNotModified() {
+                mResults.add("not-modified");
+            }
+        });
+        mQueue.add(request);
+
+        assertEquals("not-modified", nextResult());
+        assertEquals(1000, validatorCache.getBytesSaved());
+    }
+
+    private GsonRequest<ItemsResponse> newItemsRequest() {
+        return new GsonRequest<ItemsResponse>(Method.GET, null, null, mServer.getUrl(), ItemsResponse.class,
+                new Listener<ItemsResponse>() {
+                    @Override
+                    public void onResponse(ItemsResponse response) {
+                        mResults.add(response);
+                    }
+                }, new BaseErrorListener() {
+                    @Override
+                    public void onErrorResponse(@NonNull BaseNetworkError error) {
+                        mResults.add(error);
+                    }
+                }) {
+            @Override
+            public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
+                return error;
+            }
+        };
+    }
+
+    private Object nextResult() throws InterruptedException {
+        Object result = mResults.poll(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(result);
+        return result;
+    }
+
+    private static String generateItemsJson(int count) {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"name\":\"Item ").append(i).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static class ItemsResponse {
+        List<Item> items;
+    }
+
+    private static class Item {
+        long id;
+        String name;
+    }
+
+    /**
+     * Minimal HTTP/1.1 server answering the same response to every request.
+     */
+    private static class ResponseServer implements Runnable {
+        private final ServerSocket mServerSocket;
+        private volatile byte[] mResponse;
+        private volatile long mDelayMs;
+
+        ResponseServer() throws IOException {
+            mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + mServerSocket.getLocalPort() + "/";
+        }
+
+        void setResponse(int statusCode, String body) throws IOException {
+            byte[] bodyBytes = body.getBytes("UTF-8");
+            String headers = "HTTP/1.1 " + statusCode + " Status\r\n"
+                    + "Content-Type: application/json; charset=utf-8\r\n"
+                    + "Content-Length: " + bodyBytes.length + "\r\n\r\n";
+            byte[] headerBytes = headers.getBytes("UTF-8");
+            byte[] response = new byte[headerBytes.length + bodyBytes.length];
+            System.arraycopy(headerBytes, 0, response, 0, headerBytes.length);
+            System.arraycopy(bodyBytes, 0, response, headerBytes.length, bodyBytes.length);
+            mResponse = response;
+        }
+
+        void setDelayMs(long delayMs) {
+            mDelayMs = delayMs;
+        }
+
+        void close() throws IOException {
+            mServerSocket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!mServerSocket.isClosed()) {
+                try {
+                    final Socket socket = mServerSocket.accept();
+                    new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(socket);
+                        }
+                    }).start();
+                } catch (IOException e) {
+                    // The server was closed
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+                OutputStream output = socket.getOutputStream();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // GET requests have no body, a request ends with its headers
+                    if (line.isEmpty()) {
+                        Thread.sleep(mDelayMs);
+                        output.write(mResponse);
+                        output.flush();
+                    }
+                }
+                socket.close();
+            } catch (IOException e) {
+                // The client closed the connection
+            } catch (InterruptedException e) {
+                // The test is over
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.wordpress.android.fluxc.network;
+
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.Request;
+import com.android.volley.toolbox.StringRequest;
+
+import org.apache.http.HttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class OkHttpStackTest {
+    // Same as the number of network threads of the request queues
+    private static final int THREAD_COUNT = 10;
+    private static final int REQUEST_COUNT = 100;
+    private static final int[] TIMEOUTS_MS = {DefaultRetryPolicy.DEFAULT_TIMEOUT_MS, 10000, 30000};
+
+    private KeepAliveServer mServer;
+
+    @Before
+    public void setUp() throws IOException {
+        mServer = new KeepAliveServer();
+        new Thread(mServer).start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServer.close();
+    }
+
+    @Test
+    public void testClientsAreBuiltOncePerTimeout() throws Exception {
+        OkHttpClient baseClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(THREAD_COUNT, 5, TimeUnit.MINUTES))
+                .build();
+        OkHttpStack stack = new OkHttpStack(baseClient);
+
+        performConcurrentRequests(stack);
+
+        assertEquals(TIMEOUTS_MS.length, stack.getCachedClientCount());
+        for (int timeoutMs : TIMEOUTS_MS) {
+            OkHttpClient client = stack.getClient(timeoutMs);
+            assertSame(client, stack.getClient(timeoutMs));
+            assertSame(baseClient.connectionPool(), client.connectionPool());
+            assertEquals(timeoutMs, client.readTimeoutMillis());
+        }
+        // Connections are reused whatever the timeout of the requests, at most one per thread is opened
+        assertTrue(mServer.getConnectionCount() <= THREAD_COUNT);
+    }
+
+    @Test
+    public void testStacksSharingPoolReuseConnections() throws Exception {
+        // Like the stacks of the "regular" and "custom-ssl" request queues
+        ConnectionPool connectionPool = new ConnectionPool(THREAD_COUNT, 5, TimeUnit.MINUTES);
+        OkHttpStack regularStack = new OkHttpStack(new OkHttpClient.Builder().connectionPool(connectionPool).build());
+        OkHttpStack otherStack = new OkHttpStack(new OkHttpClient.Builder().connectionPool(connectionPool).build());
+
+        performConcurrentRequests(regularStack);
+        int regularConnectionCount = mServer.getConnectionCount();
+        performConcurrentRequests(otherStack);
+
+        // The second stack only uses the connections opened for the first one
+        assertTrue(regularConnectionCount <= THREAD_COUNT);
+        assertEquals(regularConnectionCount, mServer.getConnectionCount());
+        assertEquals(regularConnectionCount, connectionPool.connectionCount());
+    }
+
+    private void performConcurrentRequests(final OkHttpStack stack) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<Integer>> responseCodes = new ArrayList<>();
+            for (int i = 0; i < REQUEST_COUNT; i++) {
+                final int timeoutMs = TIMEOUTS_MS[i % TIMEOUTS_MS.length];
+                responseCodes.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return performRequest(stack, timeoutMs);
+                    }
+                }));
+            }
+            for (Future<Integer> responseCode : responseCodes) {
+                assertEquals(200, responseCode.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int performRequest(OkHttpStack stack, int timeoutMs) throws Exception {
+        StringRequest request = new StringRequest(Request.Method.GET, mServer.getUrl(), null, null);
+        request.setRetryPolicy(new DefaultRetryPolicy(timeoutMs, 0, 1));
+        HttpResponse response = stack.performRequest(request, Collections.<String, String>emptyMap());
+
+        // Read the whole body, so that the connection goes back to the pool
+        InputStream content = response.getEntity().getContent();
+        try {
+            while (content.read() != -1) {
+                // Discard the body
+            }
+        } finally {
+            content.close();
+        }
+        return response.getStatusLine().getStatusCode();
+    }
+
+    /**
+     * Minimal HTTP/1.1 server answering "ok" to every request and keeping connections alive, counting the connections
+     * opened by the clients.
+     */
+    private static class KeepAliveServer implements Runnable {
+        private static final String RESPONSE = "HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\n"
+                + "Content-Length: 2\r\n\r\nok";
+
+        private final ServerSocket mServerSocket;
+        private final AtomicInteger mConnectionCount = new AtomicInteger();
+
+        KeepAliveServer() throws IOException {
+            mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + mServerSocket.getLocalPort() + "/";
+        }
+
+        int getConnectionCount() {
+            return mConnectionCount.get();
+        }
+
+        void close() throws IOException {
+            mServerSocket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!mServerSocket.isClosed()) {
+                try {
+                    final Socket socket = mServerSocket.accept();
+                    mConnectionCount.incrementAndGet();
+                    new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(socket);
+                        }
+                    }).start();
+                } catch (IOException e) {
+                    // The server was closed
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+                OutputStream output = socket.getOutputStream();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // GET requests have no body, a request ends with its headers
+                    if (line.isEmpty()) {
+                        output.write(RESPONSE.getBytes("UTF-8"));
+                        output.flush();
+                    }
+                }
+                socket.close();
+            } catch (IOException e) {
+                // The client closed the connection
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.wordpress.android.fluxc.network;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request.Method;
+import com.android.volley.Response;
+import com.android.volley.Response.Listener;
+import com.yarolegovich.wellsql.WellSql;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.network.BaseRequest.OnNotModifiedListener;
+import org.wordpress.android.fluxc.network.rest.GsonRequest;
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils;
+import org.wordpress.android.fluxc.persistence.WellSqlConfig;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ResponseValidatorCacheTest {
+    private static final String URL = "https://public-api.wordpress.com/rest/v1.1/me/sites";
+    private static final String ETAG = "\"5f0c2a\"";
+    private static final String LAST_MODIFIED = "Tue, 14 Mar 2017 10:00:00 GMT";
+    private static final String BODY = "{\"sites\":[{\"ID\":1,\"name\":\"Example\"}]}";
+
+    private ResponseValidatorCache mCache;
+    private List<Object> mDelivered;
+
+    @Before
+    public void setUp() {
+        mCache = new ResponseValidatorCache(true);
+        mDelivered = new ArrayList<>();
+    }
+
+    @Test
+    public void testValidatorsAreSentWithTheNextRequest() throws UnsupportedEncodingException {
+        TestRequest firstRequest = newRequest(Method.GET, "token");
+        assertFalse(firstRequest.getHeaders().containsKey("If-None-Match"));
+        assertTrue(firstRequest.parse(newNetworkResponse(200, BODY, true)).isSuccess());
+
+        Map<String, String> headers = newRequest(Method.GET, "token").getHeaders();
+        assertEquals(ETAG, headers.get("If-None-Match"));
+        assertEquals(LAST_MODIFIED, headers.get("If-Modified-Since"));
+        assertEquals("Bearer token", headers.get("Authorization"));
+    }
+
+    @Test
+    public void testValidatorsAreKeptPerAuthorization() throws UnsupportedEncodingException {
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+
+        assertFalse(newRequest(Method.GET, "other-token").getHeaders().containsKey("If-None-Match"));
+        assertFalse(newRequest(Method.GET, null).getHeaders().containsKey("If-None-Match"));
+    }
+
+    @Test
+    public void testResponseWithoutValidatorsClearsThem() throws UnsupportedEncodingException {
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, false));
+
+        assertFalse(newRequest(Method.GET, "token").getHeaders().containsKey("If-None-Match"));
+    }
+
+    @Test
+    public void testNotModifiedIsDeliveredToItsListener() throws UnsupportedEncodingException {
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+
+        TestRequest request = newRequest(Method.GET, "token");
+        Response<SitesResponse> response = request.parse(newNetworkResponse(304, "", true));
+        assertTrue(response.isSuccess());
+        request.deliver(response.result);
+
+        assertEquals(1, mDelivered.size());
+        assertEquals("not-modified", mDelivered.get(0));
+        assertEquals(1, mCache.getNotModifiedCount());
+        assertEquals(BODY.getBytes("UTF-8").length, mCache.getBytesSaved());
+    }
+
+    @Test
+    public void testModifiedResponseIsParsed() throws UnsupportedEncodingException {
+        TestRequest request = newRequest(Method.GET, "token");
+        Response<SitesResponse> response = request.parse(newNetworkResponse(200, BODY, true));
+        request.deliver(response.result);
+
+        assertEquals(1, mDelivered.size());
+        assertEquals("Example", ((SitesResponse) mDelivered.get(0)).sites.get(0).name);
+        assertEquals(0, mCache.getBytesSaved());
+    }
+
+    @Test
+    public void testDisabledCacheAndOtherMethodsAreUnconditional() throws UnsupportedEncodingException {
+        TestRequest postRequest = newRequest(Method.POST, "token");
+        postRequest.parse(newNetworkResponse(200, BODY, true));
+        assertFalse(newRequest(Method.POST, "token").getHeaders().containsKey("If-None-Match"));
+
+        mCache = new ResponseValidatorCache(false);
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+        assertFalse(newRequest(Method.GET, "token").getHeaders().containsKey("If-None-Match"));
+    }
+
+    @Test
+    public void testClear() throws UnsupportedEncodingException {
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+        mCache.clear();
+
+        assertNull(newRequest(Method.GET, "token").getHeaders().get("If-None-Match"));
+    }
+
+    @Test
+    public void testLocalDeletionClearsValidators() throws UnsupportedEncodingException {
+        Context appContext = RuntimeEnvironment.application.getApplicationContext();
+        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, SiteModel.class);
+        WellSql.init(config);
+        config.reset();
+
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+        assertEquals(ETAG, newRequest(Method.GET, "token").getHeaders().get("If-None-Match"));
+
+        // The sites persisted from the response are gone, a 304 wouldn't bring them back
+        SiteSqlUtils.deleteAllSites();
+        assertFalse(newRequest(Method.GET, "token").getHeaders().containsKey("If-None-Match"));
+
+        newRequest(Method.GET, "token").parse(newNetworkResponse(200, BODY, true));
+        config.reset();
+        assertFalse(newRequest(Method.GET, "token").getHeaders().containsKey("If-None-Match"));
+    }
+
+    private TestRequest newRequest(int method, String token) {
+        TestRequest request = new TestRequest(method, new Listener<SitesResponse>() {
+            @Override
+            public void onResponse(SitesResponse response) {
+                mDelivered.add(response);
+            }
+        });
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        request.setValidatorCache(mCache, new OnNotModifiedListener() {
+            @Override
+            public void onNotModified() {
+                mDelivered.add("not-modified");
+            }
+        });
+        return request;
+    }
+
+    private static NetworkResponse newNetworkResponse(int statusCode, String body, boolean withValidators)
+            throws UnsupportedEncodingException {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json; charset=UTF-8");
+        if (withValidators) {
+            headers.put("ETag", ETAG);
+            headers.put("Last-Modified", LAST_MODIFIED);
+        }
+        return new NetworkResponse(statusCode, body.getBytes("UTF-8"), headers, statusCode == 304);
+    }
+
+    private static class TestRequest extends GsonRequest<SitesResponse> {
+        TestRequest(int method, Listener<SitesResponse> listener) {
+            super(method, null, null, URL, SitesResponse.class, listener, null);
+        }
+
+        Response<SitesResponse> parse(NetworkResponse response) {
+            return parseNetworkResponse(response);
+        }
+
+        void deliver(SitesResponse response) {
+            deliverResponse(response);
+        }
+
+        @Override
+        public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
+            return error;
+        }
+    }
+
+    private static class SitesResponse {
+        List<Site> sites;
+    }
+
+    private static class Site {
+        long ID;
+        String name;
+    }
+}
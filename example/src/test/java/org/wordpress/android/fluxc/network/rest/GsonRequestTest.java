@@ -0,0 +1,144 @@
+package org.wordpress.android.fluxc.network.rest;
+
+import android.support.annotation.NonNull;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request.Method;
+import com.android.volley.Response;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class GsonRequestTest {
+    private static final int ITEM_COUNT = 500;
+
+    @Test
+    public void testListIsConvertedAsParsed() throws UnsupportedEncodingException {
+        ItemsRequest request = new ItemsRequest();
+        NameConverter converter = new NameConverter();
+        request.setListConverter(converter);
+
+        Response<ItemsResponse> response = request.parseNetworkResponse(newNetworkResponse(
+                "{\"found\":3,\"items\":[{\"id\":1,\"name\":\"a\"},null,{\"id\":2,\"name\":\"b\"}],"
+                + "\"meta\":{\"next_page\":\"page2\"}}"));
+
+        assertTrue(response.isSuccess());
+        assertEquals(3, response.result.found);
+        assertEquals("page2", response.result.meta.next_page);
+        // The list is only given to the converter
+        assertNull(response.result.items);
+        assertEquals(2, converter.getModels().size());
+        assertEquals("a", converter.getModels().get(0));
+        assertEquals("b", converter.getModels().get(1));
+    }
+
+    @Test
+    public void testMissingListHasNoModels() throws UnsupportedEncodingException {
+        ItemsRequest request = new ItemsRequest();
+        NameConverter converter = new NameConverter();
+        request.setListConverter(converter);
+
+        Response<ItemsResponse> response = request.parseNetworkResponse(newNetworkResponse("{\"found\":0}"));
+
+        assertTrue(response.isSuccess());
+        assertEquals(0, response.result.found);
+        assertNull(converter.getModels());
+    }
+
+    @Test
+    public void testMalformedListIsParseError() throws UnsupportedEncodingException {
+        ItemsRequest request = new ItemsRequest();
+        request.setListConverter(new NameConverter());
+
+        Response<ItemsResponse> response = request.parseNetworkResponse(newNetworkResponse(
+                "{\"found\":1,\"items\":[{\"id\":1,"));
+
+        assertFalse(response.isSuccess());
+    }
+
+    @Test
+    public void testLargeListConvertsAllItems() throws UnsupportedEncodingException {
+        NetworkResponse networkResponse = newNetworkResponse(generateItemsJson(ITEM_COUNT));
+
+        Response<ItemsResponse> response = new ItemsRequest().parseNetworkResponse(networkResponse);
+        assertEquals(ITEM_COUNT, response.result.items.size());
+
+        // Converting the items as they're parsed gives the models of the whole response, in order
+        ItemsRequest request = new ItemsRequest();
+        NameConverter converter = new NameConverter();
+        request.setListConverter(converter);
+        assertTrue(request.parseNetworkResponse(networkResponse).isSuccess());
+        assertEquals(ITEM_COUNT, converter.getModels().size());
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(response.result.items.get(i).name, converter.getModels().get(i));
+        }
+    }
+
+    private static NetworkResponse newNetworkResponse(String json) throws UnsupportedEncodingException {
+        return new NetworkResponse(200, json.getBytes("UTF-8"),
+                Collections.singletonMap("Content-Type", "application/json; charset=UTF-8"), false);
+    }
+
+    private static String generateItemsJson(int count) {
+        StringBuilder json = new StringBuilder("{\"found\":").append(count).append(",\"items\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"name\":\"Item ").append(i)
+                    .append("\",\"content\":\"<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do ")
+                    .append("eiusmod tempor incididunt ut labore et dolore magna aliqua.</p>\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static class ItemsRequest extends GsonRequest<ItemsResponse> {
+        ItemsRequest() {
+            super(Method.GET, null, null, "https://public-api.wordpress.com/rest/v1.1/items", ItemsResponse.class,
+                    null, null);
+        }
+
+        @Override
+        public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
+            return error;
+        }
+    }
+
+    private static class NameConverter extends ResponseListConverter<Item, String> {
+        NameConverter() {
+            super("items", Item.class);
+        }
+
+        @Override
+        protected String convert(@NonNull Item element) {
+            return element.name;
+        }
+    }
+
+    private static class ItemsResponse {
+        int found;
+        List<Item> items;
+        Meta meta;
+    }
+
+    private static class Item {
+        long id;
+        String name;
+        String content;
+    }
+
+    private static class Meta {
+        String next_page;
+    }
+}
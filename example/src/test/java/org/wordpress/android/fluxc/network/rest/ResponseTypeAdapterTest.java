@@ -0,0 +1,177 @@
+package org.wordpress.android.fluxc.network.rest;
+
+import android.support.annotation.NonNull;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request.Method;
+import com.android.volley.Response;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.TestUtils;
+import org.wordpress.android.fluxc.generated.PostWPComRestResponseTypeAdapter;
+import org.wordpress.android.fluxc.generated.ResponseTypeAdapterFactory;
+import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaWPComRestResponse;
+import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaWPComRestResponse.MultipleMediaResponse;
+import org.wordpress.android.fluxc.network.rest.wpcom.post.PostWPComRestResponse;
+import org.wordpress.android.fluxc.network.rest.wpcom.post.PostWPComRestResponse.PostsResponse;
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteWPComRestResponse.SitesResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ResponseTypeAdapterTest {
+    private static final int ITERATIONS = 500;
+
+    @Test
+    public void testFactoryProvidesGeneratedAdapters() {
+        Gson gson = newGeneratedGson();
+
+        assertTrue(gson.getAdapter(PostWPComRestResponse.class) instanceof PostWPComRestResponseTypeAdapter);
+        // The classes that aren't annotated keep the reflective adapters
+        assertNull(new ResponseTypeAdapterFactory().create(gson, TypeToken.get(PostsResponse.class)));
+    }
+
+    @Test
+    public void testGeneratedAdaptersMatchReflection() throws IOException {
+        assertSameAsReflection("posts.json", PostsResponse.class);
+        assertSameAsReflection("sites.json", SitesResponse.class);
+        assertSameAsReflection("media.json", MultipleMediaResponse.class);
+    }
+
+    @Test
+    public void testGeneratedAdapterReadsSamplePost() throws IOException {
+        Response<PostsResponse> response = new TestRequest<>(PostsResponse.class)
+                .parseNetworkResponse(newNetworkResponse(readSample("posts.json")));
+
+        assertTrue(response.isSuccess());
+        PostWPComRestResponse post = response.result.posts.get(0);
+        assertEquals(210, post.ID);
+        assertEquals("Weekend in the mountains", post.title);
+        assertTrue(post.sticky);
+        assertEquals(1600, post.post_thumbnail.width);
+        assertEquals("Lausanne, Switzerland", post.geo.address);
+        assertEquals("travel", post.tags.get("travel").slug);
+        assertTrue(post.capabilities.edit_post);
+        // "parent": false
+        assertNull(post.parent);
+        MediaWPComRestResponse media = new TestRequest<>(MultipleMediaResponse.class)
+                .parseNetworkResponse(newNetworkResponse(readSample("media.json"))).result.media.get(2);
+        assertEquals("x1Y2z3W4", media.videopress_guid);
+        assertTrue(media.videopress_processing_done);
+    }
+
+    @Test
+    public void testSamplePayloadsParsingBenchmark() throws IOException {
+        TestUtils.assumeBenchmarksEnabled();
+        benchmark("posts.json", PostsResponse.class);
+        benchmark("sites.json", SitesResponse.class);
+        benchmark("media.json", MultipleMediaResponse.class);
+    }
+
+    private static <T> void assertSameAsReflection(String sample, Class<T> clazz) throws IOException {
+        byte[] json = readSample(sample);
+        Gson reflectiveGson = GsonRequest.newGsonBuilder().create();
+
+        T reflective = reflectiveGson.fromJson(new InputStreamReader(new ByteArrayInputStream(json), "UTF-8"),
+                clazz);
+        Response<T> response = new TestRequest<>(clazz).parseNetworkResponse(newNetworkResponse(json));
+
+        assertTrue(response.isSuccess());
+        assertNotNull(reflective);
+        assertEquals(reflectiveGson.toJson(reflective), reflectiveGson.toJson(response.result));
+    }
+
+    private static <T> void benchmark(String sample, Class<T> clazz) throws IOException {
+        byte[] json = readSample(sample);
+
+        // Warm up Gson and the JIT
+        Gson reflectiveGson = GsonRequest.newGsonBuilder().create();
+        Gson generatedGson = newGeneratedGson();
+        for (int i = 0; i < ITERATIONS; i++) {
+            reflectiveGson.fromJson(new String(json, "UTF-8"), clazz);
+            generatedGson.fromJson(new String(json, "UTF-8"), clazz);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            // What each request did before: build its own Gson, and parse with reflection
+            GsonRequest.newGsonBuilder().create().fromJson(new String(json, "UTF-8"), clazz);
+        }
+        long gsonPerRequestNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            reflectiveGson.fromJson(new String(json, "UTF-8"), clazz);
+        }
+        long reflectiveNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            generatedGson.fromJson(new String(json, "UTF-8"), clazz);
+        }
+        long generatedNanos = System.nanoTime() - start;
+
+        System.out.println(sample + " (" + json.length / 1024 + " KB), " + ITERATIONS + " parses:");
+        System.out.println("  Gson per request, reflection: " + TimeUnit.NANOSECONDS.toMillis(gsonPerRequestNanos)
+                + " ms");
+        System.out.println("  shared Gson, reflection: " + TimeUnit.NANOSECONDS.toMillis(reflectiveNanos) + " ms");
+        System.out.println("  shared Gson, generated adapters: " + TimeUnit.NANOSECONDS.toMillis(generatedNanos)
+                + " ms");
+
+        // The timings compare parses giving the same result
+        assertEquals(reflectiveGson.toJson(reflectiveGson.fromJson(new String(json, "UTF-8"), clazz)),
+                reflectiveGson.toJson(generatedGson.fromJson(new String(json, "UTF-8"), clazz)));
+    }
+
+    private static Gson newGeneratedGson() {
+        return GsonRequest.newGsonBuilder().registerTypeAdapterFactory(new ResponseTypeAdapterFactory()).create();
+    }
+
+    private static byte[] readSample(String name) throws IOException {
+        InputStream input = ResponseTypeAdapterTest.class.getClassLoader()
+                .getResourceAsStream("wpcom-responses/" + name);
+        assertNotNull(input);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+
+    private static NetworkResponse newNetworkResponse(byte[] json) {
+        return new NetworkResponse(200, json,
+                Collections.singletonMap("Content-Type", "application/json; charset=UTF-8"), false);
+    }
+
+    private static class TestRequest<T> extends GsonRequest<T> {
+        TestRequest(Class<T> clazz) {
+            super(Method.GET, null, null, "https://public-api.wordpress.com/rest/v1.1/sites", clazz, null, null);
+        }
+
+        @Override
+        public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
+            return error;
+        }
+    }
+}
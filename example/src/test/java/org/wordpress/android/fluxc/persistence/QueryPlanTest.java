@@ -0,0 +1,206 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.sqlite.SQLiteCursor;
+
+import com.wellsql.generated.CommentModelTable;
+import com.wellsql.generated.MediaModelTable;
+import com.wellsql.generated.SiteModelTable;
+import com.yarolegovich.wellsql.SelectQuery;
+import com.yarolegovich.wellsql.WellSql;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.model.CommentStatus;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.TermModel;
+import org.wordpress.android.fluxc.store.TaxonomyStore;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the queries made by the *SqlUtils classes are served by the indexes created in {@link WellSqlConfig}. The
+ * plans are those of the SQL built by the *SqlUtils query builders, read back from the cursors they open.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest {
+    private static final String SQLITE_QUERY_PREFIX = "SQLiteQuery: ";
+
+    private SiteModel mSite;
+
+    @Before
+    public void setUp() {
+        Context appContext = RuntimeEnvironment.application.getApplicationContext();
+
+        WellSqlConfig config = new WellSqlConfig(appContext);
+        WellSql.init(config);
+        config.reset();
+
+        mSite = new SiteModel();
+        mSite.setId(1);
+        mSite.setSiteId(10);
+        mSite.setUrl("http://example.com");
+        mSite.setXmlRpcUrl("http://example.com/xmlrpc.php");
+    }
+
+    @Test
+    public void testPostQueriesUseIndexes() {
+        PostModel post = new PostModel();
+        post.setId(1);
+        post.setLocalSiteId(mSite.getId());
+        post.setRemotePostId(10);
+        post.setDateCreated("2017-01-01T00:00:00+00:00");
+
+        // PostSqlUtils.insertOrUpdatePost
+        assertUsesIndex(getSql(PostSqlUtils.getExistingPostQuery(post)));
+        // PostSqlUtils.insertOrUpdatePosts
+        assertUsesIndex(getSql(PostSqlUtils.getPostsWithRemoteIdsQuery(mSite.getId(), Arrays.asList(10L, 11L))));
+        // PostSqlUtils.getPostsForSite, getPostSummariesForSite
+        assertUsesSortedIndex(getSql(PostSqlUtils.getPostsForSiteQuery(mSite, false)));
+        assertUsesSortedIndex(getSql(PostSqlUtils.getPostSummariesForSiteAsCursor(mSite, false)));
+        // PostSqlUtils.getUploadedPostsForSite
+        assertUsesSortedIndex(getSql(PostSqlUtils.getUploadedPostsForSiteQuery(mSite, false)));
+        assertUsesSortedIndex(getSql(PostSqlUtils.getUploadedPostsForSiteQuery(mSite, false, null, 20)));
+        assertUsesSortedIndex(getSql(PostSqlUtils.getUploadedPostsForSiteQuery(mSite, false, post, 20)));
+    }
+
+    @Test
+    public void testCommentQueriesUseIndexes() {
+        // CommentSqlUtils.insertOrUpdateComment, getCommentBySiteAndRemoteId
+        assertUsesIndex(getSql(CommentSqlUtils.getCommentsWithRemoteIdQuery(mSite.getId(), 10)));
+        // CommentSqlUtils.getCommentsForSite
+        assertUsesSortedIndex(getSql(CommentSqlUtils.getCommentsQueryForSite(mSite, CommentStatus.APPROVED,
+                CommentStatus.UNAPPROVED).orderBy(CommentModelTable.DATE_PUBLISHED, SelectQuery.ORDER_DESCENDING)));
+    }
+
+    @Test
+    public void testMediaQueriesUseIndexes() {
+        // MediaSqlUtils.getSiteMediaWithId
+        String sql = getSql(MediaSqlUtils.getSiteMediaWithIdQuery(mSite, 10));
+        assertUsesSortedIndex(sql);
+        assertTrue(getQueryPlan(sql).get(0).contains(MediaModelTable.MEDIA_ID + "=?"));
+        // MediaSqlUtils.getAllSiteMedia
+        assertUsesSortedIndex(getSql(MediaSqlUtils.getAllSiteMediaQuery(mSite)));
+        // MediaSqlUtils.getSiteImages
+        assertUsesSortedIndex(getSql(MediaSqlUtils.getSiteImagesQuery(mSite)));
+        // MediaSqlUtils.matchSiteMedia
+        assertUsesSortedIndex(getSql(MediaSqlUtils.matchSiteMediaQuery(mSite, MediaModelTable.UPLOAD_STATE,
+                "UPLOADED")));
+        // MediaSqlUtils.matchPostMedia
+        assertUsesSortedIndex(getSql(MediaSqlUtils.matchPostMediaQuery(10, MediaModelTable.UPLOAD_STATE,
+                "UPLOADED")));
+    }
+
+    @Test
+    public void testTermQueriesUseIndexes() {
+        TermModel term = new TermModel();
+        term.setId(1);
+        term.setLocalSiteId(mSite.getId());
+        term.setRemoteTermId(10);
+        term.setTaxonomy(TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY);
+
+        // TaxonomySqlUtils.insertOrUpdateTerm
+        assertUsesIndex(getSql(TaxonomySqlUtils.getExistingTermQuery(term)));
+        // TaxonomySqlUtils.getTermsForSite
+        assertUsesIndex(getSql(TaxonomySqlUtils.getTermsForSiteQuery(mSite,
+                TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY)));
+        // TaxonomySqlUtils.getTermByRemoteId
+        assertUsesIndex(getSql(TaxonomySqlUtils.getTermByRemoteIdQuery(mSite, 10,
+                TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY)));
+        // TaxonomySqlUtils.getTermByName
+        assertUsesIndex(getSql(TaxonomySqlUtils.getTermByNameQuery(mSite, "name",
+                TaxonomyStore.DEFAULT_TAXONOMY_TAG)));
+    }
+
+    @Test
+    public void testPostTermQueriesUseIndexes() {
+        // PostTermSqlUtils.getTermsForPosts, the terms are ordered with a temporary b-tree
+        assertUsesIndex(PostTermSqlUtils.getTermsForPostsSql(TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY, 2));
+        assertUsesIndex(PostTermSqlUtils.getTermsForPostsSql(TaxonomyStore.DEFAULT_TAXONOMY_TAG, 2));
+        // PostTermSqlUtils.getPostsForTerm
+        assertUsesIndex(PostTermSqlUtils.getPostsForTermSql(TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY));
+        assertUsesIndex(PostTermSqlUtils.getPostsForTermSql(TaxonomyStore.DEFAULT_TAXONOMY_TAG));
+    }
+
+    @Test
+    public void testSiteQueriesUseIndexes() {
+        // SiteSqlUtils.insertOrUpdateSite
+        assertUsesIndex(getSql(SiteSqlUtils.getSitesWith(SiteModelTable.SITE_ID, mSite.getSiteId())));
+        assertUsesIndex(getSql(SiteSqlUtils.getSitesWithRemoteIdAndUrlQuery(mSite.getSiteId(), mSite.getUrl())));
+        assertUsesIndex(getSql(SiteSqlUtils.getSitesWithXmlRpcUrlQuery(mSite.getXmlRpcUrl())));
+        // SiteSqlUtils.getPostFormats
+        assertUsesIndex(getSql(SiteSqlUtils.getPostFormatsQuery(mSite)));
+    }
+
+    /**
+     * Fails if the table of a step is read in full. Steps that don't read a table (e.g. the temporary b-tree of an
+     * ORDER BY, or the list of an IN clause) are allowed.
+     */
+    private static void assertUsesIndex(String sql) {
+        for (String step : getQueryPlan(sql)) {
+            assertFalse("Full scan: " + step + " in " + sql,
+                    step.startsWith("SCAN") && !step.startsWith("SCAN CONSTANT ROW"));
+        }
+    }
+
+    private static void assertUsesSortedIndex(String sql) {
+        assertUsesIndex(sql);
+        for (String step : getQueryPlan(sql)) {
+            assertFalse("Sort without index: " + step + " in " + sql, step.contains("TEMP B-TREE"));
+        }
+    }
+
+    private static List<String> getQueryPlan(String sql) {
+        List<String> steps = new ArrayList<>();
+        // Unbound parameters are null, they don't change the plan
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery("EXPLAIN QUERY PLAN " + sql, null);
+        try {
+            int detailColumn = cursor.getColumnIndex("detail");
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detailColumn));
+            }
+        } finally {
+            cursor.close();
+        }
+        assertFalse(steps.isEmpty());
+        return steps;
+    }
+
+    private static String getSql(SelectQuery<?> query) {
+        return getSql(query.getAsCursor());
+    }
+
+    /**
+     * @return the SQL of the query that opened the given cursor, with its parameters left as '?'
+     */
+    private static String getSql(Cursor cursor) {
+        try {
+            Cursor databaseCursor = cursor;
+            while (databaseCursor instanceof CursorWrapper) {
+                databaseCursor = ((CursorWrapper) databaseCursor).getWrappedCursor();
+            }
+            assertTrue("Not a database cursor: " + databaseCursor, databaseCursor instanceof SQLiteCursor);
+            Field queryField = SQLiteCursor.class.getDeclaredField("mQuery");
+            queryField.setAccessible(true);
+            String query = String.valueOf(queryField.get(databaseCursor));
+            assertTrue(query.startsWith(SQLITE_QUERY_PREFIX));
+            return query.substring(SQLITE_QUERY_PREFIX.length());
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.wordpress.android.fluxc.post;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
 
+import com.wellsql.generated.PostModelTable;
 import com.yarolegovich.wellsql.WellSql;
 
 import org.junit.Before;
@@ -11,35 +13,61 @@ import org.mockito.Mockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
 import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests;
+import org.wordpress.android.fluxc.TestUtils;
+import org.wordpress.android.fluxc.generated.PostActionBuilder;
 import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostSummary;
+import org.wordpress.android.fluxc.model.PostSyncStateModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
+import org.wordpress.android.fluxc.model.PostsModel;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.TermModel;
+import org.wordpress.android.fluxc.model.post.PostStatus;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.ChangeSet;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier.TableChangeListener;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.store.PostStore;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsPayload;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsResponsePayload;
+import org.wordpress.android.fluxc.store.PostStore.PostError;
+import org.wordpress.android.fluxc.store.PostStore.PostErrorType;
+import org.wordpress.android.fluxc.store.TaxonomyStore;
 import org.wordpress.android.util.DateTimeUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 @RunWith(RobolectricTestRunner.class)
 public class PostStoreUnitTest {
-    private PostStore mPostStore = new PostStore(new Dispatcher(), Mockito.mock(PostRestClient.class),
-            Mockito.mock(PostXMLRPCClient.class));
+    private PostStore mPostStore = new PostStore(new Dispatcher(), new QueryExecutor(),
+            Mockito.mock(PostRestClient.class), Mockito.mock(PostXMLRPCClient.class));
 
     @Before
     public void setUp() {
         Context appContext = RuntimeEnvironment.application.getApplicationContext();
 
-        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, PostModel.class);
+        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, PostModel.class,
+                PostTermModel.class, PostSyncStateModel.class);
         WellSql.init(config);
         config.reset();
     }
@@ -143,6 +171,35 @@ public class PostStoreUnitTest {
         assertEquals(1, mPostStore.getPostsCountForSite(site2));
     }
 
+    @Test
+    public void testGetPostsForSiteAsync() throws InterruptedException {
+        final CountDownLatch callbackLatch = new CountDownLatch(1);
+        final List<PostModel> result = new ArrayList<>();
+        QueryExecutor queryExecutor = new QueryExecutor(1, new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        });
+        PostStore postStore = new PostStore(new Dispatcher(), queryExecutor, Mockito.mock(PostRestClient.class),
+                Mockito.mock(PostXMLRPCClient.class));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(generateFetchedPosts(2)));
+
+        postStore.getPostsForSiteAsync(site, new QueryCallback<List<PostModel>>() {
+            @Override
+            public void onQueryResult(List<PostModel> posts) {
+                result.addAll(posts);
+                callbackLatch.countDown();
+            }
+        });
+
+        assertTrue(callbackLatch.await(TestUtils.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(2, result.size());
+        queryExecutor.shutdown();
+    }
+
     @Test
     public void testGetPostsWithFormatForSite() {
         PostModel textPost = PostTestUtils.generateSampleUploadedPost();
@@ -254,6 +311,49 @@ public class PostStoreUnitTest {
         assertEquals(0, PostTestUtils.getPostsCount());
     }
 
+    @Test
+    public void testPostDeletionsNotifyPostTerms() {
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        List<PostModel> fetchedPosts = generateFetchedPosts(3);
+        for (PostModel post : fetchedPosts) {
+            post.setCategoryIdList(Arrays.asList(12L));
+        }
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts));
+
+        final List<String> tableChanges = new ArrayList<>();
+        TableChangeListener listener = new TableChangeListener() {
+            @Override
+            public void onTableChanged(@NonNull Class<?> table, int localSiteId) {
+                tableChanges.add(table.getSimpleName() + ":" + localSiteId);
+            }
+        };
+        TableChangeNotifier.addListener(listener);
+        try {
+            // The terms of a deleted post are deleted with it
+            PostSqlUtils.deletePost(fetchedPosts.get(0));
+            assertEquals(Arrays.asList("PostTermModel:6", "PostModel:6"), tableChanges);
+
+            // Also when the post is missing from a fresh fetch
+            tableChanges.clear();
+            PostSqlUtils.reconcileUploadedPostsForSite(site, false,
+                    new PostsModel(Collections.singletonList(fetchedPosts.get(1))));
+            assertTrue(tableChanges.contains("PostTermModel:6"));
+            assertTrue(tableChanges.contains("PostModel:6"));
+
+            tableChanges.clear();
+            PostSqlUtils.deleteAllPosts();
+            assertEquals(Arrays.asList("PostTermModel:-1", "PostModel:-1"), tableChanges);
+        } finally {
+            TableChangeNotifier.removeListener(listener);
+        }
+        TermModel category = new TermModel();
+        category.setLocalSiteId(6);
+        category.setRemoteTermId(12);
+        category.setTaxonomy(TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY);
+        assertTrue(mPostStore.getPostsForTerm(category).isEmpty());
+    }
+
     @Test
     public void testPostAndPageSeparation() {
         SiteModel site = new SiteModel();
@@ -328,4 +428,617 @@ public class PostStoreUnitTest {
 
         assertEquals(0, PostTestUtils.getPostsCount());
     }
+
+    @Test
+    public void testConcurrentIdenticalFetchesShareOneRequest() {
+        PostRestClient postRestClient = Mockito.mock(PostRestClient.class);
+        PostStore postStore = new PostStore(new Dispatcher(), new QueryExecutor(), postRestClient,
+                Mockito.mock(PostXMLRPCClient.class));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        site.setIsWPCom(true);
+
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        postStore.onAction(PostActionBuilder.newFetchPagesAction(new FetchPostsPayload(site)));
+
+        Mockito.verify(postRestClient, Mockito.times(1)).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+        Mockito.verify(postRestClient, Mockito.times(1)).fetchPosts(site, true, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+
+        // Once the response is handled, errors included, the same fetch goes to the network again
+        postStore.onAction(PostActionBuilder.newFetchedPostsAction(new FetchPostsResponsePayload(
+                new PostError(PostErrorType.GENERIC_ERROR), site, false, false)));
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+
+        Mockito.verify(postRestClient, Mockito.times(2)).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+
+        // Without the stored posts, the mark is gone too
+        PostSqlUtils.deleteAllPosts();
+        assertNull(PostSqlUtils.getLastModifiedDate(site, false));
+    }
+
+    @Test
+    public void testBulkInsertOrUpdateKeepsLocalChanges() {
+        PostModel locallyChangedPost = PostTestUtils.generateSampleLocallyChangedPost();
+        PostSqlUtils.insertPostForResult(locallyChangedPost);
+        PostModel uploadedPost = PostTestUtils.generateSampleUploadedPost();
+        PostSqlUtils.insertPostForResult(uploadedPost);
+
+        List<PostModel> fetchedPosts = new ArrayList<>();
+        fetchedPosts.add(generateFetchedPost(locallyChangedPost.getRemotePostId(), "Remote title"));
+        fetchedPosts.add(generateFetchedPost(uploadedPost.getRemotePostId(), "Remote title"));
+        fetchedPosts.add(generateFetchedPost(42, "New post"));
+
+        // The locally changed post is left as is, the other one is updated and the new one inserted
+        assertEquals(2, PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts)));
+
+        assertEquals(3, PostTestUtils.getPostsCount());
+        assertEquals("A test post", mPostStore.getPostByLocalPostId(locallyChangedPost.getId()).getTitle());
+        assertEquals("Remote title", mPostStore.getPostByLocalPostId(uploadedPost.getId()).getTitle());
+    }
+
+    @Test
+    public void testReconcileUploadedPostsForSite() {
+        PostModel locallyChangedPost = PostTestUtils.generateSampleLocallyChangedPost();
+        PostSqlUtils.insertPostForResult(locallyChangedPost);
+        PostModel draft = PostSqlUtils.insertPostForResult(PostTestUtils.generateSampleLocalDraftPost());
+        PostModel unchangedPost = PostSqlUtils.insertPostForResult(generateFetchedPost(5, "Same title"));
+        PostModel changedPost = PostSqlUtils.insertPostForResult(generateFetchedPost(8, "Old title"));
+        PostModel deletedPost = PostSqlUtils.insertPostForResult(generateFetchedPost(9, "Deleted remotely"));
+
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        List<PostModel> fetchedPosts = new ArrayList<>();
+        fetchedPosts.add(generateFetchedPost(42, "New post"));
+        fetchedPosts.add(generateFetchedPost(5, "Same title"));
+        fetchedPosts.add(generateFetchedPost(8, "New title"));
+        fetchedPosts.add(generateFetchedPost(7, "Remote title"));
+
+        ChangeSet changeSet = PostSqlUtils.reconcileUploadedPostsForSite(site, false, new PostsModel(fetchedPosts));
+
+        // Only the rows that differ are written, and the fetched posts keep the local ids of their rows
+        assertEquals(Collections.singletonList(fetchedPosts.get(0).getId()), changeSet.getInsertedIds());
+        assertEquals(Collections.singletonList(changedPost.getId()), changeSet.getUpdatedIds());
+        assertEquals(Collections.singletonList(deletedPost.getId()), changeSet.getDeletedIds());
+        assertEquals(unchangedPost.getId(), fetchedPosts.get(1).getId());
+        assertEquals(changedPost.getId(), fetchedPosts.get(2).getId());
+
+        // The local draft and local changes are kept
+        assertEquals(5, PostTestUtils.getPostsCount());
+        assertEquals("New title", mPostStore.getPostByLocalPostId(changedPost.getId()).getTitle());
+        assertEquals("A test post", mPostStore.getPostByLocalPostId(locallyChangedPost.getId()).getTitle());
+        assertNotNull(mPostStore.getPostByLocalPostId(draft.getId()));
+        assertNull(mPostStore.getPostByLocalPostId(deletedPost.getId()));
+
+        // Fetching the same page again changes nothing
+        assertTrue(PostSqlUtils.reconcileUploadedPostsForSite(site, false, new PostsModel(fetchedPosts)).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalFetch() {
+        PostRestClient postRestClient = Mockito.mock(PostRestClient.class);
+        PostStore postStore = new PostStore(new Dispatcher(), new QueryExecutor(), postRestClient,
+                Mockito.mock(PostXMLRPCClient.class));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        site.setIsWPCom(true);
+
+        // Nothing synced yet, the first page is fetched
+        assertNull(PostSqlUtils.getLastModifiedDate(site, false));
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        Mockito.verify(postRestClient).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+
+        PostModel oldPost = generateFetchedPost(5, "Old post");
+        oldPost.setDateModified("2016-01-01T10:00:00+00:00");
+        PostModel trashedPost = generateFetchedPost(8, "Trashed post");
+        trashedPost.setDateModified("2016-01-02T10:00:00+00:00");
+        postStore.onAction(PostActionBuilder.newFetchedPostsAction(new FetchPostsResponsePayload(
+                new PostsModel(Arrays.asList(oldPost, trashedPost)), site, false, false, false)));
+
+        // Only the posts modified since the last sync are fetched
+        assertEquals("2016-01-02T10:00:00+00:00", PostSqlUtils.getLastModifiedDate(site, false));
+        assertNull(PostSqlUtils.getLastModifiedDate(site, true));
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        Mockito.verify(postRestClient).fetchModifiedPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST,
+                "2016-01-02T10:00:00+00:00");
+
+        // A post pushed or fetched on its own doesn't move the sync mark, other posts may have changed since
+        PostModel pushedPost = generateFetchedPost(12, "Pushed post");
+        pushedPost.setDateModified("2016-01-05T10:00:00+00:00");
+        PostSqlUtils.insertOrUpdatePostOverwritingLocalChanges(pushedPost);
+        assertEquals("2016-01-02T10:00:00+00:00", PostSqlUtils.getLastModifiedDate(site, false));
+
+        // The REST API sends the dates with the site's offset: they're compared as instants and stored in UTC
+        PostModel modifiedPost = generateFetchedPost(42, "New post");
+        modifiedPost.setDateModified("2016-01-03T12:00:00+02:00");
+        PostModel trashedRemotely = generateFetchedPost(8, "Trashed post");
+        trashedRemotely.setStatus(PostStatus.TRASHED.toString());
+        trashedRemotely.setDateModified("2016-01-03T09:00:00-02:00");
+        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(
+                new PostsModel(Arrays.asList(modifiedPost, trashedRemotely)), site, false, false, false);
+        payload.modifiedAfter = "2016-01-02T10:00:00+00:00";
+        postStore.onAction(PostActionBuilder.newFetchedPostsAction(payload));
+
+        // The modified post is added, the trashed one removed, and the posts not returned are kept
+        assertEquals(3, PostTestUtils.getPostsCount());
+        assertNotNull(postStore.getPostByLocalPostId(oldPost.getId()));
+        assertNull(postStore.getPostByLocalPostId(trashedPost.getId()));
+        assertEquals("2016-01-03T11:00:00+00:00", PostSqlUtils.getLastModifiedDate(site, false));
+
+        // A full sync can still be requested
+        FetchPostsPayload fullSyncPayload = new FetchPostsPayload(site);
+        fullSyncPayload.fullSync = true;
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(fullSyncPayload));
+        Mockito.verify(postRestClient, Mockito.times(2)).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+
+        // Without the stored posts, the mark is gone too
+        PostSqlUtils.deleteAllPosts();
+        assertNull(PostSqlUtils.getLastModifiedDate(site, false));
+    }
+
+    @Test
+    public void testFullSyncIsSentDuringIncrementalFetch() {
+        PostRestClient postRestClient = Mockito.mock(PostRestClient.class);
+        PostStore postStore = new PostStore(new Dispatcher(), new QueryExecutor(), postRestClient,
+                Mockito.mock(PostXMLRPCClient.class));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        site.setIsWPCom(true);
+        PostModel post = generateFetchedPost(5, "Post");
+        post.setDateModified("2016-01-01T10:00:00+00:00");
+        PostSqlUtils.reconcileUploadedPostsForSite(site, false, new PostsModel(Collections.singletonList(post)));
+
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        FetchPostsPayload fullSyncPayload = new FetchPostsPayload(site);
+        fullSyncPayload.fullSync = true;
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(fullSyncPayload));
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(fullSyncPayload));
+
+        // Identical fetches share a request, but the full sync isn't one of the incremental fetch
+        Mockito.verify(postRestClient, Mockito.times(1)).fetchModifiedPosts(site, false,
+                PostStore.DEFAULT_POST_STATUS_LIST, "2016-01-01T10:00:00+00:00");
+        Mockito.verify(postRestClient, Mockito.times(1)).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+    }
+
+    @Test
+    public void testIncrementalFetchFallbackRestartsPaging() {
+        PostRestClient postRestClient = Mockito.mock(PostRestClient.class);
+        PostStore postStore = new PostStore(new Dispatcher(), new QueryExecutor(), postRestClient,
+                Mockito.mock(PostXMLRPCClient.class));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        site.setIsWPCom(true);
+        PostModel post = generateFetchedPost(5, "Post");
+        post.setDateModified("2016-01-01T10:00:00+00:00");
+        PostSqlUtils.reconcileUploadedPostsForSite(site, false, new PostsModel(Collections.singletonList(post)));
+        FetchPostsResponsePayload loadMorePayload = new FetchPostsResponsePayload(new PostsModel(), site, false, true,
+                true);
+        loadMorePayload.nextPageHandle = "value=2016-01-01T10%3A00%3A00%2B00%3A00&id=5";
+        postStore.onAction(PostActionBuilder.newFetchedPostsAction(loadMorePayload));
+
+        // More posts were modified than a page holds: the first page is fetched instead
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site)));
+        FetchPostsResponsePayload modifiedPayload = new FetchPostsResponsePayload(
+                new PostsModel(generateFetchedPosts(PostStore.NUM_POSTS_PER_FETCH)), site, false, false, true);
+        modifiedPayload.modifiedAfter = "2016-01-01T10:00:00+00:00";
+        postStore.onAction(PostActionBuilder.newFetchedPostsAction(modifiedPayload));
+        Mockito.verify(postRestClient).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 0);
+
+        // The page handle of the previous list isn't used for the next page
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site, true)));
+        Mockito.verify(postRestClient).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 1);
+        Mockito.verify(postRestClient, Mockito.never()).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST,
+                loadMorePayload.nextPageHandle);
+    }
+
+    @Test
+    public void testKeysetPaging() {
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        String[] dates = {"2016-01-03T10:00:00+00:00", "2016-01-02T10:00:00+00:00", "2016-01-02T10:00:00+00:00",
+                "2016-01-02T10:00:00+00:00", "2016-01-01T10:00:00+00:00"};
+        for (int i = 0; i < dates.length; i++) {
+            PostModel post = generateFetchedPost(dates.length - i, "Post " + i);
+            post.setDateCreated(dates[i]);
+            PostSqlUtils.insertPostForResult(post);
+        }
+        PostSqlUtils.insertPostForResult(PostTestUtils.generateSampleLocalDraftPost());
+
+        // Pages follow each other without gaps or duplicates, even between posts with the same date
+        List<String> titles = new ArrayList<>();
+        List<PostModel> page = mPostStore.getUploadedPostsForSite(site, null, 2);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            for (PostModel post : page) {
+                titles.add(post.getTitle());
+            }
+            page = mPostStore.getUploadedPostsForSite(site, page.get(page.size() - 1), 2);
+        }
+        assertEquals(Arrays.asList("Post 0", "Post 1", "Post 2", "Post 3", "Post 4"), titles);
+        assertTrue(mPostStore.getUploadedPagesForSite(site, null, 2).isEmpty());
+    }
+
+    @Test
+    public void testLoadMoreUsesPageHandle() {
+        PostRestClient postRestClient = Mockito.mock(PostRestClient.class);
+        PostStore postStore = new PostStore(new Dispatcher(), new QueryExecutor(), postRestClient,
+                Mockito.mock(PostXMLRPCClient.class));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        site.setIsWPCom(true);
+
+        // Without a page handle, the next page starts after the posts we have
+        PostSqlUtils.insertPostForResult(PostTestUtils.generateSampleUploadedPost());
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site, true)));
+        Mockito.verify(postRestClient).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST, 1);
+
+        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(new PostsModel(), site, false, true, true);
+        payload.nextPageHandle = "value=2016-01-01T10%3A00%3A00%2B00%3A00&id=5";
+        postStore.onAction(PostActionBuilder.newFetchedPostsAction(payload));
+
+        // Then it starts where the previous page ended
+        postStore.onAction(PostActionBuilder.newFetchPostsAction(new FetchPostsPayload(site, true)));
+        Mockito.verify(postRestClient).fetchPosts(site, false, PostStore.DEFAULT_POST_STATUS_LIST,
+                "value=2016-01-01T10%3A00%3A00%2B00%3A00&id=5");
+    }
+
+    @Test
+    public void testBulkInsertOrUpdateIsOneTransaction() {
+        final int postCount = 500;
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        // Half of the fetched posts already exist locally
+        for (int i = 0; i < postCount; i += 2) {
+            PostSqlUtils.insertPostForResult(generateFetchedPost(i, "Old title"));
+        }
+        final List<String> tableChanges = new ArrayList<>();
+        TableChangeListener listener = new TableChangeListener() {
+            @Override
+            public void onTableChanged(@NonNull Class<?> table, int localSiteId) {
+                tableChanges.add(table.getSimpleName() + ":" + localSiteId);
+            }
+        };
+        TableChangeNotifier.addListener(listener);
+        int rowsAffected;
+        try {
+            rowsAffected = PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(
+                    new PostsModel(generateFetchedPosts(postCount)));
+        } finally {
+            TableChangeNotifier.removeListener(listener);
+        }
+
+        assertEquals(postCount, rowsAffected);
+        List<PostModel> posts = PostSqlUtils.getUploadedPostsForSite(site, false);
+        assertEquals(postCount, posts.size());
+        for (PostModel post : posts) {
+            assertEquals("Remote title " + post.getRemotePostId(), post.getTitle());
+        }
+        // Writes made in a transaction are announced once it's over: once per table for the whole page
+        assertEquals(2, tableChanges.size());
+        assertTrue(tableChanges.contains("PostModel:6"));
+        assertTrue(tableChanges.contains("PostTermModel:6"));
+    }
+
+    @Test
+    public void testBulkInsertOrUpdateNotifiesEachSiteOfItsOwnRows() {
+        // Locally changed, the fetched version is ignored
+        PostModel changedPost = generateFetchedPost(1, "Local title");
+        changedPost.setIsLocallyChanged(true);
+        PostSqlUtils.insertPostForResult(changedPost);
+        PostModel otherSitePost = generateFetchedPost(2, "Other site");
+        otherSitePost.setLocalSiteId(7);
+
+        final List<String> tableChanges = new ArrayList<>();
+        TableChangeListener listener = new TableChangeListener() {
+            @Override
+            public void onTableChanged(@NonNull Class<?> table, int localSiteId) {
+                tableChanges.add(table.getSimpleName() + ":" + localSiteId);
+            }
+        };
+        TableChangeNotifier.addListener(listener);
+        int rowsAffected;
+        try {
+            rowsAffected = PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(
+                    new PostsModel(Arrays.asList(generateFetchedPost(1, "Remote title"), otherSitePost)));
+        } finally {
+            TableChangeNotifier.removeListener(listener);
+        }
+
+        assertEquals(1, rowsAffected);
+        assertTrue(tableChanges.contains("PostModel:7"));
+        assertFalse(tableChanges.contains("PostModel:6"));
+    }
+
+    @Test
+    public void testBulkInsertOrUpdateBenchmark() {
+        TestUtils.assumeBenchmarksEnabled();
+        final int postCount = 500;
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        // Half of the fetched posts already exist locally
+        for (int i = 0; i < postCount; i += 2) {
+            PostSqlUtils.insertPostForResult(generateFetchedPost(i, "Old title"));
+        }
+        long start = System.nanoTime();
+        int loopRowsAffected = 0;
+        for (PostModel post : generateFetchedPosts(postCount)) {
+            loopRowsAffected += PostSqlUtils.insertOrUpdatePostKeepingLocalChanges(post);
+        }
+        long loopNanos = System.nanoTime() - start;
+
+        PostSqlUtils.deleteAllPosts();
+        for (int i = 0; i < postCount; i += 2) {
+            PostSqlUtils.insertPostForResult(generateFetchedPost(i, "Old title"));
+        }
+        start = System.nanoTime();
+        int bulkRowsAffected = PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(
+                new PostsModel(generateFetchedPosts(postCount)));
+        long bulkNanos = System.nanoTime() - start;
+
+        System.out.println("Inserting or updating " + postCount + " fetched posts:");
+        System.out.println("  one post at a time: " + TimeUnit.NANOSECONDS.toMillis(loopNanos) + " ms");
+        System.out.println("  single transaction: " + TimeUnit.NANOSECONDS.toMillis(bulkNanos) + " ms");
+
+        assertEquals(postCount, loopRowsAffected);
+        assertEquals(postCount, bulkRowsAffected);
+        assertEquals(postCount, PostSqlUtils.getUploadedPostsForSite(site, false).size());
+    }
+
+    @Test
+    public void testPostSummaries() {
+        PostModel post = PostTestUtils.generateSampleUploadedPost();
+        post.setExcerpt(new String(new char[500]).replace('\0', 'e'));
+        post.setStatus("publish");
+        post.setFeaturedImageId(12);
+        PostSqlUtils.insertPostForResult(post);
+        PostModel draft = PostTestUtils.generateSampleLocalDraftPost();
+        PostSqlUtils.insertPostForResult(draft);
+        PostModel page = PostTestUtils.generateSampleUploadedPost();
+        page.setIsPage(true);
+        PostSqlUtils.insertPostForResult(page);
+
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        List<PostSummary> summaries = mPostStore.getPostSummariesForSite(site);
+        List<PostModel> posts = mPostStore.getPostsForSite(site);
+        assertEquals(2, summaries.size());
+        // Same order as the full posts: local drafts first
+        assertEquals(posts.get(0).getId(), summaries.get(0).getId());
+        assertTrue(summaries.get(0).isLocalDraft());
+        PostSummary summary = summaries.get(1);
+        assertEquals(post.getId(), summary.getId());
+        assertEquals(6, summary.getLocalSiteId());
+        assertEquals(5, summary.getRemotePostId());
+        assertEquals("A test post", summary.getTitle());
+        assertEquals("publish", summary.getStatus());
+        assertEquals(12, summary.getFeaturedImageId());
+        assertEquals(PostSummary.MAX_EXCERPT_LENGTH, summary.getExcerpt().length());
+        assertFalse(summary.isPage());
+        assertFalse(summary.isLocalDraft());
+        assertEquals(1, mPostStore.getPageSummariesForSite(site).size());
+
+        assertEquals("Bunch of content here", mPostStore.getPostContentByLocalPostId(summary.getId()));
+        assertNull(mPostStore.getPostContentByLocalPostId(42));
+    }
+
+    @Test
+    public void testPostSummariesOfLongPosts() {
+        final int postCount = 20;
+        final String longContent = new String(new char[20000]).replace('\0', 'c');
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        List<PostModel> fetchedPosts = generateFetchedPosts(postCount);
+        for (PostModel post : fetchedPosts) {
+            post.setContent(longContent);
+            post.setExcerpt(longContent);
+        }
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts));
+
+        List<PostSummary> summaries = mPostStore.getPostSummariesForSite(site);
+        assertEquals(postCount, summaries.size());
+        for (PostSummary summary : summaries) {
+            assertEquals("Remote title " + summary.getRemotePostId(), summary.getTitle());
+            assertEquals(PostSummary.MAX_EXCERPT_LENGTH, summary.getExcerpt().length());
+        }
+        // The content is only read when asked for
+        assertEquals(longContent, mPostStore.getPostContentByLocalPostId(summaries.get(0).getId()));
+    }
+
+    @Test
+    public void testPostSummariesMemoryBenchmark() {
+        TestUtils.assumeBenchmarksEnabled();
+        final int postCount = 1000;
+        final String longContent = new String(new char[20000]).replace('\0', 'c');
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        List<PostModel> fetchedPosts = generateFetchedPosts(postCount);
+        for (PostModel post : fetchedPosts) {
+            post.setContent(longContent);
+            post.setExcerpt("Short excerpt");
+        }
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts));
+        fetchedPosts = null;
+
+        long before = getUsedMemory();
+        List<PostModel> posts = mPostStore.getPostsForSite(site);
+        long postsBytes = getUsedMemory() - before;
+        assertEquals(postCount, posts.size());
+        posts = null;
+
+        before = getUsedMemory();
+        List<PostSummary> summaries = mPostStore.getPostSummariesForSite(site);
+        long summariesBytes = getUsedMemory() - before;
+        assertEquals(postCount, summaries.size());
+
+        System.out.println("Loading " + postCount + " posts of " + longContent.length() + " characters:");
+        System.out.println("  PostModel list: " + postsBytes / 1024 + " KB");
+        System.out.println("  PostSummary list: " + summariesBytes / 1024 + " KB");
+    }
+
+    @Test
+    public void testGetPostsForTerm() {
+        TermModel category = new TermModel();
+        category.setLocalSiteId(6);
+        category.setRemoteTermId(12);
+        category.setTaxonomy(TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY);
+        TermModel tag = new TermModel();
+        tag.setLocalSiteId(6);
+        tag.setName("travel");
+        tag.setTaxonomy(TaxonomyStore.DEFAULT_TAXONOMY_TAG);
+
+        List<PostModel> fetchedPosts = generateFetchedPosts(3);
+        fetchedPosts.get(0).setCategoryIdList(Arrays.asList(12L, 13L));
+        fetchedPosts.get(1).setCategoryIdList(Arrays.asList(13L));
+        fetchedPosts.get(1).setTagNameList(Arrays.asList("travel", "food"));
+        fetchedPosts.get(2).setCategoryIdList(Arrays.asList(12L));
+        fetchedPosts.get(2).setDateCreated("2017-01-01T00:00:00+00:00");
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts));
+
+        List<PostModel> posts = mPostStore.getPostsForTerm(category);
+        assertEquals(2, posts.size());
+        assertEquals(2, posts.get(0).getRemotePostId());
+        assertEquals(0, posts.get(1).getRemotePostId());
+        assertEquals(1, mPostStore.getPostsForTerm(tag).get(0).getRemotePostId());
+
+        // The join table follows reconciled fetches and deletions
+        PostModel updatedPost = generateFetchedPost(1, "Remote title 1");
+        updatedPost.setCategoryIdList(Arrays.asList(12L));
+        PostsModel fetchedPage = new PostsModel(Arrays.asList(generateFetchedPost(0, "Remote title 0"), updatedPost));
+        SiteModel site = new SiteModel();
+        site.setId(6);
+        PostSqlUtils.reconcileUploadedPostsForSite(site, false, fetchedPage);
+        posts = mPostStore.getPostsForTerm(category);
+        assertEquals(1, posts.size());
+        assertEquals(1, posts.get(0).getRemotePostId());
+        assertEquals(0, mPostStore.getPostsForTerm(tag).size());
+
+        PostSqlUtils.deletePost(posts.get(0));
+        assertEquals(0, mPostStore.getPostsForTerm(category).size());
+    }
+
+    @Test
+    public void testSearchPosts() {
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        PostModel titleMatch = generateFetchedPost(1, "WordPress tips");
+        PostModel contentMatch = generateFetchedPost(2, "Other title");
+        contentMatch.setContent("Some WordPress content");
+        PostModel noMatch = generateFetchedPost(3, "Lost password");
+        PostModel page = generateFetchedPost(4, "WordPress page");
+        page.setIsPage(true);
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(
+                new PostsModel(Arrays.asList(titleMatch, contentMatch, noMatch, page)));
+
+        // Words match as prefixes, and title hits rank higher than content hits
+        List<PostModel> results = mPostStore.searchPosts(site, "word");
+        assertEquals(2, results.size());
+        assertEquals(1, results.get(0).getRemotePostId());
+        assertEquals(2, results.get(1).getRemotePostId());
+        assertEquals(4, mPostStore.searchPages(site, "WORDPRESS").get(0).getRemotePostId());
+        assertEquals(1, mPostStore.searchPosts(site, "tips word").size());
+        assertEquals(0, mPostStore.searchPosts(site, "\"-").size());
+
+        // The index follows updates and deletes
+        PostModel updated = mPostStore.searchPosts(site, "lost").get(0);
+        updated.setTitle("Lost WordPress password");
+        PostSqlUtils.insertOrUpdatePostOverwritingLocalChanges(updated);
+        assertEquals(3, mPostStore.searchPosts(site, "word").size());
+        assertEquals(1, mPostStore.searchPosts(site, "other").size());
+        PostSqlUtils.deletePost(mPostStore.searchPosts(site, "other").get(0));
+        assertEquals(0, mPostStore.searchPosts(site, "other").size());
+    }
+
+    @Test
+    public void testSearchPostsFindsWhatLikeFinds() {
+        final int postCount = 200;
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        List<PostModel> fetchedPosts = generateFetchedPosts(postCount);
+        for (PostModel post : fetchedPosts) {
+            post.setContent("Content of post " + post.getRemotePostId());
+        }
+        fetchedPosts.get(postCount / 2).setTitle("Needle in a haystack");
+        fetchedPosts.get(postCount / 4).setContent("A needle in the content");
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts));
+
+        // The full-text index returns the posts the LIKE '%needle%' scan it replaced returned, title hits first
+        List<PostModel> likeResults = WellSql.select(PostModel.class).where()
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .beginGroup()
+                .contains(PostModelTable.TITLE, "needle")
+                .or().contains(PostModelTable.EXCERPT, "needle")
+                .or().contains(PostModelTable.CONTENT, "needle")
+                .endGroup().endWhere().getAsModel();
+        List<PostModel> searchResults = mPostStore.searchPosts(site, "needle");
+
+        assertEquals(2, likeResults.size());
+        assertEquals(2, searchResults.size());
+        assertEquals(postCount / 2, searchResults.get(0).getRemotePostId());
+        assertEquals(postCount / 4, searchResults.get(1).getRemotePostId());
+    }
+
+    @Test
+    public void testSearchPostsBenchmark() {
+        TestUtils.assumeBenchmarksEnabled();
+        final int postCount = 10000;
+        SiteModel site = new SiteModel();
+        site.setId(6);
+
+        List<PostModel> fetchedPosts = generateFetchedPosts(postCount);
+        for (PostModel post : fetchedPosts) {
+            post.setContent("Content of post " + post.getRemotePostId());
+        }
+        fetchedPosts.get(postCount / 2).setTitle("Needle in a haystack");
+        PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(new PostsModel(fetchedPosts));
+
+        long start = System.nanoTime();
+        List<PostModel> likeResults = WellSql.select(PostModel.class).where()
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .beginGroup()
+                .contains(PostModelTable.TITLE, "needle")
+                .or().contains(PostModelTable.EXCERPT, "needle")
+                .or().contains(PostModelTable.CONTENT, "needle")
+                .endGroup().endWhere().getAsModel();
+        long likeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<PostModel> searchResults = mPostStore.searchPosts(site, "needle");
+        long searchNanos = System.nanoTime() - start;
+
+        System.out.println("Searching " + postCount + " posts:");
+        System.out.println("  LIKE '%needle%': " + TimeUnit.NANOSECONDS.toMillis(likeNanos) + " ms");
+        System.out.println("  full-text index: " + TimeUnit.NANOSECONDS.toMillis(searchNanos) + " ms");
+
+        assertEquals(1, likeResults.size());
+        assertEquals(1, searchResults.size());
+        assertEquals(postCount / 2, searchResults.get(0).getRemotePostId());
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static PostModel generateFetchedPost(long remotePostId, String title) {
+        PostModel post = PostTestUtils.generateSampleUploadedPost();
+        post.setRemotePostId(remotePostId);
+        post.setTitle(title);
+        return post;
+    }
+
+    private static List<PostModel> generateFetchedPosts(int count) {
+        List<PostModel> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            posts.add(generateFetchedPost(i, "Remote title " + i));
+        }
+        return posts;
+    }
 }
@@ -13,6 +13,7 @@ import org.mockito.Mockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.QueryExecutor;
 import org.wordpress.android.fluxc.model.PostFormatModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.SitesModel;
@@ -45,8 +46,8 @@ import static org.wordpress.android.fluxc.utils.SiteUtils.generateWPComSite;
 
 @RunWith(RobolectricTestRunner.class)
 public class SiteStoreUnitTest {
-    private SiteStore mSiteStore = new SiteStore(new Dispatcher(), Mockito.mock(SiteRestClient.class),
-            Mockito.mock(SiteXMLRPCClient.class));
+    private SiteStore mSiteStore = new SiteStore(new Dispatcher(), new QueryExecutor(),
+            Mockito.mock(SiteRestClient.class), Mockito.mock(SiteXMLRPCClient.class));
 
     @Before
     public void setUp() {
@@ -260,6 +261,40 @@ public class SiteStoreUnitTest {
         assertNull(mSiteStore.getSiteBySiteId(selfHostedSite.getSiteId()));
     }
 
+    @Test
+    public void testSiteCache() throws DuplicateSiteException {
+        SiteModel wpComSite = generateWPComSite();
+        SiteSqlUtils.insertOrUpdateSite(wpComSite);
+
+        int hitCount = mSiteStore.getSiteCacheHitCount();
+        int missCount = mSiteStore.getSiteCacheMissCount();
+        SiteModel cachedSite = mSiteStore.getSiteByLocalId(wpComSite.getId());
+        assertEquals(missCount + 1, mSiteStore.getSiteCacheMissCount());
+        assertEquals(cachedSite.getName(), mSiteStore.getSiteByLocalId(wpComSite.getId()).getName());
+        assertEquals(wpComSite.getId(), mSiteStore.getLocalIdForRemoteSiteId(wpComSite.getSiteId()));
+        assertEquals(wpComSite.getId(), mSiteStore.getLocalIdForRemoteSiteId(wpComSite.getSiteId()));
+        assertEquals(hitCount + 2, mSiteStore.getSiteCacheHitCount());
+
+        // Changing a returned site doesn't change the cached one
+        cachedSite.setName("Changed locally");
+        assertNotEquals("Changed locally", mSiteStore.getSiteByLocalId(wpComSite.getId()).getName());
+
+        // Writes are visible to the next lookups
+        wpComSite.setName("Changed remotely");
+        SiteSqlUtils.insertOrUpdateSite(wpComSite);
+        assertEquals("Changed remotely", mSiteStore.getSiteByLocalId(wpComSite.getId()).getName());
+        assertEquals("Changed remotely", mSiteStore.getSiteBySiteId(wpComSite.getSiteId()).getName());
+
+        SiteSqlUtils.setSiteVisibility(wpComSite, false);
+        assertFalse(mSiteStore.getSiteBySiteId(wpComSite.getSiteId()).isVisible());
+
+        SiteSqlUtils.deleteSite(wpComSite);
+        assertNull(mSiteStore.getSiteByLocalId(wpComSite.getId()));
+        assertNull(mSiteStore.getSiteBySiteId(wpComSite.getSiteId()));
+        assertEquals(0, mSiteStore.getLocalIdForRemoteSiteId(wpComSite.getSiteId()));
+        assertEquals(0, mSiteStore.getSiteIdForLocalId(wpComSite.getId()));
+    }
+
     @Test
     public void testDeleteSite() throws DuplicateSiteException {
         SiteModel wpComSite = generateWPComSite();
@@ -463,6 +498,31 @@ public class SiteStoreUnitTest {
         assertEquals(1, matchingSites.size());
     }
 
+    @Test
+    public void testFullTextSearchSites() throws DuplicateSiteException {
+        SiteModel wpComSite1 = generateWPComSite();
+        wpComSite1.setName("Doctor Emmet Brown Homepage");
+        SiteModel wpComSite2 = generateWPComSite();
+        wpComSite2.setUrl("http://brownies.wordpress.com");
+        wpComSite2.setSiteId(557);
+        SiteModel selfHostedSite = generateSelfHostedNonJPSite();
+        selfHostedSite.setName("The quick red fox");
+
+        SiteSqlUtils.insertOrUpdateSite(wpComSite1);
+        SiteSqlUtils.insertOrUpdateSite(wpComSite2);
+        SiteSqlUtils.insertOrUpdateSite(selfHostedSite);
+
+        List<SiteModel> matchingSites = mSiteStore.searchSites("BROWN");
+        assertEquals(2, matchingSites.size());
+        // Name hits rank higher than url hits
+        assertEquals("http://brownies.wordpress.com", matchingSites.get(1).getUrl());
+
+        matchingSites = mSiteStore.searchSites("brown home");
+        assertEquals(1, matchingSites.size());
+        assertEquals("Doctor Emmet Brown Homepage", matchingSites.get(0).getName());
+        assertEquals(0, mSiteStore.searchSites("own").size());
+    }
+
     @Test
     public void testRemoveAllSites() throws DuplicateSiteException {
         SiteModel wpComSite = generateWPComSite();
@@ -11,32 +11,40 @@ import org.mockito.Mockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.QueryExecutor;
 import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.TermModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.taxonomy.TaxonomyRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.taxonomy.TaxonomyXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.PostSqlUtils;
 import org.wordpress.android.fluxc.persistence.TaxonomySqlUtils;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.store.TaxonomyStore;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.wordpress.android.fluxc.store.TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY;
 import static org.wordpress.android.fluxc.store.TaxonomyStore.DEFAULT_TAXONOMY_TAG;
 
 @RunWith(RobolectricTestRunner.class)
 public class TaxonomyStoreUnitTest {
-    private TaxonomyStore mTaxonomyStore = new TaxonomyStore(new Dispatcher(), Mockito.mock(TaxonomyRestClient.class),
-            Mockito.mock(TaxonomyXMLRPCClient.class));
+    private TaxonomyStore mTaxonomyStore = new TaxonomyStore(new Dispatcher(), new QueryExecutor(),
+            Mockito.mock(TaxonomyRestClient.class), Mockito.mock(TaxonomyXMLRPCClient.class));
 
     @Before
     public void setUp() {
         Context appContext = RuntimeEnvironment.application.getApplicationContext();
 
-        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, TermModel.class);
+        WellSqlConfig config = new SingleStoreWellSqlConfigForTests(appContext, TermModel.class,
+                PostModel.class, PostTermModel.class);
         WellSql.init(config);
         config.reset();
     }
@@ -265,6 +273,53 @@ public class TaxonomyStoreUnitTest {
         assertEquals(0, TaxonomySqlUtils.getTermsFromRemoteNameList(nameList, site, DEFAULT_TAXONOMY_TAG).size());
     }
 
+    @Test
+    public void testGetTermsForPosts() {
+        TermModel category = TaxonomyTestUtils.generateSampleCategory();
+        TaxonomySqlUtils.insertOrUpdateTerm(category);
+        TermModel category2 = TaxonomyTestUtils.generateSampleCategory();
+        category2.setRemoteTermId(6);
+        category2.setName("Something");
+        TaxonomySqlUtils.insertOrUpdateTerm(category2);
+        TermModel tag = TaxonomyTestUtils.generateSampleTag();
+        TaxonomySqlUtils.insertOrUpdateTerm(tag);
+
+        PostModel post1 = new PostModel();
+        post1.setLocalSiteId(6);
+        post1.setRemotePostId(1);
+        post1.setCategoryIdList(Arrays.asList(category2.getRemoteTermId(), category.getRemoteTermId()));
+        post1.setTagNameList(Arrays.asList(tag.getName(), "Unsynced tag"));
+        PostSqlUtils.insertPostForResult(post1);
+        PostModel post2 = new PostModel();
+        post2.setLocalSiteId(6);
+        post2.setRemotePostId(2);
+        post2.setCategoryIdList(Arrays.asList(category.getRemoteTermId(), 66L));
+        PostSqlUtils.insertPostForResult(post2);
+        PostModel post3 = new PostModel();
+        post3.setLocalSiteId(6);
+        post3.setRemotePostId(3);
+        PostSqlUtils.insertPostForResult(post3);
+
+        List<PostModel> posts = Arrays.asList(post1, post2, post3);
+        Map<Integer, List<TermModel>> categories = mTaxonomyStore.getTermsForPosts(posts, DEFAULT_TAXONOMY_CATEGORY);
+        // Terms come in the post's order, unsynced ones are ignored
+        assertEquals(2, categories.get(post1.getId()).size());
+        assertEquals("Something", categories.get(post1.getId()).get(0).getName());
+        assertEquals(category.getRemoteTermId(), categories.get(post1.getId()).get(1).getRemoteTermId());
+        assertEquals(1, categories.get(post2.getId()).size());
+        assertNull(categories.get(post3.getId()));
+
+        Map<Integer, List<TermModel>> tags = mTaxonomyStore.getTermsForPosts(posts, DEFAULT_TAXONOMY_TAG);
+        assertEquals(1, tags.size());
+        assertEquals(tag.getName(), tags.get(post1.getId()).get(0).getName());
+
+        // The join table follows post updates
+        post2.setCategoryIdList(Arrays.asList(category2.getRemoteTermId()));
+        PostSqlUtils.insertOrUpdatePostOverwritingLocalChanges(post2);
+        categories = mTaxonomyStore.getTermsForPosts(posts, DEFAULT_TAXONOMY_CATEGORY);
+        assertEquals(category2.getRemoteTermId(), categories.get(post2.getId()).get(0).getRemoteTermId());
+    }
+
     @Test
     public void testRemoveAllTaxonomy() {
         SiteModel site1 = new SiteModel();
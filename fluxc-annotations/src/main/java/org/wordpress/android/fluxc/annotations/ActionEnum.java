@@ -5,8 +5,13 @@ import java.lang.annotation.Target;
 
 /**
  * Defines an enum of actions related to a particular store.
+ *
+ * The optional {@link ActionEnum#stores} lists the store classes handling the actions of this enum. It's used to
+ * generate the routing table that lets the Dispatcher deliver actions only to the stores handling them. Actions of an
+ * enum not declaring any store are broadcast to every subscriber.
  */
 @Target(value = ElementType.TYPE)
 public @interface ActionEnum {
     String name() default "";
+    Class[] stores() default {};
 }
@@ -0,0 +1,17 @@
+package org.wordpress.android.fluxc.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a Gson TypeAdapter for a network response class, reading and writing its fields without reflection. The
+ * adapters are registered by the generated {@code ResponseTypeAdapterFactory}.
+ *
+ * The class must be public, top-level or static, with a public no-argument constructor. Its own public fields are
+ * mapped to the JSON members of the same name (or of their {@code SerializedName}), the inherited ones are ignored.
+ */
+@Documented
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {
+}
@@ -2,19 +2,28 @@ package org.wordpress.android.fluxc.processor;
 
 import com.google.auto.service.AutoService;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import org.wordpress.android.fluxc.annotations.ActionEnum;
 import org.wordpress.android.fluxc.annotations.AnnotationConfig;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.ActionBuilder;
+import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.annotations.action.NoPayload;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.AbstractProcessor;
@@ -28,6 +37,7 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 
 import static java.util.Collections.singleton;
@@ -37,8 +47,11 @@ import static javax.lang.model.SourceVersion.latestSupported;
 @SupportedAnnotationTypes("org.wordpress.android.fluxc.annotations.ActionEnum")
 @AutoService(Processor.class)
 public class ActionProcessor extends AbstractProcessor {
+    private static final String ROUTING_TABLE_CLASS_NAME = "ActionRoutingTable";
+
     private Filer mFiler;
     private Messager mMessager;
+    private boolean mRoutingTableGenerated;
 
     @Override
     public void init(ProcessingEnvironment processingEnv) {
@@ -59,14 +72,86 @@ public class ActionProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<Element, AnnotatedActionEnum> annotatedActionEnums = new LinkedHashMap<>();
         for (Element actionElement : roundEnv.getElementsAnnotatedWith(ActionEnum.class)) {
             AnnotatedActionEnum annotatedActionEnum = new AnnotatedActionEnum(actionElement);
             createActionBuilderClass(actionElement, annotatedActionEnum);
+            annotatedActionEnums.put(actionElement, annotatedActionEnum);
+        }
+
+        // All the action enums are processed in the same round, the routing table must only be written once
+        if (!annotatedActionEnums.isEmpty() && !mRoutingTableGenerated) {
+            createActionRoutingTableClass(annotatedActionEnums);
+            mRoutingTableGenerated = true;
         }
 
         return true;
     }
 
+    /**
+     * Generates a class mapping each {@link ActionEnum} type to the store classes declared in
+     * {@link ActionEnum#stores()}. Action enums not declaring any store are left out of the table.
+     */
+    private void createActionRoutingTableClass(Map<Element, AnnotatedActionEnum> annotatedActionEnums) {
+        TypeName classWildcardType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        TypeName actionTypeClassType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(IAction.class));
+        TypeName storeListType = ParameterizedTypeName.get(ClassName.get(List.class), classWildcardType);
+
+        FieldSpec routesField = FieldSpec.builder(
+                ParameterizedTypeName.get(ClassName.get(Map.class), actionTypeClassType, storeListType), "ROUTES")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", HashMap.class)
+                .build();
+
+        CodeBlock.Builder staticBlockBuilder = CodeBlock.builder();
+        for (Map.Entry<Element, AnnotatedActionEnum> entry : annotatedActionEnums.entrySet()) {
+            List<TypeMirror> storeTypes = entry.getValue().getStoreTypes();
+            if (storeTypes.isEmpty()) {
+                continue;
+            }
+
+            CodeBlock.Builder storeClassesBuilder = CodeBlock.builder();
+            for (int i = 0; i < storeTypes.size(); i++) {
+                storeClassesBuilder.add(i == 0 ? "$T.class" : ", $T.class", TypeName.get(storeTypes.get(i)));
+            }
+
+            staticBlockBuilder.addStatement("$N.put($T.class, $T.<$T>asList($L))", routesField,
+                    entry.getKey().asType(), Arrays.class, classWildcardType, storeClassesBuilder.build());
+        }
+
+        MethodSpec constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build();
+
+        MethodSpec getStoresMethod = MethodSpec.methodBuilder("getStoresForActionType")
+                .addJavadoc("Returns the store classes handling the given action enum type, or null if the actions of "
+                        + "this type\nshould be broadcast to every subscriber.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(storeListType)
+                .addParameter(actionTypeClassType, "actionType")
+                .addStatement("return $N.get($N)", routesField, "actionType")
+                .build();
+
+        TypeSpec routingTableClass = TypeSpec.classBuilder(ROUTING_TABLE_CLASS_NAME)
+                .addModifiers(Modifier.FINAL, Modifier.PUBLIC)
+                .addField(routesField)
+                .addStaticBlock(staticBlockBuilder.build())
+                .addMethod(constructor)
+                .addMethod(getStoresMethod)
+                .build();
+
+        JavaFile javaFile = JavaFile.builder(AnnotationConfig.PACKAGE, routingTableClass)
+                .build();
+
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Failed to create file: " + e.getMessage());
+        }
+    }
+
     private String createActionBuilderClass(Element tableElement, AnnotatedActionEnum annotatedActionEnum) {
         String genClassName = annotatedActionEnum.getBuilderName() + "Builder";
 
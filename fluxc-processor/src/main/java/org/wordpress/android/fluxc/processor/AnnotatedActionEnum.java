@@ -8,6 +8,8 @@ import java.util.Collections;
 import java.util.List;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeMirror;
 
 /**
  * Blueprint for an {@link ActionEnum}-annotated enum after processing.
@@ -15,12 +17,19 @@ import javax.lang.model.element.Element;
 public class AnnotatedActionEnum {
     private String mBuilderName;
     private List<AnnotatedAction> mActions = new ArrayList<>();
+    private List<TypeMirror> mStoreTypes = new ArrayList<>();
 
     public AnnotatedActionEnum(Element typeElement) {
         ActionEnum actionEnumAnnotation = typeElement.getAnnotation(ActionEnum.class);
         String userDefinedName = actionEnumAnnotation.name();
         mBuilderName = userDefinedName.equals("") ? typeElement.getSimpleName().toString() : userDefinedName;
 
+        try {
+            actionEnumAnnotation.stores();
+        } catch (MirroredTypesException e) {
+            mStoreTypes.addAll(e.getTypeMirrors());
+        }
+
         for (Element enumElement : typeElement.getEnclosedElements()) {
             Action actionAnnotation = enumElement.getAnnotation(Action.class);
 
@@ -38,4 +47,8 @@ public class AnnotatedActionEnum {
     public List<AnnotatedAction> getActions() {
         return Collections.unmodifiableList(mActions);
     }
+
+    public List<TypeMirror> getStoreTypes() {
+        return Collections.unmodifiableList(mStoreTypes);
+    }
 }
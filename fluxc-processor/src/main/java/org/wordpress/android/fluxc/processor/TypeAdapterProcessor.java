@@ -0,0 +1,398 @@
+package org.wordpress.android.fluxc.processor;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import org.wordpress.android.fluxc.annotations.AnnotationConfig;
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import static java.util.Collections.singleton;
+import static javax.lang.model.SourceVersion.latestSupported;
+
+/**
+ * Generates a Gson TypeAdapter for each {@link GenerateTypeAdapter}-annotated class, and the factory registering them.
+ *
+ * The adapters read and write the fields directly, each field value being read and written by the Gson adapter of its
+ * type, so that the conversions (e.g. of JSON booleans to Strings) are the same as with Gson's reflective adapters.
+ */
+@SuppressWarnings("unused")
+@AutoService(Processor.class)
+public class TypeAdapterProcessor extends AbstractProcessor {
+    private static final String FACTORY_CLASS_NAME = "ResponseTypeAdapterFactory";
+    private static final String SERIALIZED_NAME_ANNOTATION = "com.google.gson.annotations.SerializedName";
+
+    private static final ClassName GSON = ClassName.get("com.google.gson", "Gson");
+    private static final ClassName TYPE_ADAPTER = ClassName.get("com.google.gson", "TypeAdapter");
+    private static final ClassName TYPE_ADAPTER_FACTORY = ClassName.get("com.google.gson", "TypeAdapterFactory");
+    private static final ClassName TYPE_TOKEN = ClassName.get("com.google.gson.reflect", "TypeToken");
+    private static final ClassName JSON_READER = ClassName.get("com.google.gson.stream", "JsonReader");
+    private static final ClassName JSON_WRITER = ClassName.get("com.google.gson.stream", "JsonWriter");
+    private static final ClassName JSON_TOKEN = ClassName.get("com.google.gson.stream", "JsonToken");
+
+    private Filer mFiler;
+    private Messager mMessager;
+    private boolean mFactoryGenerated;
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return singleton(GenerateTypeAdapter.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, ClassName> adapters = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class)) {
+            TypeElement typeElement = (TypeElement) element;
+            if (!isValidResponseClass(typeElement)) {
+                continue;
+            }
+            ClassName adapterClassName = createTypeAdapterClass(typeElement);
+            if (adapterClassName != null) {
+                adapters.put(typeElement, adapterClassName);
+            }
+        }
+
+        // All the response classes are processed in the same round, the factory must only be written once
+        if (!adapters.isEmpty() && !mFactoryGenerated) {
+            createFactoryClass(adapters);
+            mFactoryGenerated = true;
+        }
+
+        return true;
+    }
+
+    private boolean isValidResponseClass(TypeElement typeElement) {
+        boolean isInnerClass = typeElement.getNestingKind() == NestingKind.MEMBER
+                && !typeElement.getModifiers().contains(Modifier.STATIC);
+        if (typeElement.getKind() != ElementKind.CLASS || isInnerClass
+                || !typeElement.getModifiers().contains(Modifier.PUBLIC)
+                || typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR,
+                    "@GenerateTypeAdapter classes must be public, concrete, and top-level or static", typeElement);
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        mMessager.printMessage(Diagnostic.Kind.ERROR,
+                "@GenerateTypeAdapter classes must have a public no-argument constructor", typeElement);
+        return false;
+    }
+
+    private ClassName createTypeAdapterClass(TypeElement typeElement) {
+        TypeName responseType = TypeName.get(typeElement.asType());
+        String adapterName = getFlatName(typeElement) + "TypeAdapter";
+
+        // One Gson adapter per field type, fetched once when the generated adapter is created
+        Map<TypeName, FieldSpec> fieldAdapters = new LinkedHashMap<>();
+        Set<String> adapterFieldNames = new HashSet<>();
+        List<VariableElement> fields = new ArrayList<>();
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(GSON, "gson");
+
+        for (VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.FINAL)) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR,
+                        "Fields of @GenerateTypeAdapter classes must be public and not final", field);
+                return null;
+            }
+
+            TypeName fieldType = TypeName.get(field.asType());
+            if (containsTypeVariable(fieldType)) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR,
+                        "Fields of @GenerateTypeAdapter classes can't have a type variable", field);
+                return null;
+            }
+            fields.add(field);
+            if (fieldAdapters.containsKey(fieldType)) {
+                continue;
+            }
+
+            String adapterFieldName = "m" + getTypeDisplayName(fieldType) + "Adapter";
+            for (int i = 2; adapterFieldNames.contains(adapterFieldName); i++) {
+                adapterFieldName = "m" + getTypeDisplayName(fieldType) + i + "Adapter";
+            }
+            adapterFieldNames.add(adapterFieldName);
+
+            FieldSpec adapterField = FieldSpec.builder(
+                    ParameterizedTypeName.get(TYPE_ADAPTER, fieldType.isPrimitive() ? fieldType.box() : fieldType),
+                    adapterFieldName, Modifier.PRIVATE, Modifier.FINAL).build();
+            fieldAdapters.put(fieldType, adapterField);
+            if (hasClassLiteral(fieldType)) {
+                constructorBuilder.addStatement("$N = gson.getAdapter($T.class)", adapterField, fieldType);
+            } else {
+                constructorBuilder.addStatement("$N = gson.getAdapter(new $T<$T>() {})", adapterField, TYPE_TOKEN,
+                        fieldType);
+            }
+        }
+
+        TypeSpec adapterClass = TypeSpec.classBuilder(adapterName)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(TYPE_ADAPTER, responseType))
+                .addFields(fieldAdapters.values())
+                .addMethod(constructorBuilder.build())
+                .addMethod(createWriteMethod(responseType, fields, fieldAdapters))
+                .addMethod(createReadMethod(responseType, fields, fieldAdapters))
+                .build();
+
+        JavaFile javaFile = JavaFile.builder(AnnotationConfig.PACKAGE, adapterClass)
+                .build();
+
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Failed to create file: " + e.getMessage());
+            return null;
+        }
+
+        return ClassName.get(AnnotationConfig.PACKAGE, adapterName);
+    }
+
+    private MethodSpec createWriteMethod(TypeName responseType, List<VariableElement> fields,
+                                         Map<TypeName, FieldSpec> fieldAdapters) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("write")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(JSON_WRITER, "out")
+                .addParameter(responseType, "value")
+                .addException(IOException.class)
+                .beginControlFlow("if (value == null)")
+                .addStatement("out.nullValue()")
+                .addStatement("return")
+                .endControlFlow()
+                .addStatement("out.beginObject()");
+        for (VariableElement field : fields) {
+            // Null values are left out by the JsonWriter, unless it's set to serialize nulls
+            builder.addStatement("out.name($S)", getJsonName(field))
+                    .addStatement("$N.write(out, value.$L)", fieldAdapters.get(TypeName.get(field.asType())),
+                            field.getSimpleName());
+        }
+        return builder.addStatement("out.endObject()").build();
+    }
+
+    private MethodSpec createReadMethod(TypeName responseType, List<VariableElement> fields,
+                                        Map<TypeName, FieldSpec> fieldAdapters) {
+        CodeBlock.Builder switchBuilder = CodeBlock.builder()
+                .beginControlFlow("switch (in.nextName())");
+        for (VariableElement field : fields) {
+            TypeName fieldType = TypeName.get(field.asType());
+            FieldSpec adapterField = fieldAdapters.get(fieldType);
+            switchBuilder.add("case $S:\n", getJsonName(field)).indent();
+            if (fieldType.isPrimitive()) {
+                // Like Gson, a null value leaves the primitive field unchanged
+                String valueName = field.getSimpleName() + "Value";
+                switchBuilder.addStatement("$T $L = $N.read(in)", fieldType.box(), valueName, adapterField)
+                        .beginControlFlow("if ($L != null)", valueName)
+                        .addStatement("result.$L = $L", field.getSimpleName(), valueName)
+                        .endControlFlow()
+                        .addStatement("break");
+            } else {
+                switchBuilder.addStatement("result.$L = $N.read(in)", field.getSimpleName(), adapterField)
+                        .addStatement("break");
+            }
+            switchBuilder.unindent();
+        }
+        switchBuilder.add("default:\n").indent()
+                .addStatement("in.skipValue()")
+                .unindent()
+                .endControlFlow();
+
+        return MethodSpec.methodBuilder("read")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(responseType)
+                .addParameter(JSON_READER, "in")
+                .addException(IOException.class)
+                .beginControlFlow("if (in.peek() == $T.NULL)", JSON_TOKEN)
+                .addStatement("in.nextNull()")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("$T result = new $T()", responseType, responseType)
+                .addStatement("in.beginObject()")
+                .beginControlFlow("while (in.hasNext())")
+                .addCode(switchBuilder.build())
+                .endControlFlow()
+                .addStatement("in.endObject()")
+                .addStatement("return result")
+                .build();
+    }
+
+    /**
+     * Generates a factory returning the generated adapter of each annotated class. Subclasses of the annotated classes
+     * are left to the other factories of the Gson instance.
+     */
+    private void createFactoryClass(Map<TypeElement, ClassName> adapters) {
+        TypeVariableName typeVariable = TypeVariableName.get("T");
+        TypeName adapterType = ParameterizedTypeName.get(TYPE_ADAPTER, typeVariable);
+
+        MethodSpec.Builder createMethodBuilder = MethodSpec.methodBuilder("create")
+                .addAnnotation(Override.class)
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                        .addMember("value", "$S", "unchecked")
+                        .build())
+                .addModifiers(Modifier.PUBLIC)
+                .addTypeVariable(typeVariable)
+                .returns(adapterType)
+                .addParameter(GSON, "gson")
+                .addParameter(ParameterizedTypeName.get(TYPE_TOKEN, typeVariable), "type")
+                .addStatement("$T<? super $T> rawType = type.getRawType()", Class.class, typeVariable);
+        for (Map.Entry<TypeElement, ClassName> entry : adapters.entrySet()) {
+            createMethodBuilder.beginControlFlow("if (rawType == $T.class)", TypeName.get(entry.getKey().asType()))
+                    .addStatement("return ($T) new $T(gson)", adapterType, entry.getValue())
+                    .endControlFlow();
+        }
+        createMethodBuilder.addStatement("return null");
+
+        TypeSpec factoryClass = TypeSpec.classBuilder(FACTORY_CLASS_NAME)
+                .addJavadoc("Gson factory of the adapters generated for the network response classes.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(TYPE_ADAPTER_FACTORY)
+                .addMethod(createMethodBuilder.build())
+                .build();
+
+        JavaFile javaFile = JavaFile.builder(AnnotationConfig.PACKAGE, factoryClass)
+                .build();
+
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Failed to create file: " + e.getMessage());
+        }
+    }
+
+    private static String getJsonName(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString().equals(SERIALIZED_NAME_ANNOTATION)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : annotation.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return (String) entry.getValue().getValue();
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    /**
+     * @return the name of the class, prefixed by the names of its enclosing classes (e.g. OuterInner)
+     */
+    private static String getFlatName(TypeElement typeElement) {
+        String name = typeElement.getSimpleName().toString();
+        Element enclosingElement = typeElement.getEnclosingElement();
+        while (enclosingElement.getKind().isClass() || enclosingElement.getKind().isInterface()) {
+            name = enclosingElement.getSimpleName() + name;
+            enclosingElement = enclosingElement.getEnclosingElement();
+        }
+        return name;
+    }
+
+    /**
+     * @return a name for the type usable in an identifier, e.g. MapStringTerm for Map&lt;String, Term&gt;
+     */
+    private static String getTypeDisplayName(TypeName type) {
+        String typeString = (type.isPrimitive() ? type.box() : type).toString();
+        StringBuilder name = new StringBuilder();
+        for (String part : typeString.split("[<>,? ]+")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            String simpleName = part.substring(part.lastIndexOf('.') + 1).replace("[]", "Array");
+            name.append(Character.toUpperCase(simpleName.charAt(0))).append(simpleName.substring(1));
+        }
+        return name.toString();
+    }
+
+    private static boolean hasClassLiteral(TypeName type) {
+        if (type instanceof ArrayTypeName) {
+            return hasClassLiteral(((ArrayTypeName) type).componentType);
+        }
+        return type.isPrimitive() || type instanceof ClassName;
+    }
+
+    private static boolean containsTypeVariable(TypeName type) {
+        if (type instanceof TypeVariableName) {
+            return true;
+        }
+        if (type instanceof WildcardTypeName) {
+            WildcardTypeName wildcardType = (WildcardTypeName) type;
+            for (TypeName bound : wildcardType.upperBounds) {
+                if (containsTypeVariable(bound)) {
+                    return true;
+                }
+            }
+            for (TypeName bound : wildcardType.lowerBounds) {
+                if (containsTypeVariable(bound)) {
+                    return true;
+                }
+            }
+        }
+        if (type instanceof ParameterizedTypeName) {
+            for (TypeName typeArgument : ((ParameterizedTypeName) type).typeArguments) {
+                if (containsTypeVariable(typeArgument)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
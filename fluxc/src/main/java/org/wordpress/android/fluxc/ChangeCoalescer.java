@@ -0,0 +1,168 @@
+package org.wordpress.android.fluxc;
+
+import android.support.annotation.NonNull;
+
+import org.greenrobot.eventbus.EventBus;
+import org.wordpress.android.fluxc.store.Store.Coalescable;
+import org.wordpress.android.fluxc.store.Store.OnChanged;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds {@link Coalescable} change events for a time window and merges the ones with the same class and coalescing
+ * key, so subscribers get one event per key and window instead of one per store update.
+ *
+ * Other events, error events and events without a coalescing key are never held back: the pending events are
+ * delivered first, to keep the order seen by subscribers. Events are drained and posted under a single lock, an event
+ * emitted while the flush thread posts the pending events is delivered after them.
+ */
+class ChangeCoalescer {
+    private final EventBus mBus;
+    private final long mWindowMs;
+    private final ScheduledThreadPoolExecutor mScheduler;
+
+    // Pending events keyed by event class and coalescing key, in the order they were first emitted
+    private final Map<List<Object>, OnChanged> mPendingEvents = new LinkedHashMap<>();
+    private boolean mFlushScheduled;
+    private boolean mShutdown;
+    // Held while posting, from the drain of the pending events to the post of the emitted event
+    private final Object mPostLock = new Object();
+
+    private final Map<Class<?>, AtomicInteger> mCoalescedCounts = new ConcurrentHashMap<>();
+
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            drainAndPost(null);
+        }
+    };
+
+    ChangeCoalescer(EventBus bus, long windowMs) {
+        mBus = bus;
+        mWindowMs = windowMs;
+        mScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "FluxC-ChangeCoalescer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    void emit(Object event) {
+        Object coalescingKey = getCoalescingKey(event);
+        if (coalescingKey == null) {
+            drainAndPost(event);
+            return;
+        }
+
+        List<Object> pendingKey = Arrays.asList(event.getClass(), coalescingKey);
+        synchronized (mPendingEvents) {
+            if (!mShutdown) {
+                addPendingEvent(pendingKey, (OnChanged) event);
+                return;
+            }
+        }
+        drainAndPost(event);
+    }
+
+    // Called with the mPendingEvents lock held
+    @SuppressWarnings("unchecked")
+    private void addPendingEvent(List<Object> pendingKey, OnChanged event) {
+        OnChanged pendingEvent = mPendingEvents.get(pendingKey);
+        if (pendingEvent != null) {
+            ((Coalescable) pendingEvent).coalesce(event);
+            incrementCoalescedCount(event.getClass());
+            return;
+        }
+        mPendingEvents.put(pendingKey, event);
+        if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            mScheduler.schedule(mFlushTask, mWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delivers the pending events now and stops the flush thread.
+     */
+    void shutdown() {
+        synchronized (mPendingEvents) {
+            mShutdown = true;
+        }
+        mScheduler.shutdownNow();
+        drainAndPost(null);
+    }
+
+    int getCoalescedCount() {
+        int count = 0;
+        for (AtomicInteger classCount : mCoalescedCounts.values()) {
+            count += classCount.get();
+        }
+        return count;
+    }
+
+    int getCoalescedCount(Class<? extends OnChanged> eventClass) {
+        AtomicInteger count = mCoalescedCounts.get(eventClass);
+        return count == null ? 0 : count.get();
+    }
+
+    private static Object getCoalescingKey(Object event) {
+        if (!(event instanceof Coalescable) || ((OnChanged) event).isError()) {
+            return null;
+        }
+        return ((Coalescable) event).getCoalescingKey();
+    }
+
+    private List<OnChanged> drainPendingEvents() {
+        synchronized (mPendingEvents) {
+            mFlushScheduled = false;
+            if (mPendingEvents.isEmpty()) {
+                return null;
+            }
+            List<OnChanged> events = new ArrayList<>(mPendingEvents.values());
+            mPendingEvents.clear();
+            return events;
+        }
+    }
+
+    /**
+     * Posts the pending events, then the given event if not null.
+     */
+    private void drainAndPost(Object event) {
+        synchronized (mPostLock) {
+            List<OnChanged> pendingEvents = drainPendingEvents();
+            if (pendingEvents != null) {
+                for (OnChanged pendingEvent : pendingEvents) {
+                    mBus.post(pendingEvent);
+                }
+            }
+            if (event != null) {
+                mBus.post(event);
+            }
+        }
+    }
+
+    private void incrementCoalescedCount(Class<?> eventClass) {
+        AtomicInteger count = mCoalescedCounts.get(eventClass);
+        if (count == null) {
+            synchronized (mCoalescedCounts) {
+                count = mCoalescedCounts.get(eventClass);
+                if (count == null) {
+                    count = new AtomicInteger();
+                    mCoalescedCounts.put(eventClass, count);
+                }
+            }
+        }
+        count.incrementAndGet();
+    }
+}
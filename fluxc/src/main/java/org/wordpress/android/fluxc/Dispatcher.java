@@ -1,47 +1,324 @@
 package org.wordpress.android.fluxc;
 
 import org.greenrobot.eventbus.EventBus;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.generated.ActionRoutingTable;
 import org.wordpress.android.fluxc.store.Store;
+import org.wordpress.android.fluxc.store.Store.OnChanged;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import javax.inject.Singleton;
 
 
 @Singleton
 public class Dispatcher {
+    /**
+     * How actions are delivered to the stores.
+     *
+     * BROADCAST posts every action on the EventBus from a {@link DispatcherExecutor} task of the action's
+     * {@link ActionPriority}: each registered store receives it on an ASYNC thread and ignores the actions it doesn't
+     * handle.
+     *
+     * ROUTED looks up the stores declared in the action's {@link org.wordpress.android.fluxc.annotations.ActionEnum}
+     * (see the generated {@link ActionRoutingTable}) and only calls {@link Store#onAction(Action)} on these stores.
+     * Actions of an enum not declaring any store are still broadcast on the EventBus.
+     *
+     * ROUTED_PER_SITE routes actions like ROUTED, but the actions whose payload is bound to a site (a
+     * {@link org.wordpress.android.fluxc.model.SiteModel}, or a post, media, comment or term of that site) are
+     * handled one at a time and in dispatch order for a given site. Actions of different sites, and actions not bound
+     * to a site, are still handled in parallel.
+     */
+    public enum DeliveryMode {
+        BROADCAST,
+        ROUTED,
+        ROUTED_PER_SITE;
+
+        boolean isRouted() {
+            return this != BROADCAST;
+        }
+    }
+
+    /**
+     * Execution lane of an action in the {@link DispatcherExecutor}. Queued user-initiated actions are handled before
+     * queued background ones, and dispatching a background action waits while the executor's background queue is
+     * full. This applies in all the delivery modes: broadcast actions are posted on the EventBus by a task of their
+     * lane, and the store deliveries follow that task.
+     */
+    public enum ActionPriority {
+        USER_INITIATED,
+        BACKGROUND
+    }
+
     private final EventBus mBus;
+    private final DeliveryMode mDeliveryMode;
+    private final DispatcherExecutor mExecutor;
+
+    private final List<Store> mStores = new CopyOnWriteArrayList<>();
+    private final Map<Class<? extends IAction>, List<Store>> mRoutes = new ConcurrentHashMap<>();
+    private final PayloadSiteResolver mSiteResolver = new PayloadSiteResolver();
+
+    private volatile ChangeCoalescer mChangeCoalescer;
+
+    private volatile DispatcherMetrics mMetrics;
+    private final RequestLatencyTracker mRequestLatencyTracker = new RequestLatencyTracker(mSiteResolver);
+    private final RowsAffectedReader mRowsAffectedReader = new RowsAffectedReader();
+    // Action a store is handling on the current thread, only set when metrics are enabled
+    private final ThreadLocal<Action> mHandledAction = new ThreadLocal<>();
+
+    private final Map<IAction, String> mActionLogMessages = new ConcurrentHashMap<>();
 
     public Dispatcher() {
+        this(DeliveryMode.BROADCAST);
+    }
+
+    public Dispatcher(DeliveryMode deliveryMode) {
+        this(deliveryMode, new DispatcherExecutor());
+    }
+
+    /**
+     * @param executor runs the {@link Store#onAction(Action)} calls, both for routed actions and for the EventBus ASYNC
+     *                 deliveries
+     */
+    public Dispatcher(DeliveryMode deliveryMode, DispatcherExecutor executor) {
+        mExecutor = executor;
         mBus = EventBus.builder()
                 .logNoSubscriberMessages(true)
                 .sendNoSubscriberEvent(true)
                 .throwSubscriberException(true)
+                .executorService(mExecutor)
                 .build();
+        mDeliveryMode = deliveryMode;
+    }
+
+    public DeliveryMode getDeliveryMode() {
+        return mDeliveryMode;
     }
 
     public void register(final Object object) {
         mBus.register(object);
         if (object instanceof Store) {
+            if (mDeliveryMode.isRouted()) {
+                synchronized (mRoutes) {
+                    mStores.add((Store) object);
+                    mRoutes.clear();
+                }
+            }
             ((Store) object).onRegister();
         }
     }
 
     public void unregister(final Object object) {
         mBus.unregister(object);
+        if (object instanceof Store && mDeliveryMode.isRouted()) {
+            synchronized (mRoutes) {
+                mStores.remove(object);
+                mRoutes.clear();
+            }
+        }
+    }
+
+    public void dispatch(Action action) {
+        dispatch(action, ActionPriority.USER_INITIATED);
     }
 
-    public void dispatch(org.wordpress.android.fluxc.annotations.action.Action action) {
-        AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
-                + "-" + action.getType().name());
-        post(action);
+    /**
+     * Dispatches the action in the given execution lane, use {@link ActionPriority#BACKGROUND} for high volume actions
+     * nobody is waiting for, like upload progress updates.
+     */
+    public void dispatch(Action action, ActionPriority priority) {
+        AppLog.d(T.API, getLogMessage(action.getType()));
+        DispatcherMetrics metrics = mMetrics;
+        if (metrics != null) {
+            mRequestLatencyTracker.onDispatch(action, metrics);
+        }
+        if (mDeliveryMode.isRouted() && routeToStores(action, priority)) {
+            return;
+        }
+        broadcast(action, priority);
+    }
+
+    /**
+     * Tells the request latency metrics that a request action was handled without sending a request, e.g. because an
+     * identical request was already in flight: the next completion action answers the earlier request, not this one.
+     */
+    public void onRequestDropped(IAction actionType, Object payload) {
+        if (mMetrics != null) {
+            mRequestLatencyTracker.onRequestDropped(actionType, payload);
+        }
     }
 
     public void emitChange(final Object changeEvent) {
-        mBus.post(changeEvent);
+        DispatcherMetrics metrics = mMetrics;
+        if (metrics != null) {
+            recordRowsAffected(changeEvent, metrics);
+        }
+        ChangeCoalescer changeCoalescer = mChangeCoalescer;
+        if (changeCoalescer != null) {
+            changeCoalescer.emit(changeEvent);
+        } else {
+            mBus.post(changeEvent);
+        }
+    }
+
+    /**
+     * Enables change coalescing: {@link org.wordpress.android.fluxc.store.Store.Coalescable} change events are held
+     * for up to {@code windowMs} and merged with the events of the same class and coalescing key emitted in the
+     * meantime (e.g. the {@code rowsAffected} of {@code OnPostChanged} events are summed, only the last upload progress
+     * of a media is kept). Other change events are delivered right away.
+     *
+     * @param windowMs the coalescing window, 0 disables coalescing and delivers the pending events
+     */
+    public synchronized void setChangeCoalescingWindow(long windowMs) {
+        ChangeCoalescer previousCoalescer = mChangeCoalescer;
+        mChangeCoalescer = windowMs > 0 ? new ChangeCoalescer(mBus, windowMs) : null;
+        if (previousCoalescer != null) {
+            previousCoalescer.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of change events merged into a previous event since coalescing was last enabled
+     */
+    public int getCoalescedChangeCount() {
+        ChangeCoalescer changeCoalescer = mChangeCoalescer;
+        return changeCoalescer == null ? 0 : changeCoalescer.getCoalescedCount();
+    }
+
+    /**
+     * @return the number of change events of the given class merged into a previous event since coalescing was last
+     * enabled
+     */
+    public int getCoalescedChangeCount(Class<? extends OnChanged> eventClass) {
+        ChangeCoalescer changeCoalescer = mChangeCoalescer;
+        return changeCoalescer == null ? 0 : changeCoalescer.getCoalescedCount(eventClass);
+    }
+
+    /**
+     * Sets the hook receiving the dispatch measurements, null disables them.
+     */
+    public void setMetrics(DispatcherMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    private void broadcast(final Action action, ActionPriority priority) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mBus.post(action);
+            }
+        }, priority);
+    }
+
+    /**
+     * Delivers the action to the registered stores handling its type.
+     *
+     * @return false if the action type isn't part of the routing table and must be broadcast instead
+     */
+    private boolean routeToStores(final Action action, ActionPriority priority) {
+        List<Store> stores = getStoresForActionType(getActionEnumType(action.getType()));
+        if (stores == null) {
+            return false;
+        }
+
+        int localSiteId = PayloadSiteResolver.NO_SITE;
+        if (mDeliveryMode == DeliveryMode.ROUTED_PER_SITE) {
+            localSiteId = mSiteResolver.getLocalSiteId(action.getPayload());
+        }
+        final DispatcherMetrics metrics = mMetrics;
+        final long dispatchNanos = metrics == null ? 0 : System.nanoTime();
+        for (final Store store : stores) {
+            Runnable delivery = new Runnable() {
+                @Override
+                public void run() {
+                    if (metrics == null) {
+                        store.onAction(action);
+                    } else {
+                        deliverMeasured(store, action, dispatchNanos, metrics);
+                    }
+                }
+            };
+            if (localSiteId == PayloadSiteResolver.NO_SITE) {
+                mExecutor.execute(delivery, priority);
+            } else {
+                mExecutor.executeSerially(localSiteId, delivery, priority);
+            }
+        }
+        return true;
+    }
+
+    private void deliverMeasured(Store store, Action action, long dispatchNanos, DispatcherMetrics metrics) {
+        long startNanos = System.nanoTime();
+        mHandledAction.set(action);
+        try {
+            store.onAction(action);
+        } finally {
+            mHandledAction.remove();
+            metrics.onActionHandled(action.getType(), store.getClass(), startNanos - dispatchNanos,
+                    System.nanoTime() - startNanos);
+        }
     }
 
-    private void post(final Object event) {
-        mBus.post(event);
+    private void recordRowsAffected(Object changeEvent, DispatcherMetrics metrics) {
+        Action handledAction = mHandledAction.get();
+        if (handledAction == null) {
+            return;
+        }
+        int rowsAffected = mRowsAffectedReader.getRowsAffected(changeEvent);
+        if (rowsAffected != RowsAffectedReader.UNKNOWN) {
+            metrics.onRowsAffected(handledAction.getType(), rowsAffected);
+        }
+    }
+
+    private String getLogMessage(IAction actionType) {
+        // Built once per action type, dispatching is on the hot path
+        String message = mActionLogMessages.get(actionType);
+        if (message == null) {
+            message = "Dispatching action: " + actionType.getClass().getSimpleName() + "-" + actionType.name();
+            mActionLogMessages.put(actionType, message);
+        }
+        return message;
+    }
+
+    private List<Store> getStoresForActionType(Class<? extends IAction> actionType) {
+        List<Store> stores = mRoutes.get(actionType);
+        if (stores != null) {
+            return stores;
+        }
+
+        List<Class<?>> storeClasses = ActionRoutingTable.getStoresForActionType(actionType);
+        if (storeClasses == null) {
+            return null;
+        }
+
+        synchronized (mRoutes) {
+            stores = new ArrayList<>();
+            for (Store store : mStores) {
+                for (Class<?> storeClass : storeClasses) {
+                    if (storeClass.isInstance(store)) {
+                        stores.add(store);
+                        break;
+                    }
+                }
+            }
+            mRoutes.put(actionType, stores);
+        }
+        return stores;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends IAction> getActionEnumType(IAction actionType) {
+        if (actionType instanceof Enum) {
+            // Enum constants with a body are anonymous subclasses of their enum
+            return (Class<? extends IAction>) ((Enum) actionType).getDeclaringClass();
+        }
+        return actionType.getClass();
     }
 }
@@ -0,0 +1,222 @@
+package org.wordpress.android.fluxc;
+
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import org.wordpress.android.fluxc.Dispatcher.ActionPriority;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor running the {@link org.wordpress.android.fluxc.store.Store#onAction} deliveries.
+ *
+ * Tasks are queued by {@link ActionPriority}: queued user-initiated tasks always run before queued background tasks,
+ * tasks of the same priority run in submission order.
+ *
+ * Only background tasks are subject to backpressure: once {@code queueCapacity} background tasks are waiting, the
+ * submitting thread blocks until one of them starts. The main thread and the threads of this executor are never
+ * blocked, their background tasks are queued over capacity instead: a task waiting for a permit held by the tasks
+ * queued behind it would never resume.
+ *
+ * Tasks submitted with a serial key (see {@link #executeSerially(Object, Runnable, ActionPriority)}) run one at a
+ * time and in submission order with the other tasks of the same key, tasks of different keys still run in parallel.
+ *
+ * The EventBus ASYNC deliveries of an event posted by one of the tasks (e.g. the store deliveries of a broadcast
+ * action, see {@link Dispatcher.DeliveryMode#BROADCAST}) run in the lane of that task, ahead of the tasks queued after
+ * it.
+ */
+public class DispatcherExecutor extends ThreadPoolExecutor {
+    public static final int DEFAULT_CORE_POOL_SIZE =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    public static final int DEFAULT_QUEUE_CAPACITY = 128;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final Semaphore mBackgroundPermits;
+    private final AtomicLong mSequence = new AtomicLong();
+    // A key is present while one of its tasks is queued or running, its deque holds the tasks waiting for that one
+    private final Map<Object, Deque<PrioritizedTask>> mSerialLanes = new HashMap<>();
+    // Task running on the current thread, only set on the threads of this executor
+    private final ThreadLocal<PrioritizedTask> mRunningTask = new ThreadLocal<>();
+
+    public DispatcherExecutor() {
+        this(DEFAULT_CORE_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public DispatcherExecutor(int corePoolSize, int queueCapacity) {
+        super(corePoolSize, corePoolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new DispatcherThreadFactory());
+        allowCoreThreadTimeOut(true);
+        mBackgroundPermits = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * Runs the command in the lane of the task running on the current thread, this is how the EventBus ASYNC
+     * deliveries of an event posted by a task follow that task. Commands submitted from other threads run in the
+     * {@link ActionPriority#USER_INITIATED} lane.
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        if (command instanceof PrioritizedTask) {
+            super.execute(command);
+            return;
+        }
+        PrioritizedTask runningTask = mRunningTask.get();
+        if (runningTask == null) {
+            execute(command, ActionPriority.USER_INITIATED);
+        } else {
+            // Sorted with the running task: the deliveries run before the tasks queued after it, and don't take a
+            // background permit, the running task already went through backpressure
+            super.execute(new PrioritizedTask(command, runningTask.mPriority, runningTask.mSequence, null));
+        }
+    }
+
+    public void execute(@NonNull Runnable command, @NonNull ActionPriority priority) {
+        super.execute(newPrioritizedTask(command, priority));
+    }
+
+    /**
+     * Runs the command after all the previously submitted tasks with the same {@code serialKey} have completed.
+     *
+     * The priority applies once the task is the next one of its key: a waiting user-initiated task never overtakes
+     * an earlier background task of the same key.
+     */
+    public void executeSerially(@NonNull final Object serialKey, @NonNull final Runnable command,
+                                @NonNull ActionPriority priority) {
+        PrioritizedTask task = newPrioritizedTask(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    command.run();
+                } finally {
+                    executeNextSerialTask(serialKey);
+                }
+            }
+        }, priority);
+
+        synchronized (mSerialLanes) {
+            Deque<PrioritizedTask> waitingTasks = mSerialLanes.get(serialKey);
+            if (waitingTasks != null) {
+                waitingTasks.add(task);
+                return;
+            }
+            mSerialLanes.put(serialKey, new ArrayDeque<PrioritizedTask>());
+        }
+        super.execute(task);
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread, all priorities included
+     */
+    public int getQueuedTaskCount() {
+        return getQueue().size();
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        mRunningTask.set((PrioritizedTask) runnable);
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        mRunningTask.remove();
+    }
+
+    private PrioritizedTask newPrioritizedTask(Runnable command, ActionPriority priority) {
+        boolean holdsPermit = false;
+        if (priority == ActionPriority.BACKGROUND) {
+            holdsPermit = acquireBackgroundPermit();
+        }
+        return new PrioritizedTask(command, priority, mSequence.getAndIncrement(),
+                holdsPermit ? mBackgroundPermits : null);
+    }
+
+    private void executeNextSerialTask(Object serialKey) {
+        PrioritizedTask nextTask;
+        synchronized (mSerialLanes) {
+            Deque<PrioritizedTask> waitingTasks = mSerialLanes.get(serialKey);
+            nextTask = waitingTasks.poll();
+            if (nextTask == null) {
+                mSerialLanes.remove(serialKey);
+                return;
+            }
+        }
+        // The permit of a waiting background task was taken by its producer, don't wait for a new one here
+        super.execute(nextTask);
+    }
+
+    private boolean acquireBackgroundPermit() {
+        if (mBackgroundPermits.tryAcquire()) {
+            return true;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            AppLog.w(T.API, "Dispatcher background queue is full, queueing over capacity from the main thread");
+            return false;
+        }
+        if (mRunningTask.get() != null) {
+            AppLog.w(T.API, "Dispatcher background queue is full, queueing over capacity from a dispatcher thread");
+            return false;
+        }
+        try {
+            mBackgroundPermits.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final Runnable mCommand;
+        private final ActionPriority mPriority;
+        private final long mSequence;
+        private Semaphore mPermits;
+
+        PrioritizedTask(Runnable command, ActionPriority priority, long sequence, Semaphore permits) {
+            mCommand = command;
+            mPriority = priority;
+            mSequence = sequence;
+            mPermits = permits;
+        }
+
+        @Override
+        public void run() {
+            if (mPermits != null) {
+                // The task left the queue, let the next background task in
+                mPermits.release();
+                mPermits = null;
+            }
+            mCommand.run();
+        }
+
+        @Override
+        public int compareTo(@NonNull PrioritizedTask another) {
+            int priorityComparison = mPriority.compareTo(another.mPriority);
+            if (priorityComparison != 0) {
+                return priorityComparison;
+            }
+            return mSequence < another.mSequence ? -1 : (mSequence == another.mSequence ? 0 : 1);
+        }
+    }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+        private final AtomicInteger mThreadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, "FluxC-Dispatcher-" + mThreadCount.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.wordpress.android.fluxc;
+
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.store.Store;
+
+/**
+ * Receives the {@link Dispatcher} measurements, see {@link Dispatcher#setMetrics(DispatcherMetrics)}.
+ *
+ * Callbacks are made from the dispatching threads and the Dispatcher's executor threads, implementations must be
+ * thread safe and fast.
+ */
+public interface DispatcherMetrics {
+    /**
+     * Called after a store handled a routed action (see {@link Dispatcher.DeliveryMode#ROUTED}), broadcast actions
+     * aren't measured.
+     *
+     * @param queueLatencyNanos time between the dispatch and the start of the store's onAction call
+     * @param durationNanos time spent in the store's onAction call
+     */
+    void onActionHandled(IAction actionType, Class<? extends Store> storeClass, long queueLatencyNanos,
+                         long durationNanos);
+
+    /**
+     * Called when a change event with a {@code rowsAffected} field is emitted while a store handles a routed action.
+     */
+    void onRowsAffected(IAction actionType, int rowsAffected);
+
+    /**
+     * Called when the completion action of a network request action is dispatched, e.g. {@code FETCHED_POSTS} after
+     * {@code FETCH_POSTS}. Requests are matched to the first completion action of the same site.
+     *
+     * @param durationNanos time between the dispatch of the request action and the dispatch of its completion action
+     */
+    void onRequestCompleted(IAction requestType, IAction completionType, long durationNanos);
+}
@@ -0,0 +1,148 @@
+package org.wordpress.android.fluxc;
+
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.store.Store;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link DispatcherMetrics} aggregating the measurements in power of two {@link Histogram}s, durations are recorded in
+ * microseconds. Histograms are named after what they measure:
+ *
+ * - {@code queue:PostAction.FETCH_POSTS}: time between the dispatch of the action and the start of a store's onAction
+ * - {@code handler:PostStore:PostAction.FETCH_POSTS}: time spent in the store's onAction
+ * - {@code rows:PostAction.FETCHED_POSTS}: rows affected by the action, as reported by the emitted change events
+ * - {@code request:PostAction.FETCH_POSTS}: time between the request action and its completion action
+ */
+public class HistogramDispatcherMetrics implements DispatcherMetrics {
+    private final Map<String, Histogram> mHistograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void onActionHandled(IAction actionType, Class<? extends Store> storeClass, long queueLatencyNanos,
+                                long durationNanos) {
+        getHistogram("queue:" + getName(actionType)).record(TimeUnit.NANOSECONDS.toMicros(queueLatencyNanos));
+        getHistogram("handler:" + storeClass.getSimpleName() + ":" + getName(actionType))
+                .record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
+
+    @Override
+    public void onRowsAffected(IAction actionType, int rowsAffected) {
+        getHistogram("rows:" + getName(actionType)).record(rowsAffected);
+    }
+
+    @Override
+    public void onRequestCompleted(IAction requestType, IAction completionType, long durationNanos) {
+        getHistogram("request:" + getName(requestType)).record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
+
+    /**
+     * @return the histograms recorded so far, sorted by name
+     */
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(mHistograms));
+    }
+
+    public void reset() {
+        mHistograms.clear();
+    }
+
+    private Histogram getHistogram(String name) {
+        Histogram histogram = mHistograms.get(name);
+        if (histogram == null) {
+            synchronized (mHistograms) {
+                histogram = mHistograms.get(name);
+                if (histogram == null) {
+                    histogram = new Histogram();
+                    mHistograms.put(name, histogram);
+                }
+            }
+        }
+        return histogram;
+    }
+
+    private static String getName(IAction actionType) {
+        if (actionType instanceof Enum) {
+            return ((Enum) actionType).getDeclaringClass().getSimpleName() + "." + ((Enum) actionType).name();
+        }
+        return actionType.toString();
+    }
+
+    /**
+     * Histogram of non-negative values, bucket {@code i} counts the values between {@code 2^(i-1)} and
+     * {@code 2^i - 1} (bucket 0 counts zeros).
+     */
+    public static class Histogram {
+        private static final int BUCKET_COUNT = 64;
+
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSum = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            mBuckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(value));
+            mCount.incrementAndGet();
+            mSum.addAndGet(value);
+            long max;
+            do {
+                max = mMax.get();
+            } while (value > max && !mMax.compareAndSet(max, value));
+        }
+
+        public long getCount() {
+            return mCount.get();
+        }
+
+        public long getSum() {
+            return mSum.get();
+        }
+
+        public long getMax() {
+            return mMax.get();
+        }
+
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = mBuckets.get(i);
+            }
+            return counts;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the upper bound of the bucket holding the given percentile, capped by the max recorded value
+         */
+        public long getPercentile(double percentile) {
+            long count = mCount.get();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets.get(i);
+                if (seen >= rank) {
+                    long upperBound = i == 0 ? 0 : (1L << i) - 1;
+                    return Math.min(upperBound, mMax.get());
+                }
+            }
+            return mMax.get();
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + getCount() + " p50=" + getPercentile(50) + " p90=" + getPercentile(90)
+                    + " p99=" + getPercentile(99) + " max=" + getMax();
+        }
+    }
+}
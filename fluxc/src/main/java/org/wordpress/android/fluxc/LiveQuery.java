@@ -0,0 +1,168 @@
+package org.wordpress.android.fluxc;
+
+import android.support.annotation.NonNull;
+
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryErrorCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier.TableChangeListener;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * A store read (the {@code observe*} methods of the stores) run once when registered, then again each time the
+ * tables it reads are written to for its site. Each result is delivered to the {@link QueryCallback}, on the main
+ * thread for the {@link QueryExecutor} of the stores. Failed runs are reported as by {@link QueryExecutor}.
+ *
+ * Unlike re-reading the store on each {@code OnChanged} event, the query doesn't run for changes to other tables or
+ * other sites, and runs once for changes made while it's running or waiting to run.
+ *
+ * A live query must be {@link #close() closed} when its results aren't needed anymore, typically when the screen
+ * showing them goes away. Once closed from the main thread, the callback is guaranteed not to be called.
+ */
+public class LiveQuery<T> implements TableChangeListener {
+    private final QueryExecutor mExecutor;
+    private final Callable<T> mQuery;
+    private final QueryCallback<T> mCallback;
+    private final int mLocalSiteId;
+    private final Set<Class<?>> mTables;
+
+    private final Callable<T> mRunQuery = new Callable<T>() {
+        @Override
+        public T call() throws Exception {
+            synchronized (LiveQuery.this) {
+                mIsQueued = false;
+                mIsRunning = true;
+            }
+            try {
+                return mQuery.call();
+            } finally {
+                synchronized (LiveQuery.this) {
+                    mIsRunning = false;
+                    if (mRunAgain) {
+                        mRunAgain = false;
+                        submit();
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * Delivers the result of one run of the query. A run can be submitted again before the result of the previous
+     * one is delivered, so results older than the last delivered one are dropped.
+     */
+    private class ResultDelivery implements QueryErrorCallback<T> {
+        private final int mRun;
+
+        ResultDelivery(int run) {
+            mRun = run;
+        }
+
+        @Override
+        public void onQueryResult(T result) {
+            if (canDeliver(mRun)) {
+                mCallback.onQueryResult(result);
+            }
+        }
+
+        @Override
+        public void onQueryError(@NonNull Throwable error) {
+            if (canDeliver(mRun)) {
+                QueryExecutor.deliverError(mCallback, error);
+            }
+        }
+    }
+
+    // Guarded by this
+    private boolean mIsClosed;
+    private boolean mIsQueued;
+    private boolean mIsRunning;
+    private boolean mRunAgain;
+    private QueryFuture<T> mFuture;
+    private int mSubmittedRuns;
+    private int mLastDeliveredRun;
+
+    /**
+     * @param localSiteId the site whose rows the query reads, or {@link TableChangeNotifier#ALL_SITES}
+     * @param tables the tables the query reads
+     */
+    public LiveQuery(@NonNull QueryExecutor executor, @NonNull Callable<T> query, @NonNull QueryCallback<T> callback,
+                     int localSiteId, @NonNull Class<?>... tables) {
+        mExecutor = executor;
+        mQuery = query;
+        mCallback = callback;
+        mLocalSiteId = localSiteId;
+        mTables = new HashSet<>(Arrays.asList(tables));
+    }
+
+    /**
+     * Runs the query, and starts listening to changes to its tables.
+     *
+     * @return this live query
+     */
+    public synchronized LiveQuery<T> start() {
+        TableChangeNotifier.addListener(this);
+        submit();
+        return this;
+    }
+
+    /**
+     * Stops listening to changes to the tables of the query. A pending run of the query is cancelled.
+     */
+    public void close() {
+        synchronized (this) {
+            mIsClosed = true;
+            if (mFuture != null) {
+                mFuture.cancel(false);
+                mFuture = null;
+            }
+        }
+        TableChangeNotifier.removeListener(this);
+    }
+
+    public synchronized boolean isClosed() {
+        return mIsClosed;
+    }
+
+    @Override
+    public void onTableChanged(@NonNull Class<?> table, int localSiteId) {
+        if (!mTables.contains(table) || !isSameSite(localSiteId)) {
+            return;
+        }
+        synchronized (this) {
+            if (mIsRunning) {
+                // The change may have been made after the query read the table
+                mRunAgain = true;
+            } else if (!mIsQueued) {
+                submit();
+            }
+        }
+    }
+
+    private boolean isSameSite(int localSiteId) {
+        return mLocalSiteId == TableChangeNotifier.ALL_SITES || localSiteId == TableChangeNotifier.ALL_SITES
+                || mLocalSiteId == localSiteId;
+    }
+
+    private synchronized boolean canDeliver(int run) {
+        if (mIsClosed || run < mLastDeliveredRun) {
+            return false;
+        }
+        mLastDeliveredRun = run;
+        return true;
+    }
+
+    // Must be called while holding the lock
+    private void submit() {
+        if (mIsClosed) {
+            return;
+        }
+        mIsQueued = true;
+        mFuture = mExecutor.submit(mRunQuery, new ResultDelivery(++mSubmittedRuns));
+    }
+}
@@ -0,0 +1,101 @@
+package org.wordpress.android.fluxc;
+
+import org.wordpress.android.fluxc.model.CommentModel;
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.TermModel;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the local id of the site an action payload is about.
+ *
+ * The payload can be a site bound model itself ({@link SiteModel}, {@link PostModel}, {@link MediaModel}...) or hold
+ * one in a public field, like the {@code site} field of most payloads or the {@code media} field of
+ * {@link org.wordpress.android.fluxc.store.MediaStore.ProgressPayload}. Fields are looked up once per payload class.
+ */
+class PayloadSiteResolver {
+    static final int NO_SITE = 0;
+
+    private final Map<Class<?>, Field> mSiteFields = new ConcurrentHashMap<>();
+    private final Set<Class<?>> mClassesWithoutSiteField =
+            Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+    /**
+     * @return the local site id, or {@link #NO_SITE} if the payload isn't bound to a site
+     */
+    int getLocalSiteId(Object payload) {
+        if (payload == null) {
+            return NO_SITE;
+        }
+
+        int localSiteId = getLocalSiteIdFromModel(payload);
+        if (localSiteId != NO_SITE) {
+            return localSiteId;
+        }
+
+        Field siteField = getSiteField(payload.getClass());
+        if (siteField == null) {
+            return NO_SITE;
+        }
+        try {
+            return getLocalSiteIdFromModel(siteField.get(payload));
+        } catch (IllegalAccessException e) {
+            return NO_SITE;
+        }
+    }
+
+    private Field getSiteField(Class<?> payloadClass) {
+        Field siteField = mSiteFields.get(payloadClass);
+        if (siteField != null || mClassesWithoutSiteField.contains(payloadClass)) {
+            return siteField;
+        }
+
+        // Prefer an explicit SiteModel over a site bound model
+        for (Field field : payloadClass.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            if (SiteModel.class.isAssignableFrom(field.getType())) {
+                siteField = field;
+                break;
+            }
+            if (siteField == null && isSiteBoundModel(field.getType())) {
+                siteField = field;
+            }
+        }
+
+        if (siteField == null) {
+            mClassesWithoutSiteField.add(payloadClass);
+        } else {
+            mSiteFields.put(payloadClass, siteField);
+        }
+        return siteField;
+    }
+
+    private static boolean isSiteBoundModel(Class<?> type) {
+        return PostModel.class.isAssignableFrom(type) || MediaModel.class.isAssignableFrom(type)
+                || CommentModel.class.isAssignableFrom(type) || TermModel.class.isAssignableFrom(type);
+    }
+
+    private static int getLocalSiteIdFromModel(Object model) {
+        if (model instanceof SiteModel) {
+            return ((SiteModel) model).getId();
+        } else if (model instanceof PostModel) {
+            return ((PostModel) model).getLocalSiteId();
+        } else if (model instanceof MediaModel) {
+            return ((MediaModel) model).getLocalSiteId();
+        } else if (model instanceof CommentModel) {
+            return ((CommentModel) model).getLocalSiteId();
+        } else if (model instanceof TermModel) {
+            return ((TermModel) model).getLocalSiteId();
+        }
+        return NO_SITE;
+    }
+}
@@ -0,0 +1,162 @@
+package org.wordpress.android.fluxc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import org.wordpress.android.util.AppLog;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the asynchronous store reads (the {@code *Async} getters of the stores) on dedicated threads, and delivers
+ * their results to a {@link QueryCallback} on the main thread.
+ *
+ * A query is cancelled with {@link QueryFuture#cancel(boolean)}, typically when the screen that asked for it goes
+ * away: a query not started yet won't run, and the callback of a started one isn't called. Once cancelled from the
+ * main thread, the callback is guaranteed not to be called, and the future doesn't hold a reference to it anymore.
+ *
+ * A failed query is reported to the callback if it's a {@link QueryErrorCallback}, and logged otherwise; either way
+ * {@link QueryFuture#get()} throws the failure wrapped in an {@link ExecutionException}.
+ *
+ * The stores share the executor provided by {@link org.wordpress.android.fluxc.module.ReleaseBaseModule}.
+ */
+public class QueryExecutor {
+    public static final int DEFAULT_THREAD_COUNT = 2;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    public interface QueryCallback<T> {
+        void onQueryResult(T result);
+    }
+
+    /**
+     * A {@link QueryCallback} also told when the query fails, instead of the failure only being logged.
+     */
+    public interface QueryErrorCallback<T> extends QueryCallback<T> {
+        void onQueryError(@NonNull Throwable error);
+    }
+
+    /**
+     * A pending query. Besides the callback, the result can also be waited for with {@link #get()}.
+     */
+    public static class QueryFuture<T> extends FutureTask<T> {
+        private final Executor mCallbackExecutor;
+        private volatile QueryCallback<T> mCallback;
+
+        QueryFuture(Callable<T> query, QueryCallback<T> callback, Executor callbackExecutor) {
+            super(query);
+            mCallback = callback;
+            mCallbackExecutor = callbackExecutor;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            mCallback = null;
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || mCallback == null) {
+                return;
+            }
+            final T result;
+            try {
+                result = get();
+            } catch (final ExecutionException e) {
+                mCallbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        QueryCallback<T> callback = mCallback;
+                        if (callback != null) {
+                            mCallback = null;
+                            deliverError(callback, e.getCause());
+                        }
+                    }
+                });
+                return;
+            } catch (InterruptedException e) {
+                // Can't happen, the query is done
+                Thread.currentThread().interrupt();
+                return;
+            }
+            mCallbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    QueryCallback<T> callback = mCallback;
+                    if (callback != null) {
+                        mCallback = null;
+                        callback.onQueryResult(result);
+                    }
+                }
+            });
+        }
+    }
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Executor mCallbackExecutor;
+
+    public QueryExecutor() {
+        this(DEFAULT_THREAD_COUNT, new MainThreadExecutor());
+    }
+
+    /**
+     * @param threadCount number of queries running in parallel
+     * @param callbackExecutor runs the {@link QueryCallback}s
+     */
+    public QueryExecutor(int threadCount, @NonNull Executor callbackExecutor) {
+        mExecutor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new QueryThreadFactory());
+        mExecutor.allowCoreThreadTimeOut(true);
+        mCallbackExecutor = callbackExecutor;
+    }
+
+    public <T> QueryFuture<T> submit(@NonNull Callable<T> query, @NonNull QueryCallback<T> callback) {
+        QueryFuture<T> future = new QueryFuture<>(query, callback, mCallbackExecutor);
+        mExecutor.execute(future);
+        return future;
+    }
+
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    /**
+     * Reports a failed query to the callback if it handles errors, or logs it.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void deliverError(@NonNull QueryCallback<T> callback, @NonNull Throwable error) {
+        if (callback instanceof QueryErrorCallback) {
+            ((QueryErrorCallback<T>) callback).onQueryError(error);
+        } else {
+            AppLog.e(AppLog.T.DB, "Store query failed", error);
+        }
+    }
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mHandler.post(command);
+        }
+    }
+
+    private static class QueryThreadFactory implements ThreadFactory {
+        private final AtomicInteger mThreadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, "FluxC-Query-" + mThreadCount.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.wordpress.android.fluxc;
+
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches network request actions to their completion actions and reports the time between them to a
+ * {@link DispatcherMetrics}.
+ *
+ * The completion action of a request is found by name: {@code FETCH_POSTS} completes with {@code FETCHED_POSTS},
+ * {@code LIKE_COMMENT} with {@code LIKED_COMMENT}... Requests without such an action in their enum aren't tracked.
+ * Pending requests are matched in order per completion action and site. A request action a store handles without
+ * sending a request, e.g. because an identical one is in flight, must be reported with {@link #onRequestDropped}.
+ */
+class RequestLatencyTracker {
+    // Requests never seeing their completion action (e.g. a crash in a network client) must not pile up
+    private static final int MAX_PENDING_REQUESTS_PER_KEY = 32;
+
+    private final PayloadSiteResolver mSiteResolver;
+    private final Map<IAction, IAction> mCompletionTypes = new ConcurrentHashMap<>();
+    private final Set<IAction> mTypesWithoutCompletion =
+            Collections.newSetFromMap(new ConcurrentHashMap<IAction, Boolean>());
+    private final Map<List<Object>, Deque<PendingRequest>> mPendingRequests = new HashMap<>();
+
+    RequestLatencyTracker(PayloadSiteResolver siteResolver) {
+        mSiteResolver = siteResolver;
+    }
+
+    void onDispatch(Action action, DispatcherMetrics metrics) {
+        IAction actionType = action.getType();
+        if (!(actionType instanceof Enum)) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        int localSiteId = mSiteResolver.getLocalSiteId(action.getPayload());
+        IAction completionType = getCompletionType(actionType);
+        PendingRequest completedRequest;
+        synchronized (mPendingRequests) {
+            completedRequest = pollPendingRequest(Arrays.<Object>asList(actionType, localSiteId));
+            if (completionType != null) {
+                addPendingRequest(Arrays.<Object>asList(completionType, localSiteId),
+                        new PendingRequest(actionType, now));
+            }
+        }
+
+        if (completedRequest != null) {
+            metrics.onRequestCompleted(completedRequest.mRequestType, actionType, now - completedRequest.mStartNanos);
+        }
+    }
+
+    /**
+     * Forgets the last pending request of the given type for the payload's site: it wasn't sent, the next completion
+     * action answers an earlier request.
+     */
+    void onRequestDropped(IAction actionType, Object payload) {
+        if (!(actionType instanceof Enum)) {
+            return;
+        }
+        IAction completionType = getCompletionType(actionType);
+        if (completionType == null) {
+            return;
+        }
+
+        List<Object> key = Arrays.<Object>asList(completionType, mSiteResolver.getLocalSiteId(payload));
+        synchronized (mPendingRequests) {
+            Deque<PendingRequest> requests = mPendingRequests.get(key);
+            if (requests == null) {
+                return;
+            }
+            Iterator<PendingRequest> iterator = requests.descendingIterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().mRequestType == actionType) {
+                    iterator.remove();
+                    break;
+                }
+            }
+            if (requests.isEmpty()) {
+                mPendingRequests.remove(key);
+            }
+        }
+    }
+
+    private PendingRequest pollPendingRequest(List<Object> key) {
+        Deque<PendingRequest> requests = mPendingRequests.get(key);
+        if (requests == null) {
+            return null;
+        }
+        PendingRequest request = requests.poll();
+        if (requests.isEmpty()) {
+            mPendingRequests.remove(key);
+        }
+        return request;
+    }
+
+    private void addPendingRequest(List<Object> key, PendingRequest request) {
+        Deque<PendingRequest> requests = mPendingRequests.get(key);
+        if (requests == null) {
+            requests = new ArrayDeque<>();
+            mPendingRequests.put(key, requests);
+        } else if (requests.size() >= MAX_PENDING_REQUESTS_PER_KEY) {
+            requests.poll();
+        }
+        requests.add(request);
+    }
+
+    private IAction getCompletionType(IAction actionType) {
+        IAction completionType = mCompletionTypes.get(actionType);
+        if (completionType != null || mTypesWithoutCompletion.contains(actionType)) {
+            return completionType;
+        }
+
+        completionType = findCompletionType((Enum) actionType);
+        if (completionType == null) {
+            mTypesWithoutCompletion.add(actionType);
+        } else {
+            mCompletionTypes.put(actionType, completionType);
+        }
+        return completionType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IAction findCompletionType(Enum actionType) {
+        String name = actionType.name();
+        int verbEnd = name.indexOf('_');
+        String verb = verbEnd == -1 ? name : name.substring(0, verbEnd);
+        String completionName = (verb.endsWith("E") ? verb + "D" : verb + "ED") + name.substring(verb.length());
+        try {
+            return (IAction) Enum.valueOf(actionType.getDeclaringClass(), completionName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class PendingRequest {
+        private final IAction mRequestType;
+        private final long mStartNanos;
+
+        PendingRequest(IAction requestType, long startNanos) {
+            mRequestType = requestType;
+            mStartNanos = startNanos;
+        }
+    }
+}
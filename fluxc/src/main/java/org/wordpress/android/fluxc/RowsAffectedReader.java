@@ -0,0 +1,48 @@
+package org.wordpress.android.fluxc;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the public {@code int rowsAffected} field of change events like
+ * {@link org.wordpress.android.fluxc.store.PostStore.OnPostChanged}. Fields are looked up once per event class.
+ */
+class RowsAffectedReader {
+    static final int UNKNOWN = -1;
+
+    private final Map<Class<?>, Field> mRowsAffectedFields = new ConcurrentHashMap<>();
+    private final Set<Class<?>> mClassesWithoutRowsAffected =
+            Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+    /**
+     * @return the rows affected, or {@link #UNKNOWN} if the event doesn't have a {@code rowsAffected} field
+     */
+    int getRowsAffected(Object changeEvent) {
+        Class<?> eventClass = changeEvent.getClass();
+        Field field = mRowsAffectedFields.get(eventClass);
+        if (field == null) {
+            if (mClassesWithoutRowsAffected.contains(eventClass)) {
+                return UNKNOWN;
+            }
+            try {
+                field = eventClass.getField("rowsAffected");
+            } catch (NoSuchFieldException e) {
+                field = null;
+            }
+            if (field == null || field.getType() != int.class) {
+                mClassesWithoutRowsAffected.add(eventClass);
+                return UNKNOWN;
+            }
+            mRowsAffectedFields.put(eventClass, field);
+        }
+
+        try {
+            return field.getInt(changeEvent);
+        } catch (IllegalAccessException e) {
+            return UNKNOWN;
+        }
+    }
+}
@@ -9,11 +9,12 @@ import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.Delete
 import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.IsWPComResponsePayload;
 import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.NewSiteResponsePayload;
 import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.ExportSiteResponsePayload;
+import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.fluxc.store.SiteStore.FetchedPostFormatsPayload;
 import org.wordpress.android.fluxc.store.SiteStore.NewSitePayload;
 import org.wordpress.android.fluxc.store.SiteStore.RefreshSitesXMLRPCPayload;
 
-@ActionEnum
+@ActionEnum(stores = SiteStore.class)
 public enum SiteAction implements IAction {
     // Remote actions
     @Action(payloadType = SiteModel.class)
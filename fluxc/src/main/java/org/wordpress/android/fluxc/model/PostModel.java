@@ -35,6 +35,7 @@ public class PostModel extends Payload implements Cloneable, Identifiable, Seria
     @Column private String mTitle;
     @Column private String mContent;
     @Column private String mDateCreated; // ISO 8601-formatted date in UTC, e.g. 1955-11-05T14:15:00Z
+    @Column private String mDateModified; // ISO 8601-formatted date in UTC, e.g. 1955-11-05T14:15:00Z
     @Column private String mCategoryIds;
     @Column private String mCustomFields;
     @Column private String mLink;
@@ -128,6 +129,14 @@ public class PostModel extends Payload implements Cloneable, Identifiable, Seria
         mDateCreated = dateCreated;
     }
 
+    public @NonNull String getDateModified() {
+        return StringUtils.notNullStr(mDateModified);
+    }
+
+    public void setDateModified(String dateModified) {
+        mDateModified = dateModified;
+    }
+
     public @NonNull String getCategoryIds() {
         return StringUtils.notNullStr(mCategoryIds);
     }
@@ -361,6 +370,7 @@ public class PostModel extends Payload implements Cloneable, Identifiable, Seria
                 && StringUtils.equals(getTitle(), otherPost.getTitle())
                 && StringUtils.equals(getContent(), otherPost.getContent())
                 && StringUtils.equals(getDateCreated(), otherPost.getDateCreated())
+                && StringUtils.equals(getDateModified(), otherPost.getDateModified())
                 && StringUtils.equals(getCategoryIds(), otherPost.getCategoryIds())
                 && StringUtils.equals(getCustomFields(), otherPost.getCustomFields())
                 && StringUtils.equals(getLink(), otherPost.getLink())
@@ -0,0 +1,116 @@
+package org.wordpress.android.fluxc.model;
+
+import android.support.annotation.NonNull;
+
+import org.wordpress.android.util.StringUtils;
+
+/**
+ * Lightweight projection of a {@link PostModel} holding what post lists display, without the post content and
+ * custom fields. The excerpt is truncated to {@link #MAX_EXCERPT_LENGTH} characters.
+ *
+ * The full post can be loaded with {@link org.wordpress.android.fluxc.store.PostStore#getPostByLocalPostId(long)},
+ * or only its content with {@link org.wordpress.android.fluxc.store.PostStore#getPostContentByLocalPostId(int)}.
+ */
+public class PostSummary {
+    public static final int MAX_EXCERPT_LENGTH = 300;
+
+    private int mId;
+    private int mLocalSiteId;
+    private long mRemotePostId;
+    private String mTitle;
+    private String mExcerpt;
+    private String mStatus;
+    private String mDateCreated; // ISO 8601-formatted date in UTC, e.g. 1955-11-05T14:15:00Z
+    private long mFeaturedImageId;
+    private boolean mIsPage;
+    private boolean mIsLocalDraft;
+    private boolean mIsLocallyChanged;
+
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public int getLocalSiteId() {
+        return mLocalSiteId;
+    }
+
+    public void setLocalSiteId(int localSiteId) {
+        mLocalSiteId = localSiteId;
+    }
+
+    public long getRemotePostId() {
+        return mRemotePostId;
+    }
+
+    public void setRemotePostId(long remotePostId) {
+        mRemotePostId = remotePostId;
+    }
+
+    public @NonNull String getTitle() {
+        return StringUtils.notNullStr(mTitle);
+    }
+
+    public void setTitle(String title) {
+        mTitle = title;
+    }
+
+    public @NonNull String getExcerpt() {
+        return StringUtils.notNullStr(mExcerpt);
+    }
+
+    public void setExcerpt(String excerpt) {
+        mExcerpt = excerpt;
+    }
+
+    public @NonNull String getStatus() {
+        return StringUtils.notNullStr(mStatus);
+    }
+
+    public void setStatus(String status) {
+        mStatus = status;
+    }
+
+    public @NonNull String getDateCreated() {
+        return StringUtils.notNullStr(mDateCreated);
+    }
+
+    public void setDateCreated(String dateCreated) {
+        mDateCreated = dateCreated;
+    }
+
+    public long getFeaturedImageId() {
+        return mFeaturedImageId;
+    }
+
+    public void setFeaturedImageId(long featuredImageId) {
+        mFeaturedImageId = featuredImageId;
+    }
+
+    public boolean isPage() {
+        return mIsPage;
+    }
+
+    public void setIsPage(boolean isPage) {
+        mIsPage = isPage;
+    }
+
+    public boolean isLocalDraft() {
+        return mIsLocalDraft;
+    }
+
+    public void setIsLocalDraft(boolean isLocalDraft) {
+        mIsLocalDraft = isLocalDraft;
+    }
+
+    public boolean isLocallyChanged() {
+        return mIsLocallyChanged;
+    }
+
+    public void setIsLocallyChanged(boolean isLocallyChanged) {
+        mIsLocallyChanged = isLocallyChanged;
+    }
+}
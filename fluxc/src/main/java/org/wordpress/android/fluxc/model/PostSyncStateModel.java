@@ -0,0 +1,54 @@
+package org.wordpress.android.fluxc.model;
+
+import com.yarolegovich.wellsql.core.Identifiable;
+import com.yarolegovich.wellsql.core.annotation.Column;
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey;
+import com.yarolegovich.wellsql.core.annotation.Table;
+
+/**
+ * Sync mark of the uploaded posts (or pages) of a site: the most recent modification date of the posts received by
+ * the fetches applied so far, the date the next incremental fetch starts from.
+ */
+@Table
+public class PostSyncStateModel implements Identifiable {
+    @PrimaryKey
+    @Column private int mId;
+
+    // Site Id Foreign Key
+    @Column private int mLocalSiteId;
+    @Column private boolean mIsPage;
+
+    @Column private String mLastModified; // ISO 8601-formatted date in UTC, e.g. 1955-11-05T14:15:00+00:00
+
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public int getLocalSiteId() {
+        return mLocalSiteId;
+    }
+
+    public void setLocalSiteId(int localSiteId) {
+        mLocalSiteId = localSiteId;
+    }
+
+    public boolean isPage() {
+        return mIsPage;
+    }
+
+    public void setIsPage(boolean isPage) {
+        mIsPage = isPage;
+    }
+
+    public String getLastModified() {
+        return mLastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        mLastModified = lastModified;
+    }
+}
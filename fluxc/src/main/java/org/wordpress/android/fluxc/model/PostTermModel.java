@@ -0,0 +1,73 @@
+package org.wordpress.android.fluxc.model;
+
+import com.yarolegovich.wellsql.core.Identifiable;
+import com.yarolegovich.wellsql.core.annotation.Column;
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey;
+import com.yarolegovich.wellsql.core.annotation.Table;
+
+/**
+ * A term of a post, one row per category or tag of each stored post. Categories are referenced by remote term id and
+ * tags by name, the way {@link PostModel} references them.
+ */
+@Table
+public class PostTermModel implements Identifiable {
+    @PrimaryKey
+    @Column private int mId;
+
+    // Post and site Id Foreign Keys
+    @Column private int mLocalPostId;
+    @Column private int mLocalSiteId;
+
+    // Term reference: taxonomy name, and remote term id for categories or term name for tags
+    @Column private String mTaxonomy;
+    @Column private long mRemoteTermId;
+    @Column private String mTermName;
+
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public int getLocalPostId() {
+        return mLocalPostId;
+    }
+
+    public void setLocalPostId(int localPostId) {
+        mLocalPostId = localPostId;
+    }
+
+    public int getLocalSiteId() {
+        return mLocalSiteId;
+    }
+
+    public void setLocalSiteId(int localSiteId) {
+        mLocalSiteId = localSiteId;
+    }
+
+    public String getTaxonomy() {
+        return mTaxonomy;
+    }
+
+    public void setTaxonomy(String taxonomy) {
+        mTaxonomy = taxonomy;
+    }
+
+    public long getRemoteTermId() {
+        return mRemoteTermId;
+    }
+
+    public void setRemoteTermId(long remoteTermId) {
+        mRemoteTermId = remoteTermId;
+    }
+
+    public String getTermName() {
+        return mTermName;
+    }
+
+    public void setTermName(String termName) {
+        mTermName = termName;
+    }
+}
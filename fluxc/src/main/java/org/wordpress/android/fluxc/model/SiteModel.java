@@ -22,7 +22,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
 
 @Table
 @RawConstraints({"UNIQUE (SITE_ID, URL)"})
-public class SiteModel extends Payload implements Identifiable, Serializable {
+public class SiteModel extends Payload implements Cloneable, Identifiable, Serializable {
     @Retention(SOURCE)
     @IntDef({ORIGIN_UNKNOWN, ORIGIN_WPCOM_REST, ORIGIN_XMLRPC})
     public @interface SiteOrigin {}
@@ -483,4 +483,13 @@ public class SiteModel extends Payload implements Identifiable, Serializable {
     public boolean isUsingWpComRestApi() {
         return isWPCom() || (isJetpackConnected() && getOrigin() == ORIGIN_WPCOM_REST);
     }
+
+    @Override
+    public SiteModel clone() {
+        try {
+            return (SiteModel) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(); // Can't happen
+        }
+    }
 }
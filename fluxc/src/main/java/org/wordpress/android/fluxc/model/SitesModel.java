@@ -9,6 +9,7 @@ import java.util.List;
 
 public class SitesModel extends Payload {
     private List<SiteModel> mSites;
+    private boolean mNotModified;
 
     public SitesModel() {
         mSites = new ArrayList<>();
@@ -25,4 +26,15 @@ public class SitesModel extends Payload {
     public void setSites(List<SiteModel> sites) {
         this.mSites = sites;
     }
+
+    /**
+     * @return true if the sites didn't change since they were last fetched, the payload has no sites then
+     */
+    public boolean isNotModified() {
+        return mNotModified;
+    }
+
+    public void setNotModified(boolean notModified) {
+        mNotModified = notModified;
+    }
 }
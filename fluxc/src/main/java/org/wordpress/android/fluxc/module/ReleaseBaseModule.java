@@ -1,6 +1,9 @@
 package org.wordpress.android.fluxc.module;
 
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.Dispatcher.DeliveryMode;
+import org.wordpress.android.fluxc.DispatcherExecutor;
+import org.wordpress.android.fluxc.QueryExecutor;
 
 import javax.inject.Singleton;
 
@@ -9,9 +12,41 @@ import dagger.Provides;
 
 @Module
 public class ReleaseBaseModule {
+    private final DeliveryMode mDeliveryMode;
+    private final int mCorePoolSize;
+    private final int mQueueCapacity;
+
+    public ReleaseBaseModule() {
+        this(DeliveryMode.BROADCAST, DispatcherExecutor.DEFAULT_CORE_POOL_SIZE,
+                DispatcherExecutor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Tune the Dispatcher per device class.
+     *
+     * @param corePoolSize number of threads running the {@link org.wordpress.android.fluxc.store.Store} actions
+     * @param queueCapacity number of background actions that can wait for a thread before the dispatching
+     *                      thread blocks
+     */
+    public ReleaseBaseModule(DeliveryMode deliveryMode, int corePoolSize, int queueCapacity) {
+        mDeliveryMode = deliveryMode;
+        mCorePoolSize = corePoolSize;
+        mQueueCapacity = queueCapacity;
+    }
+
     @Singleton
     @Provides
     public Dispatcher provideDispatcher() {
-        return new Dispatcher();
+        return new Dispatcher(mDeliveryMode, new DispatcherExecutor(mCorePoolSize, mQueueCapacity));
+    }
+
+    /**
+     * The executor running the asynchronous reads of the stores. Override to tune its thread count, or to deliver
+     * the results elsewhere than on the main thread.
+     */
+    @Singleton
+    @Provides
+    public QueryExecutor provideQueryExecutor() {
+        return new QueryExecutor();
     }
 }
@@ -10,7 +10,9 @@ import com.android.volley.toolbox.DiskBasedCache;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.MemorizingTrustManager;
+import org.wordpress.android.fluxc.network.OkHttpRequestQueue;
 import org.wordpress.android.fluxc.network.OkHttpStack;
+import org.wordpress.android.fluxc.network.ResponseValidatorCache;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder;
 import org.wordpress.android.fluxc.network.rest.wpapi.BaseWPAPIRestClient;
@@ -43,11 +45,49 @@ import okhttp3.OkHttpClient;
 public class ReleaseNetworkModule {
     private static final String DEFAULT_CACHE_DIR = "volley-fluxc";
     private static final int NETWORK_THREAD_POOL_SIZE = 10;
+    // Only for the few requests that aren't BaseRequests, when running on OkHttp's asynchronous calls
+    private static final int OKHTTP_FALLBACK_THREAD_POOL_SIZE = 2;
+
+    private final boolean mUseOkHttpRequestQueue;
+    private final boolean mUseConditionalRequests;
+
+    public ReleaseNetworkModule() {
+        this(false);
+    }
+
+    /**
+     * @param useOkHttpRequestQueue run the requests on OkHttp's asynchronous calls ({@link OkHttpRequestQueue})
+     *                              rather than on the Volley network threads
+     */
+    public ReleaseNetworkModule(boolean useOkHttpRequestQueue) {
+        this(useOkHttpRequestQueue, false);
+    }
+
+    /**
+     * @param useOkHttpRequestQueue run the requests on OkHttp's asynchronous calls ({@link OkHttpRequestQueue})
+     *                              rather than on the Volley network threads
+     * @param useConditionalRequests revalidate the responses of rarely changing data (sites list, post formats,
+     *                               terms, account settings) with ETag and Last-Modified, see
+     *                               {@link ResponseValidatorCache}
+     */
+    public ReleaseNetworkModule(boolean useOkHttpRequestQueue, boolean useConditionalRequests) {
+        mUseOkHttpRequestQueue = useOkHttpRequestQueue;
+        mUseConditionalRequests = useConditionalRequests;
+    }
 
     private RequestQueue newRequestQueue(OkHttpClient.Builder okHttpClientBuilder, Context appContext) {
         File cacheDir = new File(appContext.getCacheDir(), DEFAULT_CACHE_DIR);
-        Network network = new BasicNetwork(new OkHttpStack(okHttpClientBuilder));
-        RequestQueue queue = new RequestQueue(new DiskBasedCache(cacheDir), network, NETWORK_THREAD_POOL_SIZE);
+        OkHttpClient okHttpClient = okHttpClientBuilder.build();
+        RequestQueue queue;
+        if (mUseOkHttpRequestQueue) {
+            // As many parallel requests to a host as with the Volley network threads
+            okHttpClient.dispatcher().setMaxRequestsPerHost(NETWORK_THREAD_POOL_SIZE);
+            queue = new OkHttpRequestQueue(new DiskBasedCache(cacheDir), new OkHttpStack(okHttpClient),
+                    OKHTTP_FALLBACK_THREAD_POOL_SIZE);
+        } else {
+            Network network = new BasicNetwork(new OkHttpStack(okHttpClient));
+            queue = new RequestQueue(new DiskBasedCache(cacheDir), network, NETWORK_THREAD_POOL_SIZE);
+        }
         queue.start();
         return queue;
     }
@@ -75,6 +115,12 @@ public class ReleaseNetworkModule {
         return new Authenticator(dispatcher, requestQueue, appSecrets);
     }
 
+    @Singleton
+    @Provides
+    public ResponseValidatorCache provideResponseValidatorCache() {
+        return new ResponseValidatorCache(mUseConditionalRequests);
+    }
+
     @Singleton
     @Provides
     public UserAgent provideUserAgent(Context appContext) {
@@ -103,8 +149,9 @@ public class ReleaseNetworkModule {
     public SiteRestClient provideSiteRestClient(Context appContext, Dispatcher dispatcher,
                                                 @Named("regular") RequestQueue requestQueue,
                                                 AppSecrets appSecrets,
-                                                AccessToken token, UserAgent userAgent) {
-        return new SiteRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent);
+                                                AccessToken token, UserAgent userAgent,
+                                                ResponseValidatorCache validatorCache) {
+        return new SiteRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent, validatorCache);
     }
 
     @Singleton
@@ -140,8 +187,10 @@ public class ReleaseNetworkModule {
     public AccountRestClient provideAccountRestClient(Context appContext, Dispatcher dispatcher,
                                                       @Named("regular") RequestQueue requestQueue,
                                                       AppSecrets appSecrets,
-                                                      AccessToken token, UserAgent userAgent) {
-        return new AccountRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent);
+                                                      AccessToken token, UserAgent userAgent,
+                                                      ResponseValidatorCache validatorCache) {
+        return new AccountRestClient(appContext, dispatcher, requestQueue, appSecrets, token, userAgent,
+                validatorCache);
     }
 
     @Singleton
@@ -182,8 +231,9 @@ public class ReleaseNetworkModule {
     @Provides
     public TaxonomyRestClient provideTaxonomyRestClient(Context appContext, Dispatcher dispatcher,
                                                         @Named("regular") RequestQueue requestQueue,
-                                                        AccessToken token, UserAgent userAgent) {
-        return new TaxonomyRestClient(appContext, dispatcher, requestQueue, token, userAgent);
+                                                        AccessToken token, UserAgent userAgent,
+                                                        ResponseValidatorCache validatorCache) {
+        return new TaxonomyRestClient(appContext, dispatcher, requestQueue, token, userAgent, validatorCache);
     }
 
     @Singleton
@@ -8,26 +8,40 @@ import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 
 import javax.inject.Named;
+import javax.inject.Singleton;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 
 import dagger.Module;
 import dagger.Provides;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 
 @Module
 public class ReleaseOkHttpClientModule {
+    /**
+     * Shared by the clients of the "regular" and "custom-ssl" request queues and by the media upload clients, so that
+     * they reuse each other's idle connections (HTTPS connections are only shared by clients with the same SSL
+     * socket factory).
+     */
+    @Singleton
+    @Provides
+    public ConnectionPool provideConnectionPool() {
+        return new ConnectionPool();
+    }
+
     @Provides
     @Named("regular")
-    public OkHttpClient.Builder provideOkHttpClientBuilder() {
-        return new OkHttpClient.Builder();
+    public OkHttpClient.Builder provideOkHttpClientBuilder(ConnectionPool connectionPool) {
+        return new OkHttpClient.Builder().connectionPool(connectionPool);
     }
 
     @Provides
     @Named("custom-ssl")
-    public OkHttpClient.Builder provideOkHttpClientBuilderCustomSSL(MemorizingTrustManager memorizingTrustManager) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+    public OkHttpClient.Builder provideOkHttpClientBuilderCustomSSL(MemorizingTrustManager memorizingTrustManager,
+                                                                    ConnectionPool connectionPool) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder().connectionPool(connectionPool);
         try {
             final SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(null, new TrustManager[]{memorizingTrustManager}, new java.security.SecureRandom());
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.module;
 
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.QueryExecutor;
 import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder;
 import org.wordpress.android.fluxc.network.rest.wpcom.account.AccountRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
@@ -31,16 +32,16 @@ import dagger.Provides;
 public class ReleaseStoreModule {
     @Provides
     @Singleton
-    public SiteStore provideSiteStore(Dispatcher dispatcher, SiteRestClient siteRestClient,
+    public SiteStore provideSiteStore(Dispatcher dispatcher, QueryExecutor queryExecutor, SiteRestClient siteRestClient,
                                       SiteXMLRPCClient siteXMLRPCClient) {
-        return new SiteStore(dispatcher, siteRestClient, siteXMLRPCClient);
+        return new SiteStore(dispatcher, queryExecutor, siteRestClient, siteXMLRPCClient);
     }
 
     @Provides
     @Singleton
-    public MediaStore provideMediaStore(Dispatcher dispatcher, MediaRestClient mediaRestClient,
-                                        MediaXMLRPCClient mediaXMLRPCClient) {
-        return new MediaStore(dispatcher, mediaRestClient, mediaXMLRPCClient);
+    public MediaStore provideMediaStore(Dispatcher dispatcher, QueryExecutor queryExecutor,
+                                        MediaRestClient mediaRestClient, MediaXMLRPCClient mediaXMLRPCClient) {
+        return new MediaStore(dispatcher, queryExecutor, mediaRestClient, mediaXMLRPCClient);
     }
 
     @Provides
@@ -53,22 +54,23 @@ public class ReleaseStoreModule {
 
     @Provides
     @Singleton
-    public PostStore providePostStore(Dispatcher dispatcher, PostRestClient postRestClient,
+    public PostStore providePostStore(Dispatcher dispatcher, QueryExecutor queryExecutor, PostRestClient postRestClient,
                                       PostXMLRPCClient postXMLRPCClient) {
-        return new PostStore(dispatcher, postRestClient, postXMLRPCClient);
+        return new PostStore(dispatcher, queryExecutor, postRestClient, postXMLRPCClient);
     }
 
     @Provides
     @Singleton
-    public CommentStore provideCommentStore(Dispatcher dispatcher, CommentRestClient restClient,
-                                            CommentXMLRPCClient xmlrpcClient) {
-        return new CommentStore(dispatcher, restClient, xmlrpcClient);
+    public CommentStore provideCommentStore(Dispatcher dispatcher, QueryExecutor queryExecutor,
+                                            CommentRestClient restClient, CommentXMLRPCClient xmlrpcClient) {
+        return new CommentStore(dispatcher, queryExecutor, restClient, xmlrpcClient);
     }
 
     @Provides
     @Singleton
-    public TaxonomyStore provideTaxonomyStore(Dispatcher dispatcher, TaxonomyRestClient taxonomyRestClient,
+    public TaxonomyStore provideTaxonomyStore(Dispatcher dispatcher, QueryExecutor queryExecutor,
+                                              TaxonomyRestClient taxonomyRestClient,
                                               TaxonomyXMLRPCClient taxonomyXMLRPCClient) {
-        return new TaxonomyStore(dispatcher, taxonomyRestClient, taxonomyXMLRPCClient);
+        return new TaxonomyStore(dispatcher, queryExecutor, taxonomyRestClient, taxonomyXMLRPCClient);
     }
 }
@@ -3,14 +3,15 @@ package org.wordpress.android.fluxc.network;
 import android.net.Uri;
 import android.net.Uri.Builder;
 import android.support.annotation.NonNull;
-import android.util.Base64;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkError;
+import com.android.volley.NetworkResponse;
 import com.android.volley.NoConnectionError;
 import com.android.volley.ParseError;
 import com.android.volley.Request;
+import com.android.volley.Response;
 import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
 
@@ -18,6 +19,10 @@ import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
 import org.wordpress.android.util.AppLog;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -37,13 +42,20 @@ public abstract class BaseRequest<T> extends Request<T> {
     public interface OnParseErrorListener {
         void onParseError(OnUnexpectedError event);
     }
+    public interface OnNotModifiedListener {
+        void onNotModified();
+    }
 
     private static final String USER_AGENT_HEADER = "User-Agent";
+    private static final String AUTHORIZATION_HEADER = "Authorization";
 
     protected OnAuthFailedListener mOnAuthFailedListener;
     protected OnParseErrorListener mOnParseErrorListener;
     protected final Map<String, String> mHeaders = new HashMap<>(2);
     private BaseErrorListener mErrorListener;
+    private ResponseValidatorCache mValidatorCache;
+    private OnNotModifiedListener mOnNotModifiedListener;
+    private volatile boolean mNotModified;
 
     public static class BaseNetworkError {
         public GenericErrorType type;
@@ -140,15 +152,18 @@ public abstract class BaseRequest<T> extends Request<T> {
 
     @Override
     public Map<String, String> getHeaders() {
-        return mHeaders;
+        if (!usesValidatorCache()) {
+            return mHeaders;
+        }
+        Map<String, String> headers = new HashMap<>(mHeaders);
+        mValidatorCache.addConditionalHeaders(getValidatorKey(), headers);
+        return headers;
     }
 
     public void setHTTPAuthHeaderOnMatchingURL(HTTPAuthManager httpAuthManager) {
-        HTTPAuthModel httpAuthModel = httpAuthManager.getHTTPAuthModel(getUrl());
-        if (httpAuthModel != null) {
-            String creds = String.format("%s:%s", httpAuthModel.getUsername(), httpAuthModel.getPassword());
-            String auth = "Basic " + Base64.encodeToString(creds.getBytes(), Base64.NO_WRAP);
-            mHeaders.put("Authorization", auth);
+        String auth = httpAuthManager.getAuthorizationHeader(getUrl());
+        if (auth != null) {
+            mHeaders.put(AUTHORIZATION_HEADER, auth);
         }
     }
 
@@ -168,6 +183,19 @@ public abstract class BaseRequest<T> extends Request<T> {
         mHeaders.put(header, value);
     }
 
+    /**
+     * Sends this GET request with the validators of its last response, if the cache has them. When the server answers
+     * 304 Not Modified, the listener is called instead of the response listener: the data persisted from the last
+     * response is still current.
+     *
+     * No effect on other methods, or if the cache is disabled.
+     */
+    public void setValidatorCache(@NonNull ResponseValidatorCache validatorCache,
+                                  @NonNull OnNotModifiedListener onNotModifiedListener) {
+        mValidatorCache = validatorCache;
+        mOnNotModifiedListener = onNotModifiedListener;
+    }
+
     /**
      * Convenience method for setting a {@link com.android.volley.RetryPolicy} with no retries.
      */
@@ -175,6 +203,70 @@ public abstract class BaseRequest<T> extends Request<T> {
         setRetryPolicy(new DefaultRetryPolicy(DEFAULT_REQUEST_TIMEOUT, 0, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
     }
 
+    /**
+     * Parses a successful response read by the {@link OkHttpRequestQueue}, as its body is downloaded.
+     *
+     * By default the body is read in memory and passed to {@link #parseNetworkResponse(NetworkResponse)}, requests
+     * able to parse a stream should override this so that large responses aren't copied first.
+     *
+     * @throws IOException if reading the body fails, reported like the other network errors
+     */
+    protected Response<T> parseResponseStream(int statusCode, @NonNull Map<String, String> headers,
+                                              @NonNull InputStream body) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = body.read(buffer)) != -1) {
+            data.write(buffer, 0, count);
+        }
+        return parseNetworkResponse(new NetworkResponse(statusCode, data.toByteArray(), headers, false));
+    }
+
+    /**
+     * To be called first when parsing a response.
+     *
+     * @return a response to deliver with {@link #deliverNotModified()} if this is a 304 Not Modified answering the
+     * validators of the {@link ResponseValidatorCache}, or null if the response must be parsed
+     */
+    protected Response<T> parseNotModified(int statusCode) {
+        if (statusCode != HttpURLConnection.HTTP_NOT_MODIFIED || !usesValidatorCache()) {
+            return null;
+        }
+        mValidatorCache.onNotModified(getValidatorKey());
+        mNotModified = true;
+        return Response.success(null, null);
+    }
+
+    /**
+     * Keeps the validators of a successfully parsed response for the next time this URL is requested.
+     */
+    protected void storeValidators(@NonNull Map<String, String> headers, long contentLength) {
+        if (usesValidatorCache()) {
+            mValidatorCache.storeValidators(getValidatorKey(), headers, contentLength);
+        }
+    }
+
+    /**
+     * To be called first when delivering a response.
+     *
+     * @return true if the response was a 304 Not Modified, which was delivered to the {@link OnNotModifiedListener}
+     */
+    protected boolean deliverNotModified() {
+        if (!mNotModified) {
+            return false;
+        }
+        mOnNotModifiedListener.onNotModified();
+        return true;
+    }
+
+    private boolean usesValidatorCache() {
+        return mValidatorCache != null && mValidatorCache.isEnabled() && getMethod() == Method.GET;
+    }
+
+    private String getValidatorKey() {
+        return ResponseValidatorCache.getKey(getUrl(), mHeaders.get(AUTHORIZATION_HEADER));
+    }
+
     @NonNull
     private BaseNetworkError getBaseNetworkError(VolleyError volleyError) {
         // No connection
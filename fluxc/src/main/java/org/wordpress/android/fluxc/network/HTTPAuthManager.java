@@ -2,42 +2,135 @@ package org.wordpress.android.fluxc.network;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.util.Base64;
 
 import com.yarolegovich.wellsql.WellSql;
 
 import org.wordpress.android.fluxc.persistence.HTTPAuthSqlUtils;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier.TableChangeListener;
 
+import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class HTTPAuthManager {
-    public HTTPAuthManager() {}
+    /**
+     * Stored credentials indexed by URL prefix: a trie over their root URLs and the same URLs with the ending
+     * 'xmlrpc.php' (or other name) stripped. Built from the database on first use, and replaced when credentials are
+     * added or the table is reset.
+     */
+    private static class CredentialIndex {
+        private final Node mRoot = new Node();
+
+        void add(Credential credential, String prefix) {
+            Node node = mRoot;
+            for (int i = 0; i < prefix.length(); i++) {
+                Node child = node.mChildren.get(prefix.charAt(i));
+                if (child == null) {
+                    child = new Node();
+                    node.mChildren.put(prefix.charAt(i), child);
+                }
+                node = child;
+            }
+            if (node.mCredential == null || credential.mOrder < node.mCredential.mOrder) {
+                node.mCredential = credential;
+            }
+        }
+
+        /**
+         * @return the first stored credential (in database order) with a prefix matching the url, or null
+         */
+        Credential find(String url) {
+            Node node = mRoot;
+            Credential match = node.mCredential;
+            for (int i = 0; i < url.length(); i++) {
+                node = node.mChildren.get(url.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.mCredential != null && (match == null || node.mCredential.mOrder < match.mOrder)) {
+                    match = node.mCredential;
+                }
+            }
+            return match;
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> mChildren = new HashMap<>();
+        private Credential mCredential;
+    }
+
+    private static class Credential {
+        private final HTTPAuthModel mModel;
+        private final int mOrder;
+        private final String mAuthorizationHeader;
+
+        Credential(HTTPAuthModel model, int order) {
+            mModel = model;
+            mOrder = order;
+            String creds = String.format("%s:%s", model.getUsername(), model.getPassword());
+            mAuthorizationHeader = "Basic " + Base64.encodeToString(creds.getBytes(), Base64.NO_WRAP);
+        }
+    }
+
+    /**
+     * Drops the credential index of the manager when the credentials table changes. Holds the manager weakly, so the
+     * listener doesn't keep it alive, and unregisters itself once the manager is gone.
+     */
+    private static class CredentialTableListener implements TableChangeListener {
+        private final WeakReference<HTTPAuthManager> mManagerRef;
+
+        CredentialTableListener(HTTPAuthManager manager) {
+            mManagerRef = new WeakReference<>(manager);
+        }
+
+        @Override
+        public void onTableChanged(@NonNull Class<?> table, int localSiteId) {
+            HTTPAuthManager manager = mManagerRef.get();
+            if (manager == null) {
+                TableChangeNotifier.removeListener(this);
+                return;
+            }
+            if (table == HTTPAuthModel.class) {
+                synchronized (manager) {
+                    manager.mCredentialIndex = null;
+                }
+            }
+        }
+    }
+
+    private volatile CredentialIndex mCredentialIndex;
+
+    public HTTPAuthManager() {
+        TableChangeNotifier.addListener(new CredentialTableListener(this));
+    }
 
     /**
      * Get an HTTPAuthModel containing username and password for the url parameter
-     * TODO: Use an in memory model (or caching) - because this SQL query is executed every time a request is sent
      *
      * @param url to test
      * @return null if url is not matching any known HTTP auth credentials
      */
     @Nullable
     public HTTPAuthModel getHTTPAuthModel(String url) {
-        List<HTTPAuthModel> authModels = WellSql.select(HTTPAuthModel.class).getAsModel();
-        if (authModels.isEmpty()) {
-            return null;
-        }
-        for (HTTPAuthModel authModel : authModels) {
-            if (url.startsWith(authModel.getRootUrl())) {
-                return authModel;
-            }
+        Credential credential = findCredential(url);
+        return credential == null ? null : credential.mModel;
+    }
 
-            // Also compare against the stored URL with the ending 'xmlrpc.php' (or other name) stripped
-            String xmlrpcStripped = authModel.getRootUrl().replaceFirst("/[^/]*?.php$", "");
-            if (url.startsWith(xmlrpcStripped)) {
-                return authModel;
-            }
-        }
-        return null;
+    /**
+     * Get the value of the Basic authorization header for the url parameter
+     *
+     * @param url to test
+     * @return null if url is not matching any known HTTP auth credentials
+     */
+    @Nullable
+    public String getAuthorizationHeader(String url) {
+        Credential credential = findCredential(url);
+        return credential == null ? null : credential.mAuthorizationHeader;
     }
 
     public void addHTTPAuthCredentials(@NonNull String username, @NonNull String password,
@@ -47,8 +140,48 @@ public class HTTPAuthManager {
         httpAuthModel.setPassword(password);
         httpAuthModel.setRootUrl(normalizeURL(url));
         httpAuthModel.setRealm(realm);
-        // Replace old username / password / realm - URL used as key
-        HTTPAuthSqlUtils.insertOrUpdateModel(httpAuthModel);
+        synchronized (this) {
+            // Replace old username / password / realm - URL used as key
+            HTTPAuthSqlUtils.insertOrUpdateModel(httpAuthModel);
+            mCredentialIndex = null;
+        }
+    }
+
+    private Credential findCredential(String url) {
+        if (url == null) {
+            return null;
+        }
+        return getCredentialIndex().find(url);
+    }
+
+    private CredentialIndex getCredentialIndex() {
+        CredentialIndex credentialIndex = mCredentialIndex;
+        if (credentialIndex != null) {
+            return credentialIndex;
+        }
+        synchronized (this) {
+            if (mCredentialIndex == null) {
+                mCredentialIndex = loadCredentialIndex();
+            }
+            return mCredentialIndex;
+        }
+    }
+
+    private static CredentialIndex loadCredentialIndex() {
+        CredentialIndex credentialIndex = new CredentialIndex();
+        List<HTTPAuthModel> authModels = WellSql.select(HTTPAuthModel.class).getAsModel();
+        for (int i = 0; i < authModels.size(); i++) {
+            HTTPAuthModel authModel = authModels.get(i);
+            String rootUrl = authModel.getRootUrl();
+            if (rootUrl == null) {
+                continue;
+            }
+            Credential credential = new Credential(authModel, i);
+            credentialIndex.add(credential, rootUrl);
+            // Also match against the stored URL with the ending 'xmlrpc.php' (or other name) stripped
+            credentialIndex.add(credential, rootUrl.replaceFirst("/[^/]*?.php$", ""));
+        }
+        return credentialIndex;
     }
 
     private String normalizeURL(String url) {
@@ -0,0 +1,192 @@
+package org.wordpress.android.fluxc.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.Cache;
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.NetworkError;
+import com.android.volley.NetworkResponse;
+import com.android.volley.NoConnectionError;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.Response;
+import com.android.volley.ResponseDelivery;
+import com.android.volley.ServerError;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BasicNetwork;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+
+/**
+ * {@link RequestQueue} running the {@link BaseRequest}s on OkHttp's asynchronous calls, instead of the blocking
+ * network threads of Volley's {@link BasicNetwork}. Their response bodies are parsed as they're downloaded, see
+ * {@link BaseRequest#parseResponseStream}, rather than being copied in memory first.
+ *
+ * The requests are retried, and their responses and errors delivered, as on the Volley queue: the listeners are called
+ * on the main thread with the same {@link VolleyError}s. Other requests are run by the Volley network threads.
+ */
+public class OkHttpRequestQueue extends RequestQueue {
+    private final OkHttpStack mStack;
+    private final ResponseDelivery mDelivery;
+    // BaseRequests running on OkHttp, which the Volley queue doesn't know about when cancelling requests
+    private final Map<Request<?>, Call> mCalls = new ConcurrentHashMap<>();
+
+    /**
+     * @param threadPoolSize number of Volley network threads, for the requests other than {@link BaseRequest}s
+     */
+    public OkHttpRequestQueue(Cache cache, OkHttpStack stack, int threadPoolSize) {
+        this(cache, stack, threadPoolSize, new ExecutorDelivery(new Handler(Looper.getMainLooper())));
+    }
+
+    public OkHttpRequestQueue(Cache cache, OkHttpStack stack, int threadPoolSize, ResponseDelivery delivery) {
+        super(cache, new BasicNetwork(stack), threadPoolSize, delivery);
+        mStack = stack;
+        mDelivery = delivery;
+    }
+
+    @Override
+    public <T> Request<T> add(Request<T> request) {
+        if (!(request instanceof BaseRequest)) {
+            return super.add(request);
+        }
+        // Lets the delivery notify the RequestFinishedListeners
+        request.setRequestQueue(this);
+        request.setSequence(getSequenceNumber());
+        request.addMarker("add-to-queue");
+        enqueue((BaseRequest<T>) request);
+        return request;
+    }
+
+    @Override
+    public void cancelAll(RequestFilter filter) {
+        super.cancelAll(filter);
+        for (Map.Entry<Request<?>, Call> entry : mCalls.entrySet()) {
+            if (filter.apply(entry.getKey())) {
+                entry.getKey().cancel();
+                entry.getValue().cancel();
+            }
+        }
+    }
+
+    int getRunningCallCount() {
+        return mCalls.size();
+    }
+
+    private <T> void enqueue(final BaseRequest<T> request) {
+        if (request.isCanceled()) {
+            return;
+        }
+
+        okhttp3.Request okHttpRequest;
+        try {
+            okHttpRequest = OkHttpStack.buildOkHttpRequest(request, Collections.<String, String>emptyMap());
+        } catch (AuthFailureError e) {
+            mDelivery.postError(request, e);
+            return;
+        }
+
+        final long startTimeMs = SystemClock.elapsedRealtime();
+        Call call = mStack.getClient(request.getTimeoutMs()).newCall(okHttpRequest);
+        mCalls.put(request, call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                mCalls.remove(request);
+                onNetworkFailure(request, e, false);
+            }
+
+            @Override
+            public void onResponse(Call call, okhttp3.Response response) {
+                mCalls.remove(request);
+                try {
+                    onNetworkResponse(request, response, startTimeMs);
+                } finally {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    private <T> void onNetworkResponse(BaseRequest<T> request, okhttp3.Response okHttpResponse, long startTimeMs) {
+        if (request.isCanceled()) {
+            return;
+        }
+        request.addMarker("network-http-complete");
+
+        int statusCode = okHttpResponse.code();
+        Map<String, String> headers = convertHeaders(okHttpResponse.headers());
+        try {
+            // Like BasicNetwork, a 304 Not Modified is parsed by the request, which sent conditional headers
+            boolean notModified = statusCode == HttpURLConnection.HTTP_NOT_MODIFIED;
+            if (!notModified && (statusCode < 200 || statusCode > 299)) {
+                // Error bodies are small, and read by the requests from the NetworkResponse of the error
+                NetworkResponse networkResponse = new NetworkResponse(statusCode, okHttpResponse.body().bytes(),
+                        headers, false, SystemClock.elapsedRealtime() - startTimeMs);
+                if (statusCode == 401 || statusCode == 403) {
+                    retryOrDeliverError(request, new AuthFailureError(networkResponse));
+                } else {
+                    mDelivery.postError(request, new ServerError(networkResponse));
+                }
+                return;
+            }
+
+            Response<T> response = request.parseResponseStream(statusCode, headers,
+                    okHttpResponse.body().byteStream());
+            request.addMarker("network-parse-complete");
+            mDelivery.postResponse(request, response);
+        } catch (IOException e) {
+            onNetworkFailure(request, e, true);
+        } catch (RuntimeException e) {
+            // Same as the Volley network threads for unexpected parsing errors
+            mDelivery.postError(request, new VolleyError(e));
+        }
+    }
+
+    private void onNetworkFailure(BaseRequest<?> request, IOException e, boolean hasResponse) {
+        if (request.isCanceled()) {
+            return;
+        }
+        // Same errors as BasicNetwork
+        if (e instanceof SocketTimeoutException) {
+            retryOrDeliverError(request, new TimeoutError());
+        } else if (hasResponse) {
+            mDelivery.postError(request, new NetworkError(e));
+        } else {
+            mDelivery.postError(request, new NoConnectionError(e));
+        }
+    }
+
+    private void retryOrDeliverError(BaseRequest<?> request, VolleyError error) {
+        try {
+            request.getRetryPolicy().retry(error);
+        } catch (VolleyError e) {
+            mDelivery.postError(request, e);
+            return;
+        }
+        request.addMarker("network-retry");
+        // The retry policy has updated the timeout of the request
+        enqueue(request);
+    }
+
+    private static Map<String, String> convertHeaders(Headers headers) {
+        Map<String, String> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0, size = headers.size(); i < size; i++) {
+            result.put(headers.name(i), headers.value(i));
+        }
+        return result;
+    }
+}
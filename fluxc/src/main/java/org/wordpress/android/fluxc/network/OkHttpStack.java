@@ -15,6 +15,8 @@ import org.apache.http.message.BasicStatusLine;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
@@ -31,37 +33,26 @@ import okhttp3.ResponseBody;
  *
  * OkHttp backed {@link com.android.volley.toolbox.HttpStack HttpStack} that does not
  * use okhttp-urlconnection
+ *
+ * Requests are made with clients derived from a single base client, one per request timeout. They share the base
+ * client's connection pool and dispatcher, and are built once and reused by all the network threads.
  */
 public class OkHttpStack implements HttpStack {
-    private final OkHttpClient.Builder mClientBuilder;
+    // Volley timeouts are a few fixed values (and their retry backoffs), the cache is reset if that changes
+    private static final int MAX_CACHED_CLIENTS = 16;
+
+    private final OkHttpClient mBaseClient;
+    private final ConcurrentMap<Integer, OkHttpClient> mClientsByTimeout = new ConcurrentHashMap<>();
 
-    public OkHttpStack(OkHttpClient.Builder clientBuilder) {
-        this.mClientBuilder = clientBuilder;
+    public OkHttpStack(OkHttpClient baseClient) {
+        mBaseClient = baseClient;
     }
 
     @Override
     public HttpResponse performRequest(com.android.volley.Request<?> request, Map<String, String> additionalHeaders)
             throws IOException, AuthFailureError {
-        int timeoutMs = request.getTimeoutMs();
-        mClientBuilder.connectTimeout(timeoutMs, TimeUnit.MILLISECONDS);
-        mClientBuilder.readTimeout(timeoutMs, TimeUnit.MILLISECONDS);
-        mClientBuilder.writeTimeout(timeoutMs, TimeUnit.MILLISECONDS);
-
-        Builder okHttpRequestBuilder = new okhttp3.Request.Builder();
-        okHttpRequestBuilder.url(request.getUrl());
-
-        Map<String, String> headers = request.getHeaders();
-        for (final String name : headers.keySet()) {
-            okHttpRequestBuilder.addHeader(name, headers.get(name));
-        }
-        for (final String name : additionalHeaders.keySet()) {
-            okHttpRequestBuilder.addHeader(name, additionalHeaders.get(name));
-        }
-
-        setConnectionParametersForRequest(okHttpRequestBuilder, request);
-
-        OkHttpClient client = mClientBuilder.build();
-        okhttp3.Request okHttpRequest = okHttpRequestBuilder.build();
+        OkHttpClient client = getClient(request.getTimeoutMs());
+        okhttp3.Request okHttpRequest = buildOkHttpRequest(request, additionalHeaders);
         Call okHttpCall = client.newCall(okHttpRequest);
         okhttp3.Response okHttpResponse = okHttpCall.execute();
 
@@ -81,6 +72,51 @@ public class OkHttpStack implements HttpStack {
         return response;
     }
 
+    /**
+     * @return the client making requests with the given connect, read and write timeout
+     */
+    OkHttpClient getClient(int timeoutMs) {
+        OkHttpClient client = mClientsByTimeout.get(timeoutMs);
+        if (client != null) {
+            return client;
+        }
+
+        client = mBaseClient.newBuilder()
+                .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+        if (mClientsByTimeout.size() >= MAX_CACHED_CLIENTS) {
+            mClientsByTimeout.clear();
+        }
+        OkHttpClient cachedClient = mClientsByTimeout.putIfAbsent(timeoutMs, client);
+        return cachedClient != null ? cachedClient : client;
+    }
+
+    int getCachedClientCount() {
+        return mClientsByTimeout.size();
+    }
+
+    /**
+     * @return the OkHttp request for the given Volley request, with its headers and body
+     */
+    static okhttp3.Request buildOkHttpRequest(Request<?> request, Map<String, String> additionalHeaders)
+            throws AuthFailureError {
+        Builder okHttpRequestBuilder = new okhttp3.Request.Builder();
+        okHttpRequestBuilder.url(request.getUrl());
+
+        Map<String, String> headers = request.getHeaders();
+        for (final String name : headers.keySet()) {
+            okHttpRequestBuilder.addHeader(name, headers.get(name));
+        }
+        for (final String name : additionalHeaders.keySet()) {
+            okHttpRequestBuilder.addHeader(name, additionalHeaders.get(name));
+        }
+
+        setConnectionParametersForRequest(okHttpRequestBuilder, request);
+        return okHttpRequestBuilder.build();
+    }
+
     private static HttpEntity entityFromOkHttpResponse(okhttp3.Response r) throws IOException {
         BasicHttpEntity entity = new BasicHttpEntity();
         ResponseBody body = r.body();
@@ -97,7 +133,7 @@ public class OkHttpStack implements HttpStack {
 
     @SuppressWarnings("deprecation")
     private static void setConnectionParametersForRequest(Builder builder, Request<?> request)
-            throws IOException, AuthFailureError {
+            throws AuthFailureError {
         switch (request.getMethod()) {
             case Request.Method.DEPRECATED_GET_OR_POST:
                 // Ensure backwards compatibility.  Volley assumes a request with a null body is a GET.
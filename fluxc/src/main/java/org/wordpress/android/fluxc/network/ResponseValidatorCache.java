@@ -0,0 +1,146 @@
+package org.wordpress.android.fluxc.network;
+
+import android.support.annotation.NonNull;
+
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the ETag and Last-Modified validators of GET responses, so that the requests opting in with
+ * {@link BaseRequest#setValidatorCache} are sent as conditional requests (If-None-Match / If-Modified-Since).
+ * A 304 Not Modified answer means the data the stores persisted from the previous response is still current, the
+ * request's {@link BaseRequest.OnNotModifiedListener} is called instead of downloading and parsing the body again.
+ *
+ * Validators are only kept in memory: the first request of a URL after a restart always downloads the whole response,
+ * so a store can't be left with a cleared database and a validator claiming it's up to date. For the same reason, they
+ * are all forgotten when FluxC deletes rows locally (see {@link TableChangeNotifier#getLocalDeletionCount()}), e.g.
+ * when sites are removed or the tables reset. They're keyed by URL and by authorization, a response fetched for one
+ * account is never revalidated for another.
+ */
+public class ResponseValidatorCache {
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    private static final int DEFAULT_MAX_ENTRIES = 200;
+
+    private static class Validators {
+        final String mETag;
+        final String mLastModified;
+        final long mContentLength;
+
+        Validators(String eTag, String lastModified, long contentLength) {
+            mETag = eTag;
+            mLastModified = lastModified;
+            mContentLength = contentLength;
+        }
+    }
+
+    private final boolean mEnabled;
+    private final Map<String, Validators> mEntries;
+    private final AtomicLong mBytesSaved = new AtomicLong();
+    private final AtomicInteger mNotModifiedCount = new AtomicInteger();
+    // Guarded by this
+    private int mLocalDeletionCount = TableChangeNotifier.getLocalDeletionCount();
+
+    /**
+     * @param enabled false to send all the requests unconditionally, e.g. to opt out without changing the clients
+     */
+    public ResponseValidatorCache(boolean enabled) {
+        this(enabled, DEFAULT_MAX_ENTRIES);
+    }
+
+    public ResponseValidatorCache(boolean enabled, final int maxEntries) {
+        mEnabled = enabled;
+        mEntries = new LinkedHashMap<String, Validators>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Validators> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * @return the number of response body bytes that weren't downloaded again thanks to 304 Not Modified answers
+     */
+    public long getBytesSaved() {
+        return mBytesSaved.get();
+    }
+
+    /**
+     * @return the number of 304 Not Modified answers received
+     */
+    public int getNotModifiedCount() {
+        return mNotModifiedCount.get();
+    }
+
+    /**
+     * Forgets all the validators, the next request of each URL downloads the whole response.
+     */
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    static String getKey(@NonNull String url, String authorization) {
+        // The token itself isn't kept. A hash collision between two accounts can't cause a wrong 304: the server
+        // compares the validators with the response it would send for the token of the request.
+        return (authorization == null ? "" : Integer.toHexString(authorization.hashCode())) + " " + url;
+    }
+
+    synchronized void addConditionalHeaders(@NonNull String key, @NonNull Map<String, String> headers) {
+        clearIfLocalDataDeleted();
+        Validators validators = mEntries.get(key);
+        if (validators == null) {
+            return;
+        }
+        if (validators.mETag != null) {
+            headers.put(IF_NONE_MATCH_HEADER, validators.mETag);
+        }
+        if (validators.mLastModified != null) {
+            headers.put(IF_MODIFIED_SINCE_HEADER, validators.mLastModified);
+        }
+    }
+
+    /**
+     * @param headers the headers of a successful response, with case-insensitive keys as parsed by Volley
+     * @param contentLength the length of the response body
+     */
+    synchronized void storeValidators(@NonNull String key, @NonNull Map<String, String> headers, long contentLength) {
+        clearIfLocalDataDeleted();
+        String eTag = headers.get(ETAG_HEADER);
+        String lastModified = headers.get(LAST_MODIFIED_HEADER);
+        if (eTag == null && lastModified == null) {
+            mEntries.remove(key);
+        } else {
+            mEntries.put(key, new Validators(eTag, lastModified, contentLength));
+        }
+    }
+
+    // Must be called while holding the lock
+    private void clearIfLocalDataDeleted() {
+        int localDeletionCount = TableChangeNotifier.getLocalDeletionCount();
+        if (localDeletionCount != mLocalDeletionCount) {
+            mLocalDeletionCount = localDeletionCount;
+            mEntries.clear();
+        }
+    }
+
+    void onNotModified(@NonNull String key) {
+        Validators validators;
+        synchronized (this) {
+            validators = mEntries.get(key);
+        }
+        mNotModifiedCount.incrementAndGet();
+        if (validators != null) {
+            mBytesSaved.addAndGet(validators.mContentLength);
+        }
+    }
+}
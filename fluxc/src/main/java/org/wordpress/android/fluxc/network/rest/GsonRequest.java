@@ -1,5 +1,7 @@
 package org.wordpress.android.fluxc.network.rest;
 
+import android.support.annotation.NonNull;
+
 import com.android.volley.AuthFailureError;
 import com.android.volley.NetworkResponse;
 import com.android.volley.ParseError;
@@ -8,10 +10,25 @@ import com.android.volley.Response.Listener;
 import com.android.volley.toolbox.HttpHeaderParser;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
+import org.wordpress.android.fluxc.generated.ResponseTypeAdapterFactory;
 import org.wordpress.android.fluxc.network.BaseRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.Map;
@@ -20,24 +37,39 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
     private static final String PROTOCOL_CHARSET = "utf-8";
     private static final String PROTOCOL_CONTENT_TYPE = String.format("application/json; charset=%s", PROTOCOL_CHARSET);
 
-    private final Gson mGson;
+    // Shared by all the requests: Gson is thread-safe, and caches the adapters of the types it has parsed
+    private static final Gson GSON = newGsonBuilder()
+            .registerTypeAdapterFactory(new ResponseTypeAdapterFactory())
+            .create();
+
     private final Class<T> mClass;
     private final Listener<T> mListener;
     private final Map<String, String> mParams;
     private final Map<String, Object> mBody;
+    private ResponseListConverter<?, ?> mListConverter;
 
     public GsonRequest(int method, Map<String, String> params, Map<String, Object> body, String url, Class<T> clazz,
                        Listener<T> listener, BaseErrorListener errorListener) {
         super(method, url, errorListener);
         mClass = clazz;
         mListener = listener;
-        mGson = setupGsonBuilder().create();
         mParams = params;
         mBody = body;
     }
 
+    /**
+     * Converts the elements of an array field of the response as they're parsed, rather than parsing the whole list
+     * in the response first. Meant for the large lists, e.g. of posts or media.
+     */
+    public void setListConverter(@NonNull ResponseListConverter<?, ?> listConverter) {
+        mListConverter = listConverter;
+    }
+
     @Override
     protected void deliverResponse(T response) {
+        if (deliverNotModified()) {
+            return;
+        }
         mListener.onResponse(response);
     }
 
@@ -57,22 +89,103 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
             return super.getBody();
         }
 
-        return mGson.toJson(mBody).getBytes(Charset.forName("UTF-8"));
+        return GSON.toJson(mBody).getBytes(Charset.forName("UTF-8"));
     }
 
     @Override
     protected Response<T> parseNetworkResponse(NetworkResponse response) {
+        Response<T> notModified = parseNotModified(response.statusCode);
+        if (notModified != null) {
+            return notModified;
+        }
         try {
-            String json = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-            return Response.success(mGson.fromJson(json, mClass), HttpHeaderParser.parseCacheHeaders(response));
+            // Parsed from the bytes, without decoding the whole body to a String first
+            Reader reader = new InputStreamReader(new ByteArrayInputStream(response.data),
+                    HttpHeaderParser.parseCharset(response.headers));
+            T result = parse(reader);
+            storeValidators(response.headers, response.data.length);
+            return Response.success(result, HttpHeaderParser.parseCacheHeaders(response));
         } catch (UnsupportedEncodingException e) {
             return Response.error(new ParseError(e));
+        } catch (JsonIOException e) {
+            return Response.error(new ParseError(e));
         } catch (JsonSyntaxException e) {
             return Response.error(new ParseError(e));
         }
     }
 
-    private GsonBuilder setupGsonBuilder() {
+    @Override
+    protected Response<T> parseResponseStream(int statusCode, Map<String, String> headers, InputStream body)
+            throws IOException {
+        Response<T> notModified = parseNotModified(statusCode);
+        if (notModified != null) {
+            return notModified;
+        }
+        try {
+            CountingInputStream countingBody = new CountingInputStream(body);
+            Reader reader = new InputStreamReader(countingBody, HttpHeaderParser.parseCharset(headers));
+            T result = parse(reader);
+            storeValidators(headers, countingBody.getCount());
+            // BaseRequests are never cached, there's no cache entry to parse
+            return Response.success(result, null);
+        } catch (UnsupportedEncodingException e) {
+            return Response.error(new ParseError(e));
+        } catch (JsonIOException e) {
+            return parseErrorOrThrow(e);
+        } catch (JsonSyntaxException e) {
+            return parseErrorOrThrow(e);
+        }
+    }
+
+    private T parse(Reader reader) {
+        if (mListConverter == null) {
+            return GSON.fromJson(reader, mClass);
+        }
+
+        mListConverter.reset();
+        JsonReader jsonReader = new JsonReader(reader);
+        // Same as the Gson instance
+        jsonReader.setLenient(true);
+        try {
+            if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                return GSON.fromJson(jsonReader, mClass);
+            }
+            // The other fields are small, they're parsed into the response once the list is read
+            JsonObject otherFields = new JsonObject();
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                if (name.equals(mListConverter.getFieldName())) {
+                    mListConverter.read(GSON, jsonReader);
+                } else {
+                    otherFields.add(name, GSON.<JsonElement>fromJson(jsonReader, JsonElement.class));
+                }
+            }
+            jsonReader.endObject();
+            return GSON.fromJson(otherFields, mClass);
+        } catch (IOException e) {
+            // Same exceptions as Gson.fromJson()
+            throw new JsonSyntaxException(e);
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private Response<T> parseErrorOrThrow(JsonParseException e) throws IOException {
+        // Gson wraps the errors reading the stream: a broken connection isn't a malformed response, but a body ending
+        // early (EOFException) or invalid JSON are
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException && !(cause instanceof EOFException)
+                && !(cause instanceof MalformedJsonException)) {
+            throw (IOException) cause;
+        }
+        return Response.error(new ParseError(e));
+    }
+
+    /**
+     * @return a builder with the configuration of the requests' Gson instance, without the generated adapters
+     */
+    static GsonBuilder newGsonBuilder() {
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.setLenient();
         gsonBuilder.registerTypeHierarchyAdapter(JsonObjectOrFalse.class, new JsonObjectOrFalseDeserializer());
@@ -80,4 +193,41 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
                 new JsonObjectOrEmptyArrayDeserializer());
         return gsonBuilder;
     }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long mCount;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result != -1) {
+                mCount++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int count) throws IOException {
+            int result = super.read(buffer, offset, count);
+            if (result != -1) {
+                mCount += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long result = super.skip(count);
+            mCount += result;
+            return result;
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package org.wordpress.android.fluxc.network.rest;
+
+import android.support.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the elements of an array field of a {@link GsonRequest} response to models as they're parsed, see
+ * {@link GsonRequest#setListConverter}. Only one element response object is in memory at a time, instead of all the
+ * elements of the list followed by all their models.
+ *
+ * {@link #convert} is called on the network thread, the models are read with {@link #getModels()} by the listener of
+ * the request.
+ */
+public abstract class ResponseListConverter<E, M> {
+    private final String mFieldName;
+    private final Class<E> mElementClass;
+    private volatile List<M> mModels;
+
+    /**
+     * @param fieldName name of the array field of the response, which is left null in the parsed response
+     * @param elementClass the class defining the elements of the array
+     */
+    public ResponseListConverter(@NonNull String fieldName, @NonNull Class<E> elementClass) {
+        mFieldName = fieldName;
+        mElementClass = elementClass;
+    }
+
+    /**
+     * @return the model for the element, or null to leave the element out
+     */
+    protected abstract M convert(@NonNull E element);
+
+    /**
+     * @return the models of the last parsed response, or null if it didn't have the array field
+     */
+    public List<M> getModels() {
+        return mModels;
+    }
+
+    String getFieldName() {
+        return mFieldName;
+    }
+
+    void reset() {
+        mModels = null;
+    }
+
+    void read(Gson gson, JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+        List<M> models = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            E element = gson.fromJson(reader, mElementClass);
+            M model = element != null ? convert(element) : null;
+            if (model != null) {
+                models.add(model);
+            }
+        }
+        reader.endArray();
+        mModels = models;
+    }
+}
@@ -9,6 +9,7 @@ import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.generated.AuthenticationActionBuilder;
 import org.wordpress.android.fluxc.network.BaseRequest.OnAuthFailedListener;
 import org.wordpress.android.fluxc.network.BaseRequest.OnParseErrorListener;
+import org.wordpress.android.fluxc.network.ResponseValidatorCache;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
@@ -21,13 +22,20 @@ public class BaseWPComRestClient {
     protected final Dispatcher mDispatcher;
     protected final Context mAppContext;
     protected UserAgent mUserAgent;
+    protected final ResponseValidatorCache mValidatorCache;
 
     protected OnAuthFailedListener mOnAuthFailedListener;
     protected OnParseErrorListener mOnParseErrorListener;
 
     public BaseWPComRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
                                AccessToken accessToken, UserAgent userAgent) {
+        this(appContext, dispatcher, requestQueue, accessToken, userAgent, new ResponseValidatorCache(false));
+    }
+
+    public BaseWPComRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
+                               AccessToken accessToken, UserAgent userAgent, ResponseValidatorCache validatorCache) {
         mRequestQueue = requestQueue;
+        mValidatorCache = validatorCache;
         mDispatcher = dispatcher;
         mAccessToken = accessToken;
         mUserAgent = userAgent;
@@ -17,6 +17,8 @@ import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST;
 import org.wordpress.android.fluxc.model.AccountModel;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
+import org.wordpress.android.fluxc.network.BaseRequest.OnNotModifiedListener;
+import org.wordpress.android.fluxc.network.ResponseValidatorCache;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
@@ -46,6 +48,8 @@ public class AccountRestClient extends BaseWPComRestClient {
             this.error = error;
         }
         public AccountModel account;
+        // The account didn't change since it was last fetched, account is null
+        public boolean notModified;
     }
 
     public static class AccountPushSettingsResponsePayload extends Payload {
@@ -77,8 +81,9 @@ public class AccountRestClient extends BaseWPComRestClient {
 
     @Inject
     public AccountRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
-                             AppSecrets appSecrets, AccessToken accessToken, UserAgent userAgent) {
-        super(appContext, dispatcher, requestQueue, accessToken, userAgent);
+                             AppSecrets appSecrets, AccessToken accessToken, UserAgent userAgent,
+                             ResponseValidatorCache validatorCache) {
+        super(appContext, dispatcher, requestQueue, accessToken, userAgent, validatorCache);
         mAppSecrets = appSecrets;
     }
 
@@ -117,7 +122,8 @@ public class AccountRestClient extends BaseWPComRestClient {
      */
     public void fetchAccountSettings() {
         String url = WPCOMREST.me.settings.getUrlV1_1();
-        add(WPComGsonRequest.buildGetRequest(url, null, AccountSettingsResponse.class,
+        WPComGsonRequest<AccountSettingsResponse> request = WPComGsonRequest.buildGetRequest(url, null,
+                AccountSettingsResponse.class,
                 new Listener<AccountSettingsResponse>() {
                     @Override
                     public void onResponse(AccountSettingsResponse response) {
@@ -133,7 +139,16 @@ public class AccountRestClient extends BaseWPComRestClient {
                         mDispatcher.dispatch(AccountActionBuilder.newFetchedSettingsAction(payload));
                     }
                 }
-        ));
+        );
+        request.setValidatorCache(mValidatorCache, new OnNotModifiedListener() {
+            @Override
+            public void onNotModified() {
+                AccountRestPayload payload = new AccountRestPayload(null, null);
+                payload.notModified = true;
+                mDispatcher.dispatch(AccountActionBuilder.newFetchedSettingsAction(payload));
+            }
+        });
+        add(request);
     }
 
     public void sendVerificationEmail() {
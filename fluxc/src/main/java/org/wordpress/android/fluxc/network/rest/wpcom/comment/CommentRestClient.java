@@ -17,6 +17,7 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
 import org.wordpress.android.fluxc.network.UserAgent;
+import org.wordpress.android.fluxc.network.rest.ResponseListConverter;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
@@ -39,20 +40,33 @@ public class CommentRestClient extends BaseWPComRestClient {
         super(appContext, dispatcher, requestQueue, accessToken, userAgent);
     }
 
-    public void fetchComments(final SiteModel site, final int number, final int offset, CommentStatus status) {
+    public void fetchComments(final SiteModel site, final int number, final int offset,
+                              final CommentStatus status) {
         String url = WPCOMREST.sites.site(site.getSiteId()).comments.getUrlV1_1();
         Map<String, String> params = new HashMap<>();
         params.put("status", status.toString());
         params.put("offset", String.valueOf(offset));
         params.put("number", String.valueOf(number));
+        // Each comment is converted as it's parsed
+        final ResponseListConverter<CommentWPComRestResponse, CommentModel> commentsConverter =
+                new ResponseListConverter<CommentWPComRestResponse, CommentModel>("comments",
+                        CommentWPComRestResponse.class) {
+                    @Override
+                    protected CommentModel convert(@NonNull CommentWPComRestResponse commentResponse) {
+                        return commentResponseToComment(commentResponse, site);
+                    }
+                };
         final WPComGsonRequest<CommentsWPComRestResponse> request = WPComGsonRequest.buildGetRequest(
                 url, params, CommentsWPComRestResponse.class,
                 new Listener<CommentsWPComRestResponse>() {
                     @Override
                     public void onResponse(CommentsWPComRestResponse response) {
-                        List<CommentModel> comments = commentsResponseToCommentList(response, site);
+                        List<CommentModel> comments = commentsConverter.getModels();
+                        if (comments == null) {
+                            comments = new ArrayList<>();
+                        }
                         FetchCommentsResponsePayload payload = new FetchCommentsResponsePayload(comments, site, number,
-                                offset);
+                                offset, status);
                         mDispatcher.dispatch(CommentActionBuilder.newFetchedCommentsAction(payload));
                     }
                 },
@@ -61,10 +75,12 @@ public class CommentRestClient extends BaseWPComRestClient {
                     @Override
                     public void onErrorResponse(@NonNull BaseNetworkError error) {
                         mDispatcher.dispatch(CommentActionBuilder.newFetchedCommentsAction(
-                                CommentErrorUtils.commentErrorToFetchCommentsPayload(error, site)));
+                                CommentErrorUtils.commentErrorToFetchCommentsPayload(error, site, number, offset,
+                                        status)));
                     }
                 }
         );
+        request.setListConverter(commentsConverter);
         add(request);
     }
 
@@ -256,16 +272,6 @@ public class CommentRestClient extends BaseWPComRestClient {
 
     // Private methods
 
-    private List<CommentModel> commentsResponseToCommentList(CommentsWPComRestResponse response, SiteModel site) {
-        List<CommentModel> comments = new ArrayList<>();
-        if (response.comments != null) {
-            for (CommentWPComRestResponse restComment : response.comments) {
-                comments.add(commentResponseToComment(restComment, site));
-            }
-        }
-        return comments;
-    }
-
     private CommentModel commentResponseToComment(CommentWPComRestResponse response, SiteModel site) {
         CommentModel comment = new CommentModel();
 
@@ -1,7 +1,10 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.comment;
 
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
+
 import java.util.List;
 
+@GenerateTypeAdapter
 public class CommentWPComRestResponse {
     public class CommentsWPComRestResponse {
         public List<CommentWPComRestResponse> comments;
@@ -13,6 +13,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.Dispatcher.ActionPriority;
 import org.wordpress.android.fluxc.generated.MediaActionBuilder;
 import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST;
 import org.wordpress.android.fluxc.model.MediaModel;
@@ -20,6 +21,7 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseRequest;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody.ProgressListener;
 import org.wordpress.android.fluxc.network.UserAgent;
+import org.wordpress.android.fluxc.network.rest.ResponseListConverter;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
@@ -130,25 +132,55 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
      * provided in the response {@link MediaModel}'s (via {@link MediaModel#getUrl()}).
      */
     public void fetchMediaList(final SiteModel site, final int offset) {
+        fetchMediaList(site, offset, null);
+    }
+
+    /**
+     * Fetches the page of media following the one the given page handle was returned with. Unlike offset paging,
+     * media uploaded or deleted since the previous page was fetched don't shift the next page.
+     *
+     * @param pageHandle the {@link FetchMediaListResponsePayload#nextPageHandle} of the previous page
+     */
+    public void fetchMediaList(final SiteModel site, @NonNull final String pageHandle) {
+        fetchMediaList(site, 0, pageHandle);
+    }
+
+    private void fetchMediaList(final SiteModel site, final int offset, final String pageHandle) {
+        final boolean loadedMore = offset > 0 || pageHandle != null;
         final Map<String, String> params = new HashMap<>();
         params.put("number", String.valueOf(MediaStore.NUM_MEDIA_PER_FETCH));
         if (offset > 0) {
             params.put("offset", String.valueOf(offset));
         }
+        if (pageHandle != null) {
+            params.put("page_handle", pageHandle);
+        }
         String url = WPCOMREST.sites.site(site.getSiteId()).media.getUrlV1_1();
-        add(WPComGsonRequest.buildGetRequest(url, params, MultipleMediaResponse.class,
+        // Each media is converted as it's parsed
+        final ResponseListConverter<MediaWPComRestResponse, MediaModel> mediaConverter =
+                new ResponseListConverter<MediaWPComRestResponse, MediaModel>("media", MediaWPComRestResponse.class) {
+                    @Override
+                    protected MediaModel convert(@NonNull MediaWPComRestResponse mediaResponse) {
+                        MediaModel media = getMediaFromRestResponse(mediaResponse);
+                        media.setLocalSiteId(site.getId());
+                        return media;
+                    }
+                };
+        WPComGsonRequest<MultipleMediaResponse> request = WPComGsonRequest.buildGetRequest(url, params,
+                MultipleMediaResponse.class,
                 new Listener<MultipleMediaResponse>() {
                     @Override
                     public void onResponse(MultipleMediaResponse response) {
-                        List<MediaModel> mediaList = getMediaListFromRestResponse(response, site.getId());
+                        List<MediaModel> mediaList = mediaConverter.getModels();
                         if (mediaList != null) {
                             AppLog.v(T.MEDIA, "Fetched media list for site with size: " + mediaList.size());
                             boolean canLoadMore = mediaList.size() == MediaStore.NUM_MEDIA_PER_FETCH;
-                            notifyMediaListFetched(site, mediaList, offset > 0, canLoadMore);
+                            String nextPageHandle = response.meta != null ? response.meta.next_page : null;
+                            notifyMediaListFetched(site, mediaList, loadedMore, canLoadMore, nextPageHandle);
                         } else {
                             AppLog.w(T.MEDIA, "could not parse Fetch all media response: " + response);
                             MediaError error = new MediaError(MediaErrorType.PARSE_ERROR);
-                            notifyMediaListFetched(site, error);
+                            notifyMediaListFetched(site, error, loadedMore);
                         }
                     }
                 }, new BaseRequest.BaseErrorListener() {
@@ -156,9 +188,11 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
                     public void onErrorResponse(@NonNull BaseRequest.BaseNetworkError error) {
                         AppLog.v(T.MEDIA, "VolleyError Fetching media: " + error);
                         MediaError mediaError = new MediaError(MediaErrorType.fromBaseNetworkError(error));
-                        notifyMediaListFetched(site, mediaError);
+                        notifyMediaListFetched(site, mediaError, loadedMore);
                     }
-        }));
+        });
+        request.setListConverter(mediaConverter);
+        add(request);
     }
 
     /**
@@ -358,24 +392,25 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
     private void notifyMediaProgress(MediaModel media, float progress, MediaError error) {
         ProgressPayload payload = new ProgressPayload(media, progress, false, error);
         payload.error = error;
-        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload));
+        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload), ActionPriority.BACKGROUND);
     }
 
     private void notifyMediaUploaded(MediaModel media, MediaError error) {
         ProgressPayload payload = new ProgressPayload(media, 1.f, error == null, error);
         payload.error = error;
-        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload));
+        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload), ActionPriority.BACKGROUND);
     }
 
     private void notifyMediaListFetched(SiteModel site, @NonNull List<MediaModel> media,
-                                        boolean loadedMore, boolean canLoadMore) {
+                                        boolean loadedMore, boolean canLoadMore, String nextPageHandle) {
         FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(site, media,
                 loadedMore, canLoadMore);
+        payload.nextPageHandle = nextPageHandle;
         mDispatcher.dispatch(MediaActionBuilder.newFetchedMediaListAction(payload));
     }
 
-    private void notifyMediaListFetched(SiteModel site, MediaError error) {
-        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(site, error);
+    private void notifyMediaListFetched(SiteModel site, MediaError error, boolean loadedMore) {
+        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(site, error, loadedMore);
         mDispatcher.dispatch(MediaActionBuilder.newFetchedMediaListAction(payload));
     }
 
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.media;
 
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
 import org.wordpress.android.fluxc.network.Response;
 
 import java.util.List;
@@ -10,6 +11,7 @@ import java.util.List;
  *
  * https://developer.wordpress.com/docs/api/1.1/get/sites/%24site/media/%24media_ID/
  */
+@GenerateTypeAdapter
 public class MediaWPComRestResponse extends Payload implements Response {
     public static final String DELETED_STATUS = "deleted";
 
@@ -17,6 +19,12 @@ public class MediaWPComRestResponse extends Payload implements Response {
         public List<MediaWPComRestResponse> media;
         public List<String> errors;
         public int found;
+        public Meta meta;
+    }
+
+    public class Meta {
+        // Opaque cursor to the next page, sent back as the page_handle parameter
+        public String next_page;
     }
 
     public class Thumbnails {
@@ -18,6 +18,7 @@ import org.wordpress.android.fluxc.model.post.PostStatus;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
 import org.wordpress.android.fluxc.network.UserAgent;
+import org.wordpress.android.fluxc.network.rest.ResponseListConverter;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError;
@@ -84,6 +85,34 @@ public class PostRestClient extends BaseWPComRestClient {
 
     public void fetchPosts(final SiteModel site, final boolean getPages, final List<PostStatus> statusList,
                            final int offset) {
+        fetchPosts(site, getPages, statusList, offset, null, null);
+    }
+
+    /**
+     * Fetches the page of posts following the one the given page handle was returned with. Unlike offset paging,
+     * posts published or deleted since the previous page was fetched don't shift the next page.
+     *
+     * @param pageHandle the {@link FetchPostsResponsePayload#nextPageHandle} of the previous page
+     */
+    public void fetchPosts(final SiteModel site, final boolean getPages, final List<PostStatus> statusList,
+                           @NonNull final String pageHandle) {
+        fetchPosts(site, getPages, statusList, 0, null, pageHandle);
+    }
+
+    /**
+     * Fetches the posts modified after the given date, most recently modified first. Trashed posts are included so
+     * that they can be removed from the store.
+     *
+     * @param modifiedAfter ISO 8601-formatted date, e.g. the sync mark of the stored posts
+     */
+    public void fetchModifiedPosts(final SiteModel site, final boolean getPages, final List<PostStatus> statusList,
+                                   @NonNull final String modifiedAfter) {
+        fetchPosts(site, getPages, statusList, 0, modifiedAfter, null);
+    }
+
+    private void fetchPosts(final SiteModel site, final boolean getPages, final List<PostStatus> statusList,
+                            final int offset, final String modifiedAfter, final String pageHandle) {
+        final boolean loadedMore = offset > 0 || pageHandle != null;
         String url = WPCOMREST.sites.site(site.getSiteId()).posts.getUrlV1_1();
 
         Map<String, String> params = new HashMap<>();
@@ -95,31 +124,57 @@ public class PostRestClient extends BaseWPComRestClient {
             params.put("type", "page");
         }
 
-        if (statusList.size() > 0) {
-            params.put("status", PostStatus.postStatusListToString(statusList));
+        List<PostStatus> statuses = statusList;
+        if (modifiedAfter != null) {
+            params.put("modified_after", modifiedAfter);
+            params.put("order_by", "modified");
+            params.put("order", "DESC");
+            if (statusList.size() > 0 && !statusList.contains(PostStatus.TRASHED)) {
+                statuses = new ArrayList<>(statusList);
+                statuses.add(PostStatus.TRASHED);
+            }
+        }
+
+        if (statuses.size() > 0) {
+            params.put("status", PostStatus.postStatusListToString(statuses));
         }
 
         if (offset > 0) {
             params.put("offset", String.valueOf(offset));
         }
 
+        if (pageHandle != null) {
+            params.put("page_handle", pageHandle);
+        }
+
+        // Each post is converted as it's parsed, posts responses with content can be large
+        final ResponseListConverter<PostWPComRestResponse, PostModel> postsConverter =
+                new ResponseListConverter<PostWPComRestResponse, PostModel>("posts", PostWPComRestResponse.class) {
+                    @Override
+                    protected PostModel convert(@NonNull PostWPComRestResponse postResponse) {
+                        PostModel post = postResponseToPostModel(postResponse);
+                        post.setLocalSiteId(site.getId());
+                        return post;
+                    }
+                };
         final WPComGsonRequest<PostsResponse> request = WPComGsonRequest.buildGetRequest(url, params,
                 PostsResponse.class,
                 new Listener<PostsResponse>() {
                     @Override
                     public void onResponse(PostsResponse response) {
-                        List<PostModel> postArray = new ArrayList<>();
-                        PostModel post;
-                        for (PostWPComRestResponse postResponse : response.posts) {
-                            post = postResponseToPostModel(postResponse);
-                            post.setLocalSiteId(site.getId());
-                            postArray.add(post);
+                        List<PostModel> postArray = postsConverter.getModels();
+                        if (postArray == null) {
+                            postArray = new ArrayList<>();
                         }
 
                         boolean canLoadMore = postArray.size() == PostStore.NUM_POSTS_PER_FETCH;
 
                         FetchPostsResponsePayload payload = new FetchPostsResponsePayload(new PostsModel(postArray),
-                                site, getPages, offset > 0, canLoadMore);
+                                site, getPages, loadedMore, canLoadMore);
+                        payload.modifiedAfter = modifiedAfter;
+                        if (modifiedAfter == null && response.meta != null) {
+                            payload.nextPageHandle = response.meta.next_page;
+                        }
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
                     }
                 },
@@ -128,11 +183,13 @@ public class PostRestClient extends BaseWPComRestClient {
                     public void onErrorResponse(@NonNull BaseNetworkError error) {
                         // Possible non-generic errors: 404 unknown_post_type (invalid post type, shouldn't happen)
                         PostError postError = new PostError(((WPComGsonNetworkError) error).apiError, error.message);
-                        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(postError);
+                        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(postError, site, getPages,
+                                loadedMore);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
                     }
                 }
         );
+        request.setListConverter(postsConverter);
         add(request);
     }
 
@@ -221,6 +278,7 @@ public class PostRestClient extends BaseWPComRestClient {
         post.setRemoteSiteId(from.site_ID);
         post.setLink(from.URL); // Is this right?
         post.setDateCreated(from.date);
+        post.setDateModified(from.modified);
         post.setTitle(from.title);
         post.setContent(from.content);
         post.setExcerpt(from.excerpt);
@@ -1,15 +1,23 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.post;
 
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
 import org.wordpress.android.fluxc.network.Response;
 import org.wordpress.android.fluxc.network.rest.wpcom.taxonomy.TermWPComRestResponse;
 
 import java.util.List;
 import java.util.Map;
 
+@GenerateTypeAdapter
 public class PostWPComRestResponse extends Payload implements Response {
     public class PostsResponse {
         public List<PostWPComRestResponse> posts;
+        public Meta meta;
+    }
+
+    public class Meta {
+        // Opaque cursor to the next page, sent back as the page_handle parameter
+        public String next_page;
     }
 
     public class PostThumbnail {
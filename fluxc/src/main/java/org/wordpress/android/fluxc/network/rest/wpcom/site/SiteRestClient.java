@@ -19,7 +19,10 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.SitesModel;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
+import org.wordpress.android.fluxc.network.BaseRequest.OnNotModifiedListener;
+import org.wordpress.android.fluxc.network.ResponseValidatorCache;
 import org.wordpress.android.fluxc.network.UserAgent;
+import org.wordpress.android.fluxc.network.rest.ResponseListConverter;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError;
@@ -75,22 +78,29 @@ public class SiteRestClient extends BaseWPComRestClient {
 
     @Inject
     public SiteRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue, AppSecrets appSecrets,
-                          AccessToken accessToken, UserAgent userAgent) {
-        super(appContext, dispatcher, requestQueue, accessToken, userAgent);
+                          AccessToken accessToken, UserAgent userAgent, ResponseValidatorCache validatorCache) {
+        super(appContext, dispatcher, requestQueue, accessToken, userAgent, validatorCache);
         mAppSecrets = appSecrets;
     }
 
     public void fetchSites() {
         String url = WPCOMREST.me.sites.getUrlV1_1();
+        // Each site is converted as it's parsed, accounts can have many sites
+        final ResponseListConverter<SiteWPComRestResponse, SiteModel> sitesConverter =
+                new ResponseListConverter<SiteWPComRestResponse, SiteModel>("sites", SiteWPComRestResponse.class) {
+                    @Override
+                    protected SiteModel convert(@NonNull SiteWPComRestResponse siteResponse) {
+                        return siteResponseToSiteModel(siteResponse);
+                    }
+                };
         final WPComGsonRequest<SitesResponse> request = WPComGsonRequest.buildGetRequest(url, null,
                 SitesResponse.class,
                 new Listener<SitesResponse>() {
                     @Override
                     public void onResponse(SitesResponse response) {
-                        List<SiteModel> siteArray = new ArrayList<>();
-
-                        for (SiteWPComRestResponse siteResponse : response.sites) {
-                            siteArray.add(siteResponseToSiteModel(siteResponse));
+                        List<SiteModel> siteArray = sitesConverter.getModels();
+                        if (siteArray == null) {
+                            siteArray = new ArrayList<>();
                         }
                         mDispatcher.dispatch(SiteActionBuilder.newUpdateSitesAction(new SitesModel(siteArray)));
                     }
@@ -104,6 +114,15 @@ public class SiteRestClient extends BaseWPComRestClient {
                     }
                 }
         );
+        request.setListConverter(sitesConverter);
+        request.setValidatorCache(mValidatorCache, new OnNotModifiedListener() {
+            @Override
+            public void onNotModified() {
+                SitesModel payload = new SitesModel();
+                payload.setNotModified(true);
+                mDispatcher.dispatch(SiteActionBuilder.newUpdateSitesAction(payload));
+            }
+        });
         add(request);
     }
 
@@ -240,6 +259,15 @@ public class SiteRestClient extends BaseWPComRestClient {
                     }
                 }
         );
+        request.setValidatorCache(mValidatorCache, new OnNotModifiedListener() {
+            @Override
+            public void onNotModified() {
+                FetchedPostFormatsPayload payload = new FetchedPostFormatsPayload(site,
+                        new ArrayList<PostFormatModel>());
+                payload.notModified = true;
+                mDispatcher.dispatch(SiteActionBuilder.newFetchedPostFormatsAction(payload));
+            }
+        });
         add(request);
     }
 
@@ -1,10 +1,12 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.site;
 
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
 import org.wordpress.android.fluxc.network.Response;
 
 import java.util.List;
 
+@GenerateTypeAdapter
 public class SiteWPComRestResponse extends Payload implements Response {
     public class SitesResponse {
         public List<SiteWPComRestResponse> sites;
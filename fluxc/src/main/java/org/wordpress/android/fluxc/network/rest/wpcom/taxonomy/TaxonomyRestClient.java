@@ -14,6 +14,8 @@ import org.wordpress.android.fluxc.model.TermModel;
 import org.wordpress.android.fluxc.model.TermsModel;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
+import org.wordpress.android.fluxc.network.BaseRequest.OnNotModifiedListener;
+import org.wordpress.android.fluxc.network.ResponseValidatorCache;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
@@ -38,8 +40,8 @@ import javax.inject.Singleton;
 public class TaxonomyRestClient extends BaseWPComRestClient {
     @Inject
     public TaxonomyRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
-                              AccessToken accessToken, UserAgent userAgent) {
-        super(appContext, dispatcher, requestQueue, accessToken, userAgent);
+                              AccessToken accessToken, UserAgent userAgent, ResponseValidatorCache validatorCache) {
+        super(appContext, dispatcher, requestQueue, accessToken, userAgent, validatorCache);
     }
 
     public void fetchTerm(final TermModel term, final SiteModel site) {
@@ -112,6 +114,15 @@ public class TaxonomyRestClient extends BaseWPComRestClient {
                     }
                 }
         );
+        request.setValidatorCache(mValidatorCache, new OnNotModifiedListener() {
+            @Override
+            public void onNotModified() {
+                FetchTermsResponsePayload payload = new FetchTermsResponsePayload(new TermsModel(), site,
+                        taxonomyName);
+                payload.notModified = true;
+                mDispatcher.dispatch(TaxonomyActionBuilder.newFetchedTermsAction(payload));
+            }
+        });
         add(request);
     }
 
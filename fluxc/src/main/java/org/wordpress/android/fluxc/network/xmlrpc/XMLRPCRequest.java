@@ -27,6 +27,7 @@ import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Map;
 
 // TODO: Would be great to use generics / return POJO or model direclty (see GSON code?)
 public class XMLRPCRequest extends BaseRequest<Object> {
@@ -75,6 +76,28 @@ public class XMLRPCRequest extends BaseRequest<Object> {
         }
     }
 
+    @Override
+    protected Response<Object> parseResponseStream(int statusCode, Map<String, String> headers, InputStream body)
+            throws IOException {
+        if (!PROTOCOL_CHARSET.equalsIgnoreCase(HttpHeaderParser.parseCharset(headers))) {
+            // The deserializer reads UTF-8, other charsets need to be converted first
+            return super.parseResponseStream(statusCode, headers, body);
+        }
+        try {
+            Object obj = XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(body));
+            // BaseRequests are never cached, there's no cache entry to parse
+            return Response.success(obj, null);
+        } catch (XMLRPCFault e) {
+            return Response.error(new VolleyError(e));
+        } catch (XmlPullParserException e) {
+            AppLog.e(T.API, "Can't deserialize XMLRPC response", e);
+            return Response.error(new ParseError(e));
+        } catch (XMLRPCException e) {
+            AppLog.e(T.API, "Can't deserialize XMLRPC response", e);
+            return Response.error(new ParseError(e));
+        }
+    }
+
     @Override
     public String getBodyContentType() {
         return PROTOCOL_CONTENT_TYPE;
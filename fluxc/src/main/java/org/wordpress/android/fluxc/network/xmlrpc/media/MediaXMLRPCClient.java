@@ -1,13 +1,13 @@
 package org.wordpress.android.fluxc.network.xmlrpc.media;
 
 import android.support.annotation.NonNull;
-import android.util.Base64;
 
 import com.android.volley.RequestQueue;
 import com.android.volley.Response.Listener;
 import com.android.volley.VolleyError;
 
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.Dispatcher.ActionPriority;
 import org.wordpress.android.fluxc.generated.MediaActionBuilder;
 import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
 import org.wordpress.android.fluxc.model.MediaModel;
@@ -15,7 +15,6 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseRequest;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody.ProgressListener;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
-import org.wordpress.android.fluxc.network.HTTPAuthModel;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
 import org.wordpress.android.fluxc.network.xmlrpc.BaseXMLRPCClient;
@@ -141,12 +140,7 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
         HttpUrl url = urlBuilder.build();
 
         // Use the HTTP Auth Manager to check if we need HTTP Auth for this url
-        HTTPAuthModel httpAuthModel = mHTTPAuthManager.getHTTPAuthModel(xmlrpcUrl.toString());
-        String authString = null;
-        if (httpAuthModel != null) {
-            String creds = String.format("%s:%s", httpAuthModel.getUsername(), httpAuthModel.getPassword());
-            authString = "Basic " + Base64.encodeToString(creds.getBytes(), Base64.NO_WRAP);
-        }
+        String authString = mHTTPAuthManager.getAuthorizationHeader(xmlrpcUrl.toString());
 
         Builder builder = new okhttp3.Request.Builder()
                 .url(url)
@@ -230,7 +224,7 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
                 } else {
                     AppLog.w(T.MEDIA, "could not parse XMLRPC.GET_MEDIA_LIBRARY response: " + response);
                     MediaError error = new MediaError(MediaErrorType.PARSE_ERROR);
-                    notifyMediaListFetched(site, error);
+                    notifyMediaListFetched(site, error, offset > 0);
                 }
             }
         }, new BaseRequest.BaseErrorListener() {
@@ -238,7 +232,7 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
             public void onErrorResponse(@NonNull BaseRequest.BaseNetworkError error) {
                 AppLog.e(T.MEDIA, "XMLRPC.GET_MEDIA_LIBRARY error response:", error.volleyError);
                 MediaError mediaError = new MediaError(MediaErrorType.fromBaseNetworkError(error));
-                notifyMediaListFetched(site, mediaError);
+                notifyMediaListFetched(site, mediaError, offset > 0);
             }
         }));
     }
@@ -349,12 +343,12 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
 
     private void notifyMediaProgress(MediaModel media, float progress, MediaError error) {
         ProgressPayload payload = new ProgressPayload(media, progress, progress == 1.f, error);
-        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload));
+        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload), ActionPriority.BACKGROUND);
     }
 
     private void notifyMediaUploaded(@NonNull MediaModel media, MediaError error) {
         ProgressPayload payload = new ProgressPayload(media, 1.f, error == null, error);
-        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload));
+        mDispatcher.dispatch(MediaActionBuilder.newUploadedMediaAction(payload), ActionPriority.BACKGROUND);
     }
 
     private void notifyMediaListFetched(SiteModel site, List<MediaModel> media,
@@ -364,8 +358,8 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
         mDispatcher.dispatch(MediaActionBuilder.newFetchedMediaListAction(payload));
     }
 
-    private void notifyMediaListFetched(SiteModel site, MediaError error) {
-        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(site, error);
+    private void notifyMediaListFetched(SiteModel site, MediaError error, boolean loadedMore) {
+        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(site, error, loadedMore);
         mDispatcher.dispatch(MediaActionBuilder.newFetchedMediaListAction(payload));
     }
 
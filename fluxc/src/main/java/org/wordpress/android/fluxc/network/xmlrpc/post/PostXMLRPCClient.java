@@ -107,6 +107,24 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
     }
 
     public void fetchPosts(final SiteModel site, final boolean getPages, final int offset) {
+        fetchPosts(site, getPages, offset, null);
+    }
+
+    /**
+     * Fetches the posts modified after the given date, most recently modified first. Trashed posts are included so
+     * that they can be removed from the store.
+     *
+     * wp.getPosts has no modification date filter: the most recently modified page of posts is fetched, and the ones
+     * not modified after the given date are dropped from the response.
+     *
+     * @param modifiedAfter ISO 8601-formatted date, e.g. the sync mark of the stored posts
+     */
+    public void fetchModifiedPosts(final SiteModel site, final boolean getPages, @NonNull final String modifiedAfter) {
+        fetchPosts(site, getPages, 0, modifiedAfter);
+    }
+
+    private void fetchPosts(final SiteModel site, final boolean getPages, final int offset,
+                            final String modifiedAfter) {
         Map<String, Object> contentStruct = new HashMap<>();
 
         contentStruct.put("number", PostStore.NUM_POSTS_PER_FETCH);
@@ -116,6 +134,18 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
             contentStruct.put("post_type", "page");
         }
 
+        if (modifiedAfter != null) {
+            contentStruct.put("orderby", "modified");
+            contentStruct.put("order", "DESC");
+            // Without a status filter, wp.getPosts leaves out the trashed posts
+            List<String> statuses = new ArrayList<>();
+            for (PostStatus status : PostStore.DEFAULT_POST_STATUS_LIST) {
+                statuses.add(status.toString());
+            }
+            statuses.add(PostStatus.TRASHED.toString());
+            contentStruct.put("post_status", statuses);
+        }
+
         List<Object> params = new ArrayList<>(4);
         params.add(site.getSelfHostedSiteId());
         params.add(site.getUsername());
@@ -133,8 +163,15 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
 
                         PostsModel posts = postsResponseToPostsModel(response, site, getPages);
 
+                        if (modifiedAfter != null && posts != null) {
+                            posts = getPostsModifiedAfter(posts, modifiedAfter);
+                            // More posts may have been modified only if all of this page's posts were
+                            canLoadMore = canLoadMore && posts.getPosts().size() == PostStore.NUM_POSTS_PER_FETCH;
+                        }
+
                         FetchPostsResponsePayload payload = new FetchPostsResponsePayload(posts, site, getPages,
                                 offset > 0, canLoadMore);
+                        payload.modifiedAfter = modifiedAfter;
 
                         if (posts != null) {
                             mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
@@ -159,7 +196,8 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                             default:
                                 postError = new PostError(PostErrorType.GENERIC_ERROR, error.message);
                         }
-                        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(postError);
+                        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(postError, site, getPages,
+                                offset > 0);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
                     }
                 }
@@ -274,6 +312,23 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         add(request);
     }
 
+    /**
+     * Keeps the posts modified at or after the given date: the sync mark is the modification date of the last synced
+     * posts, and other posts may have been modified in the same second. The posts already stored are applied again,
+     * which changes nothing.
+     */
+    private static PostsModel getPostsModifiedAfter(PostsModel posts, String modifiedAfter) {
+        Date modifiedAfterDate = DateTimeUtils.dateUTCFromIso8601(modifiedAfter);
+        List<PostModel> modifiedPosts = new ArrayList<>();
+        for (PostModel post : posts.getPosts()) {
+            Date dateModified = DateTimeUtils.dateUTCFromIso8601(post.getDateModified());
+            if (modifiedAfterDate == null || dateModified == null || !dateModified.before(modifiedAfterDate)) {
+                modifiedPosts.add(post);
+            }
+        }
+        return new PostsModel(modifiedPosts);
+    }
+
     private PostsModel postsResponseToPostsModel(Object[] response, SiteModel site, boolean isPage) {
         List<Map<?, ?>> postsList = new ArrayList<>();
         for (Object responseObject : response) {
@@ -321,6 +376,11 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         String timeAsIso8601 = DateTimeUtils.iso8601UTCFromDate(dateCreatedGmt);
         post.setDateCreated(timeAsIso8601);
 
+        Date dateModifiedGmt = MapUtils.getMapDate(postMap, "post_modified_gmt");
+        if (dateModifiedGmt != null) {
+            post.setDateModified(DateTimeUtils.iso8601UTCFromDate(dateModifiedGmt));
+        }
+
         post.setContent(MapUtils.getMapStr(postMap, "post_content"));
         post.setLink(MapUtils.getMapStr(postMap, "link"));
 
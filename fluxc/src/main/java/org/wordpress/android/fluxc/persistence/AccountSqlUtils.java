@@ -56,7 +56,11 @@ public class AccountSqlUtils {
      * Deletes rows from the Account table that share an ID with the given {@link AccountModel}.
      */
     public static int deleteAccount(AccountModel account) {
-        return account == null ? 0 : WellSql.delete(AccountModel.class)
+        if (account == null) {
+            return 0;
+        }
+        TableChangeNotifier.notifyLocalDeletion();
+        return WellSql.delete(AccountModel.class)
                 .where().equals(AccountModelTable.ID, account.getId()).endWhere().execute();
     }
 
@@ -0,0 +1,61 @@
+package org.wordpress.android.fluxc.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Local ids of the rows inserted, updated and deleted when a fetched list was reconciled with its stored version.
+ * Fetched items identical to their stored row aren't part of it.
+ */
+public class ChangeSet {
+    private final List<Integer> mInsertedIds = new ArrayList<>();
+    private final List<Integer> mUpdatedIds = new ArrayList<>();
+    private final List<Integer> mDeletedIds = new ArrayList<>();
+
+    public List<Integer> getInsertedIds() {
+        return Collections.unmodifiableList(mInsertedIds);
+    }
+
+    public List<Integer> getUpdatedIds() {
+        return Collections.unmodifiableList(mUpdatedIds);
+    }
+
+    public List<Integer> getDeletedIds() {
+        return Collections.unmodifiableList(mDeletedIds);
+    }
+
+    public int getRowsAffected() {
+        return mInsertedIds.size() + mUpdatedIds.size() + mDeletedIds.size();
+    }
+
+    public boolean isEmpty() {
+        return getRowsAffected() == 0;
+    }
+
+    /**
+     * Adds the changes of a later reconciliation to this change set.
+     */
+    public void addAll(ChangeSet changeSet) {
+        mInsertedIds.addAll(changeSet.mInsertedIds);
+        mUpdatedIds.addAll(changeSet.mUpdatedIds);
+        mDeletedIds.addAll(changeSet.mDeletedIds);
+    }
+
+    void addInserted(int id) {
+        mInsertedIds.add(id);
+    }
+
+    void addUpdated(int id) {
+        mUpdatedIds.add(id);
+    }
+
+    void addDeleted(int id) {
+        mDeletedIds.add(id);
+    }
+
+    @Override
+    public String toString() {
+        return "inserted=" + mInsertedIds + " updated=" + mUpdatedIds + " deleted=" + mDeletedIds;
+    }
+}
@@ -30,27 +30,26 @@ public class CommentSqlUtils {
 
         // If it's not a new comment, try to find the "remote" comment
         if (commentResult.isEmpty()) {
-            commentResult = WellSql.select(CommentModel.class).where()
-                    .beginGroup()
-                    .equals(CommentModelTable.REMOTE_COMMENT_ID, comment.getRemoteCommentId())
-                    .equals(CommentModelTable.LOCAL_SITE_ID, comment.getLocalSiteId())
-                    .endGroup().endWhere().getAsModel();
+            commentResult = getCommentsWithRemoteIdQuery(comment.getLocalSiteId(), comment.getRemoteCommentId())
+                    .getAsModel();
         }
 
         if (commentResult.isEmpty()) {
             // insert
             WellSql.insert(comment).asSingleTransaction(true).execute();
-            return 1;
+            return notifySiteCommentsChanged(comment.getLocalSiteId(), 1);
         } else {
             // update
             int oldId = commentResult.get(0).getId();
-            return WellSql.update(CommentModel.class).whereId(oldId)
+            int rowsAffected = WellSql.update(CommentModel.class).whereId(oldId)
                     .put(comment, new UpdateAllExceptId<CommentModel>()).execute();
+            return notifySiteCommentsChanged(comment.getLocalSiteId(), rowsAffected);
         }
     }
 
     public static CommentModel insertCommentForResult(CommentModel comment) {
         WellSql.insert(comment).asSingleTransaction(true).execute();
+        notifySiteCommentsChanged(comment.getLocalSiteId(), 1);
 
         return comment;
     }
@@ -60,9 +59,10 @@ public class CommentSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(CommentModel.class)
+        int rowsAffected = WellSql.delete(CommentModel.class)
                 .where().equals(CommentModelTable.ID, comment.getId()).endWhere()
                 .execute();
+        return notifySiteCommentsChanged(comment.getLocalSiteId(), rowsAffected);
     }
 
     public static int removeComments(SiteModel site) {
@@ -70,13 +70,41 @@ public class CommentSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(CommentModel.class)
+        int rowsAffected = WellSql.delete(CommentModel.class)
                 .where().equals(CommentModelTable.LOCAL_SITE_ID, site.getId()).endWhere()
                 .execute();
+        return notifySiteCommentsChanged(site.getId(), rowsAffected);
+    }
+
+    /**
+     * Reconciles the site's comments with a freshly fetched first page of its comments, see {@link Reconciler}.
+     */
+    public static ChangeSet reconcileCommentsForSite(final SiteModel site, List<CommentModel> comments) {
+        if (site == null) {
+            return new ChangeSet();
+        }
+
+        Reconciler<CommentModel> reconciler = new Reconciler<CommentModel>(CommentModel.class) {
+            @Override
+            List<CommentModel> getStoredRows() {
+                return WellSql.select(CommentModel.class)
+                        .where().equals(CommentModelTable.LOCAL_SITE_ID, site.getId()).endWhere()
+                        .getAsModel();
+            }
+
+            @Override
+            Object getKey(CommentModel comment) {
+                return comment.getRemoteCommentId();
+            }
+        };
+        ChangeSet changeSet = reconciler.reconcile(comments);
+        notifySiteCommentsChanged(site.getId(), changeSet.getRowsAffected());
+        return changeSet;
     }
 
     public static int deleteAllComments() {
-        return WellSql.delete(CommentModel.class).execute();
+        int rowsAffected = WellSql.delete(CommentModel.class).execute();
+        return notifySiteCommentsChanged(TableChangeNotifier.ALL_SITES, rowsAffected);
     }
 
     public static CommentModel getCommentByLocalCommentId(int localId) {
@@ -89,18 +117,22 @@ public class CommentSqlUtils {
     }
 
     public static CommentModel getCommentBySiteAndRemoteId(SiteModel site, long remoteCommentId) {
-        List<CommentModel> results = WellSql.select(CommentModel.class)
-                .where()
-                .equals(CommentModelTable.REMOTE_COMMENT_ID, remoteCommentId)
-                .equals(CommentModelTable.LOCAL_SITE_ID, site.getId())
-                .endWhere().getAsModel();
+        List<CommentModel> results = getCommentsWithRemoteIdQuery(site.getId(), remoteCommentId).getAsModel();
         if (results.isEmpty()) {
             return null;
         }
         return results.get(0);
     }
 
-    private static SelectQuery<CommentModel> getCommentsQueryForSite(SiteModel site, CommentStatus... statuses) {
+    static SelectQuery<CommentModel> getCommentsWithRemoteIdQuery(int localSiteId, long remoteCommentId) {
+        return WellSql.select(CommentModel.class)
+                .where().beginGroup()
+                .equals(CommentModelTable.REMOTE_COMMENT_ID, remoteCommentId)
+                .equals(CommentModelTable.LOCAL_SITE_ID, localSiteId)
+                .endGroup().endWhere();
+    }
+
+    static SelectQuery<CommentModel> getCommentsQueryForSite(SiteModel site, CommentStatus... statuses) {
         if (site == null) {
             return null;
         }
@@ -132,6 +164,18 @@ public class CommentSqlUtils {
             return 0;
         }
 
-        return getCommentsQueryForSite(site, statuses).getAsCursor().getCount();
+        CountQuery query = new CountQuery("CommentModel").equals(CommentModelTable.LOCAL_SITE_ID, site.getId());
+        // Check if statuses contains ALL
+        if (!Arrays.asList(statuses).contains(CommentStatus.ALL)) {
+            query.isIn(CommentModelTable.STATUS, Arrays.asList(statuses));
+        }
+        return query.count();
+    }
+
+    private static int notifySiteCommentsChanged(int localSiteId, int rowsAffected) {
+        if (rowsAffected > 0) {
+            TableChangeNotifier.notifyTableChanged(CommentModel.class, localSiteId);
+        }
+        return rowsAffected;
     }
 }
@@ -0,0 +1,75 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.database.DatabaseUtils;
+import android.text.TextUtils;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Counts the rows of a table matching all the given conditions with a {@code SELECT COUNT(*)}, without loading
+ * the matching models. Conditions mirror the WellSql ones, e.g.
+ *
+ *     new CountQuery("PostModel").equals(PostModelTable.LOCAL_SITE_ID, site.getId()).count();
+ */
+class CountQuery {
+    private final String mTable;
+    private final List<String> mConditions = new ArrayList<>();
+    private final List<String> mArgs = new ArrayList<>();
+
+    CountQuery(String table) {
+        mTable = table;
+    }
+
+    CountQuery equals(String column, Object value) {
+        mConditions.add(column + " = ?");
+        mArgs.add(toArg(value));
+        return this;
+    }
+
+    /**
+     * Matches the rows where at least one of the given columns is equal to the value.
+     */
+    CountQuery equalsAny(Object value, String... columns) {
+        List<String> conditions = new ArrayList<>();
+        for (String column : columns) {
+            conditions.add(column + " = ?");
+            mArgs.add(toArg(value));
+        }
+        mConditions.add("(" + TextUtils.join(" OR ", conditions) + ")");
+        return this;
+    }
+
+    CountQuery isIn(String column, Collection<?> values) {
+        List<String> placeholders = new ArrayList<>();
+        for (Object value : values) {
+            placeholders.add("?");
+            mArgs.add(toArg(value));
+        }
+        mConditions.add(column + " IN (" + TextUtils.join(", ", placeholders) + ")");
+        return this;
+    }
+
+    CountQuery contains(String column, String value) {
+        mConditions.add(column + " LIKE ?");
+        mArgs.add("%" + value + "%");
+        return this;
+    }
+
+    int count() {
+        String selection = mConditions.isEmpty() ? null : TextUtils.join(" AND ", mConditions);
+        return (int) DatabaseUtils.queryNumEntries(WellSql.giveMeReadableDb(), mTable, selection,
+                mArgs.toArray(new String[mArgs.size()]));
+    }
+
+    private static String toArg(Object value) {
+        // WellSql stores booleans as integers
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        }
+        return String.valueOf(value);
+    }
+}
@@ -1,6 +1,9 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.support.annotation.Nullable;
+
 import com.wellsql.generated.MediaModelTable;
+import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellCursor;
 import com.yarolegovich.wellsql.WellSql;
@@ -21,6 +24,39 @@ public class MediaSqlUtils {
         return getAllSiteMediaQuery(siteModel).getAsCursor();
     }
 
+    /**
+     * Returns a page of the site's media, most recent first, starting after the given media. Pages are keyed on
+     * (UPLOAD_DATE, local id) rather than on an offset, like the post pages of {@link PostSqlUtils}. The local id
+     * breaks ties since media not uploaded yet have no media id.
+     *
+     * @param lastMedia the last media of the previous page, or null for the first page
+     */
+    public static List<MediaModel> getAllSiteMedia(SiteModel siteModel, @Nullable MediaModel lastMedia, int limit) {
+        ConditionClauseBuilder<SelectQuery<MediaModel>> where = WellSql.select(MediaModel.class)
+                .where().beginGroup()
+                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId());
+        if (lastMedia != null) {
+            where = where.beginGroup()
+                    .lessThen(MediaModelTable.UPLOAD_DATE, lastMedia.getUploadDate())
+                    .or().beginGroup()
+                    .equals(MediaModelTable.UPLOAD_DATE, lastMedia.getUploadDate())
+                    .lessThen(MediaModelTable.ID, lastMedia.getId())
+                    .endGroup()
+                    .endGroup();
+        }
+        return where.endGroup().endWhere()
+                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
+                .orderBy(MediaModelTable.ID, SelectQuery.ORDER_DESCENDING)
+                .limit(limit)
+                .getAsModel();
+    }
+
+    public static int getAllSiteMediaCount(SiteModel siteModel) {
+        return new CountQuery("MediaModel")
+                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
+                .count();
+    }
+
     public static List<MediaModel> getMediaWithStates(SiteModel site, List<String> uploadStates) {
         return getMediaWithStatesQuery(site, uploadStates).getAsModel();
     }
@@ -29,6 +65,13 @@ public class MediaSqlUtils {
         return getMediaWithStatesQuery(site, uploadStates).getAsCursor();
     }
 
+    public static int getMediaCountWithStates(SiteModel site, List<String> uploadStates) {
+        return new CountQuery("MediaModel")
+                .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
+                .isIn(MediaModelTable.UPLOAD_STATE, uploadStates)
+                .count();
+    }
+
     public static WellCursor<MediaModel> getImagesWithStatesAsCursor(SiteModel site, List<String> uploadStates) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
@@ -51,7 +94,7 @@ public class MediaSqlUtils {
                 .getAsCursor();
     }
 
-    private static SelectQuery<MediaModel> getAllSiteMediaQuery(SiteModel siteModel) {
+    static SelectQuery<MediaModel> getAllSiteMediaQuery(SiteModel siteModel) {
         return WellSql.select(MediaModel.class)
                 .where().equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId()).endWhere()
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
@@ -67,12 +110,15 @@ public class MediaSqlUtils {
     }
 
     public static List<MediaModel> getSiteMediaWithId(SiteModel siteModel, long mediaId) {
+        return getSiteMediaWithIdQuery(siteModel, mediaId).getAsModel();
+    }
+
+    static SelectQuery<MediaModel> getSiteMediaWithIdQuery(SiteModel siteModel, long mediaId) {
         return WellSql.select(MediaModel.class).where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(MediaModelTable.MEDIA_ID, mediaId)
                 .endGroup().endWhere()
-                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
-                .getAsModel();
+                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
     }
 
     public static List<MediaModel> getSiteMediaWithIds(SiteModel siteModel, List<Long> mediaIds) {
@@ -123,6 +169,18 @@ public class MediaSqlUtils {
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
     }
 
+    /**
+     * Full-text search of the site's media on their title, caption and file name.
+     *
+     * @return the media containing all the words of the search string (as prefixes), best matches first
+     */
+    public static List<MediaModel> searchSiteMedia(SiteModel siteModel, String searchString) {
+        List<Integer> ids = SearchIndex.MEDIA.search(searchString,
+                "MediaModel." + MediaModelTable.LOCAL_SITE_ID + " = ?",
+                new String[]{String.valueOf(siteModel.getId())});
+        return SearchIndex.getModels(MediaModel.class, ids);
+    }
+
     public static List<MediaModel> getSiteImages(SiteModel siteModel) {
         return getSiteImagesQuery(siteModel).getAsModel();
     }
@@ -131,7 +189,14 @@ public class MediaSqlUtils {
         return getSiteImagesQuery(siteModel).getAsCursor();
     }
 
-    private static SelectQuery<MediaModel> getSiteImagesQuery(SiteModel siteModel) {
+    public static int getSiteImagesCount(SiteModel siteModel) {
+        return new CountQuery("MediaModel")
+                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
+                .contains(MediaModelTable.MIME_TYPE, MediaUtils.MIME_TYPE_IMAGE)
+                .count();
+    }
+
+    static SelectQuery<MediaModel> getSiteImagesQuery(SiteModel siteModel) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
@@ -170,7 +235,14 @@ public class MediaSqlUtils {
         return matchSiteMediaQuery(siteModel, column, value).getAsCursor();
     }
 
-    private static SelectQuery<MediaModel> matchSiteMediaQuery(SiteModel siteModel, String column, Object value) {
+    public static int matchSiteMediaCount(SiteModel siteModel, String column, Object value) {
+        return new CountQuery("MediaModel")
+                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
+                .equals(column, value)
+                .count();
+    }
+
+    static SelectQuery<MediaModel> matchSiteMediaQuery(SiteModel siteModel, String column, Object value) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
@@ -180,13 +252,44 @@ public class MediaSqlUtils {
     }
 
     public static List<MediaModel> matchPostMedia(long postId, String column, Object value) {
+        return matchPostMediaQuery(postId, column, value).getAsModel();
+    }
+
+    static SelectQuery<MediaModel> matchPostMediaQuery(long postId, String column, Object value) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.POST_ID, postId)
                 .equals(column, value)
                 .endGroup().endWhere()
-                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
-                .getAsModel();
+                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
+    }
+
+    /**
+     * Reconciles the site's media with a freshly fetched first page of its media, see {@link Reconciler}. Only
+     * uploaded media are deleted when missing from the fetched page.
+     */
+    public static ChangeSet reconcileSiteMedia(final SiteModel site, List<MediaModel> mediaList) {
+        Reconciler<MediaModel> reconciler = new Reconciler<MediaModel>(MediaModel.class) {
+            @Override
+            List<MediaModel> getStoredRows() {
+                return WellSql.select(MediaModel.class)
+                        .where().equals(MediaModelTable.LOCAL_SITE_ID, site.getId()).endWhere()
+                        .getAsModel();
+            }
+
+            @Override
+            Object getKey(MediaModel media) {
+                return media.getMediaId();
+            }
+
+            @Override
+            boolean canDelete(MediaModel storedMedia) {
+                return UploadState.UPLOADED.toString().equals(storedMedia.getUploadState());
+            }
+        };
+        ChangeSet changeSet = reconciler.reconcile(mediaList);
+        notifySiteMediaChanged(site.getId(), changeSet.getRowsAffected());
+        return changeSet;
     }
 
     public static int insertOrUpdateMedia(MediaModel media) {
@@ -213,42 +316,47 @@ public class MediaSqlUtils {
         if (existingMedia.isEmpty()) {
             // insert, media item does not exist
             WellSql.insert(media).asSingleTransaction(true).execute();
-            return 1;
+            return notifySiteMediaChanged(media.getLocalSiteId(), 1);
         } else {
             if (existingMedia.size() > 1) {
                 // We've ended up with a duplicate entry, probably due to a push/fetch race condition
                 // One matches based on local ID (this is the one we're trying to update with a remote media ID)
                 // The other matches based on local site ID + remote media ID, and we got it from a fetch
                 // Just remove the entry without a remote media ID (the one matching the current media's local ID)
-                return WellSql.delete(MediaModel.class).whereId(media.getId());
+                int rowsAffected = WellSql.delete(MediaModel.class).whereId(media.getId());
+                return notifySiteMediaChanged(media.getLocalSiteId(), rowsAffected);
             }
             // update, media item already exists
             int oldId = existingMedia.get(0).getId();
-            return WellSql.update(MediaModel.class).whereId(oldId)
+            int rowsAffected = WellSql.update(MediaModel.class).whereId(oldId)
                     .put(media, new UpdateAllExceptId<MediaModel>()).execute();
+            return notifySiteMediaChanged(media.getLocalSiteId(), rowsAffected);
         }
     }
 
     public static MediaModel insertMediaForResult(MediaModel media) {
         WellSql.insert(media).asSingleTransaction(true).execute();
+        notifySiteMediaChanged(media.getLocalSiteId(), 1);
         return media;
     }
 
     public static int deleteMedia(MediaModel media) {
         if (media == null) return 0;
-        return WellSql.delete(MediaModel.class)
+        int rowsAffected = WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, media.getLocalSiteId())
                 .equals(MediaModelTable.MEDIA_ID, media.getMediaId())
                 .endGroup().endWhere().execute();
+        return notifySiteMediaChanged(media.getLocalSiteId(), rowsAffected);
     }
 
     public static int deleteMatchingSiteMedia(SiteModel siteModel, String column, Object value) {
-        return WellSql.delete(MediaModel.class)
+        int rowsAffected = WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(column, value)
                 .endGroup().endWhere().execute();
+        return notifySiteMediaChanged(siteModel.getId(), rowsAffected);
     }
 
     public static int deleteAllSiteMedia(SiteModel site) {
@@ -256,22 +364,32 @@ public class MediaSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(MediaModel.class)
+        int rowsAffected = WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
                 .endGroup().endWhere().execute();
+        return notifySiteMediaChanged(site.getId(), rowsAffected);
     }
 
     public static int deleteAllUploadedSiteMedia(SiteModel siteModel) {
-        return WellSql.delete(MediaModel.class)
+        int rowsAffected = WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(MediaModelTable.UPLOAD_STATE, UploadState.UPLOADED.toString())
                 .endGroup().endWhere().execute();
+        return notifySiteMediaChanged(siteModel.getId(), rowsAffected);
     }
 
     public static int deleteAllMedia() {
-        return WellSql.delete(MediaModel.class).execute();
+        int rowsAffected = WellSql.delete(MediaModel.class).execute();
+        return notifySiteMediaChanged(TableChangeNotifier.ALL_SITES, rowsAffected);
+    }
+
+    private static int notifySiteMediaChanged(int localSiteId, int rowsAffected) {
+        if (rowsAffected > 0) {
+            TableChangeNotifier.notifyTableChanged(MediaModel.class, localSiteId);
+        }
+        return rowsAffected;
     }
 
     private static SelectQuery<MediaModel> getSiteMediaExcludingQuery(SiteModel site, String column, Object value) {
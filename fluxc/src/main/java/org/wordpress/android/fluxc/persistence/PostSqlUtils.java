@@ -1,61 +1,107 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
 import com.wellsql.generated.PostModelTable;
+import com.wellsql.generated.PostSyncStateModelTable;
+import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellSql;
 
 import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostSummary;
+import org.wordpress.android.fluxc.model.PostSyncStateModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
+import org.wordpress.android.fluxc.model.PostsModel;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.post.PostStatus;
+import org.wordpress.android.util.DateTimeUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PostSqlUtils {
+    // Keeps IN clauses under SQLite's default limit of 999 bound variables
+    private static final int MAX_SQL_VARIABLES = 500;
+
+    private static final String[] SUMMARY_COLUMNS = {
+            PostModelTable.ID,
+            PostModelTable.LOCAL_SITE_ID,
+            PostModelTable.REMOTE_POST_ID,
+            PostModelTable.TITLE,
+            "substr(" + PostModelTable.EXCERPT + ", 1, " + PostSummary.MAX_EXCERPT_LENGTH + ") AS "
+                    + PostModelTable.EXCERPT,
+            PostModelTable.STATUS,
+            PostModelTable.DATE_CREATED,
+            PostModelTable.FEATURED_IMAGE_ID,
+            PostModelTable.IS_PAGE,
+            PostModelTable.IS_LOCAL_DRAFT,
+            PostModelTable.IS_LOCALLY_CHANGED
+    };
+
     public static int insertOrUpdatePost(PostModel post, boolean overwriteLocalChanges) {
         if (post == null) {
             return 0;
         }
 
-        List<PostModel> postResult;
-        if (post.isLocalDraft()) {
-            postResult = WellSql.select(PostModel.class)
-                    .where()
-                    .equals(PostModelTable.ID, post.getId())
-                    .endWhere().getAsModel();
-        } else {
-            postResult = WellSql.select(PostModel.class)
-                    .where().beginGroup()
-                    .equals(PostModelTable.ID, post.getId())
-                    .or()
-                    .beginGroup()
-                    .equals(PostModelTable.REMOTE_POST_ID, post.getRemotePostId())
-                    .equals(PostModelTable.LOCAL_SITE_ID, post.getLocalSiteId())
-                    .endGroup()
-                    .endGroup().endWhere().getAsModel();
-        }
-
+        List<PostModel> postResult = getExistingPostQuery(post).getAsModel();
         if (postResult.isEmpty()) {
             // insert
             WellSql.insert(post).asSingleTransaction(true).execute();
-            return 1;
+            PostTermSqlUtils.setTermsForPost(post.getId(), null, post);
+            return notifySitePostsChanged(post.getLocalSiteId(), 1);
         } else {
             if (postResult.size() > 1) {
-                // We've ended up with a duplicate entry, probably due to a push/fetch race condition
+                // We've ended up with a duplicate entry: a fetch returned the post we were pushing before the push
+                // response was handled (this happens even when a site's actions are handled serially)
                 // One matches based on local ID (this is the one we're trying to update with a remote post ID)
                 // The other matches based on local site ID + remote post ID, and we got it from a fetch
                 // Just remove the entry without a remote post ID (the one matching the current post's local ID)
-                return WellSql.delete(PostModel.class).whereId(post.getId());
+                int rowsAffected = WellSql.delete(PostModel.class).whereId(post.getId());
+                return notifySitePostsDeleted(post.getLocalSiteId(), rowsAffected);
             }
             // Update only if local changes for this post don't exist
             if (overwriteLocalChanges || !postResult.get(0).isLocallyChanged()) {
                 int oldId = postResult.get(0).getId();
-                return WellSql.update(PostModel.class).whereId(oldId)
+                int rowsAffected = WellSql.update(PostModel.class).whereId(oldId)
                         .put(post, new UpdateAllExceptId<PostModel>()).execute();
+                PostTermSqlUtils.setTermsForPost(oldId, postResult.get(0), post);
+                return notifySitePostsChanged(post.getLocalSiteId(), rowsAffected);
             }
         }
         return 0;
     }
 
+    /**
+     * @return the stored rows of the given post: the row with its local ID, or for uploaded posts also the row with
+     * its remote post ID
+     */
+    static SelectQuery<PostModel> getExistingPostQuery(@NonNull PostModel post) {
+        if (post.isLocalDraft()) {
+            return WellSql.select(PostModel.class)
+                    .where()
+                    .equals(PostModelTable.ID, post.getId())
+                    .endWhere();
+        }
+        return WellSql.select(PostModel.class)
+                .where().beginGroup()
+                .equals(PostModelTable.ID, post.getId())
+                .or()
+                .beginGroup()
+                .equals(PostModelTable.REMOTE_POST_ID, post.getRemotePostId())
+                .equals(PostModelTable.LOCAL_SITE_ID, post.getLocalSiteId())
+                .endGroup()
+                .endGroup().endWhere();
+    }
+
     public static int insertOrUpdatePostKeepingLocalChanges(PostModel post) {
         return insertOrUpdatePost(post, false);
     }
@@ -64,19 +110,341 @@ public class PostSqlUtils {
         return insertOrUpdatePost(post, true);
     }
 
+    /**
+     * Inserts or updates a page of posts in a single transaction, with the same rules as
+     * {@link #insertOrUpdatePost(PostModel, boolean)}. Existing rows are looked up with one query per site (and per
+     * {@link #MAX_SQL_VARIABLES} posts) instead of one query per post.
+     *
+     * @return the number of rows inserted or updated
+     */
+    public static int insertOrUpdatePosts(PostsModel posts, boolean overwriteLocalChanges) {
+        if (posts == null || posts.getPosts().isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Integer> rowsAffectedBySite = new HashMap<>();
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            insertOrUpdatePostsInTransaction(posts.getPosts(), overwriteLocalChanges, rowsAffectedBySite);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        int rowsAffected = 0;
+        for (Map.Entry<Integer, Integer> siteRowsAffected : rowsAffectedBySite.entrySet()) {
+            rowsAffected += notifySitePostsChanged(siteRowsAffected.getKey(), siteRowsAffected.getValue());
+        }
+        return rowsAffected;
+    }
+
+    public static int insertOrUpdatePostsKeepingLocalChanges(PostsModel posts) {
+        return insertOrUpdatePosts(posts, false);
+    }
+
+    /**
+     * Reconciles the site's uploaded posts (or pages) with a freshly fetched first page of them, see
+     * {@link Reconciler}. Posts with local changes are neither overwritten nor deleted. Moves the sync mark, see
+     * {@link #getLastModifiedDate}.
+     */
+    public static ChangeSet reconcileUploadedPostsForSite(final SiteModel site, final boolean pages,
+                                                          PostsModel posts) {
+        if (site == null) {
+            return new ChangeSet();
+        }
+
+        Reconciler<PostModel> reconciler = new Reconciler<PostModel>(PostModel.class) {
+            @Override
+            List<PostModel> getStoredRows() {
+                return WellSql.select(PostModel.class)
+                        .where().beginGroup()
+                        .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                        .equals(PostModelTable.IS_PAGE, pages)
+                        .equals(PostModelTable.IS_LOCAL_DRAFT, false)
+                        .endGroup().endWhere()
+                        .getAsModel();
+            }
+
+            @Override
+            Object getKey(PostModel post) {
+                return post.getRemotePostId();
+            }
+
+            @Override
+            boolean canOverwrite(PostModel storedPost) {
+                return !storedPost.isLocallyChanged();
+            }
+
+            @Override
+            void onRowWritten(PostModel storedPost, PostModel post) {
+                PostTermSqlUtils.setTermsForPost(post.getId(), storedPost, post);
+            }
+        };
+        List<PostModel> fetchedPosts = posts == null ? Collections.<PostModel>emptyList() : posts.getPosts();
+        ChangeSet changeSet = reconciler.reconcile(fetchedPosts);
+        updateLastModifiedDate(site, pages, fetchedPosts);
+        notifySitePostsChanged(site.getId(), changeSet);
+        return changeSet;
+    }
+
+    /**
+     * Applies the site's posts (or pages) modified since the last sync, see {@link #getLastModifiedDate}. Modified
+     * posts are inserted or updated, trashed ones are deleted, and posts with local changes are left untouched. Moves
+     * the sync mark.
+     */
+    public static ChangeSet applyModifiedPostsForSite(final SiteModel site, final boolean pages, PostsModel posts) {
+        if (site == null || posts == null || posts.getPosts().isEmpty()) {
+            return new ChangeSet();
+        }
+
+        final List<Long> remoteIds = new ArrayList<>();
+        List<PostModel> modifiedPosts = new ArrayList<>();
+        for (PostModel post : posts.getPosts()) {
+            if (post == null) {
+                continue;
+            }
+            remoteIds.add(post.getRemotePostId());
+            // Trashed posts aren't added to the list, so that their stored row is deleted
+            if (PostStatus.fromPost(post) != PostStatus.TRASHED) {
+                modifiedPosts.add(post);
+            }
+        }
+
+        Reconciler<PostModel> reconciler = new Reconciler<PostModel>(PostModel.class) {
+            @Override
+            List<PostModel> getStoredRows() {
+                // Only the rows of the modified posts, the others are still in sync
+                return WellSql.select(PostModel.class)
+                        .where().beginGroup()
+                        .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                        .equals(PostModelTable.IS_PAGE, pages)
+                        .equals(PostModelTable.IS_LOCAL_DRAFT, false)
+                        .isIn(PostModelTable.REMOTE_POST_ID, remoteIds)
+                        .endGroup().endWhere()
+                        .getAsModel();
+            }
+
+            @Override
+            Object getKey(PostModel post) {
+                return post.getRemotePostId();
+            }
+
+            @Override
+            boolean canOverwrite(PostModel storedPost) {
+                return !storedPost.isLocallyChanged();
+            }
+
+            @Override
+            void onRowWritten(PostModel storedPost, PostModel post) {
+                PostTermSqlUtils.setTermsForPost(post.getId(), storedPost, post);
+            }
+        };
+        ChangeSet changeSet = reconciler.reconcile(modifiedPosts);
+        updateLastModifiedDate(site, pages, posts.getPosts());
+        notifySitePostsChanged(site.getId(), changeSet);
+        return changeSet;
+    }
+
+    /**
+     * @param rowsAffectedBySite filled with the number of rows inserted or updated, by local site ID
+     */
+    private static void insertOrUpdatePostsInTransaction(List<PostModel> posts, boolean overwriteLocalChanges,
+                                                         Map<Integer, Integer> rowsAffectedBySite) {
+        Map<Integer, Map<Long, List<PostModel>>> existingPostsBySite = getExistingPostsByRemoteId(posts);
+
+        for (PostModel post : posts) {
+            if (post == null) {
+                continue;
+            }
+            int rowsAffected = 0;
+            if (post.isLocalDraft() || post.getId() != 0) {
+                // Can match an existing row on its local ID, use the single post path
+                rowsAffected = insertOrUpdatePost(post, overwriteLocalChanges);
+                addRowsAffected(rowsAffectedBySite, post.getLocalSiteId(), rowsAffected);
+                continue;
+            }
+
+            Map<Long, List<PostModel>> existingPosts = existingPostsBySite.get(post.getLocalSiteId());
+            List<PostModel> postResult = existingPosts.get(post.getRemotePostId());
+            if (postResult == null) {
+                WellSql.insert(post).execute();
+                PostTermSqlUtils.setTermsForPost(post.getId(), null, post);
+                // The same post can be returned twice in a page, the second occurrence must update this row
+                existingPosts.put(post.getRemotePostId(), Collections.singletonList(post));
+                rowsAffected = 1;
+            } else if (postResult.size() == 1) {
+                // More than one match would be duplicate rows, left untouched like insertOrUpdatePost() does
+                PostModel existingPost = postResult.get(0);
+                if (overwriteLocalChanges || !existingPost.isLocallyChanged()) {
+                    rowsAffected = WellSql.update(PostModel.class).whereId(existingPost.getId())
+                            .put(post, new UpdateAllExceptId<PostModel>()).execute();
+                    PostTermSqlUtils.setTermsForPost(existingPost.getId(), existingPost, post);
+                    existingPost.setIsLocallyChanged(post.isLocallyChanged());
+                }
+            }
+            addRowsAffected(rowsAffectedBySite, post.getLocalSiteId(), rowsAffected);
+        }
+    }
+
+    private static void addRowsAffected(Map<Integer, Integer> rowsAffectedBySite, int localSiteId, int rowsAffected) {
+        Integer siteRowsAffected = rowsAffectedBySite.get(localSiteId);
+        rowsAffectedBySite.put(localSiteId, siteRowsAffected == null ? rowsAffected : siteRowsAffected + rowsAffected);
+    }
+
+    /**
+     * @return the existing posts matching the remote post IDs of the given uploaded posts, by local site ID then by
+     * remote post ID
+     */
+    private static Map<Integer, Map<Long, List<PostModel>>> getExistingPostsByRemoteId(List<PostModel> posts) {
+        Map<Integer, List<Long>> remoteIdsBySite = new HashMap<>();
+        for (PostModel post : posts) {
+            if (post == null || post.isLocalDraft() || post.getId() != 0) {
+                continue;
+            }
+            List<Long> remoteIds = remoteIdsBySite.get(post.getLocalSiteId());
+            if (remoteIds == null) {
+                remoteIds = new ArrayList<>();
+                remoteIdsBySite.put(post.getLocalSiteId(), remoteIds);
+            }
+            remoteIds.add(post.getRemotePostId());
+        }
+
+        Map<Integer, Map<Long, List<PostModel>>> existingPostsBySite = new HashMap<>();
+        for (Map.Entry<Integer, List<Long>> siteRemoteIds : remoteIdsBySite.entrySet()) {
+            Map<Long, List<PostModel>> existingPosts = new HashMap<>();
+            List<Long> remoteIds = siteRemoteIds.getValue();
+            for (int start = 0; start < remoteIds.size(); start += MAX_SQL_VARIABLES) {
+                List<Long> remoteIdsChunk = remoteIds.subList(start, Math.min(start + MAX_SQL_VARIABLES,
+                        remoteIds.size()));
+                List<PostModel> postResult =
+                        getPostsWithRemoteIdsQuery(siteRemoteIds.getKey(), remoteIdsChunk).getAsModel();
+                for (PostModel existingPost : postResult) {
+                    List<PostModel> matches = existingPosts.get(existingPost.getRemotePostId());
+                    if (matches == null) {
+                        matches = new ArrayList<>();
+                        existingPosts.put(existingPost.getRemotePostId(), matches);
+                    }
+                    matches.add(existingPost);
+                }
+            }
+            existingPostsBySite.put(siteRemoteIds.getKey(), existingPosts);
+        }
+        return existingPostsBySite;
+    }
+
+    static SelectQuery<PostModel> getPostsWithRemoteIdsQuery(int localSiteId, List<Long> remoteIds) {
+        return WellSql.select(PostModel.class)
+                .where().beginGroup()
+                .equals(PostModelTable.LOCAL_SITE_ID, localSiteId)
+                .isIn(PostModelTable.REMOTE_POST_ID, remoteIds)
+                .endGroup().endWhere();
+    }
+
     public static List<PostModel> getPostsForSite(SiteModel site, boolean getPages) {
         if (site == null) {
             return Collections.emptyList();
         }
 
+        return getPostsForSiteQuery(site, getPages).getAsModel();
+    }
+
+    static SelectQuery<PostModel> getPostsForSiteQuery(@NonNull SiteModel site, boolean getPages) {
         return WellSql.select(PostModel.class)
                 .where().beginGroup()
                 .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
                 .equals(PostModelTable.IS_PAGE, getPages)
                 .endGroup().endWhere()
                 .orderBy(PostModelTable.IS_LOCAL_DRAFT, SelectQuery.ORDER_DESCENDING)
-                .orderBy(PostModelTable.DATE_CREATED, SelectQuery.ORDER_DESCENDING)
-                .getAsModel();
+                .orderBy(PostModelTable.DATE_CREATED, SelectQuery.ORDER_DESCENDING);
+    }
+
+    public static List<PostSummary> getPostSummariesForSite(SiteModel site, boolean getPages) {
+        if (site == null) {
+            return Collections.emptyList();
+        }
+
+        Cursor cursor = getPostSummariesForSiteAsCursor(site, getPages);
+        try {
+            List<PostSummary> summaries = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                summaries.add(getPostSummaryFromCursor(cursor));
+            }
+            return summaries;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Same order as {@link #getPostsForSite(SiteModel, boolean)}, rows can be read with
+     * {@link #getPostSummaryFromCursor(Cursor)}.
+     */
+    public static Cursor getPostSummariesForSiteAsCursor(@NonNull SiteModel site, boolean getPages) {
+        return WellSql.giveMeReadableDb().query("PostModel", SUMMARY_COLUMNS,
+                PostModelTable.LOCAL_SITE_ID + " = ? AND " + PostModelTable.IS_PAGE + " = ?",
+                new String[] {String.valueOf(site.getId()), getPages ? "1" : "0"}, null, null,
+                PostModelTable.IS_LOCAL_DRAFT + " DESC, " + PostModelTable.DATE_CREATED + " DESC");
+    }
+
+    public static PostSummary getPostSummaryFromCursor(Cursor cursor) {
+        PostSummary summary = new PostSummary();
+        summary.setId(cursor.getInt(cursor.getColumnIndexOrThrow(PostModelTable.ID)));
+        summary.setLocalSiteId(cursor.getInt(cursor.getColumnIndexOrThrow(PostModelTable.LOCAL_SITE_ID)));
+        summary.setRemotePostId(cursor.getLong(cursor.getColumnIndexOrThrow(PostModelTable.REMOTE_POST_ID)));
+        summary.setTitle(cursor.getString(cursor.getColumnIndexOrThrow(PostModelTable.TITLE)));
+        summary.setExcerpt(cursor.getString(cursor.getColumnIndexOrThrow(PostModelTable.EXCERPT)));
+        summary.setStatus(cursor.getString(cursor.getColumnIndexOrThrow(PostModelTable.STATUS)));
+        summary.setDateCreated(cursor.getString(cursor.getColumnIndexOrThrow(PostModelTable.DATE_CREATED)));
+        summary.setFeaturedImageId(cursor.getLong(cursor.getColumnIndexOrThrow(PostModelTable.FEATURED_IMAGE_ID)));
+        summary.setIsPage(cursor.getInt(cursor.getColumnIndexOrThrow(PostModelTable.IS_PAGE)) != 0);
+        summary.setIsLocalDraft(cursor.getInt(cursor.getColumnIndexOrThrow(PostModelTable.IS_LOCAL_DRAFT)) != 0);
+        summary.setIsLocallyChanged(
+                cursor.getInt(cursor.getColumnIndexOrThrow(PostModelTable.IS_LOCALLY_CHANGED)) != 0);
+        return summary;
+    }
+
+    /**
+     * @return the content of the post with the given local id, or null if there is no such post
+     */
+    public static String getPostContent(int localPostId) {
+        Cursor cursor = WellSql.giveMeReadableDb().query("PostModel", new String[] {PostModelTable.CONTENT},
+                PostModelTable.ID + " = ?", new String[] {String.valueOf(localPostId)}, null, null, null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return cursor.isNull(0) ? "" : cursor.getString(0);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public static int getPostsCountForSite(SiteModel site, boolean getPages) {
+        if (site == null) {
+            return 0;
+        }
+
+        return new CountQuery("PostModel")
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(PostModelTable.IS_PAGE, getPages)
+                .count();
+    }
+
+    /**
+     * Full-text search of the site's posts (or pages) on their title, excerpt and content.
+     *
+     * @return the posts containing all the words of the search string (as prefixes), best matches first
+     */
+    public static List<PostModel> searchPosts(SiteModel site, boolean getPages, String searchString) {
+        if (site == null) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> ids = SearchIndex.POSTS.search(searchString,
+                "PostModel." + PostModelTable.LOCAL_SITE_ID + " = ? AND PostModel." + PostModelTable.IS_PAGE + " = ?",
+                new String[]{String.valueOf(site.getId()), getPages ? "1" : "0"});
+        return SearchIndex.getModels(PostModel.class, ids);
     }
 
     public static List<PostModel> getPostsForSiteWithFormat(SiteModel site, List<String> postFormat, boolean getPages) {
@@ -100,6 +468,10 @@ public class PostSqlUtils {
             return Collections.emptyList();
         }
 
+        return getUploadedPostsForSiteQuery(site, getPages).getAsModel();
+    }
+
+    static SelectQuery<PostModel> getUploadedPostsForSiteQuery(@NonNull SiteModel site, boolean getPages) {
         return WellSql.select(PostModel.class)
                 .where().beginGroup()
                 .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
@@ -107,12 +479,130 @@ public class PostSqlUtils {
                 .equals(PostModelTable.IS_LOCAL_DRAFT, false)
                 .endGroup().endWhere()
                 .orderBy(PostModelTable.IS_LOCAL_DRAFT, SelectQuery.ORDER_DESCENDING)
+                .orderBy(PostModelTable.DATE_CREATED, SelectQuery.ORDER_DESCENDING);
+    }
+
+    /**
+     * Returns a page of the site's uploaded posts (or pages), most recent first, starting after the given post. Pages
+     * are keyed on (DATE_CREATED, REMOTE_POST_ID) rather than on an offset: the next page starts where the previous
+     * one ended whatever was inserted or deleted in between, and is found without skipping the previous rows.
+     *
+     * @param lastPost the last post of the previous page, or null for the first page
+     */
+    public static List<PostModel> getUploadedPostsForSite(SiteModel site, boolean getPages,
+                                                          @Nullable PostModel lastPost, int limit) {
+        if (site == null) {
+            return Collections.emptyList();
+        }
+
+        return getUploadedPostsForSiteQuery(site, getPages, lastPost, limit).getAsModel();
+    }
+
+    static SelectQuery<PostModel> getUploadedPostsForSiteQuery(@NonNull SiteModel site, boolean getPages,
+                                                               @Nullable PostModel lastPost, int limit) {
+        ConditionClauseBuilder<SelectQuery<PostModel>> where = WellSql.select(PostModel.class)
+                .where().beginGroup()
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(PostModelTable.IS_PAGE, getPages)
+                .equals(PostModelTable.IS_LOCAL_DRAFT, false);
+        if (lastPost != null) {
+            where = where.beginGroup()
+                    .lessThen(PostModelTable.DATE_CREATED, lastPost.getDateCreated())
+                    .or().beginGroup()
+                    .equals(PostModelTable.DATE_CREATED, lastPost.getDateCreated())
+                    .lessThen(PostModelTable.REMOTE_POST_ID, lastPost.getRemotePostId())
+                    .endGroup()
+                    .endGroup();
+        }
+        return where.endGroup().endWhere()
                 .orderBy(PostModelTable.DATE_CREATED, SelectQuery.ORDER_DESCENDING)
+                .orderBy(PostModelTable.REMOTE_POST_ID, SelectQuery.ORDER_DESCENDING)
+                .limit(limit);
+    }
+
+    public static int getUploadedPostsCountForSite(SiteModel site, boolean getPages) {
+        if (site == null) {
+            return 0;
+        }
+
+        return new CountQuery("PostModel")
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(PostModelTable.IS_PAGE, getPages)
+                .equals(PostModelTable.IS_LOCAL_DRAFT, false)
+                .count();
+    }
+
+    /**
+     * @return the sync mark of the site's uploaded posts (or pages), i.e. the date the next incremental fetch starts
+     * from, or null if they were never synced. It's the most recent modification date of the posts received by the
+     * fetches applied with {@link #reconcileUploadedPostsForSite} and {@link #applyModifiedPostsForSite}, as an
+     * ISO 8601-formatted date in UTC. Posts pushed or fetched one by one don't move it: the other posts may have
+     * been modified since the last sync.
+     */
+    public static String getLastModifiedDate(SiteModel site, boolean getPages) {
+        if (site == null) {
+            return null;
+        }
+
+        PostSyncStateModel syncState = getSyncState(site.getId(), getPages);
+        if (syncState == null || TextUtils.isEmpty(syncState.getLastModified())) {
+            return null;
+        }
+        return syncState.getLastModified();
+    }
+
+    private static PostSyncStateModel getSyncState(int localSiteId, boolean pages) {
+        List<PostSyncStateModel> result = WellSql.select(PostSyncStateModel.class)
+                .where().beginGroup()
+                .equals(PostSyncStateModelTable.LOCAL_SITE_ID, localSiteId)
+                .equals(PostSyncStateModelTable.IS_PAGE, pages)
+                .endGroup().endWhere()
                 .getAsModel();
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Moves the sync mark of the site's posts (or pages) to the most recent modification date of the given synced
+     * posts, if it's more recent. Dates are compared as instants, the REST API sends them with the site's offset.
+     */
+    private static void updateLastModifiedDate(SiteModel site, boolean pages, List<PostModel> syncedPosts) {
+        Date lastModified = null;
+        for (PostModel post : syncedPosts) {
+            if (post == null || TextUtils.isEmpty(post.getDateModified())) {
+                continue;
+            }
+            Date dateModified = DateTimeUtils.dateUTCFromIso8601(post.getDateModified());
+            if (dateModified != null && (lastModified == null || dateModified.after(lastModified))) {
+                lastModified = dateModified;
+            }
+        }
+        if (lastModified == null) {
+            return;
+        }
+
+        PostSyncStateModel syncState = getSyncState(site.getId(), pages);
+        if (syncState == null) {
+            syncState = new PostSyncStateModel();
+            syncState.setLocalSiteId(site.getId());
+            syncState.setIsPage(pages);
+            syncState.setLastModified(DateTimeUtils.iso8601UTCFromDate(lastModified));
+            WellSql.insert(syncState).execute();
+            return;
+        }
+
+        Date storedLastModified = TextUtils.isEmpty(syncState.getLastModified()) ? null
+                : DateTimeUtils.dateUTCFromIso8601(syncState.getLastModified());
+        if (storedLastModified == null || lastModified.after(storedLastModified)) {
+            syncState.setLastModified(DateTimeUtils.iso8601UTCFromDate(lastModified));
+            WellSql.update(PostSyncStateModel.class).whereId(syncState.getId())
+                    .put(syncState, new UpdateAllExceptId<PostSyncStateModel>()).execute();
+        }
     }
 
     public static PostModel insertPostForResult(PostModel post) {
         WellSql.insert(post).asSingleTransaction(true).execute();
+        PostTermSqlUtils.setTermsForPost(post.getId(), null, post);
+        notifySitePostsChanged(post.getLocalSiteId(), 1);
 
         return post;
     }
@@ -122,13 +612,14 @@ public class PostSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(PostModel.class)
+        int rowsAffected = WellSql.delete(PostModel.class)
                 .where().beginGroup()
                 .equals(PostModelTable.ID, post.getId())
                 .equals(PostModelTable.LOCAL_SITE_ID, post.getLocalSiteId())
                 .endGroup()
                 .endWhere()
                 .execute();
+        return notifySitePostsDeleted(post.getLocalSiteId(), rowsAffected);
     }
 
     public static int deleteUploadedPostsForSite(SiteModel site, boolean pages) {
@@ -136,7 +627,7 @@ public class PostSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(PostModel.class)
+        int rowsAffected = WellSql.delete(PostModel.class)
                 .where().beginGroup()
                 .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
                 .equals(PostModelTable.IS_PAGE, pages)
@@ -145,9 +636,45 @@ public class PostSqlUtils {
                 .endGroup()
                 .endWhere()
                 .execute();
+        // The next fetch must be a full one
+        WellSql.delete(PostSyncStateModel.class)
+                .where().beginGroup()
+                .equals(PostSyncStateModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(PostSyncStateModelTable.IS_PAGE, pages)
+                .endGroup()
+                .endWhere()
+                .execute();
+        return notifySitePostsDeleted(site.getId(), rowsAffected);
     }
 
     public static int deleteAllPosts() {
-        return WellSql.delete(PostModel.class).execute();
+        int rowsAffected = WellSql.delete(PostModel.class).execute();
+        WellSql.delete(PostSyncStateModel.class).execute();
+        return notifySitePostsDeleted(TableChangeNotifier.ALL_SITES, rowsAffected);
+    }
+
+    private static int notifySitePostsChanged(int localSiteId, int rowsAffected) {
+        if (rowsAffected > 0) {
+            TableChangeNotifier.notifyTableChanged(PostModel.class, localSiteId);
+        }
+        return rowsAffected;
+    }
+
+    private static void notifySitePostsChanged(int localSiteId, ChangeSet changeSet) {
+        if (changeSet.getDeletedIds().isEmpty()) {
+            notifySitePostsChanged(localSiteId, changeSet.getRowsAffected());
+        } else {
+            notifySitePostsDeleted(localSiteId, changeSet.getRowsAffected());
+        }
+    }
+
+    /**
+     * The terms of the deleted posts are deleted with them, by {@link PostTermSqlUtils#DELETE_POST_TRIGGER}.
+     */
+    private static int notifySitePostsDeleted(int localSiteId, int rowsAffected) {
+        if (rowsAffected > 0) {
+            TableChangeNotifier.notifyTableChanged(PostTermModel.class, localSiteId);
+        }
+        return notifySitePostsChanged(localSiteId, rowsAffected);
     }
 }
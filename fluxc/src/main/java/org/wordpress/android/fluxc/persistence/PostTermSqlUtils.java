@@ -0,0 +1,212 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+import com.wellsql.generated.PostModelTable;
+import com.wellsql.generated.PostTermModelTable;
+import com.wellsql.generated.TermModelTable;
+import com.yarolegovich.wellsql.WellSql;
+import com.yarolegovich.wellsql.mapper.SelectMapper;
+
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
+import org.wordpress.android.fluxc.model.TermModel;
+import org.wordpress.android.fluxc.store.TaxonomyStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains and queries the {@link PostTermModel} table, the categories and tags of the stored posts, one row per
+ * post and term. Rows are written by {@link PostSqlUtils} with the posts, and deleted by a trigger when their post is.
+ */
+public class PostTermSqlUtils {
+    // Keeps IN clauses under SQLite's default limit of 999 bound variables
+    private static final int MAX_SQL_VARIABLES = 500;
+
+    static final String DELETE_POST_TRIGGER = "CREATE TRIGGER IF NOT EXISTS PostTermModel_delete_post "
+            + "AFTER DELETE ON PostModel BEGIN DELETE FROM PostTermModel WHERE "
+            + PostTermModelTable.LOCAL_POST_ID + " = old._id; END;";
+
+    /**
+     * Replaces the terms stored for the post row with the given local id by the terms of the given post.
+     *
+     * @param storedPost the previous version of the row if known, nothing is written when its terms are the same
+     */
+    static void setTermsForPost(int localPostId, PostModel storedPost, PostModel post) {
+        if (storedPost != null && storedPost.getLocalSiteId() == post.getLocalSiteId()
+                && storedPost.getCategoryIds().equals(post.getCategoryIds())
+                && storedPost.getTagNames().equals(post.getTagNames())) {
+            return;
+        }
+
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            db.delete("PostTermModel", PostTermModelTable.LOCAL_POST_ID + " = ?",
+                    new String[]{String.valueOf(localPostId)});
+            insertTermsForPost(db, localPostId, post.getLocalSiteId(), post.getCategoryIds(), post.getTagNames());
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        TableChangeNotifier.notifyTableChanged(PostTermModel.class, post.getLocalSiteId());
+    }
+
+    /**
+     * Fills the table from the stored posts, used when it's created on an existing database.
+     */
+    static void insertTermsForAllPosts(SQLiteDatabase db) {
+        Cursor cursor = db.query("PostModel", new String[]{PostModelTable.ID, PostModelTable.LOCAL_SITE_ID,
+                PostModelTable.CATEGORY_IDS, PostModelTable.TAG_NAMES}, null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                insertTermsForPost(db, cursor.getInt(0), cursor.getInt(1), cursor.getString(2), cursor.getString(3));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * @return the stored posts with the given term, local drafts first then most recent first
+     */
+    public static List<PostModel> getPostsForTerm(TermModel term) {
+        if (term == null || term.getTaxonomy() == null) {
+            return Collections.emptyList();
+        }
+
+        String sql = getPostsForTermSql(term.getTaxonomy());
+        String termKey = isReferencedByName(term.getTaxonomy())
+                ? term.getName() : String.valueOf(term.getRemoteTermId());
+        String[] args = {String.valueOf(term.getLocalSiteId()), term.getTaxonomy(), termKey};
+
+        List<PostModel> posts = new ArrayList<>();
+        SelectMapper<PostModel> mapper = WellSql.mapperFor(PostModel.class);
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                posts.add(mapper.convert(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return posts;
+    }
+
+    /**
+     * @return the query of {@link #getPostsForTerm}, with the local site id, taxonomy and term key as arguments
+     */
+    static String getPostsForTermSql(String taxonomyName) {
+        return "SELECT PostModel.* FROM PostTermModel JOIN PostModel ON PostModel._id = PostTermModel."
+                + PostTermModelTable.LOCAL_POST_ID + " WHERE PostTermModel." + PostTermModelTable.LOCAL_SITE_ID
+                + " = ? AND PostTermModel." + PostTermModelTable.TAXONOMY + " = ? AND PostTermModel."
+                + getTermKeyColumn(taxonomyName) + " = ? ORDER BY PostModel." + PostModelTable.IS_LOCAL_DRAFT
+                + " DESC, PostModel." + PostModelTable.DATE_CREATED + " DESC";
+    }
+
+    /**
+     * Looks up the terms of the given taxonomy of several posts at once, with one query per
+     * {@link #MAX_SQL_VARIABLES} posts.
+     *
+     * @return the stored terms of each post, by local post id, in the order of the post's term list. Posts without
+     * stored terms aren't in the map.
+     */
+    public static Map<Integer, List<TermModel>> getTermsForPosts(List<PostModel> posts, String taxonomyName) {
+        if (posts == null || posts.isEmpty() || taxonomyName == null) {
+            return Collections.emptyMap();
+        }
+
+        List<String> postIds = new ArrayList<>();
+        for (PostModel post : posts) {
+            if (post != null) {
+                postIds.add(String.valueOf(post.getId()));
+            }
+        }
+
+        Map<Integer, List<TermModel>> termsByPost = new HashMap<>();
+        SelectMapper<TermModel> mapper = WellSql.mapperFor(TermModel.class);
+        for (int start = 0; start < postIds.size(); start += MAX_SQL_VARIABLES) {
+            List<String> postIdsChunk = postIds.subList(start, Math.min(start + MAX_SQL_VARIABLES, postIds.size()));
+            String sql = getTermsForPostsSql(taxonomyName, postIdsChunk.size());
+            List<String> args = new ArrayList<>(postIdsChunk.size() + 1);
+            args.add(taxonomyName);
+            args.addAll(postIdsChunk);
+
+            Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql, args.toArray(new String[args.size()]));
+            try {
+                int postIdIndex = cursor.getColumnIndexOrThrow("POST_ID");
+                while (cursor.moveToNext()) {
+                    int postId = cursor.getInt(postIdIndex);
+                    List<TermModel> terms = termsByPost.get(postId);
+                    if (terms == null) {
+                        terms = new ArrayList<>();
+                        termsByPost.put(postId, terms);
+                    }
+                    terms.add(mapper.convert(cursor));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return termsByPost;
+    }
+
+    /**
+     * @return the query of {@link #getTermsForPosts} for the given number of posts, with the taxonomy then the local
+     * post ids as arguments
+     */
+    static String getTermsForPostsSql(String taxonomyName, int postCount) {
+        String keyColumn = getTermKeyColumn(taxonomyName);
+        String termColumn = isReferencedByName(taxonomyName) ? TermModelTable.NAME : TermModelTable.REMOTE_TERM_ID;
+        return "SELECT PostTermModel." + PostTermModelTable.LOCAL_POST_ID + " AS POST_ID, TermModel.* "
+                + "FROM PostTermModel JOIN TermModel ON TermModel." + TermModelTable.LOCAL_SITE_ID
+                + " = PostTermModel." + PostTermModelTable.LOCAL_SITE_ID + " AND TermModel."
+                + TermModelTable.TAXONOMY + " = PostTermModel." + PostTermModelTable.TAXONOMY + " AND TermModel."
+                + termColumn + " = PostTermModel." + keyColumn + " WHERE PostTermModel."
+                + PostTermModelTable.TAXONOMY + " = ? AND PostTermModel." + PostTermModelTable.LOCAL_POST_ID
+                + " IN (" + TextUtils.join(", ", Collections.nCopies(postCount, "?")) + ") ORDER BY PostTermModel._id";
+    }
+
+    private static void insertTermsForPost(SQLiteDatabase db, int localPostId, int localSiteId, String categoryIds,
+                                           String tagNames) {
+        PostModel post = new PostModel();
+        post.setCategoryIds(categoryIds);
+        post.setTagNames(tagNames);
+        for (Long categoryId : new LinkedHashSet<>(post.getCategoryIdList())) {
+            insertTerm(db, localPostId, localSiteId, TaxonomyStore.DEFAULT_TAXONOMY_CATEGORY, categoryId, null);
+        }
+        for (String tagName : new LinkedHashSet<>(post.getTagNameList())) {
+            insertTerm(db, localPostId, localSiteId, TaxonomyStore.DEFAULT_TAXONOMY_TAG, 0, tagName);
+        }
+    }
+
+    private static void insertTerm(SQLiteDatabase db, int localPostId, int localSiteId, String taxonomy,
+                                   long remoteTermId, String termName) {
+        ContentValues values = new ContentValues();
+        values.put(PostTermModelTable.LOCAL_POST_ID, localPostId);
+        values.put(PostTermModelTable.LOCAL_SITE_ID, localSiteId);
+        values.put(PostTermModelTable.TAXONOMY, taxonomy);
+        values.put(PostTermModelTable.REMOTE_TERM_ID, remoteTermId);
+        values.put(PostTermModelTable.TERM_NAME, termName);
+        db.insert("PostTermModel", null, values);
+    }
+
+    /**
+     * Posts reference their tags by name, and their categories by remote id.
+     */
+    private static boolean isReferencedByName(String taxonomyName) {
+        return TaxonomyStore.DEFAULT_TAXONOMY_TAG.equals(taxonomyName);
+    }
+
+    private static String getTermKeyColumn(String taxonomyName) {
+        return isReferencedByName(taxonomyName) ? PostTermModelTable.TERM_NAME : PostTermModelTable.REMOTE_TERM_ID;
+    }
+}
@@ -0,0 +1,120 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.yarolegovich.wellsql.WellSql;
+import com.yarolegovich.wellsql.core.Identifiable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a freshly fetched list (e.g. the first page of a site's posts) to its stored version, instead of deleting
+ * the stored rows and inserting the fetched ones:
+ *
+ * - fetched items are matched to the stored rows by key (usually their remote id)
+ * - unmatched items are inserted
+ * - matched items are updated only if their content fingerprint (all the columns except the local id) differs
+ * - stored rows matching no fetched item are deleted
+ *
+ * Everything happens in one transaction, and the fetched items get the local id of the row storing them.
+ */
+abstract class Reconciler<T extends Identifiable> {
+    private final Class<T> mTable;
+
+    Reconciler(Class<T> table) {
+        mTable = table;
+    }
+
+    /**
+     * @return the stored rows the fetched list replaces
+     */
+    abstract List<T> getStoredRows();
+
+    abstract Object getKey(T item);
+
+    /**
+     * @return false if the stored row must be kept as is, e.g. a post with local changes
+     */
+    boolean canOverwrite(T storedRow) {
+        return true;
+    }
+
+    /**
+     * @return false if the stored row must be kept when no fetched item matches it
+     */
+    boolean canDelete(T storedRow) {
+        return canOverwrite(storedRow);
+    }
+
+    /**
+     * Called in the transaction after a fetched item was inserted (storedRow is null) or updated, e.g. to maintain
+     * rows derived from it in other tables.
+     */
+    void onRowWritten(T storedRow, T item) {}
+
+    ChangeSet reconcile(List<T> fetchedItems) {
+        ChangeSet changeSet = new ChangeSet();
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            Map<Object, T> storedRowsByKey = new HashMap<>();
+            Map<Object, T> unmatchedRowsByKey = new HashMap<>();
+            for (T storedRow : getStoredRows()) {
+                Object key = getKey(storedRow);
+                if (storedRowsByKey.containsKey(key)) {
+                    // Duplicate row, only the first one is kept up to date
+                    deleteRow(storedRow, changeSet);
+                    continue;
+                }
+                storedRowsByKey.put(key, storedRow);
+                unmatchedRowsByKey.put(key, storedRow);
+            }
+
+            UpdateAllExceptId<T> mapper = new UpdateAllExceptId<>();
+            for (T item : fetchedItems) {
+                if (item == null) {
+                    continue;
+                }
+                Object key = getKey(item);
+                T storedRow = storedRowsByKey.get(key);
+                unmatchedRowsByKey.remove(key);
+                if (storedRow == null) {
+                    WellSql.insert(item).execute();
+                    onRowWritten(null, item);
+                    changeSet.addInserted(item.getId());
+                    // The same item can be returned twice in a page, the second occurrence must match this row
+                    storedRowsByKey.put(key, item);
+                    continue;
+                }
+                item.setId(storedRow.getId());
+                if (!canOverwrite(storedRow)) {
+                    continue;
+                }
+                ContentValues itemValues = mapper.toCv(item);
+                if (!itemValues.equals(mapper.toCv(storedRow))) {
+                    WellSql.update(mTable).whereId(storedRow.getId()).put(item, mapper).execute();
+                    onRowWritten(storedRow, item);
+                    changeSet.addUpdated(storedRow.getId());
+                    storedRowsByKey.put(key, item);
+                }
+            }
+
+            for (T unmatchedRow : unmatchedRowsByKey.values()) {
+                deleteRow(unmatchedRow, changeSet);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return changeSet;
+    }
+
+    private void deleteRow(T storedRow, ChangeSet changeSet) {
+        if (canDelete(storedRow) && WellSql.delete(mTable).whereId(storedRow.getId()) > 0) {
+            changeSet.addDeleted(storedRow.getId());
+        }
+    }
+}
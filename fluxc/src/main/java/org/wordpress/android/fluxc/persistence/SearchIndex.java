@@ -0,0 +1,213 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+import com.wellsql.generated.MediaModelTable;
+import com.wellsql.generated.PostModelTable;
+import com.wellsql.generated.SiteModelTable;
+import com.yarolegovich.wellsql.WellSql;
+import com.yarolegovich.wellsql.core.Identifiable;
+
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.SiteModel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search index over some text columns of a table: an FTS4 table whose docids are the local ids of the
+ * indexed rows. Triggers on the indexed table keep it up to date, whichever write path changes the rows.
+ */
+class SearchIndex {
+    static final SearchIndex POSTS = new SearchIndex(PostModel.class, "PostModel",
+            new String[]{PostModelTable.TITLE, PostModelTable.EXCERPT, PostModelTable.CONTENT},
+            new double[]{10, 4, 1});
+    static final SearchIndex MEDIA = new SearchIndex(MediaModel.class, "MediaModel",
+            new String[]{MediaModelTable.TITLE, MediaModelTable.CAPTION, MediaModelTable.FILE_NAME},
+            new double[]{10, 4, 2});
+    static final SearchIndex SITES = new SearchIndex(SiteModel.class, "SiteModel",
+            new String[]{SiteModelTable.NAME, SiteModelTable.URL},
+            new double[]{10, 5});
+
+    private static final SearchIndex[] ALL = {POSTS, MEDIA, SITES};
+
+    // Keeps IN clauses under SQLite's default limit of 999 bound variables
+    private static final int MAX_SQL_VARIABLES = 500;
+
+    private final Class<? extends Identifiable> mModelClass;
+    private final String mTableName;
+    private final String mIndexName;
+    private final String[] mColumns;
+    private final double[] mWeights;
+
+    private SearchIndex(Class<? extends Identifiable> modelClass, String tableName, String[] columns,
+                        double[] weights) {
+        mModelClass = modelClass;
+        mTableName = tableName;
+        mIndexName = tableName + "Fts";
+        mColumns = columns;
+        mWeights = weights;
+    }
+
+    /**
+     * @return the search index of the given model class, or null if that table isn't indexed
+     */
+    static SearchIndex forTable(Class table) {
+        for (SearchIndex searchIndex : ALL) {
+            if (searchIndex.mModelClass.equals(table)) {
+                return searchIndex;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * (Re)creates the index and its triggers, and fills it with the rows currently in the indexed table.
+     */
+    void create(SQLiteDatabase db) {
+        String columns = TextUtils.join(", ", mColumns);
+        db.execSQL("DROP TABLE IF EXISTS " + mIndexName + ";");
+        db.execSQL("CREATE VIRTUAL TABLE " + mIndexName + " USING fts4(" + columns + ");");
+        db.execSQL("INSERT INTO " + mIndexName + " (docid, " + columns + ") SELECT _id, " + columns
+                + " FROM " + mTableName + ";");
+
+        String insertNewRow = "INSERT INTO " + mIndexName + " (docid, " + columns + ") VALUES (new._id, "
+                + TextUtils.join(", ", prefixColumns("new.")) + ");";
+        String deleteOldRow = "DELETE FROM " + mIndexName + " WHERE docid = old._id;";
+        createTrigger(db, "insert", "AFTER INSERT ON " + mTableName, insertNewRow);
+        createTrigger(db, "update", "AFTER UPDATE OF _id, " + columns + " ON " + mTableName,
+                deleteOldRow + " " + insertNewRow);
+        createTrigger(db, "delete", "AFTER DELETE ON " + mTableName, deleteOldRow);
+    }
+
+    /**
+     * Looks up the rows matching every word of the search string, each word matching the start of a word of an
+     * indexed column (so "word" matches "WordPress", but not "password").
+     *
+     * @param selection optional filter on the indexed table's columns, prefixed with its name
+     * @return the local ids of the matching rows, best matches (most hits on the heaviest columns) first
+     */
+    List<Integer> search(String searchString, String selection, String[] selectionArgs) {
+        String matchQuery = toMatchQuery(searchString);
+        if (matchQuery == null) {
+            return Collections.emptyList();
+        }
+
+        String sql = "SELECT " + mIndexName + ".docid, matchinfo(" + mIndexName + ", 'pcx') FROM " + mIndexName
+                + " JOIN " + mTableName + " ON " + mTableName + "._id = " + mIndexName + ".docid WHERE "
+                + mIndexName + " MATCH ?";
+        List<String> args = new ArrayList<>();
+        args.add(matchQuery);
+        if (selection != null) {
+            sql += " AND " + selection;
+            Collections.addAll(args, selectionArgs);
+        }
+
+        final Map<Integer, Double> scores = new HashMap<>();
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql, args.toArray(new String[args.size()]));
+        try {
+            while (cursor.moveToNext()) {
+                scores.put(cursor.getInt(0), score(cursor.getBlob(1)));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        List<Integer> ids = new ArrayList<>(scores.keySet());
+        Collections.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                int byScore = Double.compare(scores.get(rhs), scores.get(lhs));
+                // Most recently inserted rows first among equally good matches
+                return byScore != 0 ? byScore : rhs.compareTo(lhs);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * @return the models with the given local ids, in the same order
+     */
+    static <T extends Identifiable> List<T> getModels(Class<T> modelClass, List<Integer> ids) {
+        Map<Integer, T> modelsById = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += MAX_SQL_VARIABLES) {
+            List<Integer> idsChunk = ids.subList(start, Math.min(start + MAX_SQL_VARIABLES, ids.size()));
+            for (T model : WellSql.select(modelClass).where().isIn("_id", idsChunk).endWhere().getAsModel()) {
+                modelsById.put(model.getId(), model);
+            }
+        }
+        List<T> models = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            T model = modelsById.get(id);
+            if (model != null) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Same as the SQLite documentation's example ranking: each hit in a column counts for the column weight,
+     * divided by the number of hits of the same word in that column across all rows, so rare words count more.
+     */
+    private double score(byte[] matchInfo) {
+        IntBuffer values = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phraseCount = values.get(0);
+        int columnCount = values.get(1);
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int offset = 2 + 3 * (phrase * columnCount + column);
+                int rowHits = values.get(offset);
+                int allHits = values.get(offset + 1);
+                if (rowHits > 0) {
+                    score += mWeights[column] * rowHits / allHits;
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Turns user input into an FTS query matching rows containing all its words as prefixes. Words are split the way
+     * the default tokenizer splits indexed text, and quoted so they can't be read as query operators.
+     *
+     * @return null if the search string doesn't contain any word
+     */
+    static String toMatchQuery(String searchString) {
+        if (searchString == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : searchString.split("[^A-Za-z0-9\\u0080-\\uffff]+")) {
+            if (!word.isEmpty()) {
+                terms.add("\"" + word + "*\"");
+            }
+        }
+        return terms.isEmpty() ? null : TextUtils.join(" ", terms);
+    }
+
+    private void createTrigger(SQLiteDatabase db, String event, String when, String statements) {
+        String triggerName = mIndexName + "_" + event;
+        db.execSQL("DROP TRIGGER IF EXISTS " + triggerName + ";");
+        db.execSQL("CREATE TRIGGER " + triggerName + " " + when + " BEGIN " + statements + " END;");
+    }
+
+    private String[] prefixColumns(String prefix) {
+        String[] prefixed = new String[mColumns.length];
+        for (int i = 0; i < mColumns.length; i++) {
+            prefixed[i] = prefix + mColumns[i];
+        }
+        return prefixed;
+    }
+}
@@ -0,0 +1,119 @@
+package org.wordpress.android.fluxc.persistence;
+
+import org.wordpress.android.fluxc.model.SiteModel;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * In-memory copy of the sites looked up by local id or remote site id, so that resolving a site doesn't hit the
+ * database every time.
+ *
+ * Kept coherent by {@link SiteSqlUtils}: every write to the sites table invalidates the entries it can change. Sites
+ * are copied in and out of the cache, callers can change the models they get without changing the cached ones.
+ */
+public class SiteCache {
+    private final Map<Integer, SiteModel> mSitesByLocalId = new HashMap<>();
+    // Local id of the first site matching a remote id on SITE_ID
+    private final Map<Long, Integer> mLocalIdsBySiteId = new HashMap<>();
+    // Local id of the first site matching a remote id on SITE_ID or SELF_HOSTED_SITE_ID
+    private final Map<Long, Integer> mLocalIdsByRemoteId = new HashMap<>();
+    // Incremented on every invalidation, a value read from the database before it must not be cached
+    private int mGeneration;
+    private int mHitCount;
+    private int mMissCount;
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    synchronized int getGeneration() {
+        return mGeneration;
+    }
+
+    synchronized SiteModel getSiteByLocalId(int localId) {
+        SiteModel site = mSitesByLocalId.get(localId);
+        countLookup(site != null);
+        return site == null ? null : site.clone();
+    }
+
+    synchronized SiteModel getSiteBySiteId(long siteId) {
+        Integer localId = mLocalIdsBySiteId.get(siteId);
+        SiteModel site = localId == null ? null : mSitesByLocalId.get(localId);
+        countLookup(site != null);
+        return site == null ? null : site.clone();
+    }
+
+    /**
+     * @return the cached local id, or null if the remote id wasn't looked up since the last invalidation
+     */
+    synchronized Integer getLocalIdForRemoteId(long remoteId) {
+        Integer localId = mLocalIdsByRemoteId.get(remoteId);
+        countLookup(localId != null);
+        return localId;
+    }
+
+    /**
+     * Caches a site read from the database, unless the cache was invalidated since the given generation.
+     */
+    synchronized void putSite(SiteModel site, boolean matchedBySiteId, int generation) {
+        if (site == null || generation != mGeneration) {
+            return;
+        }
+        mSitesByLocalId.put(site.getId(), site.clone());
+        if (matchedBySiteId) {
+            mLocalIdsBySiteId.put(site.getSiteId(), site.getId());
+        }
+    }
+
+    synchronized void putLocalIdForRemoteId(long remoteId, int localId, int generation) {
+        if (generation != mGeneration) {
+            return;
+        }
+        mLocalIdsByRemoteId.put(remoteId, localId);
+    }
+
+    /**
+     * Drops the site with the given local id, and the remote id lookups the given site could now match.
+     */
+    synchronized void invalidate(int localId, SiteModel site) {
+        mGeneration++;
+        mSitesByLocalId.remove(localId);
+        removeLocalId(mLocalIdsBySiteId, localId);
+        removeLocalId(mLocalIdsByRemoteId, localId);
+        if (site != null) {
+            mLocalIdsBySiteId.remove(site.getSiteId());
+            mLocalIdsByRemoteId.remove(site.getSiteId());
+            mLocalIdsByRemoteId.remove(site.getSelfHostedSiteId());
+        }
+    }
+
+    synchronized void clear() {
+        mGeneration++;
+        mSitesByLocalId.clear();
+        mLocalIdsBySiteId.clear();
+        mLocalIdsByRemoteId.clear();
+    }
+
+    private void countLookup(boolean hit) {
+        if (hit) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+    }
+
+    private static void removeLocalId(Map<Long, Integer> localIdsByRemoteId, int localId) {
+        Iterator<Integer> iterator = localIdsByRemoteId.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == localId) {
+                iterator.remove();
+            }
+        }
+    }
+}
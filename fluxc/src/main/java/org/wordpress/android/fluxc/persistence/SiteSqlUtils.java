@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteConstraintException;
 import android.support.annotation.NonNull;
 
@@ -9,6 +10,7 @@ import com.wellsql.generated.SiteModelTable;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellSql;
 import com.yarolegovich.wellsql.mapper.InsertMapper;
+import com.yarolegovich.wellsql.mapper.SelectMapper;
 
 import org.wordpress.android.fluxc.model.PostFormatModel;
 import org.wordpress.android.fluxc.model.SiteModel;
@@ -22,6 +24,74 @@ public class SiteSqlUtils {
     public static class DuplicateSiteException extends Exception {
     }
 
+    // Every write to the sites table below must invalidate it
+    private static final SiteCache SITE_CACHE = new SiteCache();
+
+    public static SiteCache getSiteCache() {
+        return SITE_CACHE;
+    }
+
+    public static SiteModel getSiteByLocalId(int localId) {
+        SiteModel site = SITE_CACHE.getSiteByLocalId(localId);
+        if (site != null) {
+            return site;
+        }
+
+        int generation = SITE_CACHE.getGeneration();
+        List<SiteModel> result = getSitesWith(SiteModelTable.ID, localId).getAsModel();
+        if (result.isEmpty()) {
+            return null;
+        }
+        SITE_CACHE.putSite(result.get(0), false, generation);
+        return result.get(0);
+    }
+
+    public static SiteModel getSiteBySiteId(long siteId) {
+        SiteModel site = SITE_CACHE.getSiteBySiteId(siteId);
+        if (site != null) {
+            return site;
+        }
+
+        int generation = SITE_CACHE.getGeneration();
+        List<SiteModel> result = getSitesWith(SiteModelTable.SITE_ID, siteId).getAsModel();
+        if (result.isEmpty()) {
+            return null;
+        }
+        SITE_CACHE.putSite(result.get(0), true, generation);
+        return result.get(0);
+    }
+
+    /**
+     * @return the local id of the first site matching the remote id on SITE_ID or SELF_HOSTED_SITE_ID, 0 if none
+     */
+    public static int getLocalIdForRemoteSiteId(long remoteId) {
+        Integer localId = SITE_CACHE.getLocalIdForRemoteId(remoteId);
+        if (localId != null) {
+            return localId;
+        }
+
+        int generation = SITE_CACHE.getGeneration();
+        List<SiteModel> sites = WellSql.select(SiteModel.class)
+                .where().beginGroup()
+                .equals(SiteModelTable.SITE_ID, remoteId)
+                .or()
+                .equals(SiteModelTable.SELF_HOSTED_SITE_ID, remoteId)
+                .endGroup().endWhere()
+                .getAsModel(new SelectMapper<SiteModel>() {
+                    @Override
+                    public SiteModel convert(Cursor cursor) {
+                        SiteModel siteModel = new SiteModel();
+                        siteModel.setId(cursor.getInt(cursor.getColumnIndex(SiteModelTable.ID)));
+                        return siteModel;
+                    }
+                });
+        if (sites.isEmpty()) {
+            return 0;
+        }
+        SITE_CACHE.putLocalIdForRemoteId(remoteId, sites.get(0).getId(), generation);
+        return sites.get(0).getId();
+    }
+
     public static SelectQuery<SiteModel> getSitesWith(String field, Object value) {
         return WellSql.select(SiteModel.class)
                 .where().equals(field, value).endWhere();
@@ -32,6 +102,14 @@ public class SiteSqlUtils {
                 .where().equals(field, value).endWhere();
     }
 
+    public static int getSitesCount() {
+        return new CountQuery("SiteModel").count();
+    }
+
+    public static int getSitesCountWith(String field, Object value) {
+        return new CountQuery("SiteModel").equals(field, value).count();
+    }
+
     public static List<SiteModel> getWPComAndJetpackSitesByNameOrUrlMatching(String searchString) {
         // Note: by default SQLite "LIKE" operator is case insensitive, and that's what we're looking for.
         return WellSql.select(SiteModel.class).where()
@@ -53,6 +131,15 @@ public class SiteSqlUtils {
                 .endWhere().getAsModel();
     }
 
+    /**
+     * Full-text search of the sites on their name and url.
+     *
+     * @return the sites containing all the words of the search string (as prefixes), best matches first
+     */
+    public static List<SiteModel> searchSites(String searchString) {
+        return SearchIndex.getModels(SiteModel.class, SearchIndex.SITES.search(searchString, null, null));
+    }
+
     /**
      * Inserts the given SiteModel into the DB, or updates an existing entry where sites match.
      *
@@ -82,19 +169,12 @@ public class SiteSqlUtils {
         if (siteResult.isEmpty()) {
             if (site.getSiteId() > 0) {
                 // For WordPress.com and Jetpack sites, the WP.com ID is a unique enough identifier
-                siteResult = WellSql.select(SiteModel.class)
-                        .where().beginGroup()
-                        .equals(SiteModelTable.SITE_ID, site.getSiteId())
-                        .endGroup().endWhere().getAsModel();
+                siteResult = getSitesWith(SiteModelTable.SITE_ID, site.getSiteId()).getAsModel();
                 if (!siteResult.isEmpty()) {
                     AppLog.d(T.DB, "Site found by SITE_ID: " + site.getSiteId());
                 }
             } else {
-                siteResult = WellSql.select(SiteModel.class)
-                        .where().beginGroup()
-                        .equals(SiteModelTable.SITE_ID, site.getSiteId())
-                        .equals(SiteModelTable.URL, site.getUrl())
-                        .endGroup().endWhere().getAsModel();
+                siteResult = getSitesWithRemoteIdAndUrlQuery(site.getSiteId(), site.getUrl()).getAsModel();
                 if (!siteResult.isEmpty()) {
                     AppLog.d(T.DB, "Site found by SITE_ID: " + site.getSiteId() + " and URL: " + site.getUrl());
                 }
@@ -104,16 +184,7 @@ public class SiteSqlUtils {
         // If the site is a self hosted, maybe it's already in the DB as a Jetpack site, and we don't want to create
         // a duplicate.
         if (siteResult.isEmpty()) {
-            String forcedHttpXmlRpcUrl = "http://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
-            String forcedHttpsXmlRpcUrl = "https://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
-
-            siteResult = WellSql.select(SiteModel.class)
-                    .where()
-                    .beginGroup()
-                    .equals(SiteModelTable.XMLRPC_URL, forcedHttpXmlRpcUrl)
-                    .or().equals(SiteModelTable.XMLRPC_URL, forcedHttpsXmlRpcUrl)
-                    .endGroup()
-                    .endWhere().getAsModel();
+            siteResult = getSitesWithXmlRpcUrlQuery(site.getXmlRpcUrl()).getAsModel();
             if (!siteResult.isEmpty()) {
                 AppLog.d(T.DB, "Site found using XML-RPC url: " + site.getXmlRpcUrl());
                 // If the site already in the DB is a self hosted and the new one is a Jetpack connected site, it means
@@ -131,14 +202,19 @@ public class SiteSqlUtils {
             // No site with this local ID, REMOTE_ID + URL, or XMLRPC URL, then insert it
             AppLog.d(T.DB, "Inserting site: " + site.getUrl());
             WellSql.insert(site).asSingleTransaction(true).execute();
+            SITE_CACHE.invalidate(site.getId(), site);
+            TableChangeNotifier.notifyTableChanged(SiteModel.class, site.getId());
             return 1;
         } else {
             // Update old site
             AppLog.d(T.DB, "Updating site: " + site.getUrl());
             int oldId = siteResult.get(0).getId();
             try {
-                return WellSql.update(SiteModel.class).whereId(oldId)
+                int rowsAffected = WellSql.update(SiteModel.class).whereId(oldId)
                         .put(site, new UpdateAllExceptId<SiteModel>()).execute();
+                SITE_CACHE.invalidate(oldId, site);
+                TableChangeNotifier.notifyTableChanged(SiteModel.class, oldId);
+                return rowsAffected;
             } catch (SQLiteConstraintException e) {
                 AppLog.e(T.DB, "Error while updating site: siteId=" + site.getSiteId() + " url=" + site.getUrl()
                         + " xmlrpc=" + site.getXmlRpcUrl(), e);
@@ -149,24 +225,56 @@ public class SiteSqlUtils {
         }
     }
 
+    static SelectQuery<SiteModel> getSitesWithRemoteIdAndUrlQuery(long remoteId, String url) {
+        return WellSql.select(SiteModel.class)
+                .where().beginGroup()
+                .equals(SiteModelTable.SITE_ID, remoteId)
+                .equals(SiteModelTable.URL, url)
+                .endGroup().endWhere();
+    }
+
+    /**
+     * @return the sites with the given XML-RPC url, whether it's on http or https
+     */
+    static SelectQuery<SiteModel> getSitesWithXmlRpcUrlQuery(String xmlRpcUrl) {
+        String forcedHttpXmlRpcUrl = "http://" + UrlUtils.removeScheme(xmlRpcUrl);
+        String forcedHttpsXmlRpcUrl = "https://" + UrlUtils.removeScheme(xmlRpcUrl);
+
+        return WellSql.select(SiteModel.class)
+                .where()
+                .beginGroup()
+                .equals(SiteModelTable.XMLRPC_URL, forcedHttpXmlRpcUrl)
+                .or().equals(SiteModelTable.XMLRPC_URL, forcedHttpsXmlRpcUrl)
+                .endGroup()
+                .endWhere();
+    }
+
     public static int deleteSite(SiteModel site) {
         if (site == null) {
             return 0;
         }
-        return WellSql.delete(SiteModel.class)
+        int rowsAffected = WellSql.delete(SiteModel.class)
                  .where().equals(SiteModelTable.ID, site.getId()).endWhere()
                  .execute();
+        SITE_CACHE.invalidate(site.getId(), site);
+        TableChangeNotifier.notifyLocalDeletion();
+        TableChangeNotifier.notifyTableChanged(SiteModel.class, site.getId());
+        return rowsAffected;
     }
 
     public static int deleteAllSites() {
-        return WellSql.delete(SiteModel.class).execute();
+        int rowsAffected = WellSql.delete(SiteModel.class).execute();
+        SITE_CACHE.clear();
+        TableChangeNotifier.notifyLocalDeletion();
+        TableChangeNotifier.notifyTableChanged(SiteModel.class, TableChangeNotifier.ALL_SITES);
+        return rowsAffected;
     }
 
     public static int setSiteVisibility(SiteModel site, boolean visible) {
         if (site == null) {
             return 0;
         }
-        return WellSql.update(SiteModel.class)
+        int rowsAffected = WellSql.update(SiteModel.class)
                 .whereId(site.getId())
                 .where().equals(SiteModelTable.IS_WPCOM, true).endWhere()
                 .put(visible, new InsertMapper<Boolean>() {
@@ -177,6 +285,9 @@ public class SiteSqlUtils {
                         return cv;
                     }
                 }).execute();
+        SITE_CACHE.invalidate(site.getId(), null);
+        TableChangeNotifier.notifyTableChanged(SiteModel.class, site.getId());
+        return rowsAffected;
     }
 
     public static SelectQuery<SiteModel> getWPComSites() {
@@ -195,6 +306,13 @@ public class SiteSqlUtils {
                 .endGroup().endWhere();
     }
 
+    public static int getSelfHostedSitesCount() {
+        return new CountQuery("SiteModel")
+                .equals(SiteModelTable.IS_WPCOM, false)
+                .equals(SiteModelTable.IS_JETPACK_CONNECTED, false)
+                .count();
+    }
+
     public static SelectQuery<SiteModel> getWPComAndJetpackSites() {
         return WellSql.select(SiteModel.class)
                 .where().beginGroup()
@@ -203,11 +321,24 @@ public class SiteSqlUtils {
                 .endGroup().endWhere();
     }
 
+    public static int getWPComAndJetpackSitesCount(boolean visibleOnly) {
+        CountQuery query = new CountQuery("SiteModel")
+                .equalsAny(true, SiteModelTable.IS_WPCOM, SiteModelTable.IS_JETPACK_CONNECTED);
+        if (visibleOnly) {
+            query.equals(SiteModelTable.IS_VISIBLE, true);
+        }
+        return query.count();
+    }
+
     public static List<PostFormatModel> getPostFormats(@NonNull SiteModel site) {
+        return getPostFormatsQuery(site).getAsModel();
+    }
+
+    static SelectQuery<PostFormatModel> getPostFormatsQuery(@NonNull SiteModel site) {
         return WellSql.select(PostFormatModel.class)
                 .where()
                 .equals(PostFormatModelTable.SITE_ID, site.getId())
-                .endWhere().getAsModel();
+                .endWhere();
     }
 
     public static void insertOrReplacePostFormats(@NonNull SiteModel site, @NonNull List<PostFormatModel> postFormats) {
@@ -221,5 +352,6 @@ public class SiteSqlUtils {
             postFormat.setSiteId(site.getId());
         }
         WellSql.insert(postFormats).execute();
+        TableChangeNotifier.notifyTableChanged(PostFormatModel.class, site.getId());
     }
 }
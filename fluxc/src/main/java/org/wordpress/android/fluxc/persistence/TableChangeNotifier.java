@@ -0,0 +1,111 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.support.annotation.NonNull;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tells the registered listeners which tables the SqlUtils classes wrote to, and for which site, so that the live
+ * queries ({@link org.wordpress.android.fluxc.LiveQuery}) only run again when their data may have changed.
+ *
+ * Writes made in a transaction are announced once the writing thread is out of its transactions, so that listeners
+ * reading the tables from other threads see them.
+ */
+public class TableChangeNotifier {
+    /**
+     * Site id of a change to the rows of any site, e.g. when a table is cleared.
+     */
+    public static final int ALL_SITES = -1;
+
+    public interface TableChangeListener {
+        void onTableChanged(@NonNull Class<?> table, int localSiteId);
+    }
+
+    private static final List<TableChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger LOCAL_DELETION_COUNT = new AtomicInteger();
+
+    private static final ThreadLocal<Set<TableChange>> PENDING_CHANGES = new ThreadLocal<Set<TableChange>>() {
+        @Override
+        protected Set<TableChange> initialValue() {
+            return new LinkedHashSet<>();
+        }
+    };
+
+    public static void addListener(@NonNull TableChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(@NonNull TableChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Announces a write to the rows of the given site in the given table, or to the rows of all sites if the site id
+     * is {@link #ALL_SITES}.
+     */
+    static void notifyTableChanged(@NonNull Class<?> table, int localSiteId) {
+        Set<TableChange> pendingChanges = PENDING_CHANGES.get();
+        pendingChanges.add(new TableChange(table, localSiteId));
+        if (LISTENERS.isEmpty()) {
+            pendingChanges.clear();
+            return;
+        }
+        if (WellSql.giveMeWritableDb().inTransaction()) {
+            // Announced with the next change made out of a transaction, which the SqlUtils methods opening
+            // transactions make once they're done
+            return;
+        }
+
+        TableChange[] changes = pendingChanges.toArray(new TableChange[pendingChanges.size()]);
+        pendingChanges.clear();
+        for (TableChange change : changes) {
+            for (TableChangeListener listener : LISTENERS) {
+                listener.onTableChanged(change.mTable, change.mLocalSiteId);
+            }
+        }
+    }
+
+    /**
+     * @return a count increased each time rows are deleted locally rather than replaced with the rows of a response
+     * (sites removed, terms cleared, tables reset...). The caches assuming the database still holds what the last
+     * responses contained, like the {@link org.wordpress.android.fluxc.network.ResponseValidatorCache}, are stale once
+     * it changed.
+     */
+    public static int getLocalDeletionCount() {
+        return LOCAL_DELETION_COUNT.get();
+    }
+
+    static void notifyLocalDeletion() {
+        LOCAL_DELETION_COUNT.incrementAndGet();
+    }
+
+    private static class TableChange {
+        private final Class<?> mTable;
+        private final int mLocalSiteId;
+
+        TableChange(Class<?> table, int localSiteId) {
+            mTable = table;
+            mLocalSiteId = localSiteId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof TableChange)) {
+                return false;
+            }
+            TableChange change = (TableChange) other;
+            return mTable.equals(change.mTable) && mLocalSiteId == change.mLocalSiteId;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mTable.hashCode() + mLocalSiteId;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence;
 
 import com.wellsql.generated.TermModelTable;
+import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellSql;
 
 import org.wordpress.android.fluxc.model.SiteModel;
@@ -15,7 +16,21 @@ public class TaxonomySqlUtils {
             return 0;
         }
 
-        List<TermModel> termResult = WellSql.select(TermModel.class)
+        List<TermModel> termResult = getExistingTermQuery(term).getAsModel();
+
+        if (termResult.isEmpty()) {
+            // insert
+            WellSql.insert(term).asSingleTransaction(true).execute();
+            return notifySiteTermsChanged(term.getLocalSiteId(), 1);
+        } else {
+            int rowsAffected = WellSql.update(TermModel.class).whereId(termResult.get(0).getId())
+                    .put(term, new UpdateAllExceptId<TermModel>()).execute();
+            return notifySiteTermsChanged(term.getLocalSiteId(), rowsAffected);
+        }
+    }
+
+    static SelectQuery<TermModel> getExistingTermQuery(TermModel term) {
+        return WellSql.select(TermModel.class)
                 .where().beginGroup()
                 .equals(TermModelTable.ID, term.getId())
                 .or()
@@ -24,20 +39,12 @@ public class TaxonomySqlUtils {
                 .equals(TermModelTable.LOCAL_SITE_ID, term.getLocalSiteId())
                 .equals(TermModelTable.TAXONOMY, term.getTaxonomy())
                 .endGroup()
-                .endGroup().endWhere().getAsModel();
-
-        if (termResult.isEmpty()) {
-            // insert
-            WellSql.insert(term).asSingleTransaction(true).execute();
-            return 1;
-        } else {
-            return WellSql.update(TermModel.class).whereId(termResult.get(0).getId())
-                    .put(term, new UpdateAllExceptId<TermModel>()).execute();
-        }
+                .endGroup().endWhere();
     }
 
     public static TermModel insertTermForResult(TermModel term) {
         WellSql.insert(term).asSingleTransaction(true).execute();
+        notifySiteTermsChanged(term.getLocalSiteId(), 1);
 
         return term;
     }
@@ -47,12 +54,15 @@ public class TaxonomySqlUtils {
             return Collections.emptyList();
         }
 
+        return getTermsForSiteQuery(site, taxonomyName).getAsModel();
+    }
+
+    static SelectQuery<TermModel> getTermsForSiteQuery(SiteModel site, String taxonomyName) {
         return WellSql.select(TermModel.class)
                 .where().beginGroup()
                 .equals(TermModelTable.LOCAL_SITE_ID, site.getId())
                 .equals(TermModelTable.TAXONOMY, taxonomyName)
-                .endGroup().endWhere()
-                .getAsModel();
+                .endGroup().endWhere();
     }
 
     public static TermModel getTermByRemoteId(SiteModel site, long remoteTermId, String taxonomyName) {
@@ -60,13 +70,7 @@ public class TaxonomySqlUtils {
             return null;
         }
 
-        List<TermModel> termResult = WellSql.select(TermModel.class)
-                .where().beginGroup()
-                .equals(TermModelTable.LOCAL_SITE_ID, site.getId())
-                .equals(TermModelTable.REMOTE_TERM_ID, remoteTermId)
-                .equals(TermModelTable.TAXONOMY, taxonomyName)
-                .endGroup().endWhere()
-                .getAsModel();
+        List<TermModel> termResult = getTermByRemoteIdQuery(site, remoteTermId, taxonomyName).getAsModel();
 
         if (!termResult.isEmpty()) {
             return termResult.get(0);
@@ -74,18 +78,21 @@ public class TaxonomySqlUtils {
         return null;
     }
 
+    static SelectQuery<TermModel> getTermByRemoteIdQuery(SiteModel site, long remoteTermId, String taxonomyName) {
+        return WellSql.select(TermModel.class)
+                .where().beginGroup()
+                .equals(TermModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(TermModelTable.REMOTE_TERM_ID, remoteTermId)
+                .equals(TermModelTable.TAXONOMY, taxonomyName)
+                .endGroup().endWhere();
+    }
+
     public static TermModel getTermByName(SiteModel site, String termName, String taxonomyName) {
         if (site == null || taxonomyName == null) {
             return null;
         }
 
-        List<TermModel> termResult = WellSql.select(TermModel.class)
-                .where().beginGroup()
-                .equals(TermModelTable.LOCAL_SITE_ID, site.getId())
-                .equals(TermModelTable.NAME, termName)
-                .equals(TermModelTable.TAXONOMY, taxonomyName)
-                .endGroup().endWhere()
-                .getAsModel();
+        List<TermModel> termResult = getTermByNameQuery(site, termName, taxonomyName).getAsModel();
 
         if (!termResult.isEmpty()) {
             return termResult.get(0);
@@ -93,6 +100,15 @@ public class TaxonomySqlUtils {
         return null;
     }
 
+    static SelectQuery<TermModel> getTermByNameQuery(SiteModel site, String termName, String taxonomyName) {
+        return WellSql.select(TermModel.class)
+                .where().beginGroup()
+                .equals(TermModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(TermModelTable.NAME, termName)
+                .equals(TermModelTable.TAXONOMY, taxonomyName)
+                .endGroup().endWhere();
+    }
+
     public static List<TermModel> getTermsFromRemoteIdList(List<Long> remoteTermIds, SiteModel site,
                                                            String taxonomyName) {
         if (taxonomyName == null || remoteTermIds == null || remoteTermIds.isEmpty()) {
@@ -123,20 +139,56 @@ public class TaxonomySqlUtils {
                 .getAsModel();
     }
 
+    /**
+     * Reconciles the site's terms of the given taxonomy with their freshly fetched version, see {@link Reconciler}.
+     */
+    public static ChangeSet reconcileTaxonomyForSite(final SiteModel site, final String taxonomyName,
+                                                     List<TermModel> terms) {
+        if (site == null || taxonomyName == null) {
+            return new ChangeSet();
+        }
+
+        Reconciler<TermModel> reconciler = new Reconciler<TermModel>(TermModel.class) {
+            @Override
+            List<TermModel> getStoredRows() {
+                return getTermsForSite(site, taxonomyName);
+            }
+
+            @Override
+            Object getKey(TermModel term) {
+                return term.getRemoteTermId();
+            }
+        };
+        ChangeSet changeSet = reconciler.reconcile(terms);
+        notifySiteTermsChanged(site.getId(), changeSet.getRowsAffected());
+        return changeSet;
+    }
+
     public static int clearTaxonomyForSite(SiteModel site, String taxonomyName) {
         if (site == null || taxonomyName == null) {
             return 0;
         }
 
-        return WellSql.delete(TermModel.class)
+        int rowsAffected = WellSql.delete(TermModel.class)
                 .where().beginGroup()
                 .equals(TermModelTable.LOCAL_SITE_ID, site.getId())
                 .equals(TermModelTable.TAXONOMY, taxonomyName)
                 .endGroup().endWhere()
                 .execute();
+        TableChangeNotifier.notifyLocalDeletion();
+        return notifySiteTermsChanged(site.getId(), rowsAffected);
     }
 
     public static int deleteAllTerms() {
-        return WellSql.delete(TermModel.class).execute();
+        int rowsAffected = WellSql.delete(TermModel.class).execute();
+        TableChangeNotifier.notifyLocalDeletion();
+        return notifySiteTermsChanged(TableChangeNotifier.ALL_SITES, rowsAffected);
+    }
+
+    private static int notifySiteTermsChanged(int localSiteId, int rowsAffected) {
+        if (rowsAffected > 0) {
+            TableChangeNotifier.notifyTableChanged(TermModel.class, localSiteId);
+        }
+        return rowsAffected;
     }
 }
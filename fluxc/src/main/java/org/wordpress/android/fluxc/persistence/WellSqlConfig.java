@@ -2,6 +2,8 @@ package org.wordpress.android.fluxc.persistence;
 
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.text.TextUtils;
 
 import com.yarolegovich.wellsql.DefaultWellConfig;
 import com.yarolegovich.wellsql.WellSql;
@@ -14,6 +16,8 @@ import org.wordpress.android.fluxc.model.CommentModel;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.PostFormatModel;
 import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostSyncStateModel;
+import org.wordpress.android.fluxc.model.PostTermModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.TaxonomyModel;
 import org.wordpress.android.fluxc.model.TermModel;
@@ -21,9 +25,14 @@ import org.wordpress.android.fluxc.network.HTTPAuthModel;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class WellSqlConfig extends DefaultWellConfig {
+    private boolean mWriteAheadLoggingEnabled;
+
     public WellSqlConfig(Context context) {
         super(context);
     }
@@ -34,15 +43,47 @@ public class WellSqlConfig extends DefaultWellConfig {
             MediaModel.class,
             PostFormatModel.class,
             PostModel.class,
+            PostTermModel.class,
+            PostSyncStateModel.class,
             CommentModel.class,
             TaxonomyModel.class,
             TermModel.class,
             HTTPAuthModel.class
     };
 
+    // Indexes matching the lookups and sort orders of the *SqlUtils queries, created with their table
+    private static final Map<Class, List<String[]>> INDEXES = new HashMap<>();
+    static {
+        addIndex(SiteModel.class, "SITE_ID");
+        addIndex(SiteModel.class, "URL");
+        addIndex(SiteModel.class, "XMLRPC_URL");
+        addIndex(MediaModel.class, "LOCAL_SITE_ID", "MEDIA_ID", "UPLOAD_DATE");
+        addIndex(MediaModel.class, "LOCAL_SITE_ID", "UPLOAD_DATE");
+        addIndex(MediaModel.class, "POST_ID", "UPLOAD_DATE");
+        addIndex(PostFormatModel.class, "SITE_ID");
+        addIndex(PostModel.class, "LOCAL_SITE_ID", "REMOTE_POST_ID");
+        addIndex(PostModel.class, "LOCAL_SITE_ID", "IS_PAGE", "IS_LOCAL_DRAFT", "DATE_CREATED", "REMOTE_POST_ID");
+        addIndex(PostTermModel.class, "LOCAL_POST_ID");
+        addIndex(PostTermModel.class, "LOCAL_SITE_ID", "TAXONOMY", "REMOTE_TERM_ID");
+        addIndex(PostTermModel.class, "LOCAL_SITE_ID", "TAXONOMY", "TERM_NAME");
+        addIndex(CommentModel.class, "LOCAL_SITE_ID", "REMOTE_COMMENT_ID");
+        addIndex(CommentModel.class, "LOCAL_SITE_ID", "DATE_PUBLISHED");
+        addIndex(TermModel.class, "LOCAL_SITE_ID", "TAXONOMY", "REMOTE_TERM_ID");
+        addIndex(TermModel.class, "LOCAL_SITE_ID", "TAXONOMY", "NAME");
+    }
+
+    private static void addIndex(Class table, String... columns) {
+        List<String[]> indexes = INDEXES.get(table);
+        if (indexes == null) {
+            indexes = new ArrayList<>();
+            INDEXES.put(table, indexes);
+        }
+        indexes.add(columns);
+    }
+
     @Override
     public int getDbVersion() {
-        return 6;
+        return 12;
     }
 
     @Override
@@ -50,10 +91,42 @@ public class WellSqlConfig extends DefaultWellConfig {
         return "wp-fluxc";
     }
 
+    /**
+     * Opens the database in write-ahead logging mode. Reads outside of transactions then use a pool of read
+     * connections, and see the last committed data instead of waiting for the running write transaction (site sync,
+     * bulk post updates...) to finish. Writes are still made one at a time.
+     *
+     * Must be set before {@link WellSql#init}, it's applied when the database is opened. Requires API 16, the
+     * database keeps the default rollback journal on older versions.
+     */
+    public WellSqlConfig setWriteAheadLoggingEnabled(boolean enabled) {
+        mWriteAheadLoggingEnabled = enabled;
+        return this;
+    }
+
+    public boolean isWriteAheadLoggingEnabled() {
+        return mWriteAheadLoggingEnabled;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db, WellTableManager helper) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        // The journal mode is stored in the database file, so it's also set back when write-ahead logging is disabled
+        if (mWriteAheadLoggingEnabled) {
+            db.enableWriteAheadLogging();
+        } else {
+            db.disableWriteAheadLogging();
+        }
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db, WellTableManager helper) {
         for (Class table : TABLES) {
             helper.createTable(table);
+            createIndexes(db, table);
+            createSearchIndex(db, table);
         }
     }
 
@@ -84,6 +157,43 @@ public class WellSqlConfig extends DefaultWellConfig {
                 AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
                 db.execSQL("alter table SiteModel add HAS_FREE_PLAN boolean;");
                 oldVersion++;
+            case 6:
+                AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
+                for (Class table : TABLES) {
+                    // PostTermModel doesn't exist yet, it's created with its indexes in version 10
+                    if (table != PostTermModel.class) {
+                        createIndexes(db, table);
+                    }
+                }
+                oldVersion++;
+            case 7:
+                AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
+                db.execSQL("alter table PostModel add DATE_MODIFIED text;");
+                oldVersion++;
+            case 8:
+                AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
+                for (Class table : TABLES) {
+                    createSearchIndex(db, table);
+                }
+                oldVersion++;
+            case 9:
+                AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
+                helper.createTable(PostTermModel.class);
+                createIndexes(db, PostTermModel.class);
+                createIndexes(db, TermModel.class);
+                PostTermSqlUtils.insertTermsForAllPosts(db);
+                oldVersion++;
+            case 10:
+                AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
+                // Empty: the next fetch of each site's posts is a full one, and sets the sync mark
+                helper.createTable(PostSyncStateModel.class);
+                oldVersion++;
+            case 11:
+                AppLog.d(T.DB, "Migrating to version " + (oldVersion + 1));
+                // Replaced by an index also sorting on REMOTE_POST_ID, the tie-breaker of the uploaded posts pages
+                db.execSQL("DROP INDEX IF EXISTS PostModel_LOCAL_SITE_ID_IS_PAGE_IS_LOCAL_DRAFT_DATE_CREATED;");
+                createIndexes(db, PostModel.class);
+                oldVersion++;
         }
         db.setTransactionSuccessful();
         db.endTransaction();
@@ -103,6 +213,51 @@ public class WellSqlConfig extends DefaultWellConfig {
             TableClass table = getTable(clazz);
             db.execSQL("DROP TABLE IF EXISTS " + table.getTableName());
             db.execSQL(table.createStatement());
+            createIndexes(db, clazz);
+            createSearchIndex(db, clazz);
+            onTableReset(clazz);
+        }
+    }
+
+    /**
+     * Drops what's kept in memory about the given table's rows, once it was dropped and created again: the site cache,
+     * the response validators, and the live queries and other {@link TableChangeNotifier} listeners (e.g. the HTTP
+     * auth credentials index).
+     */
+    protected void onTableReset(Class table) {
+        if (table == SiteModel.class) {
+            SiteSqlUtils.getSiteCache().clear();
+        }
+        TableChangeNotifier.notifyLocalDeletion();
+        TableChangeNotifier.notifyTableChanged(table, TableChangeNotifier.ALL_SITES);
+    }
+
+    /**
+     * Create the indexes (and triggers) of the given table, if they don't exist yet
+     */
+    protected void createIndexes(SQLiteDatabase db, Class table) {
+        if (table == PostTermModel.class) {
+            // Deletes the terms of deleted posts
+            db.execSQL(PostTermSqlUtils.DELETE_POST_TRIGGER);
+        }
+        List<String[]> indexes = INDEXES.get(table);
+        if (indexes == null) {
+            return;
+        }
+        String tableName = getTable(table).getTableName();
+        for (String[] columns : indexes) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS " + tableName + "_" + TextUtils.join("_", columns)
+                    + " ON " + tableName + " (" + TextUtils.join(", ", columns) + ");");
+        }
+    }
+
+    /**
+     * Create (or rebuild) the full-text search index of the given table, if it has one
+     */
+    protected void createSearchIndex(SQLiteDatabase db, Class table) {
+        SearchIndex searchIndex = SearchIndex.forTable(table);
+        if (searchIndex != null) {
+            searchIndex.create(db);
         }
     }
 }
@@ -442,6 +442,13 @@ public class AccountStore extends Store {
 
     private void handleFetchSettingsCompleted(AccountRestPayload payload) {
         if (!checkError(payload, "Error fetching Account Settings via REST API (/me/settings)")) {
+            if (payload.notModified) {
+                // The stored settings are up to date
+                OnAccountChanged accountChanged = new OnAccountChanged();
+                accountChanged.causeOfChange = AccountAction.FETCH_SETTINGS;
+                emitChange(accountChanged);
+                return;
+            }
             mAccount.copyAccountSettingsAttributes(payload.account);
             updateDefaultAccount(mAccount, AccountAction.FETCH_SETTINGS);
         } else {
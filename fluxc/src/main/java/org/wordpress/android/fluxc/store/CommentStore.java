@@ -9,7 +9,11 @@ import com.yarolegovich.wellsql.SelectQuery.Order;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.LiveQuery;
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
 import org.wordpress.android.fluxc.action.CommentAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
@@ -19,6 +23,7 @@ import org.wordpress.android.fluxc.model.PostModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.comment.CommentRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.comment.CommentXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.ChangeSet;
 import org.wordpress.android.fluxc.persistence.CommentSqlUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
@@ -26,12 +31,14 @@ import org.wordpress.android.util.DateTimeUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 
 public class CommentStore extends Store {
     CommentRestClient mCommentRestClient;
     CommentXMLRPCClient mCommentXMLRPCClient;
+    private final InFlightRequests mInFlightFetches = new InFlightRequests();
 
     // Payloads
 
@@ -92,14 +99,16 @@ public class CommentStore extends Store {
         @NonNull public final SiteModel site;
         public final int number;
         public final int offset;
+        @NonNull public final CommentStatus status;
         public CommentError error;
 
         public FetchCommentsResponsePayload(@NonNull List<CommentModel> comments, @NonNull SiteModel site, int number,
-                                            int offset) {
+                                            int offset, @NonNull CommentStatus status) {
             this.comments = comments;
             this.site = site;
             this.number = number;
             this.offset = offset;
+            this.status = status;
         }
     }
 
@@ -158,21 +167,39 @@ public class CommentStore extends Store {
 
     // Actions
 
-    public static class OnCommentChanged extends OnChanged<CommentError> {
+    public static class OnCommentChanged extends OnChanged<CommentError> implements Coalescable<OnCommentChanged> {
         public int rowsAffected;
         public CommentAction causeOfChange;
         public List<Integer> changedCommentsLocalIds = new ArrayList<>();
+        // Set when a fresh fetch was reconciled with the stored comments
+        public ChangeSet changeSet;
         public OnCommentChanged(int rowsAffected) {
             this.rowsAffected = rowsAffected;
         }
+
+        @Override
+        public Object getCoalescingKey() {
+            return causeOfChange;
+        }
+
+        @Override
+        public void coalesce(OnCommentChanged newerEvent) {
+            rowsAffected += newerEvent.rowsAffected;
+            changedCommentsLocalIds.addAll(newerEvent.changedCommentsLocalIds);
+            if (changeSet == null) {
+                changeSet = newerEvent.changeSet;
+            } else if (newerEvent.changeSet != null) {
+                changeSet.addAll(newerEvent.changeSet);
+            }
+        }
     }
 
     // Constructor
 
     @Inject
-    public CommentStore(Dispatcher dispatcher, CommentRestClient commentRestClient, CommentXMLRPCClient
-            commentXMLRPCClient) {
-        super(dispatcher);
+    public CommentStore(Dispatcher dispatcher, QueryExecutor queryExecutor, CommentRestClient commentRestClient,
+                        CommentXMLRPCClient commentXMLRPCClient) {
+        super(dispatcher, queryExecutor);
         mCommentRestClient = commentRestClient;
         mCommentXMLRPCClient = commentXMLRPCClient;
     }
@@ -194,6 +221,39 @@ public class CommentStore extends Store {
         return CommentSqlUtils.getCommentsForSite(site, order, statuses);
     }
 
+    /**
+     * Asynchronous {@link #getCommentsForSite(SiteModel, boolean, CommentStatus...)}, the comments are delivered to
+     * the callback on the main thread.
+     */
+    public QueryFuture<List<CommentModel>> getCommentsForSiteAsync(final SiteModel site,
+                                                                   final boolean orderByDateAscending,
+                                                                   QueryCallback<List<CommentModel>> callback,
+                                                                   final CommentStatus... statuses) {
+        return executeQuery(new Callable<List<CommentModel>>() {
+            @Override
+            public List<CommentModel> call() {
+                return getCommentsForSite(site, orderByDateAscending, statuses);
+            }
+        }, callback);
+    }
+
+    /**
+     * Live {@link #getCommentsForSite(SiteModel, boolean, CommentStatus...)}, the comments are delivered to the
+     * callback on the main thread, then again each time the site's comments change. The returned query must be closed
+     * when the comments aren't needed anymore.
+     */
+    public LiveQuery<List<CommentModel>> observeCommentsForSite(final SiteModel site,
+                                                                final boolean orderByDateAscending,
+                                                                QueryCallback<List<CommentModel>> callback,
+                                                                final CommentStatus... statuses) {
+        return observeQuery(new Callable<List<CommentModel>>() {
+            @Override
+            public List<CommentModel> call() {
+                return getCommentsForSite(site, orderByDateAscending, statuses);
+            }
+        }, callback, site.getId(), CommentModel.class);
+    }
+
     public int getNumberOfCommentsForSite(SiteModel site, CommentStatus... statuses) {
         return CommentSqlUtils.getCommentsCountForSite(site, statuses);
     }
@@ -398,6 +458,12 @@ public class CommentStore extends Store {
     }
 
     private void fetchComments(FetchCommentsPayload payload) {
+        if (!mInFlightFetches.start(CommentAction.FETCH_COMMENTS, payload.site.getId(), payload.number,
+                payload.offset, payload.status)) {
+            AppLog.d(T.API, "Same comments fetch already in progress for this site, waiting for its response");
+            mDispatcher.onRequestDropped(CommentAction.FETCH_COMMENTS, payload);
+            return;
+        }
         if (payload.site.isUsingWpComRestApi()) {
             mCommentRestClient.fetchComments(payload.site, payload.number, payload.offset, payload.status);
         } else {
@@ -406,19 +472,26 @@ public class CommentStore extends Store {
     }
 
     private void handleFetchCommentsResponse(FetchCommentsResponsePayload payload) {
+        mInFlightFetches.finish(CommentAction.FETCH_COMMENTS, payload.site.getId(), payload.number, payload.offset,
+                payload.status);
+
         int rowsAffected = 0;
         OnCommentChanged event = new OnCommentChanged(rowsAffected);
         if (!payload.isError()) {
-            // Clear existing comments in case some were deleted on the server. Only remove them if we request the
-            // first comments (offset == 0).
+            // Reconcile the stored comments with the fetched ones in case some were deleted on the server. Only
+            // when we request the first comments (offset == 0).
             if (payload.offset == 0) {
-                CommentSqlUtils.removeComments(payload.site);
+                event.changeSet = CommentSqlUtils.reconcileCommentsForSite(payload.site, payload.comments);
+                rowsAffected = event.changeSet.getRowsAffected();
+            } else {
+                for (CommentModel comment : payload.comments) {
+                    rowsAffected += CommentSqlUtils.insertOrUpdateComment(comment);
+                }
             }
-
             for (CommentModel comment : payload.comments) {
-                rowsAffected += CommentSqlUtils.insertOrUpdateComment(comment);
                 event.changedCommentsLocalIds.add(comment.getId());
             }
+            event.rowsAffected = rowsAffected;
         }
         event.causeOfChange = CommentAction.FETCH_COMMENTS;
         event.error = payload.error;
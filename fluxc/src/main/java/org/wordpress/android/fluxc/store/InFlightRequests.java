@@ -0,0 +1,38 @@
+package org.wordpress.android.fluxc.store;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the fetch requests a store is waiting for, so an identical fetch dispatched while one is in flight shares
+ * its response (one network call, one database write, one OnChanged event) instead of being sent again.
+ *
+ * A request is identified by its key parts, e.g. the action type, the local site id and the paging parameters.
+ * The response handler must call {@link #finish(Object...)} with the same key parts, error responses included.
+ */
+class InFlightRequests {
+    // Past this delay the request is considered lost (e.g. an exception in a network client) and can be sent again
+    private static final long EXPIRATION_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final ConcurrentMap<List<Object>, Long> mStartTimes = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if the request must be sent, false if an identical request is already in flight
+     */
+    boolean start(Object... keyParts) {
+        List<Object> key = Arrays.asList(keyParts);
+        long now = System.nanoTime();
+        Long startTime = mStartTimes.putIfAbsent(key, now);
+        if (startTime == null) {
+            return true;
+        }
+        return now - startTime > EXPIRATION_NANOS && mStartTimes.replace(key, startTime, now);
+    }
+
+    void finish(Object... keyParts) {
+        mStartTimes.remove(Arrays.asList(keyParts));
+    }
+}
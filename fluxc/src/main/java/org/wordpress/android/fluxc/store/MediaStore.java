@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.store;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.wellsql.generated.MediaModelTable;
 import com.yarolegovich.wellsql.WellCursor;
@@ -8,7 +9,11 @@ import com.yarolegovich.wellsql.WellCursor;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.LiveQuery;
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
 import org.wordpress.android.fluxc.action.MediaAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
@@ -19,11 +24,15 @@ import org.wordpress.android.fluxc.network.BaseRequest;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody;
 import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.media.MediaXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.ChangeSet;
 import org.wordpress.android.fluxc.persistence.MediaSqlUtils;
 import org.wordpress.android.util.AppLog;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -79,6 +88,8 @@ public class MediaStore extends Store {
         public List<MediaModel> mediaList;
         public boolean loadedMore;
         public boolean canLoadMore;
+        // Cursor to the page following this one, if the API returned one (WP.com REST API only)
+        public String nextPageHandle;
         public FetchMediaListResponsePayload(SiteModel site, @NonNull List<MediaModel> mediaList, boolean loadedMore,
                                              boolean canLoadMore) {
             this.site = site;
@@ -92,6 +103,11 @@ public class MediaStore extends Store {
             this.site = site;
             this.error = error;
         }
+
+        public FetchMediaListResponsePayload(SiteModel site, MediaError error, boolean loadedMore) {
+            this(site, error);
+            this.loadedMore = loadedMore;
+        }
     }
 
     /**
@@ -153,6 +169,8 @@ public class MediaStore extends Store {
     public static class OnMediaListFetched extends OnChanged<MediaError> {
         public SiteModel site;
         public boolean canLoadMore;
+        // Set when a fresh fetch was reconciled with the stored media
+        public ChangeSet changeSet;
         public OnMediaListFetched(SiteModel site, boolean canLoadMore) {
             this.site = site;
             this.canLoadMore = canLoadMore;
@@ -163,7 +181,7 @@ public class MediaStore extends Store {
         }
     }
 
-    public static class OnMediaUploaded extends OnChanged<MediaError> {
+    public static class OnMediaUploaded extends OnChanged<MediaError> implements Coalescable<OnMediaUploaded> {
         public MediaModel media;
         public float progress;
         public boolean completed;
@@ -174,6 +192,23 @@ public class MediaStore extends Store {
             this.completed = completed;
             this.canceled = canceled;
         }
+
+        /**
+         * Only progress updates are merged, completed and canceled uploads are delivered right away.
+         */
+        @Override
+        public Object getCoalescingKey() {
+            if (media == null || completed || canceled) {
+                return null;
+            }
+            return media.getId();
+        }
+
+        @Override
+        public void coalesce(OnMediaUploaded newerEvent) {
+            media = newerEvent.media;
+            progress = newerEvent.progress;
+        }
     }
 
     //
@@ -228,10 +263,14 @@ public class MediaStore extends Store {
 
     private MediaRestClient mMediaRestClient;
     private MediaXMLRPCClient mMediaXmlrpcClient;
+    private final InFlightRequests mInFlightFetches = new InFlightRequests();
+    // Cursors to the next page of each site's media, by local site id
+    private final Map<Integer, String> mNextPageHandles = new ConcurrentHashMap<>();
 
     @Inject
-    public MediaStore(Dispatcher dispatcher, MediaRestClient restClient, MediaXMLRPCClient xmlrpcClient) {
-        super(dispatcher);
+    public MediaStore(Dispatcher dispatcher, QueryExecutor queryExecutor, MediaRestClient restClient,
+                      MediaXMLRPCClient xmlrpcClient) {
+        super(dispatcher, queryExecutor);
         mMediaRestClient = restClient;
         mMediaXmlrpcClient = xmlrpcClient;
     }
@@ -318,10 +357,31 @@ public class MediaStore extends Store {
         return MediaSqlUtils.getAllSiteMedia(siteModel);
     }
 
+    /**
+     * Asynchronous {@link #getAllSiteMedia(SiteModel)}, the media are delivered to the callback on the main thread.
+     */
+    public QueryFuture<List<MediaModel>> getAllSiteMediaAsync(final SiteModel siteModel,
+                                                              QueryCallback<List<MediaModel>> callback) {
+        return executeQuery(new Callable<List<MediaModel>>() {
+            @Override
+            public List<MediaModel> call() {
+                return MediaSqlUtils.getAllSiteMedia(siteModel);
+            }
+        }, callback);
+    }
+
     public WellCursor<MediaModel> getAllSiteMediaAsCursor(SiteModel siteModel) {
         return MediaSqlUtils.getAllSiteMediaAsCursor(siteModel);
     }
 
+    /**
+     * Returns up to {@code limit} media of the given site, most recent first, following the given media. Use the last
+     * media of a page to get the next one, null to get the first one.
+     */
+    public List<MediaModel> getAllSiteMedia(SiteModel siteModel, @Nullable MediaModel lastMedia, int limit) {
+        return MediaSqlUtils.getAllSiteMedia(siteModel, lastMedia, limit);
+    }
+
     public static final List<String> NOT_DELETED_STATES = new ArrayList<>();
     static {
         NOT_DELETED_STATES.add(UploadState.DELETE.toString());
@@ -335,6 +395,21 @@ public class MediaStore extends Store {
         return MediaSqlUtils.getMediaWithStatesAsCursor(site, NOT_DELETED_STATES);
     }
 
+    /**
+     * Returns the media of the given site not deleted locally, then again each time the site's media change. The
+     * media are delivered to the callback on the main thread, and the returned query must be closed when they aren't
+     * needed anymore.
+     */
+    public LiveQuery<List<MediaModel>> observeNotDeletedSiteMedia(final SiteModel site,
+                                                                  QueryCallback<List<MediaModel>> callback) {
+        return observeQuery(new Callable<List<MediaModel>>() {
+            @Override
+            public List<MediaModel> call() {
+                return MediaSqlUtils.getMediaWithStates(site, NOT_DELETED_STATES);
+            }
+        }, callback, site.getId(), MediaModel.class);
+    }
+
     public WellCursor<MediaModel> getNotDeletedSiteImagesAsCursor(SiteModel site) {
         return MediaSqlUtils.getImagesWithStatesAsCursor(site, NOT_DELETED_STATES);
     }
@@ -344,7 +419,7 @@ public class MediaStore extends Store {
     }
 
     public int getSiteMediaCount(SiteModel siteModel) {
-        return getAllSiteMedia(siteModel).size();
+        return MediaSqlUtils.getAllSiteMediaCount(siteModel);
     }
 
     public boolean hasSiteMediaWithId(SiteModel siteModel, long mediaId) {
@@ -377,7 +452,7 @@ public class MediaStore extends Store {
     }
 
     public int getSiteImageCount(SiteModel siteModel) {
-        return getSiteImages(siteModel).size();
+        return MediaSqlUtils.getSiteImagesCount(siteModel);
     }
 
     public List<MediaModel> getSiteImagesExcludingIds(SiteModel siteModel, List<Long> filter) {
@@ -397,7 +472,7 @@ public class MediaStore extends Store {
     }
 
     public int getUnattachedSiteMediaCount(SiteModel siteModel) {
-        return getUnattachedSiteMedia(siteModel).size();
+        return MediaSqlUtils.matchSiteMediaCount(siteModel, MediaModelTable.POST_ID, 0);
     }
 
     public List<MediaModel> getLocalSiteMedia(SiteModel siteModel) {
@@ -424,6 +499,14 @@ public class MediaStore extends Store {
         return MediaSqlUtils.searchSiteMediaAsCursor(siteModel, MediaModelTable.TITLE, titleSearch);
     }
 
+    /**
+     * Returns the site's media with a title, caption or file name containing all the words of the search string,
+     * best matches first.
+     */
+    public List<MediaModel> searchSiteMedia(SiteModel siteModel, String searchString) {
+        return MediaSqlUtils.searchSiteMedia(siteModel, searchString);
+    }
+
     public MediaModel getPostMediaWithPath(long postId, String filePath) {
         List<MediaModel> media = MediaSqlUtils.matchPostMedia(postId, MediaModelTable.FILE_PATH, filePath);
         return media.size() > 0 ? media.get(0) : null;
@@ -522,13 +605,28 @@ public class MediaStore extends Store {
 
     private void performFetchMediaList(FetchMediaListPayload payload) {
         int offset = 0;
+        String pageHandle = null;
         if (payload.loadMore) {
-            List<String> list = new ArrayList<>();
-            list.add(UploadState.UPLOADED.toString());
-            offset = MediaSqlUtils.getMediaWithStates(payload.site, list).size();
+            // Page from where the previous page ended if we know it, else from the number of media we have
+            pageHandle = mNextPageHandles.get(payload.site.getId());
+            if (pageHandle == null) {
+                List<String> list = new ArrayList<>();
+                list.add(UploadState.UPLOADED.toString());
+                offset = MediaSqlUtils.getMediaCountWithStates(payload.site, list);
+            }
+        }
+        if (!mInFlightFetches.start(MediaAction.FETCH_MEDIA_LIST, payload.site.getId(),
+                offset > 0 || pageHandle != null)) {
+            AppLog.d(AppLog.T.MEDIA, "Media list fetch already in progress for this site, waiting for its response");
+            mDispatcher.onRequestDropped(MediaAction.FETCH_MEDIA_LIST, payload);
+            return;
         }
         if (payload.site.isUsingWpComRestApi()) {
-            mMediaRestClient.fetchMediaList(payload.site, offset);
+            if (pageHandle != null) {
+                mMediaRestClient.fetchMediaList(payload.site, pageHandle);
+            } else {
+                mMediaRestClient.fetchMediaList(payload.site, offset);
+            }
         } else {
             mMediaXmlrpcClient.fetchMediaList(payload.site, offset);
         }
@@ -595,22 +693,34 @@ public class MediaStore extends Store {
     }
 
     private void handleMediaListFetched(@NonNull FetchMediaListResponsePayload payload) {
+        if (payload.site != null) {
+            mInFlightFetches.finish(MediaAction.FETCH_MEDIA_LIST, payload.site.getId(), payload.loadedMore);
+            if (!payload.isError()) {
+                if (payload.nextPageHandle == null) {
+                    mNextPageHandles.remove(payload.site.getId());
+                } else {
+                    mNextPageHandles.put(payload.site.getId(), payload.nextPageHandle);
+                }
+            }
+        }
+
         OnMediaListFetched onMediaListFetched;
 
         if (payload.isError()) {
             onMediaListFetched = new OnMediaListFetched(payload.site, payload.error);
         } else {
-            // Clear existing media if this is a fresh fetch (loadMore = false in the original request)
-            // This is the simplest way of keeping our local media in sync with remote media (in case of deletions)
-            if (!payload.loadedMore) {
-                MediaSqlUtils.deleteAllUploadedSiteMedia(payload.site);
-            }
-            if (!payload.mediaList.isEmpty()) {
+            // Reconcile the stored media with the fetched ones if this is a fresh fetch (loadMore = false in the
+            // original request), to keep our local media in sync with remote media (in case of deletions)
+            ChangeSet changeSet = null;
+            if (payload.loadedMore) {
                 for (MediaModel media : payload.mediaList) {
                     updateMedia(media, false);
                 }
+            } else {
+                changeSet = MediaSqlUtils.reconcileSiteMedia(payload.site, payload.mediaList);
             }
             onMediaListFetched = new OnMediaListFetched(payload.site, payload.canLoadMore);
+            onMediaListFetched.changeSet = changeSet;
         }
 
         emitChange(onMediaListFetched);
@@ -1,6 +1,8 @@
 package org.wordpress.android.fluxc.store;
 
+import android.database.Cursor;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.wellsql.generated.PostModelTable;
 import com.yarolegovich.wellsql.WellSql;
@@ -8,23 +10,34 @@ import com.yarolegovich.wellsql.WellSql;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.LiveQuery;
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
 import org.wordpress.android.fluxc.action.PostAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.model.PostSummary;
 import org.wordpress.android.fluxc.model.PostsModel;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.TermModel;
 import org.wordpress.android.fluxc.model.post.PostStatus;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.ChangeSet;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
+import org.wordpress.android.fluxc.persistence.PostTermSqlUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DateTimeUtils;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -43,6 +56,9 @@ public class PostStore extends Store {
     public static class FetchPostsPayload extends Payload {
         public SiteModel site;
         public boolean loadMore;
+        // Fetch the first page of posts even if the stored ones could be synced with only the posts modified since
+        // the last fetch, e.g. to catch the posts deleted permanently
+        public boolean fullSync;
 
         public FetchPostsPayload(SiteModel site) {
             this.site = site;
@@ -61,6 +77,10 @@ public class PostStore extends Store {
         public boolean isPages;
         public boolean loadedMore;
         public boolean canLoadMore;
+        // Set if only the posts modified after this date were fetched
+        public String modifiedAfter;
+        // Cursor to the page following this one, if the API returned one (WP.com REST API only)
+        public String nextPageHandle;
 
         public FetchPostsResponsePayload(PostsModel posts, SiteModel site, boolean isPages, boolean loadedMore,
                                          boolean canLoadMore) {
@@ -74,6 +94,13 @@ public class PostStore extends Store {
         public FetchPostsResponsePayload(PostError error) {
             this.error = error;
         }
+
+        public FetchPostsResponsePayload(PostError error, SiteModel site, boolean isPages, boolean loadedMore) {
+            this.error = error;
+            this.site = site;
+            this.isPages = isPages;
+            this.loadedMore = loadedMore;
+        }
     }
 
     public static class RemotePostPayload extends Payload {
@@ -115,10 +142,12 @@ public class PostStore extends Store {
     }
 
     // OnChanged events
-    public static class OnPostChanged extends OnChanged<PostError> {
+    public static class OnPostChanged extends OnChanged<PostError> implements Coalescable<OnPostChanged> {
         public int rowsAffected;
         public boolean canLoadMore;
         public PostAction causeOfChange;
+        // Set when a fresh fetch was reconciled with the stored posts
+        public ChangeSet changeSet;
 
         public OnPostChanged(int rowsAffected) {
             this.rowsAffected = rowsAffected;
@@ -128,6 +157,24 @@ public class PostStore extends Store {
             this.rowsAffected = rowsAffected;
             this.canLoadMore = canLoadMore;
         }
+
+        @Override
+        public Object getCoalescingKey() {
+            if (causeOfChange == null) {
+                return null;
+            }
+            return Arrays.asList(causeOfChange, canLoadMore);
+        }
+
+        @Override
+        public void coalesce(OnPostChanged newerEvent) {
+            rowsAffected += newerEvent.rowsAffected;
+            if (changeSet == null) {
+                changeSet = newerEvent.changeSet;
+            } else if (newerEvent.changeSet != null) {
+                changeSet.addAll(newerEvent.changeSet);
+            }
+        }
     }
 
     public static class OnPostUploaded extends OnChanged<PostError> {
@@ -159,10 +206,15 @@ public class PostStore extends Store {
 
     private final PostRestClient mPostRestClient;
     private final PostXMLRPCClient mPostXMLRPCClient;
+    private final InFlightRequests mInFlightFetches = new InFlightRequests();
+    // Cursors to the next page of each site's posts and pages, by local site id
+    private final Map<Integer, String> mNextPostsPageHandles = new ConcurrentHashMap<>();
+    private final Map<Integer, String> mNextPagesPageHandles = new ConcurrentHashMap<>();
 
     @Inject
-    public PostStore(Dispatcher dispatcher, PostRestClient postRestClient, PostXMLRPCClient postXMLRPCClient) {
-        super(dispatcher);
+    public PostStore(Dispatcher dispatcher, QueryExecutor queryExecutor, PostRestClient postRestClient,
+                     PostXMLRPCClient postXMLRPCClient) {
+        super(dispatcher, queryExecutor);
         mPostRestClient = postRestClient;
         mPostXMLRPCClient = postXMLRPCClient;
     }
@@ -204,6 +256,33 @@ public class PostStore extends Store {
         return PostSqlUtils.getPostsForSite(site, false);
     }
 
+    /**
+     * Asynchronous {@link #getPostsForSite(SiteModel)}, the posts are delivered to the callback on the main thread.
+     */
+    public QueryFuture<List<PostModel>> getPostsForSiteAsync(final SiteModel site,
+                                                             QueryCallback<List<PostModel>> callback) {
+        return executeQuery(new Callable<List<PostModel>>() {
+            @Override
+            public List<PostModel> call() {
+                return PostSqlUtils.getPostsForSite(site, false);
+            }
+        }, callback);
+    }
+
+    /**
+     * Live {@link #getPostsForSite(SiteModel)}, the posts are delivered to the callback on the main thread, then again
+     * each time the site's posts change. The returned query must be closed when the posts aren't needed anymore.
+     */
+    public LiveQuery<List<PostModel>> observePostsForSite(final SiteModel site,
+                                                          QueryCallback<List<PostModel>> callback) {
+        return observeQuery(new Callable<List<PostModel>>() {
+            @Override
+            public List<PostModel> call() {
+                return PostSqlUtils.getPostsForSite(site, false);
+            }
+        }, callback, site.getId(), PostModel.class);
+    }
+
     /**
      * Returns posts with given format in the store for the given site as a {@link PostModel} list.
      */
@@ -218,18 +297,97 @@ public class PostStore extends Store {
         return PostSqlUtils.getPostsForSite(site, true);
     }
 
+    /**
+     * Asynchronous {@link #getPagesForSite(SiteModel)}, the pages are delivered to the callback on the main thread.
+     */
+    public QueryFuture<List<PostModel>> getPagesForSiteAsync(final SiteModel site,
+                                                             QueryCallback<List<PostModel>> callback) {
+        return executeQuery(new Callable<List<PostModel>>() {
+            @Override
+            public List<PostModel> call() {
+                return PostSqlUtils.getPostsForSite(site, true);
+            }
+        }, callback);
+    }
+
+    /**
+     * Live {@link #getPagesForSite(SiteModel)}, the pages are delivered to the callback on the main thread, then again
+     * each time the site's posts change. The returned query must be closed when the pages aren't needed anymore.
+     */
+    public LiveQuery<List<PostModel>> observePagesForSite(final SiteModel site,
+                                                          QueryCallback<List<PostModel>> callback) {
+        return observeQuery(new Callable<List<PostModel>>() {
+            @Override
+            public List<PostModel> call() {
+                return PostSqlUtils.getPostsForSite(site, true);
+            }
+        }, callback, site.getId(), PostModel.class);
+    }
+
+    /**
+     * Returns the posts in the store for the given site with a title, excerpt or content containing all the words of
+     * the search string, best matches first.
+     */
+    public List<PostModel> searchPosts(SiteModel site, String searchString) {
+        return PostSqlUtils.searchPosts(site, false, searchString);
+    }
+
+    /**
+     * Returns the pages in the store for the given site with a title, excerpt or content containing all the words of
+     * the search string, best matches first.
+     */
+    public List<PostModel> searchPages(SiteModel site, String searchString) {
+        return PostSqlUtils.searchPosts(site, true, searchString);
+    }
+
+    /**
+     * Returns the posts and pages in the store with the given category or tag as a {@link PostModel} list.
+     */
+    public List<PostModel> getPostsForTerm(TermModel term) {
+        return PostTermSqlUtils.getPostsForTerm(term);
+    }
+
+    /**
+     * Returns summaries of all posts in the store for the given site, without their content.
+     */
+    public List<PostSummary> getPostSummariesForSite(SiteModel site) {
+        return PostSqlUtils.getPostSummariesForSite(site, false);
+    }
+
+    /**
+     * Returns summaries of all pages in the store for the given site, without their content.
+     */
+    public List<PostSummary> getPageSummariesForSite(SiteModel site) {
+        return PostSqlUtils.getPostSummariesForSite(site, true);
+    }
+
+    /**
+     * Returns summaries of all posts or pages in the store for the given site as a {@link Cursor}, rows can be read
+     * with {@link PostSqlUtils#getPostSummaryFromCursor(Cursor)}.
+     */
+    public Cursor getPostSummariesForSiteAsCursor(@NonNull SiteModel site, boolean pages) {
+        return PostSqlUtils.getPostSummariesForSiteAsCursor(site, pages);
+    }
+
+    /**
+     * Returns the content of the post with the given local id, or null if there is no such post.
+     */
+    public String getPostContentByLocalPostId(int localId) {
+        return PostSqlUtils.getPostContent(localId);
+    }
+
     /**
      * Returns the number of posts in the store for the given site.
      */
     public int getPostsCountForSite(SiteModel site) {
-        return getPostsForSite(site).size();
+        return PostSqlUtils.getPostsCountForSite(site, false);
     }
 
     /**
      * Returns the number of pages in the store for the given site.
      */
     public int getPagesCountForSite(SiteModel site) {
-        return getPagesForSite(site).size();
+        return PostSqlUtils.getPostsCountForSite(site, true);
     }
 
     /**
@@ -246,18 +404,34 @@ public class PostStore extends Store {
         return PostSqlUtils.getUploadedPostsForSite(site, true);
     }
 
+    /**
+     * Returns up to {@code limit} uploaded posts in the store for the given site, most recent first, following the
+     * given post. Use the last post of a page to get the next one, null to get the first one.
+     */
+    public List<PostModel> getUploadedPostsForSite(SiteModel site, @Nullable PostModel lastPost, int limit) {
+        return PostSqlUtils.getUploadedPostsForSite(site, false, lastPost, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} uploaded pages in the store for the given site, most recent first, following the
+     * given page. Use the last page of a page of results to get the next one, null to get the first one.
+     */
+    public List<PostModel> getUploadedPagesForSite(SiteModel site, @Nullable PostModel lastPage, int limit) {
+        return PostSqlUtils.getUploadedPostsForSite(site, true, lastPage, limit);
+    }
+
     /**
      * Returns the number of uploaded posts in the store for the given site.
      */
     public int getUploadedPostsCountForSite(SiteModel site) {
-        return getUploadedPostsForSite(site).size();
+        return PostSqlUtils.getUploadedPostsCountForSite(site, false);
     }
 
     /**
      * Returns the number of uploaded pages in the store for the given site.
      */
     public int getUploadedPagesCountForSite(SiteModel site) {
-        return getUploadedPagesForSite(site).size();
+        return PostSqlUtils.getUploadedPostsCountForSite(site, true);
     }
 
     /**
@@ -343,15 +517,69 @@ public class PostStore extends Store {
 
     private void fetchPosts(FetchPostsPayload payload, boolean pages) {
         int offset = 0;
+        String pageHandle = null;
         if (payload.loadMore) {
-            offset = PostSqlUtils.getUploadedPostsForSite(payload.site, pages).size();
+            // Page from where the previous page ended if we know it, else from the number of posts we have
+            pageHandle = getNextPageHandles(pages).get(payload.site.getId());
+            if (pageHandle == null) {
+                offset = PostSqlUtils.getUploadedPostsCountForSite(payload.site, pages);
+            }
         }
 
-        if (payload.site.isUsingWpComRestApi()) {
-            mPostRestClient.fetchPosts(payload.site, pages, DEFAULT_POST_STATUS_LIST, offset);
+        String lastModified = null;
+        if (!payload.loadMore && !payload.fullSync) {
+            lastModified = PostSqlUtils.getLastModifiedDate(payload.site, pages);
+        }
+
+        // A first page fetch (e.g. a full sync) isn't covered by a fetch of the modified posts, and is sent even if
+        // one is in flight
+        PostAction fetchType = pages ? PostAction.FETCH_PAGES : PostAction.FETCH_POSTS;
+        if (!mInFlightFetches.start(fetchType, payload.site.getId(), offset > 0 || pageHandle != null,
+                lastModified != null)) {
+            AppLog.d(AppLog.T.API, fetchType + " already in progress for this site, waiting for its response");
+            mDispatcher.onRequestDropped(fetchType, payload);
+            return;
+        }
+
+        if (pageHandle != null && payload.site.isUsingWpComRestApi()) {
+            mPostRestClient.fetchPosts(payload.site, pages, DEFAULT_POST_STATUS_LIST, pageHandle);
+            return;
+        }
+
+        if (lastModified != null) {
+            fetchModifiedPosts(payload.site, pages, lastModified);
+        } else {
+            fetchPostsPage(payload.site, pages, offset);
+        }
+    }
+
+    private void fetchPostsPage(SiteModel site, boolean pages, int offset) {
+        if (site.isUsingWpComRestApi()) {
+            mPostRestClient.fetchPosts(site, pages, DEFAULT_POST_STATUS_LIST, offset);
+        } else {
+            // TODO: check for WP-REST-API plugin and use it here
+            mPostXMLRPCClient.fetchPosts(site, pages, offset);
+        }
+    }
+
+    private void fetchModifiedPosts(SiteModel site, boolean pages, String lastModified) {
+        if (site.isUsingWpComRestApi()) {
+            mPostRestClient.fetchModifiedPosts(site, pages, DEFAULT_POST_STATUS_LIST, lastModified);
         } else {
             // TODO: check for WP-REST-API plugin and use it here
-            mPostXMLRPCClient.fetchPosts(payload.site, pages, offset);
+            mPostXMLRPCClient.fetchModifiedPosts(site, pages, lastModified);
+        }
+    }
+
+    private Map<Integer, String> getNextPageHandles(boolean pages) {
+        return pages ? mNextPagesPageHandles : mNextPostsPageHandles;
+    }
+
+    private void updateNextPageHandle(SiteModel site, boolean pages, String nextPageHandle) {
+        if (nextPageHandle == null) {
+            getNextPageHandles(pages).remove(site.getId());
+        } else {
+            getNextPageHandles(pages).put(site.getId(), nextPageHandle);
         }
     }
 
@@ -369,32 +597,56 @@ public class PostStore extends Store {
     }
 
     private void handleFetchPostsCompleted(FetchPostsResponsePayload payload) {
+        PostAction fetchType = payload.isPages ? PostAction.FETCH_PAGES : PostAction.FETCH_POSTS;
+        if (!payload.isError() && payload.modifiedAfter != null && payload.canLoadMore) {
+            // More posts were modified since the last fetch than a page holds: fetch the first page instead, unless
+            // one is already in flight. The loaded list then starts over, and so does the paging.
+            mInFlightFetches.finish(fetchType, payload.site.getId(), false, true);
+            updateNextPageHandle(payload.site, payload.isPages, null);
+            if (mInFlightFetches.start(fetchType, payload.site.getId(), false, false)) {
+                fetchPostsPage(payload.site, payload.isPages, 0);
+            }
+            return;
+        }
+
+        if (payload.site != null) {
+            mInFlightFetches.finish(fetchType, payload.site.getId(), payload.loadedMore,
+                    payload.modifiedAfter != null);
+            if (!payload.isError() && payload.modifiedAfter == null) {
+                // A delta fetch doesn't move the end of the loaded list
+                updateNextPageHandle(payload.site, payload.isPages, payload.nextPageHandle);
+            }
+        }
+
         OnPostChanged onPostChanged;
 
         if (payload.isError()) {
             onPostChanged = new OnPostChanged(0);
             onPostChanged.error = payload.error;
         } else {
-            // Clear existing uploading posts if this is a fresh fetch (loadMore = false in the original request)
-            // This is the simplest way of keeping our local posts in sync with remote posts (in case of deletions,
-            // or if the user manual changed some post IDs)
-            if (!payload.loadedMore) {
-                PostSqlUtils.deleteUploadedPostsForSite(payload.site, payload.isPages);
-            }
-
-            int rowsAffected = 0;
-            for (PostModel post : payload.posts.getPosts()) {
-                rowsAffected += PostSqlUtils.insertOrUpdatePostKeepingLocalChanges(post);
+            // Reconcile the stored uploaded posts with the fetched ones if this is a fresh fetch (loadMore = false in
+            // the original request), to keep our local posts in sync with remote posts (in case of deletions, or if
+            // the user manually changed some post IDs)
+            if (payload.loadedMore) {
+                int rowsAffected = PostSqlUtils.insertOrUpdatePostsKeepingLocalChanges(payload.posts);
+                onPostChanged = new OnPostChanged(rowsAffected, payload.canLoadMore);
+            } else if (payload.modifiedAfter != null) {
+                // Only the posts modified since the last fetch were returned, the other stored posts are up to date
+                ChangeSet changeSet = PostSqlUtils.applyModifiedPostsForSite(payload.site, payload.isPages,
+                        payload.posts);
+                boolean canLoadMore = PostSqlUtils.getUploadedPostsCountForSite(payload.site, payload.isPages)
+                        >= NUM_POSTS_PER_FETCH;
+                onPostChanged = new OnPostChanged(changeSet.getRowsAffected(), canLoadMore);
+                onPostChanged.changeSet = changeSet;
+            } else {
+                ChangeSet changeSet = PostSqlUtils.reconcileUploadedPostsForSite(payload.site, payload.isPages,
+                        payload.posts);
+                onPostChanged = new OnPostChanged(changeSet.getRowsAffected(), payload.canLoadMore);
+                onPostChanged.changeSet = changeSet;
             }
-
-            onPostChanged = new OnPostChanged(rowsAffected, payload.canLoadMore);
         }
 
-        if (payload.isPages) {
-            onPostChanged.causeOfChange = PostAction.FETCH_PAGES;
-        } else {
-            onPostChanged.causeOfChange = PostAction.FETCH_POSTS;
-        }
+        onPostChanged.causeOfChange = fetchType;
 
         emitChange(onPostChanged);
     }
@@ -11,7 +11,11 @@ import com.yarolegovich.wellsql.mapper.SelectMapper;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.LiveQuery;
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
 import org.wordpress.android.fluxc.action.SiteAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
@@ -26,11 +30,13 @@ import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.NewSit
 import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils.DuplicateSiteException;
+import org.wordpress.android.fluxc.persistence.TableChangeNotifier;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -67,6 +73,8 @@ public class SiteStore extends Store {
     public static class FetchedPostFormatsPayload extends Payload {
         public SiteModel site;
         public List<PostFormatModel> postFormats;
+        // The post formats didn't change since they were last fetched
+        public boolean notModified;
         public FetchedPostFormatsPayload(@NonNull SiteModel site, @NonNull List<PostFormatModel> postFormats) {
             this.site = site;
             this.postFormats = postFormats;
@@ -266,8 +274,9 @@ public class SiteStore extends Store {
     private SiteXMLRPCClient mSiteXMLRPCClient;
 
     @Inject
-    public SiteStore(Dispatcher dispatcher, SiteRestClient siteRestClient, SiteXMLRPCClient siteXMLRPCClient) {
-        super(dispatcher);
+    public SiteStore(Dispatcher dispatcher, QueryExecutor queryExecutor, SiteRestClient siteRestClient,
+                     SiteXMLRPCClient siteXMLRPCClient) {
+        super(dispatcher, queryExecutor);
         mSiteRestClient = siteRestClient;
         mSiteXMLRPCClient = siteXMLRPCClient;
     }
@@ -284,6 +293,31 @@ public class SiteStore extends Store {
         return WellSql.select(SiteModel.class).getAsModel();
     }
 
+    /**
+     * Asynchronous {@link #getSites()}, the sites are delivered to the callback on the main thread.
+     */
+    public QueryFuture<List<SiteModel>> getSitesAsync(QueryCallback<List<SiteModel>> callback) {
+        return executeQuery(new Callable<List<SiteModel>>() {
+            @Override
+            public List<SiteModel> call() {
+                return getSites();
+            }
+        }, callback);
+    }
+
+    /**
+     * Live {@link #getSites()}, the sites are delivered to the callback on the main thread, then again each time a
+     * site changes. The returned query must be closed when the sites aren't needed anymore.
+     */
+    public LiveQuery<List<SiteModel>> observeSites(QueryCallback<List<SiteModel>> callback) {
+        return observeQuery(new Callable<List<SiteModel>>() {
+            @Override
+            public List<SiteModel> call() {
+                return getSites();
+            }
+        }, callback, TableChangeNotifier.ALL_SITES, SiteModel.class);
+    }
+
     /**
      * Returns all sites in the store as a {@link Cursor}.
      */
@@ -295,7 +329,7 @@ public class SiteStore extends Store {
      * Returns the number of sites of any kind in the store.
      */
     public int getSitesCount() {
-        return getSitesCursor().getCount();
+        return SiteSqlUtils.getSitesCount();
     }
 
     /**
@@ -309,18 +343,14 @@ public class SiteStore extends Store {
      * Obtains the site with the given (local) id and returns it as a {@link SiteModel}.
      */
     public SiteModel getSiteByLocalId(int id) {
-        List<SiteModel> result = SiteSqlUtils.getSitesWith(SiteModelTable.ID, id).getAsModel();
-        if (result.size() > 0) {
-            return result.get(0);
-        }
-        return null;
+        return SiteSqlUtils.getSiteByLocalId(id);
     }
 
     /**
      * Checks whether the store contains a site matching the given (local) id.
      */
     public boolean hasSiteWithLocalId(int id) {
-        return SiteSqlUtils.getSitesWith(SiteModelTable.ID, id).getAsCursor().getCount() > 0;
+        return SiteSqlUtils.getSitesCountWith(SiteModelTable.ID, id) > 0;
     }
 
     /**
@@ -341,14 +371,14 @@ public class SiteStore extends Store {
      * Returns the number of .COM and Jetpack sites in the store.
      */
     public int getWPComAndJetpackSitesCount() {
-        return SiteSqlUtils.getWPComAndJetpackSites().getAsCursor().getCount();
+        return SiteSqlUtils.getWPComAndJetpackSitesCount(false);
     }
 
     /**
      * Returns the number of .COM sites in the store.
      */
     public int getWPComSitesCount() {
-        return SiteSqlUtils.getSitesWith(SiteModelTable.IS_WPCOM, true).getAsCursor().getCount();
+        return SiteSqlUtils.getSitesCountWith(SiteModelTable.IS_WPCOM, true);
     }
 
     /**
@@ -367,6 +397,14 @@ public class SiteStore extends Store {
         return SiteSqlUtils.getWPComAndJetpackSitesByNameOrUrlMatching(searchString);
     }
 
+    /**
+     * Returns sites with a name or url containing all the words of the search string, best matches first.
+     */
+    @NonNull
+    public List<SiteModel> searchSites(@NonNull String searchString) {
+        return SiteSqlUtils.searchSites(searchString);
+    }
+
     /**
      * Checks whether the store contains at least one .COM site.
      */
@@ -385,7 +423,7 @@ public class SiteStore extends Store {
      * Returns the number of self-hosted sites (can't be Jetpack) in the store.
      */
     public int getSelfHostedSitesCount() {
-        return SiteSqlUtils.getSelfHostedSites().getAsCursor().getCount();
+        return SiteSqlUtils.getSelfHostedSitesCount();
     }
 
     /**
@@ -406,7 +444,7 @@ public class SiteStore extends Store {
      * Returns the number of Jetpack sites in the store.
      */
     public int getJetpackSitesCount() {
-        return SiteSqlUtils.getSitesWith(SiteModelTable.IS_JETPACK_CONNECTED, true).getAsCursor().getCount();
+        return SiteSqlUtils.getSitesCountWith(SiteModelTable.IS_JETPACK_CONNECTED, true);
     }
 
     /**
@@ -439,7 +477,7 @@ public class SiteStore extends Store {
      * Returns the number of visible sites. All self-hosted sites over XML-RPC are visible by default.
      */
     public int getVisibleSitesCount() {
-        return SiteSqlUtils.getSitesWith(SiteModelTable.IS_VISIBLE, true).getAsCursor().getCount();
+        return SiteSqlUtils.getSitesCountWith(SiteModelTable.IS_VISIBLE, true);
     }
 
     /**
@@ -460,7 +498,7 @@ public class SiteStore extends Store {
      * Returns the number of visible .COM sites.
      */
     public int getVisibleWPComAndJetpackSitesCount() {
-        return getVisibleWPComAndJetpackSites().size();
+        return SiteSqlUtils.getWPComAndJetpackSitesCount(true);
     }
 
     /**
@@ -480,24 +518,7 @@ public class SiteStore extends Store {
      * Given a (remote) site id, returns the corresponding (local) id.
      */
     public int getLocalIdForRemoteSiteId(long siteId) {
-        List<SiteModel> sites =  WellSql.select(SiteModel.class)
-                .where().beginGroup()
-                .equals(SiteModelTable.SITE_ID, siteId)
-                .or()
-                .equals(SiteModelTable.SELF_HOSTED_SITE_ID, siteId)
-                .endGroup().endWhere()
-                .getAsModel(new SelectMapper<SiteModel>() {
-                    @Override
-                    public SiteModel convert(Cursor cursor) {
-                        SiteModel siteModel = new SiteModel();
-                        siteModel.setId(cursor.getInt(cursor.getColumnIndex(SiteModelTable.ID)));
-                        return siteModel;
-                    }
-                });
-        if (sites.size() > 0) {
-            return sites.get(0).getId();
-        }
-        return 0;
+        return SiteSqlUtils.getLocalIdForRemoteSiteId(siteId);
     }
 
     /**
@@ -528,28 +549,15 @@ public class SiteStore extends Store {
      * sites.
      */
     public long getSiteIdForLocalId(int id) {
-        List<SiteModel> result =  WellSql.select(SiteModel.class)
-                .where().beginGroup()
-                .equals(SiteModelTable.ID, id)
-                .endGroup().endWhere()
-                .getAsModel(new SelectMapper<SiteModel>() {
-                    @Override
-                    public SiteModel convert(Cursor cursor) {
-                        SiteModel siteModel = new SiteModel();
-                        siteModel.setSiteId(cursor.getInt(cursor.getColumnIndex(SiteModelTable.SITE_ID)));
-                        siteModel.setSelfHostedSiteId(cursor.getLong(
-                                cursor.getColumnIndex(SiteModelTable.SELF_HOSTED_SITE_ID)));
-                        return siteModel;
-                    }
-                });
-        if (result.isEmpty()) {
+        SiteModel site = getSiteByLocalId(id);
+        if (site == null) {
             return 0;
         }
 
-        if (result.get(0).getSiteId() > 0) {
-            return result.get(0).getSiteId();
+        if (site.getSiteId() > 0) {
+            return site.getSiteId();
         } else {
-            return result.get(0).getSelfHostedSiteId();
+            return site.getSelfHostedSiteId();
         }
     }
 
@@ -577,13 +585,21 @@ public class SiteStore extends Store {
             return null;
         }
 
-        List<SiteModel> sites = SiteSqlUtils.getSitesWith(SiteModelTable.SITE_ID, siteId).getAsModel();
+        return SiteSqlUtils.getSiteBySiteId(siteId);
+    }
 
-        if (sites.isEmpty()) {
-            return null;
-        } else {
-            return sites.get(0);
-        }
+    /**
+     * Returns the number of site lookups (by local id or remote site id) served from memory.
+     */
+    public int getSiteCacheHitCount() {
+        return SiteSqlUtils.getSiteCache().getHitCount();
+    }
+
+    /**
+     * Returns the number of site lookups (by local id or remote site id) that had to query the database.
+     */
+    public int getSiteCacheMissCount() {
+        return SiteSqlUtils.getSiteCache().getMissCount();
     }
 
     public List<PostFormatModel> getPostFormats(SiteModel site) {
@@ -755,7 +771,7 @@ public class SiteStore extends Store {
         if (sitesModel.isError()) {
             // TODO: what kind of error could we get here?
             event.error = new SiteError(SiteErrorType.GENERIC_ERROR);
-        } else {
+        } else if (!sitesModel.isNotModified()) {
             UpdateSitesResult res = createOrUpdateSites(sitesModel);
             event.rowsAffected = res.rowsAffected;
             if (res.duplicateSiteFound) {
@@ -770,7 +786,7 @@ public class SiteStore extends Store {
         if (payload.isError()) {
             // TODO: what kind of error could we get here?
             event.error = new PostFormatsError(PostFormatsErrorType.GENERIC_ERROR);
-        } else {
+        } else if (!payload.notModified) {
             SiteSqlUtils.insertOrReplacePostFormats(payload.site, payload.postFormats);
         }
         emitChange(event);
@@ -1,13 +1,28 @@
 package org.wordpress.android.fluxc.store;
 
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.LiveQuery;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
 import org.wordpress.android.fluxc.annotations.action.Action;
 
+import java.util.concurrent.Callable;
+
 public abstract class Store {
     protected final Dispatcher mDispatcher;
+    private final QueryExecutor mQueryExecutor;
 
     Store(Dispatcher dispatcher) {
+        this(dispatcher, null);
+    }
+
+    /**
+     * @param queryExecutor runs the {@code *Async} and {@code observe*} variants of the getters
+     */
+    Store(Dispatcher dispatcher, QueryExecutor queryExecutor) {
         mDispatcher = dispatcher;
+        mQueryExecutor = queryExecutor;
         mDispatcher.register(this);
     }
 
@@ -21,8 +36,27 @@ public abstract class Store {
         }
     }
 
+    /**
+     * An {@link OnChanged} event the {@link Dispatcher} may merge with the following events of the same class and
+     * coalescing key when change coalescing is enabled (see {@link Dispatcher#setChangeCoalescingWindow(long)}).
+     */
+    public interface Coalescable<T extends OnChanged> {
+        /**
+         * @return the key identifying the events this one can be merged with, or null if it must be delivered as is
+         */
+        Object getCoalescingKey();
+
+        /**
+         * Merges a newer event with the same class and coalescing key into this one.
+         */
+        void coalesce(T newerEvent);
+    }
+
     /**
      * onAction should {@link Subscribe} with ASYNC {@link ThreadMode}.
+     * When the {@link Dispatcher} routes actions, it's called directly on the Dispatcher's executor, and only
+     * with the actions of the enums declaring this store in their
+     * {@link org.wordpress.android.fluxc.annotations.ActionEnum}.
      */
     public abstract void onAction(Action action);
     public abstract void onRegister();
@@ -30,4 +64,24 @@ public abstract class Store {
     protected void emitChange(OnChanged onChangedEvent) {
         mDispatcher.emitChange(onChangedEvent);
     }
+
+    /**
+     * Runs a read of the store on its {@link QueryExecutor}, for the {@code *Async} variants of the getters.
+     */
+    protected <T> QueryFuture<T> executeQuery(Callable<T> query, QueryCallback<T> callback) {
+        return mQueryExecutor.submit(query, callback);
+    }
+
+    /**
+     * Starts a {@link LiveQuery} on the {@link QueryExecutor} of the store, for the {@code observe*} variants of the
+     * getters.
+     *
+     * @param localSiteId the site whose rows the query reads, or
+     * {@link org.wordpress.android.fluxc.persistence.TableChangeNotifier#ALL_SITES}
+     * @param tables the tables the query reads
+     */
+    protected <T> LiveQuery<T> observeQuery(Callable<T> query, QueryCallback<T> callback, int localSiteId,
+                                            Class<?>... tables) {
+        return new LiveQuery<>(mQueryExecutor, query, callback, localSiteId, tables).start();
+    }
 }
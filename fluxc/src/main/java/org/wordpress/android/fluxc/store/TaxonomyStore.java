@@ -5,7 +5,11 @@ import android.support.annotation.NonNull;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.LiveQuery;
 import org.wordpress.android.fluxc.Payload;
+import org.wordpress.android.fluxc.QueryExecutor;
+import org.wordpress.android.fluxc.QueryExecutor.QueryCallback;
+import org.wordpress.android.fluxc.QueryExecutor.QueryFuture;
 import org.wordpress.android.fluxc.action.TaxonomyAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
@@ -16,10 +20,14 @@ import org.wordpress.android.fluxc.model.TermModel;
 import org.wordpress.android.fluxc.model.TermsModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.taxonomy.TaxonomyRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.taxonomy.TaxonomyXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.ChangeSet;
+import org.wordpress.android.fluxc.persistence.PostTermSqlUtils;
 import org.wordpress.android.fluxc.persistence.TaxonomySqlUtils;
 import org.wordpress.android.util.AppLog;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 
@@ -42,6 +50,8 @@ public class TaxonomyStore extends Store {
         public TermsModel terms;
         public SiteModel site;
         public String taxonomy;
+        // The terms didn't change since they were last fetched
+        public boolean notModified;
 
         public FetchTermsResponsePayload(TermsModel terms, SiteModel site, String taxonomy) {
             this.terms = terms;
@@ -79,6 +89,8 @@ public class TaxonomyStore extends Store {
         public int rowsAffected;
         public String taxonomyName;
         public TaxonomyAction causeOfChange;
+        // Set when a fetch was reconciled with the stored terms
+        public ChangeSet changeSet;
 
         public OnTaxonomyChanged(int rowsAffected, String taxonomyName) {
             this.rowsAffected = rowsAffected;
@@ -140,9 +152,9 @@ public class TaxonomyStore extends Store {
     private final TaxonomyXMLRPCClient mTaxonomyXMLRPCClient;
 
     @Inject
-    public TaxonomyStore(Dispatcher dispatcher, TaxonomyRestClient taxonomyRestClient,
+    public TaxonomyStore(Dispatcher dispatcher, QueryExecutor queryExecutor, TaxonomyRestClient taxonomyRestClient,
                          TaxonomyXMLRPCClient taxonomyXMLRPCClient) {
-        super(dispatcher);
+        super(dispatcher, queryExecutor);
         mTaxonomyRestClient = taxonomyRestClient;
         mTaxonomyXMLRPCClient = taxonomyXMLRPCClient;
     }
@@ -200,6 +212,35 @@ public class TaxonomyStore extends Store {
         return TaxonomySqlUtils.getTermsForSite(site, taxonomyName);
     }
 
+    /**
+     * Asynchronous {@link #getTermsForSite(SiteModel, String)}, the terms are delivered to the callback on the main
+     * thread.
+     */
+    public QueryFuture<List<TermModel>> getTermsForSiteAsync(final SiteModel site, final String taxonomyName,
+                                                             QueryCallback<List<TermModel>> callback) {
+        return executeQuery(new Callable<List<TermModel>>() {
+            @Override
+            public List<TermModel> call() {
+                return TaxonomySqlUtils.getTermsForSite(site, taxonomyName);
+            }
+        }, callback);
+    }
+
+    /**
+     * Live {@link #getTermsForSite(SiteModel, String)}, the terms are delivered to the callback on the main thread,
+     * then again each time the site's terms change. The returned query must be closed when the terms aren't needed
+     * anymore.
+     */
+    public LiveQuery<List<TermModel>> observeTermsForSite(final SiteModel site, final String taxonomyName,
+                                                          QueryCallback<List<TermModel>> callback) {
+        return observeQuery(new Callable<List<TermModel>>() {
+            @Override
+            public List<TermModel> call() {
+                return TaxonomySqlUtils.getTermsForSite(site, taxonomyName);
+            }
+        }, callback, site.getId(), TermModel.class);
+    }
+
     /**
      * Returns a category as a {@link TermModel} given its remote id.
      */
@@ -256,6 +297,14 @@ public class TaxonomyStore extends Store {
         return TaxonomySqlUtils.getTermsFromRemoteNameList(post.getTagNameList(), site, DEFAULT_TAXONOMY_TAG);
     }
 
+    /**
+     * Returns the stored terms of the given taxonomy (categories or tags) of several stored posts at once, as
+     * {@link TermModel} lists by local post id. Posts without any such term aren't in the map.
+     */
+    public Map<Integer, List<TermModel>> getTermsForPosts(List<PostModel> posts, String taxonomyName) {
+        return PostTermSqlUtils.getTermsForPosts(posts, taxonomyName);
+    }
+
     @Subscribe(threadMode = ThreadMode.ASYNC)
     @Override
     public void onAction(Action action) {
@@ -324,19 +373,18 @@ public class TaxonomyStore extends Store {
         if (payload.isError()) {
             onTaxonomyChanged = new OnTaxonomyChanged(0, payload.taxonomy);
             onTaxonomyChanged.error = payload.error;
+        } else if (payload.notModified) {
+            // The stored terms are up to date, there's nothing to reconcile
+            onTaxonomyChanged = new OnTaxonomyChanged(0, payload.taxonomy);
         } else {
-            // Clear existing terms for this taxonomy
-            // This is the simplest way of keeping our local terms in sync with their remote versions
-            // (in case of deletions,or if the user manually changed some term IDs)
+            // Reconcile the stored terms of this taxonomy with the fetched ones, to keep our local terms in sync with
+            // their remote versions (in case of deletions, or if the user manually changed some term IDs)
             // TODO: This may have to change when we support large numbers of terms and require multiple requests
-            TaxonomySqlUtils.clearTaxonomyForSite(payload.site, payload.taxonomy);
-
-            int rowsAffected = 0;
-            for (TermModel term : payload.terms.getTerms()) {
-                rowsAffected += TaxonomySqlUtils.insertOrUpdateTerm(term);
-            }
+            ChangeSet changeSet = TaxonomySqlUtils.reconcileTaxonomyForSite(payload.site, payload.taxonomy,
+                    payload.terms.getTerms());
 
-            onTaxonomyChanged = new OnTaxonomyChanged(rowsAffected, payload.taxonomy);
+            onTaxonomyChanged = new OnTaxonomyChanged(changeSet.getRowsAffected(), payload.taxonomy);
+            onTaxonomyChanged.changeSet = changeSet;
         }
 
         switch (payload.taxonomy) {
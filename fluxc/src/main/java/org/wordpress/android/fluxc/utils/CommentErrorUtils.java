@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.utils;
 import android.support.annotation.Nullable;
 
 import org.wordpress.android.fluxc.model.CommentModel;
+import org.wordpress.android.fluxc.model.CommentStatus;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
 import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType;
@@ -24,9 +25,10 @@ public class CommentErrorUtils {
     }
 
     public static FetchCommentsResponsePayload commentErrorToFetchCommentsPayload(BaseNetworkError error,
-                                                                                  SiteModel site) {
+                                                                                  SiteModel site, int number,
+                                                                                  int offset, CommentStatus status) {
         FetchCommentsResponsePayload payload = new FetchCommentsResponsePayload(new ArrayList<CommentModel>(), site,
-                0, 0);
+                number, offset, status);
         payload.error = new CommentError(genericToCommentError(error), getErrorMessage(error));
         return payload;
     }